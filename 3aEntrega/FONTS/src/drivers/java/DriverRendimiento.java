@@ -0,0 +1,1498 @@
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Analizador;
+import main.domain.analisis.BarridoK;
+import main.domain.analisis.CentroidesIncrementales;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.MatrizRespuestas;
+import main.domain.analisis.ResultadoClustering;
+import main.domain.analisis.algoritmo.CLARA;
+import main.domain.analisis.algoritmo.CLARANS;
+import main.domain.analisis.algoritmo.ClusteringJerarquico;
+import main.domain.analisis.algoritmo.CriterioConvergencia;
+import main.domain.analisis.algoritmo.Dendrograma;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansHamerly;
+import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.algoritmo.KMeansParalelo;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.analisis.evaluador.CalinskiHarabasz;
+import main.domain.analisis.evaluador.DaviesBouldinen;
+import main.domain.analisis.evaluador.MedidasCalidad;
+import main.domain.analisis.evaluador.Silhouette;
+import main.domain.analisis.evaluador.SilhouetteMuestreado;
+import main.domain.analisis.evaluador.SilhouetteSimplificada;
+import main.domain.analisis.inicializador.InicializadorKMeansParallel;
+import main.domain.analisis.inicializador.InicializadorKMeansPlusPlus;
+import main.domain.analisis.inicializador.InicializadorKMedoidsGreedy;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.exceptions.AmbosTextosSonVacios;
+import main.domain.exceptions.NumMaxIgualANumMin;
+import main.domain.exceptions.NumeroModalidadesMenorQueDos;
+import main.domain.exceptions.UnionEntreConjuntosDeOpcionesVacio;
+import main.domain.types.TDatos;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+import main.domain.types.edicion.DistanciaEdicionBitParalela;
+import main.domain.types.edicion.DistanciaEdicionDinamica;
+import main.domain.types.edicion.InterfazDistanciaEdicion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Driver de medición de rendimiento de los núcleos de distancia.
+ * <p>
+ * Cada prueba compara la implementación actual con la de referencia sobre los mismos datos
+ * (generados con semilla fija), comprueba que los resultados coinciden y muestra el tiempo medio
+ * por operación. Se puede ejecutar con menú o pasando el nombre de la prueba como argumento.
+ * </p>
+ */
+public class DriverRendimiento {
+    private static Scanner sc = new Scanner(System.in);
+
+    // Para colorear los mensajes
+    public static final String ANSI_RESET = "\u001B[0m";
+    public static final String ANSI_RED = "\u001B[31m";
+    public static final String ANSI_GREEN = "\u001B[32m";
+    public static final String ANSI_CYAN = "\u001B[36m";
+
+    private static final int CALENTAMIENTO = 5;
+    private static final int REPETICIONES = 10;
+
+    private static String rojo(String s) {
+        return ANSI_RED + s + ANSI_RESET;
+    }
+
+    private static String verde(String s) {
+        return ANSI_GREEN + s + ANSI_RESET;
+    }
+
+    private static String cyan(String s) {
+        return  ANSI_CYAN + s + ANSI_RESET;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            for (String prueba : args) ejecutar(prueba);
+            return;
+        }
+        boolean fin = false;
+        while (!fin) {
+            System.out.println();
+            System.out.println("¿Que quieres medir?");
+            System.out.println("1 - Distancia entre respuestas de opciones");
+            System.out.println("2 - Distancia de edición entre textos");
+            System.out.println("3 - Distancia entre respuestas con casos indefinidos");
+            System.out.println("4 - Recálculo de centroides entre iteraciones de K-Means");
+            System.out.println("5 - Centroide de respuestas de texto libre");
+            System.out.println("6 - K-Means secuencial y paralelo");
+            System.out.println("7 - K-Means con cotas (Elkan y Hamerly)");
+            System.out.println("8 - K-Medoids (FasterPAM)");
+            System.out.println("9 - K-Medoids por muestreo (CLARA y CLARANS)");
+            System.out.println("10 - Inicialización K-Means++ y K-Means||");
+            System.out.println("11 - Inicialización greedy de K-Medoids (BUILD y LAB)");
+            System.out.println("12 - Cálculo de k con el método del codo");
+            System.out.println("13 - Análisis con varias inicializaciones");
+            System.out.println("14 - Criterios de convergencia de K-Means");
+            System.out.println("15 - Coeficiente de Silhouette por bloques");
+            System.out.println("16 - Silhouette exacto y muestreado");
+            System.out.println("17 - Silhouette simplificado con las distancias de la asignación");
+            System.out.println("18 - Medidas de calidad en una sola pasada");
+            System.out.println("19 - Consultas sobre el resultado del clustering");
+            System.out.println("20 - Clustering jerárquico con la cadena de vecinos");
+            System.out.println("21 - Salir");
+            System.out.println();
+            while (!sc.hasNextInt()) {
+                sc.next(); // Consumir la entrada inválida
+            }
+            int seleccion = sc.nextInt();
+            sc.nextLine();
+            switch (seleccion) {
+                case 1:
+                    ejecutar("opciones");
+                    break;
+                case 2:
+                    ejecutar("texto");
+                    break;
+                case 3:
+                    ejecutar("indefinidas");
+                    break;
+                case 4:
+                    ejecutar("centroides");
+                    break;
+                case 5:
+                    ejecutar("palabras");
+                    break;
+                case 6:
+                    ejecutar("paralelo");
+                    break;
+                case 7:
+                    ejecutar("cotas");
+                    break;
+                case 8:
+                    ejecutar("kmedoids");
+                    break;
+                case 9:
+                    ejecutar("muestreo");
+                    break;
+                case 10:
+                    ejecutar("semillas");
+                    break;
+                case 11:
+                    ejecutar("build");
+                    break;
+                case 12:
+                    ejecutar("barrido");
+                    break;
+                case 13:
+                    ejecutar("reinicios");
+                    break;
+                case 14:
+                    ejecutar("convergencia");
+                    break;
+                case 15:
+                    ejecutar("silhouette");
+                    break;
+                case 16:
+                    ejecutar("silhouetteMuestreado");
+                    break;
+                case 17:
+                    ejecutar("silhouetteSimplificada");
+                    break;
+                case 18:
+                    ejecutar("medidas");
+                    break;
+                case 19:
+                    ejecutar("resultado");
+                    break;
+                case 20:
+                    ejecutar("jerarquico");
+                    break;
+                case 21:
+                    fin = true;
+                    break;
+                default:
+                    System.out.println(rojo("Opción no válida"));
+            }
+        }
+    }
+
+    private static void ejecutar(String prueba) {
+        switch (prueba) {
+            case "opciones":
+                medirOpciones();
+                break;
+            case "texto":
+                medirTexto();
+                break;
+            case "indefinidas":
+                medirIndefinidas();
+                break;
+            case "centroides":
+                medirCentroides();
+                break;
+            case "palabras":
+                medirPalabras();
+                break;
+            case "paralelo":
+                medirParalelo();
+                break;
+            case "cotas":
+                medirCotas();
+                break;
+            case "kmedoids":
+                medirKMedoids();
+                break;
+            case "muestreo":
+                medirMuestreo();
+                break;
+            case "semillas":
+                medirSemillas();
+                break;
+            case "build":
+                medirBuild();
+                break;
+            case "barrido":
+                medirBarrido();
+                break;
+            case "reinicios":
+                medirReinicios();
+                break;
+            case "convergencia":
+                medirConvergencia();
+                break;
+            case "silhouette":
+                medirSilhouette();
+                break;
+            case "silhouetteMuestreado":
+                medirSilhouetteMuestreado();
+                break;
+            case "silhouetteSimplificada":
+                medirSilhouetteSimplificada();
+                break;
+            case "medidas":
+                medirMedidas();
+                break;
+            case "resultado":
+                medirResultado();
+                break;
+            case "jerarquico":
+                medirJerarquico();
+                break;
+            default:
+                System.out.println(rojo("Prueba desconocida: " + prueba));
+        }
+    }
+
+    // Mide una operación: devuelve los nanosegundos medios por repetición tras el calentamiento
+    private static double medir(Runnable operacion) {
+        for (int i = 0; i < CALENTAMIENTO; ++i) operacion.run();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; ++i) operacion.run();
+        return (double) (System.nanoTime() - inicio) / REPETICIONES;
+    }
+
+    private static void informar(String nombre, double nsReferencia, double nsActual, long operaciones, boolean iguales) {
+        System.out.println(cyan(nombre));
+        System.out.printf("  referencia: %.2f ns/op%n", nsReferencia / operaciones);
+        System.out.printf("  actual:     %.2f ns/op%n", nsActual / operaciones);
+        System.out.printf("  aceleración: x%.2f%n", nsReferencia / nsActual);
+        System.out.println(iguales ? verde("  resultados idénticos") : rojo("  LOS RESULTADOS NO COINCIDEN"));
+    }
+
+    // ---------------------------------------------------------------- opciones
+
+    private static float[] resultadoReferencia;
+    private static float[] resultadoActual;
+
+    private static void medirOpciones() {
+        Random rnd = new Random(7);
+        int n = 2000;
+        int numOpciones = 40;
+        TDatosOpciones[] unica = new TDatosOpciones[n];
+        TDatosOpciones[] multiple = new TDatosOpciones[n];
+        for (int i = 0; i < n; ++i) {
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(numOpciones));
+            unica[i] = new TDatosOpciones(una, true, numOpciones);
+
+            ArrayList<Integer> varias = new ArrayList<>();
+            int elegidas = 2 + rnd.nextInt(6);
+            for (int e = 0; e < elegidas; ++e) varias.add(rnd.nextInt(numOpciones));
+            multiple[i] = new TDatosOpciones(varias, false, numOpciones);
+        }
+        compararOpciones("Opción única ordenada (tabla)", unica);
+        compararOpciones("Varias opciones (Jaccard con máscaras)", multiple);
+    }
+
+    private static void compararOpciones(String nombre, TDatosOpciones[] datos) {
+        int n = datos.length;
+        long operaciones = (long) n * n;
+        resultadoReferencia = new float[n];
+        resultadoActual = new float[n];
+
+        double nsReferencia = medir(() -> {
+            for (int i = 0; i < n; ++i) {
+                float suma = 0;
+                for (int j = 0; j < n; ++j) suma += distanciaOpcionesReferencia(datos[i], datos[j]);
+                resultadoReferencia[i] = suma;
+            }
+        });
+        double nsActual = medir(() -> {
+            for (int i = 0; i < n; ++i) {
+                float suma = 0;
+                for (int j = 0; j < n; ++j) suma += datos[i].calcularDistancia(datos[j]);
+                resultadoActual[i] = suma;
+            }
+        });
+        informar(nombre, nsReferencia, nsActual, operaciones,
+                Arrays.equals(resultadoReferencia, resultadoActual));
+    }
+
+    // Implementación original con conjuntos y valores empaquetados
+    private static Float distanciaOpcionesReferencia(TDatosOpciones a, TDatosOpciones b) {
+        ArrayList<Integer> conjuntoA = a.getIdOpciones();
+        ArrayList<Integer> conjuntoB = b.getIdOpciones();
+        if (conjuntoA.size() == 1 && conjuntoB.size() == 1) {
+            Integer modalidadA = conjuntoA.getFirst();
+            Integer modalidadB = conjuntoB.getFirst();
+            if (!a.isOrden()) return modalidadA.equals(modalidadB) ? 0f : 1f;
+            float diffAB = Math.abs(modalidadA - modalidadB);
+            return diffAB / (a.getNumOpciones() - 1);
+        }
+        TreeSet<Integer> interseccion = new TreeSet<>(conjuntoA);
+        interseccion.retainAll(conjuntoB);
+        TreeSet<Integer> union = new TreeSet<>(conjuntoA);
+        union.addAll(conjuntoB);
+        float i = interseccion.size();
+        float u = union.size();
+        return 1 - (i / u);
+    }
+
+    // ---------------------------------------------------------------- texto
+
+    private static void medirTexto() {
+        Random rnd = new Random(11);
+        String alfabeto = "abcdefghijklmnopqrstuvwxyzáéíóúñ     ";
+        compararTexto("Textos cortos (hasta 64 caracteres)", textos(rnd, alfabeto, 400, 10, 60));
+        compararTexto("Textos largos (por bloques)", textos(rnd, alfabeto, 120, 100, 400));
+    }
+
+    private static String[] textos(Random rnd, String alfabeto, int n, int minLongitud, int maxLongitud) {
+        String[] textos = new String[n];
+        for (int i = 0; i < n; ++i) {
+            int longitud = minLongitud + rnd.nextInt(maxLongitud - minLongitud + 1);
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0; c < longitud; ++c) sb.append(alfabeto.charAt(rnd.nextInt(alfabeto.length())));
+            textos[i] = sb.toString();
+        }
+        return textos;
+    }
+
+    private static void compararTexto(String nombre, String[] textos) {
+        int n = textos.length;
+        long operaciones = (long) n * n;
+        resultadoReferencia = new float[n];
+        double nsReferencia = medir(() -> {
+            for (int i = 0; i < n; ++i) {
+                int suma = 0;
+                for (int j = 0; j < n; ++j) suma += levDistReferencia(textos[i], textos[j]);
+                resultadoReferencia[i] = suma;
+            }
+        });
+
+        InterfazDistanciaEdicion[] motores = { new DistanciaEdicionDinamica(), new DistanciaEdicionBitParalela() };
+        for (InterfazDistanciaEdicion motor : motores) {
+            resultadoActual = new float[n];
+            double nsActual = medir(() -> {
+                for (int i = 0; i < n; ++i) {
+                    int suma = 0;
+                    for (int j = 0; j < n; ++j) suma += motor.distancia(textos[i], textos[j]);
+                    resultadoActual[i] = suma;
+                }
+            });
+            informar(nombre + " - " + motor.getClass().getSimpleName(), nsReferencia, nsActual, operaciones,
+                    Arrays.equals(resultadoReferencia, resultadoActual));
+        }
+    }
+
+    // Implementación original con la tabla completa de enteros empaquetados
+    private static int levDistReferencia(String strA, String strB) {
+        ArrayList<ArrayList<Integer>> E = new ArrayList<>();
+        int n = strA.length();
+        int m = strB.length();
+        for (int i = 0; i <= n; i++) {
+            ArrayList<Integer> row = new ArrayList<>();
+            for (int j = 0; j <= m; j++) row.add(0);
+            E.add(row);
+        }
+        for (int i = 0; i <= n; ++i) E.get(i).set(0, i);
+        for (int j = 0; j <= m; ++j) E.getFirst().set(j, j);
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= m; ++j) {
+                int delta = (strA.charAt(i - 1) != strB.charAt(j - 1)) ? 1 : 0;
+                int insert = E.get(i).get(j - 1) + 1;
+                int delete = E.get(i - 1).get(j) + 1;
+                int replace = E.get(i - 1).get(j - 1) + delta;
+                E.get(i).set(j, Math.min(insert, Math.min(delete, replace)));
+            }
+        }
+        return E.get(n).get(m);
+    }
+
+    // ---------------------------------------------------------------- indefinidas
+
+    private static void medirIndefinidas() {
+        Random rnd = new Random(13);
+        int n = 1000;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        RespuestaEncuesta[] respuestas = new RespuestaEncuesta[n];
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(11), 10, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+            ArrayList<Integer> varias = new ArrayList<>();
+            //algunas respuestas de varias opciones también quedan en blanco
+            if (rnd.nextInt(10) >= 3) varias.add(rnd.nextInt(8));
+            r.addRespuesta(3, new TDatosOpciones(varias, false, 8));
+            //el 30% de las respuestas de texto libre están vacías
+            r.addRespuesta(4, new TDatosString(rnd.nextInt(10) < 3 ? "" : textos[rnd.nextInt(textos.length)]));
+            respuestas[i] = r;
+        }
+
+        Comparador comp = new Comparador();
+        long operaciones = (long) n * n;
+        resultadoReferencia = new float[n];
+        resultadoActual = new float[n];
+        double nsReferencia = medir(() -> {
+            for (int i = 0; i < n; ++i) {
+                float suma = 0;
+                for (int j = 0; j < n; ++j) suma += distanciaConExcepciones(respuestas[i], respuestas[j]);
+                resultadoReferencia[i] = suma;
+            }
+        });
+        double nsActual = medir(() -> {
+            for (int i = 0; i < n; ++i) {
+                float suma = 0;
+                for (int j = 0; j < n; ++j) suma += comp.distancia(respuestas[i], respuestas[j]);
+                resultadoActual[i] = suma;
+            }
+        });
+        informar("Respuestas con un 30% de textos vacíos", nsReferencia, nsActual, operaciones,
+                Arrays.equals(resultadoReferencia, resultadoActual));
+    }
+
+    // Implementación original del Comparador, capturando las excepciones de los casos indefinidos
+    private static Float distanciaConExcepciones(RespuestaEncuesta r1, RespuestaEncuesta r2) {
+        Float suma = 0.f;
+        TreeMap<Integer, TDatos> datosR1 = r1.getDatosRespuesta();
+        TreeMap<Integer, TDatos> datosR2 = r2.getDatosRespuesta();
+        for (int i = 1; i <= datosR1.size(); i++) {
+            float dist;
+            try {
+                dist = datosR1.get(i).calcularDistancia(datosR2.get(i));
+            }
+            catch (AmbosTextosSonVacios | NumeroModalidadesMenorQueDos | NumMaxIgualANumMin |
+                   UnionEntreConjuntosDeOpcionesVacio e) {
+                dist = 0.0f;
+            }
+            suma += dist;
+        }
+        return suma / datosR1.size();
+    }
+
+    // ---------------------------------------------------------------- centroides
+
+    private static void medirCentroides() {
+        Random rnd = new Random(21);
+        int n = 5000;
+        int k = 8;
+        int iteraciones = 10;
+        String[] textos = {"me gusta mucho el servicio", "no lo sé", "bastante bien", "regular", "excelente servicio",
+                "la atención fue muy buena", "precio demasiado alto"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+            ArrayList<Integer> varias = new ArrayList<>();
+            for (int j = 1 + rnd.nextInt(3); j > 0; --j) varias.add(rnd.nextInt(8));
+            r.addRespuesta(3, new TDatosOpciones(varias, false, 8));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+
+        //asignaciones de cada iteración: al principio al azar y después cambia de cluster un 2% de las respuestas
+        int[][] asignaciones = new int[iteraciones][n];
+        for (int i = 0; i < n; ++i) asignaciones[0][i] = rnd.nextInt(k);
+        for (int it = 1; it < iteraciones; ++it) {
+            asignaciones[it] = asignaciones[it - 1].clone();
+            for (int j = 0; j < n / 50; ++j) asignaciones[it][rnd.nextInt(n)] = rnd.nextInt(k);
+        }
+
+        Comparador comp = new Comparador();
+        MatrizRespuestas matriz = MatrizRespuestas.compilar(respuestas);
+        ArrayList<RespuestaEncuesta> referencia = new ArrayList<>();
+        ArrayList<RespuestaEncuesta> actual = new ArrayList<>();
+        double nsReferencia = medir(() -> {
+            referencia.clear();
+            for (int it = 0; it < iteraciones; ++it) {
+                ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+                for (int c = 0; c < k; ++c) clusters.add(new ArrayList<>());
+                for (int i = 0; i < n; ++i) clusters.get(asignaciones[it][i]).add(respuestas.get(i));
+                for (ArrayList<RespuestaEncuesta> cluster : clusters) referencia.add(comp.calcularNuevoCentroide(cluster));
+            }
+        });
+        double nsActual = medir(() -> {
+            actual.clear();
+            CentroidesIncrementales incrementales = CentroidesIncrementales.crear(matriz, k);
+            for (int it = 0; it < iteraciones; ++it) {
+                incrementales.asignar(asignaciones[it]);
+                for (int c = 0; c < k; ++c) actual.add(incrementales.getCentroide(c));
+            }
+        });
+        informar("Centroides de " + k + " clusters en " + iteraciones + " iteraciones (2% de cambios por iteración)",
+                nsReferencia, nsActual, iteraciones, referencia.equals(actual));
+    }
+
+    // ---------------------------------------------------------------- palabras
+
+    private static void medirPalabras() {
+        Random rnd = new Random(34);
+        int n = 2000;
+        String[] vocabulario = {"servicio", "atención", "precio", "calidad", "rápido", "lento", "amable", "caro",
+                "barato", "excelente", "malo", "bueno", "el", "la", "de", "muy", "pero", "que", "Información", "envío"};
+        ArrayList<TDatos> datos = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 3 + rnd.nextInt(10); j > 0; --j) sb.append(vocabulario[rnd.nextInt(vocabulario.length)]).append(' ');
+            datos.add(new TDatosString(sb.toString()));
+        }
+
+        String[] resultados = new String[2];
+        double nsReferencia = medir(() -> resultados[0] = centroideTextoReferencia(datos));
+        double nsActual = medir(() -> resultados[1] = ((TDatosString) datos.getFirst().getComponenteCentroide(datos)).getTexto());
+        informar("Centroide de " + n + " textos", nsReferencia, nsActual, 1, resultados[0].equals(resultados[1]));
+    }
+
+    // Implementación original: procesa cada texto con Normalizer y cuenta las palabras en un TreeMap
+    private static String centroideTextoReferencia(ArrayList<TDatos> datos) {
+        Set<String> noFuncionales = Set.of("el", "la", "de", "muy", "pero", "que");
+        TreeMap<String, Integer> diccionario = new TreeMap<>();
+        for (TDatos d : datos) {
+            String texto = ((TDatosString) d).getTexto();
+            ArrayList<String> words = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (Character.isLetter(c)) sb.append(c);
+                else if (!sb.isEmpty()) {
+                    words.add(sb.toString());
+                    sb.setLength(0);
+                }
+            }
+            if (!sb.isEmpty()) words.add(sb.toString());
+            words.replaceAll(src -> java.text.Normalizer.normalize(src, java.text.Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "")
+                    .toLowerCase());
+            for (String word : words) {
+                if (word.isBlank() || noFuncionales.contains(word)) continue;
+                diccionario.put(word, diccionario.getOrDefault(word, 0) + 1);
+            }
+        }
+        int max = 0;
+        for (int v : diccionario.values()) max = Math.max(max, v);
+        ArrayList<String> strs = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : diccionario.entrySet()) {
+            if (entry.getValue() == max) strs.add(entry.getKey());
+        }
+        return String.join(" ", strs);
+    }
+
+    // ---------------------------------------------------------------- paralelo
+
+    private static void medirParalelo() {
+        Random rnd = new Random(55);
+        int n = 20000;
+        int k = 10;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(11), 10, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(3, new TDatosOpciones(una, true, 5));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(1).generaIniciales(respuestas, k, comp);
+        KMeansParalelo paralelo = new KMeansParalelo();
+        ArrayList<ArrayList<ArrayList<RespuestaEncuesta>>> resultados = new ArrayList<>(List.of(new ArrayList<>(), new ArrayList<>()));
+        double nsReferencia = medir(() -> resultados.set(0, new KMeans().analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+        double nsActual = medir(() -> resultados.set(1, paralelo.analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+        informar("K-Means con " + n + " respuestas, k = " + k + ", " + paralelo.getParalelismo() + " hilos",
+                nsReferencia, nsActual, 1, resultados.get(0).equals(resultados.get(1)));
+    }
+
+    // ---------------------------------------------------------------- cotas
+
+    private static void medirCotas() {
+        Random rnd = new Random(71);
+        int n = 20000;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            int grupo = rnd.nextInt(8);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(grupo * 120 + rnd.nextInt(150), 1000, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(1001), 1000, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add((grupo + rnd.nextInt(2)) % 8);
+            r.addRespuesta(3, new TDatosOpciones(una, true, 8));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+
+        for (int k : new int[]{4, 20}) {
+            ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(3).generaIniciales(respuestas, k, comp);
+            KMeansOptimizado elkan = new KMeansOptimizado();
+            KMeansHamerly hamerly = new KMeansHamerly();
+            ArrayList<ArrayList<ArrayList<RespuestaEncuesta>>> resultados =
+                    new ArrayList<>(List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+            double nsLloyd = medir(() -> resultados.set(0, new KMeans().analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+            double nsElkan = medir(() -> resultados.set(1, elkan.analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+            double nsHamerly = medir(() -> resultados.set(2, hamerly.analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+
+            long sinCotas = (long) n * k * elkan.getNumIteraciones();
+            informar("Elkan con " + n + " respuestas, k = " + k, nsLloyd, nsElkan, 1, resultados.get(0).equals(resultados.get(1)));
+            System.out.printf("  distancias: %d de %d (%d iteraciones)%n", elkan.getNumDistancias(), sinCotas, elkan.getNumIteraciones());
+            informar("Hamerly con " + n + " respuestas, k = " + k, nsLloyd, nsHamerly, 1, resultados.get(0).equals(resultados.get(2)));
+            System.out.printf("  distancias: %d de %d (%d iteraciones)%n", hamerly.getNumDistancias(), sinCotas, hamerly.getNumIteraciones());
+        }
+    }
+
+    // ---------------------------------------------------------------- kmedoids
+
+    private static void medirKMedoids() {
+        Random rnd = new Random(13);
+        int n = 1000;
+        int k = 8;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        MatrizRespuestas matriz = comp.getMatriz(respuestas);
+        matriz.precalcularDistancias();
+
+        int[] inicialesReferencia = new int[k];
+        for (int m = 0; m < k; ++m) inicialesReferencia[m] = m;
+        int[][] medoidsReferencia = new int[1][];
+        ArrayList<ArrayList<RespuestaEncuesta>> medoidsActual = new ArrayList<>(List.of(new ArrayList<>()));
+        double nsReferencia = medir(() -> medoidsReferencia[0] = kMedoidsReferencia(inicialesReferencia.clone(), matriz));
+        double nsActual = medir(() -> {
+            ArrayList<RespuestaEncuesta> medoids = new ArrayList<>(respuestas.subList(0, k));
+            new KMedoids().analizar(medoids, respuestas, k, comp);
+            medoidsActual.set(0, medoids);
+        });
+
+        double costeReferencia = 0.0;
+        double costeActual = 0.0;
+        int[] actual = matriz.indicesDe(medoidsActual.get(0));
+        for (int i = 0; i < n; ++i) {
+            float minReferencia = Float.MAX_VALUE;
+            float minActual = Float.MAX_VALUE;
+            for (int m = 0; m < k; ++m) {
+                minReferencia = Math.min(minReferencia, matriz.distancia(i, medoidsReferencia[0][m]));
+                minActual = Math.min(minActual, matriz.distancia(i, actual[m]));
+            }
+            costeReferencia += minReferencia;
+            costeActual += minActual;
+        }
+        System.out.println(cyan("K-Medoids con " + n + " respuestas, k = " + k));
+        System.out.printf("  referencia: %.2f ms, coste %.3f%n", nsReferencia / 1e6, costeReferencia);
+        System.out.printf("  actual:     %.2f ms, coste %.3f%n", nsActual / 1e6, costeActual);
+        System.out.printf("  aceleración: x%.2f%n", nsReferencia / nsActual);
+        //son dos búsquedas locales distintas (mejor intercambio frente a intercambio inmediato)
+        System.out.println(costeActual <= costeReferencia * 1.02
+                ? verde("  coste equivalente") : rojo("  COSTE PEOR QUE LA REFERENCIA"));
+
+        //la búsqueda de intercambios en paralelo debe hacer los mismos intercambios que la secuencial
+        int hilos = Runtime.getRuntime().availableProcessors();
+        ArrayList<ArrayList<RespuestaEncuesta>> medoidsParalelo = new ArrayList<>(List.of(new ArrayList<>()));
+        double nsParalelo = medir(() -> {
+            ArrayList<RespuestaEncuesta> medoids = new ArrayList<>(respuestas.subList(0, k));
+            new KMedoids(hilos).analizar(medoids, respuestas, k, comp);
+            medoidsParalelo.set(0, medoids);
+        });
+        informar("K-Medoids con intercambios en paralelo (" + hilos + " hilos)", nsActual, nsParalelo, 1,
+                medoidsParalelo.get(0).equals(medoidsActual.get(0)));
+    }
+
+    //KMedoids anterior: en cada pasada evalúa cada par (candidato, medoid) con un recorrido entero y aplica
+    //el mejor intercambio, recalculando después todos los cercanos
+    private static int[] kMedoidsReferencia(int[] medoids, MatrizRespuestas matriz) {
+        int n = matriz.getNumFilas();
+        int[] cercano = new int[n];
+        float[] primera = new float[n];
+        float[] segunda = new float[n];
+        boolean[] esMedoid = new boolean[n];
+        for (int m : medoids) esMedoid[m] = true;
+        cercanosReferencia(matriz, medoids, cercano, primera, segunda);
+        while (true) {
+            int mejorMedoid = -1;
+            int mejorCandidato = -1;
+            float mejoraActual = 0.0f;
+            for (int r = 0; r < n; r++) {
+                if (esMedoid[r]) continue;
+                for (int m = 0; m < medoids.length; m++) {
+                    float mejora = 0.0f;
+                    for (int i = 0; i < n; i++) {
+                        float d = matriz.distancia(i, r);
+                        float nueva = (cercano[i] == m) ? Math.min(d, segunda[i]) : Math.min(primera[i], d);
+                        mejora += primera[i] - nueva;
+                    }
+                    if (mejora > mejoraActual) {
+                        mejoraActual = mejora;
+                        mejorMedoid = m;
+                        mejorCandidato = r;
+                    }
+                }
+            }
+            if (mejoraActual <= 0.0f) return medoids;
+            esMedoid[medoids[mejorMedoid]] = false;
+            esMedoid[mejorCandidato] = true;
+            medoids[mejorMedoid] = mejorCandidato;
+            cercanosReferencia(matriz, medoids, cercano, primera, segunda);
+        }
+    }
+
+    private static void cercanosReferencia(MatrizRespuestas matriz, int[] medoids, int[] cercano, float[] primera, float[] segunda) {
+        for (int i = 0; i < matriz.getNumFilas(); i++) {
+            primera[i] = Float.MAX_VALUE;
+            segunda[i] = Float.MAX_VALUE;
+            for (int m = 0; m < medoids.length; m++) {
+                float d = matriz.distancia(i, medoids[m]);
+                if (d < primera[i]) {
+                    segunda[i] = primera[i];
+                    primera[i] = d;
+                    cercano[i] = m;
+                }
+                else if (d < segunda[i]) segunda[i] = d;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- muestreo
+
+    private static void medirMuestreo() {
+        Random rnd = new Random(17);
+        int n = 4000;
+        int k = 8;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+
+        //una sola ejecución de cada uno: KMedoids sobre todas las respuestas tarda segundos
+        ArrayList<RespuestaEncuesta> medoidsPam = new ArrayList<>(respuestas.subList(0, k));
+        long inicio = System.nanoTime();
+        new KMedoids().analizar(medoidsPam, respuestas, k, comp);
+        double nsPam = System.nanoTime() - inicio;
+        double costePam = costeMedoids(medoidsPam, respuestas, comp);
+
+        CLARA clara = new CLARA(5, 40 + 2 * k, 1);
+        inicio = System.nanoTime();
+        clara.analizar(new ArrayList<>(respuestas.subList(0, k)), respuestas, k, comp);
+        double nsClara = System.nanoTime() - inicio;
+
+        CLARANS clarans = new CLARANS(2, new CLARANS().getMaxVecinos(n, k), 1);
+        inicio = System.nanoTime();
+        clarans.analizar(new ArrayList<>(respuestas.subList(0, k)), respuestas, k, comp);
+        double nsClarans = System.nanoTime() - inicio;
+
+        System.out.println(cyan("K-Medoids por muestreo con " + n + " respuestas, k = " + k));
+        System.out.printf("  KMedoids: %.2f ms, coste %.3f%n", nsPam / 1e6, costePam);
+        System.out.printf("  CLARA:    %.2f ms, coste %.3f (x%.2f)%n", nsClara / 1e6, clara.getCoste(), nsPam / nsClara);
+        System.out.printf("  CLARANS:  %.2f ms, coste %.3f (x%.2f)%n", nsClarans / 1e6, clarans.getCoste(), nsPam / nsClarans);
+        System.out.println(Math.max(clara.getCoste(), clarans.getCoste()) <= costePam * 1.1
+                ? verde("  coste a menos del 10% de KMedoids") : rojo("  COSTE MÁS DE UN 10% PEOR QUE KMEDOIDS"));
+    }
+
+    private static double costeMedoids(ArrayList<RespuestaEncuesta> medoids, ArrayList<RespuestaEncuesta> respuestas, Comparador comp) {
+        double coste = 0.0;
+        for (RespuestaEncuesta r : respuestas) {
+            float minima = Float.MAX_VALUE;
+            for (RespuestaEncuesta m : medoids) minima = Math.min(minima, comp.distancia(r, m));
+            coste += minima;
+        }
+        return coste;
+    }
+
+    // ---------------------------------------------------------------- semillas
+
+    private static void medirSemillas() {
+        Random rnd = new Random(19);
+        int n = 5000;
+        int k = 100;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        MatrizRespuestas matriz = comp.getMatriz(respuestas);
+
+        ArrayList<ArrayList<RespuestaEncuesta>> resultados = new ArrayList<>(List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        double nsReferencia = medir(() -> resultados.set(0, kMeansPlusPlusReferencia(respuestas, matriz, k, 5)));
+        double nsActual = medir(() -> resultados.set(1, new InicializadorKMeansPlusPlus(5).generaIniciales(respuestas, k, comp)));
+        int hilos = Runtime.getRuntime().availableProcessors();
+        double nsParalelo = medir(() -> resultados.set(2, new InicializadorKMeansParallel(5, hilos).generaIniciales(respuestas, k, comp)));
+
+        informar("K-Means++ con " + n + " respuestas, k = " + k, nsReferencia, nsActual, 1, resultados.get(0).equals(resultados.get(1)));
+        System.out.println(cyan("K-Means|| con " + hilos + " hilos"));
+        System.out.printf("  K-Means++: %.2f ms, coste %.3f%n", nsActual / 1e6, costeCuadrado(resultados.get(1), matriz));
+        System.out.printf("  K-Means||: %.2f ms, coste %.3f%n", nsParalelo / 1e6, costeCuadrado(resultados.get(2), matriz));
+    }
+
+    //K-Means++ anterior: en cada ronda recalcula la distancia de cada respuesta a todos los centroides escogidos
+    private static ArrayList<RespuestaEncuesta> kMeansPlusPlusReferencia(ArrayList<RespuestaEncuesta> respuestas, MatrizRespuestas matriz, int k, long semilla) {
+        Random rand = new Random(semilla);
+        ArrayList<RespuestaEncuesta> centroides = new ArrayList<>();
+        centroides.add(respuestas.get(rand.nextInt(respuestas.size())));
+        while (centroides.size() < k) {
+            int[] indices = matriz.indicesDe(centroides);
+            float[] cuadradas = new float[matriz.getNumFilas()];
+            for (int i = 0; i < cuadradas.length; ++i) {
+                float minima = matriz.distancia(i, indices[0]);
+                for (int j = 1; j < indices.length; ++j) minima = Math.min(minima, matriz.distancia(i, indices[j]));
+                cuadradas[i] = minima * minima;
+            }
+            float total = 0;
+            for (float d : cuadradas) total += d;
+            float umbral = (total == 0) ? 0 : rand.nextFloat(total);
+            float acumulado = 0;
+            RespuestaEncuesta siguiente = respuestas.getLast();
+            for (int i = 0; i < cuadradas.length; ++i) {
+                acumulado += cuadradas[i];
+                if (acumulado >= umbral) {
+                    siguiente = respuestas.get(i);
+                    break;
+                }
+            }
+            centroides.add(siguiente);
+        }
+        return centroides;
+    }
+
+    private static double costeCuadrado(ArrayList<RespuestaEncuesta> centroides, MatrizRespuestas matriz) {
+        int[] indices = matriz.indicesDe(centroides);
+        double coste = 0.0;
+        for (int i = 0; i < matriz.getNumFilas(); ++i) {
+            float minima = Float.MAX_VALUE;
+            for (int c : indices) minima = Math.min(minima, matriz.distancia(i, c));
+            coste += minima * minima;
+        }
+        return coste;
+    }
+
+    // ---------------------------------------------------------------- build
+
+    private static void medirBuild() {
+        Random rnd = new Random(23);
+        int n = 2000;
+        int k = 8;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        MatrizRespuestas matriz = comp.getMatriz(respuestas);
+        matriz.precalcularDistancias();
+        int hilos = Runtime.getRuntime().availableProcessors();
+
+        //una sola ejecución de cada uno: el greedy anterior tarda segundos
+        long inicio = System.nanoTime();
+        int[] referencia = greedyReferencia(matriz, new Random(3).nextInt(n), k);
+        double nsReferencia = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        ArrayList<RespuestaEncuesta> build = new InicializadorKMedoidsGreedy(3, hilos, false).generaIniciales(respuestas, k, comp);
+        double nsBuild = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        ArrayList<RespuestaEncuesta> lab = new InicializadorKMedoidsGreedy(3, hilos, true).generaIniciales(respuestas, k, comp);
+        double nsLab = System.nanoTime() - inicio;
+
+        informar("BUILD con " + n + " respuestas, k = " + k + " (" + hilos + " hilos)", nsReferencia, nsBuild, 1,
+                Arrays.equals(referencia, matriz.indicesDe(build)));
+        System.out.println(cyan("LAB"));
+        System.out.printf("  BUILD: %.2f ms, coste %.3f%n", nsBuild / 1e6, costeMedoids(build, respuestas, comp));
+        System.out.printf("  LAB:   %.2f ms, coste %.3f%n", nsLab / 1e6, costeMedoids(lab, respuestas, comp));
+    }
+
+    //greedy anterior: para cada candidato recalcula la distancia de cada respuesta a todos los medoids
+    private static int[] greedyReferencia(MatrizRespuestas matriz, int primero, int k) {
+        int n = matriz.getNumFilas();
+        int[] medoids = new int[k];
+        medoids[0] = primero;
+        for (int m = 1; m < k; ++m) {
+            int mejorCandidato = -1;
+            float mejorSumaDistancias = Float.POSITIVE_INFINITY;
+            for (int candidato = 0; candidato < n; ++candidato) {
+                boolean esMedoid = false;
+                for (int j = 0; j < m; ++j) {
+                    if (medoids[j] == candidato || matriz.getRespuesta(medoids[j]).equals(matriz.getRespuesta(candidato))) esMedoid = true;
+                }
+                if (esMedoid) continue;
+                float sumaDistancias = 0;
+                for (int respuesta = 0; respuesta < n; ++respuesta) {
+                    float distMin = Float.POSITIVE_INFINITY;
+                    for (int j = 0; j < m; ++j) distMin = Math.min(distMin, matriz.distancia(respuesta, medoids[j]));
+                    sumaDistancias += Math.min(distMin, matriz.distancia(respuesta, candidato));
+                }
+                if (sumaDistancias < mejorSumaDistancias) {
+                    mejorSumaDistancias = sumaDistancias;
+                    mejorCandidato = candidato;
+                }
+            }
+            medoids[m] = mejorCandidato;
+        }
+        return medoids;
+    }
+
+    // ---------------------------------------------------------------- barrido
+
+    private static void medirBarrido() {
+        Random rnd = new Random(29);
+        int n = 3000;
+        int numGrupos = 6;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            int g = rnd.nextInt(numGrupos);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            for (int q = 2; q <= 5; ++q) {
+                ArrayList<Integer> una = new ArrayList<>();
+                una.add(rnd.nextInt(4) == 0 ? rnd.nextInt(numGrupos) : g);
+                r.addRespuesta(q, new TDatosOpciones(una, true, numGrupos));
+            }
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        int hilos = Runtime.getRuntime().availableProcessors();
+        float umbral = 0.15f;
+
+        long inicio = System.nanoTime();
+        int kReferencia = calcularKReferencia(respuestas, comp, umbral);
+        double nsReferencia = System.nanoTime() - inicio;
+        BarridoK barrido = new BarridoK(new KMeansOptimizado(), new InicializadorKMeansPlusPlus(3), comp, umbral, hilos);
+        inicio = System.nanoTime();
+        int k = barrido.calcularK(respuestas);
+        double nsBarrido = System.nanoTime() - inicio;
+
+        informar("Codo con " + n + " respuestas (" + hilos + " hilos)", nsReferencia, nsBarrido, 1, k == kReferencia);
+        System.out.printf("  k anterior: %d, k del barrido: %d%n", kReferencia, k);
+    }
+
+    //cálculo anterior: cada k desde cero con el inicializador y la WCSS recalculada con el comparador
+    private static int calcularKReferencia(ArrayList<RespuestaEncuesta> respuestas, Comparador comp, float umbral) {
+        InicializadorKMeansPlusPlus inicializador = new InicializadorKMeansPlusPlus(3);
+        KMeansOptimizado algoritmo = new KMeansOptimizado();
+        int numK = 1;
+        double prevWCSS = wcssReferencia(algoritmo.analizar(inicializador.generaIniciales(respuestas, numK, comp), respuestas, numK, comp), comp);
+        while (numK < respuestas.size()) {
+            ++numK;
+            double wcss = wcssReferencia(algoritmo.analizar(inicializador.generaIniciales(respuestas, numK, comp), respuestas, numK, comp), comp);
+            if (prevWCSS == wcss || (prevWCSS - wcss) / prevWCSS < umbral) break;
+            prevWCSS = wcss;
+        }
+        return numK - 1;
+    }
+
+    private static double wcssReferencia(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
+        double wcss = 0.0;
+        for (ArrayList<RespuestaEncuesta> cluster : clusters) {
+            if (cluster.isEmpty()) continue;
+            RespuestaEncuesta centroide = comp.calcularNuevoCentroide(cluster);
+            for (RespuestaEncuesta r : cluster) wcss += Math.pow(comp.distancia(centroide, r), 2);
+        }
+        return wcss;
+    }
+
+    // ---------------------------------------------------------------- reinicios
+
+    private static void medirReinicios() {
+        Random rnd = new Random(31);
+        int n = 3000;
+        int k = 8;
+        int numInicializaciones = 8;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            for (int q = 2; q <= 4; ++q) {
+                ArrayList<Integer> una = new ArrayList<>();
+                una.add(rnd.nextInt(6));
+                r.addRespuesta(q, new TDatosOpciones(una, true, 6));
+            }
+            respuestas.add(r);
+        }
+        int hilos = Runtime.getRuntime().availableProcessors();
+        Analizador analizador = Analizador.getInstance();
+        analizador.cambiarAlgoritmo(new KMeansOptimizado(), new InicializadorKMeansPlusPlus());
+        analizador.setK(k);
+        analizador.setNumInicializaciones(numInicializaciones, false);
+
+        long inicio = System.nanoTime();
+        analizador.analizarRespuestas(respuestas, hilos);
+        double nsTotal = System.nanoTime() - inicio;
+        long[] tiempos = analizador.getTiemposInicializaciones();
+        double[] wcss = analizador.getPuntuacionesInicializaciones();
+        int mejor = analizador.getMejorInicializacion();
+        analizador.setNumInicializaciones(1, false);
+
+        System.out.println(cyan(numInicializaciones + " inicializaciones con " + n + " respuestas, k = " + k + " (" + hilos + " hilos)"));
+        for (int i = 0; i < tiempos.length; ++i) {
+            System.out.printf("  %d: %8.2f ms, WCSS %.3f%s%n", i, tiempos[i] / 1e6, wcss[i], (i == mejor) ? verde("  <- elegida") : "");
+        }
+        double peor = Arrays.stream(wcss).max().orElse(Double.NaN);
+        System.out.printf("  total: %.2f ms, WCSS elegida %.3f frente a la peor %.3f%n", nsTotal / 1e6, wcss[mejor], peor);
+    }
+
+    // ---------------------------------------------------------------- convergencia
+
+    private static void medirConvergencia() {
+        Random rnd = new Random(41);
+        int n = 4000;
+        int k = 10;
+        String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            //datos mixtos con grupos solapados: las medias enteras y las modas oscilan durante muchas iteraciones
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(6));
+            r.addRespuesta(3, new TDatosOpciones(una, true, 6));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorKMeansPlusPlus(3).generaIniciales(respuestas, k, comp);
+
+        KMeansOptimizado exacto = new KMeansOptimizado();
+        ArrayList<ArrayList<ArrayList<RespuestaEncuesta>>> resultado = new ArrayList<>();
+        resultado.add(null);
+        double nsExacto = medir(() -> resultado.set(0, exacto.analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+        double wcssExacto = wcss(resultado.get(0), comp);
+
+        System.out.println(cyan("Criterios de convergencia de K-Means (Elkan) con " + n + " respuestas, k = " + k));
+        System.out.printf("  sin reasignaciones:      %8.2f ms, %3d iteraciones, WCSS %.3f%n",
+                nsExacto / 1e6, exacto.getNumIteraciones(), wcssExacto);
+        CriterioConvergencia[] criterios = {
+                new CriterioConvergencia(0.f, 0.01f, 300),
+                new CriterioConvergencia(0.005f, 0.f, 300),
+                new CriterioConvergencia(0.f, 0.f, 10)
+        };
+        String[] nombres = {"1% reasignadas:", "desplazamiento < 0.005:", "máximo 10 iteraciones:"};
+        for (int c = 0; c < criterios.length; ++c) {
+            KMeansOptimizado algoritmo = new KMeansOptimizado(criterios[c]);
+            double ns = medir(() -> resultado.set(0, algoritmo.analizar(new ArrayList<>(iniciales), respuestas, k, comp)));
+            double wcssActual = wcss(resultado.get(0), comp);
+            System.out.printf("  %-24s %8.2f ms, %3d iteraciones, WCSS %.3f (x%.2f, %+.2f%% WCSS)%n", nombres[c],
+                    ns / 1e6, algoritmo.getNumIteraciones(), wcssActual, nsExacto / ns, 100.0 * (wcssActual - wcssExacto) / wcssExacto);
+        }
+    }
+
+    private static double wcss(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
+        double total = 0.0;
+        for (ArrayList<RespuestaEncuesta> cluster : clusters) {
+            if (cluster.isEmpty()) continue;
+            RespuestaEncuesta centroide = comp.calcularNuevoCentroide(cluster);
+            for (RespuestaEncuesta r : cluster) total += Math.pow(comp.distancia(centroide, r), 2);
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------------- silhouette
+
+    private static void medirSilhouette() {
+        int hilos = Runtime.getRuntime().availableProcessors();
+        for (boolean compilada : new boolean[]{true, false}) {
+            Random rnd = new Random(43);
+            int n = compilada ? 4000 : 1000;
+            int k = 8;
+            String[] textos = {"me gusta mucho", "no lo se", "bastante bien", "regular", "excelente servicio"};
+            ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+            for (int i = 0; i < n; ++i) {
+                RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+                r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+                ArrayList<Integer> una = new ArrayList<>();
+                una.add(rnd.nextInt(5));
+                r.addRespuesta(2, new TDatosOpciones(una, true, 5));
+                r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+                respuestas.add(r);
+            }
+            Comparador comp = new Comparador();
+            if (compilada) {
+                comp.compilar(respuestas);
+                comp.getMatriz().precalcularDistancias();
+            }
+            ArrayList<RespuestaEncuesta> iniciales = new InicializadorKMeansPlusPlus(3).generaIniciales(respuestas, k, comp);
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = new KMeansOptimizado().analizar(iniciales, respuestas, k, comp);
+
+            Silhouette silhouette = new Silhouette(hilos);
+            float[] valores = new float[2];
+            double nsReferencia = medir(() -> valores[0] = silhouetteReferencia(clusters, comp));
+            double nsActual = medir(() -> valores[1] = silhouette.evaluar(clusters, comp));
+            informar("Silhouette con " + n + " respuestas " + (compilada ? "y distancias precalculadas" : "sin matriz")
+                    + " (" + hilos + " hilos), por par", nsReferencia, nsActual, (long) n * n, valores[0] == valores[1]);
+        }
+    }
+
+    // Silhouette punto a punto, tal como estaba: a(i) y b(i) recorriendo los clusters para cada punto
+    private static float silhouetteReferencia(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
+        MatrizRespuestas matriz = comp.getMatriz();
+        int[][] indices = (matriz == null) ? null : matriz.indicesClusters(clusters);
+        int n = 0;
+        float sumaTotal = 0.f;
+        for (int i = 0; i < clusters.size(); ++i) {
+            ArrayList<RespuestaEncuesta> cluster = clusters.get(i);
+            if (cluster.size() > 1) {
+                for (int j = 0; j < cluster.size(); ++j) {
+                    float sumaCluster = 0.f;
+                    for (int l = 0; l < cluster.size(); ++l) {
+                        if (l == j) continue;
+                        sumaCluster += (indices == null) ? comp.distancia(cluster.get(j), cluster.get(l))
+                                : matriz.distancia(indices[i][j], indices[i][l]);
+                    }
+                    float a = sumaCluster / (cluster.size() - 1);
+                    float b = Float.MAX_VALUE;
+                    for (int o = 0; o < clusters.size(); ++o) {
+                        if (o == i || clusters.get(o).isEmpty()) continue;
+                        float suma = 0.f;
+                        for (int l = 0; l < clusters.get(o).size(); ++l) {
+                            suma += (indices == null) ? comp.distancia(cluster.get(j), clusters.get(o).get(l))
+                                    : matriz.distancia(indices[i][j], indices[o][l]);
+                        }
+                        b = Math.min(b, suma / clusters.get(o).size());
+                    }
+                    sumaTotal += (b - a) / Math.max(a, b);
+                }
+            }
+            n += cluster.size();
+        }
+        return sumaTotal / n;
+    }
+
+    // ---------------------------------------------------------------- silhouetteMuestreado
+
+    private static void medirSilhouetteMuestreado() {
+        Random rnd = new Random(47);
+        int n = 6000;
+        int k = 8;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(3, new TDatosOpciones(una, true, 5));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorKMeansPlusPlus(3).generaIniciales(respuestas, k, comp);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new KMeansOptimizado().analizar(iniciales, respuestas, k, comp);
+
+        //una sola ejecución: el exacto precalcula antes todas las distancias
+        long inicio = System.nanoTime();
+        float exacto = new Silhouette().evaluar(clusters, comp);
+        double nsExacto = System.nanoTime() - inicio;
+        comp.getMatriz().liberarDistancias();
+
+        System.out.println(cyan("Silhouette con " + n + " respuestas, k = " + k));
+        System.out.printf("  exacto:     %8.2f ms, %.4f%n", nsExacto / 1e6, exacto);
+        int[][] muestras = {{500, 100}, {1000, 200}, {4000, 400}};
+        boolean dentro = true;
+        for (int[] muestra : muestras) {
+            SilhouetteMuestreado muestreado = new SilhouetteMuestreado(muestra[0], muestra[1], 0, 5);
+            float[] estimado = new float[1];
+            double ns = medir(() -> estimado[0] = muestreado.evaluar(clusters, comp));
+            float[] intervalo = muestreado.getIntervaloConfianza();
+            dentro &= intervalo[0] <= exacto && exacto <= intervalo[1];
+            System.out.printf("  %4d x %3d: %8.2f ms, %.4f [%.4f, %.4f] (x%.1f)%n", muestra[0], muestra[1],
+                    ns / 1e6, estimado[0], intervalo[0], intervalo[1], nsExacto / ns);
+        }
+        System.out.println(dentro ? verde("  el valor exacto está en todos los intervalos") : rojo("  EL VALOR EXACTO QUEDA FUERA DE ALGÚN INTERVALO"));
+    }
+
+    // ---------------------------------------------------------------- silhouetteSimplificada
+
+    private static void medirSilhouetteSimplificada() {
+        Random rnd = new Random(53);
+        int n = 6000;
+        int k = 8;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(3, new TDatosOpciones(una, true, 5));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorKMeansPlusPlus(3).generaIniciales(respuestas, k, comp);
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(iniciales, respuestas, k, comp);
+        DistanciasAsignacion distancias = kmeans.getDistanciasAsignacion();
+
+        //una sola ejecución: el exacto precalcula antes todas las distancias
+        long inicio = System.nanoTime();
+        float exacto = new Silhouette().evaluar(clusters, comp);
+        double nsExacto = System.nanoTime() - inicio;
+        comp.getMatriz().liberarDistancias();
+
+        SilhouetteSimplificada simplificada = new SilhouetteSimplificada();
+        float[] valores = new float[2];
+        double nsCentroides = medir(() -> valores[0] = simplificada.evaluar(clusters, comp));
+        double nsReusadas = medir(() -> valores[1] = simplificada.evaluar(clusters, comp, distancias));
+
+        System.out.println(cyan("Silhouette con " + n + " respuestas, k = " + k));
+        System.out.printf("  exacto:                    %10.3f ms, %.4f%n", nsExacto / 1e6, exacto);
+        System.out.printf("  simplificado (centroides): %10.3f ms, %.4f (x%.1f)%n", nsCentroides / 1e6, valores[0], nsExacto / nsCentroides);
+        if (distancias == null) {
+            System.out.println(rojo("  K-Means no ha dado las distancias de la asignación"));
+            return;
+        }
+        System.out.printf("  simplificado (asignación): %10.3f ms, %.4f (x%.1f)%n", nsReusadas / 1e6, valores[1], nsExacto / nsReusadas);
+        boolean iguales = Math.abs(valores[0] - valores[1]) <= 1e-5f;
+        System.out.println(iguales ? verde("  mismo valor con las distancias de la asignación") : rojo("  VALORES DISTINTOS CON LAS DISTANCIAS DE LA ASIGNACIÓN"));
+    }
+
+    // ---------------------------------------------------------------- medidas
+
+    private static void medirMedidas() {
+        Random rnd = new Random(59);
+        int n = 20000;
+        int k = 10;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(3, new TDatosOpciones(una, true, 5));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorKMeansPlusPlus(3).generaIniciales(respuestas, k, comp);
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(iniciales, respuestas, k, comp);
+
+        //cada evaluador por separado recalcula los centroides y las distancias a ellos
+        float[] separados = new float[3];
+        double[] wcssSeparado = new double[1];
+        double nsSeparados = medir(() -> {
+            separados[0] = new CalinskiHarabasz().evaluar(new ArrayList<>(clusters), comp);
+            separados[1] = new DaviesBouldinen().evaluar(new ArrayList<>(clusters), comp);
+            separados[2] = new SilhouetteSimplificada().evaluar(clusters, comp);
+            wcssSeparado[0] = wcss(clusters, comp);
+        });
+        MedidasCalidad[] calculadas = new MedidasCalidad[1];
+        double nsCalculadas = medir(() -> calculadas[0] = MedidasCalidad.calcular(clusters, null, comp, null));
+        MedidasCalidad[] reutilizadas = new MedidasCalidad[1];
+        double nsReutilizadas = medir(() -> reutilizadas[0] = MedidasCalidad.calcular(clusters, kmeans.getCentros(), comp, kmeans.getDistanciasAsignacion()));
+
+        System.out.println(cyan("Medidas de calidad con " + n + " respuestas, k = " + k));
+        System.out.printf("  por separado:               %10.3f ms%n", nsSeparados / 1e6);
+        System.out.printf("  una pasada (centroides):    %10.3f ms (x%.1f)%n", nsCalculadas / 1e6, nsSeparados / nsCalculadas);
+        System.out.printf("  una pasada (algoritmo):     %10.3f ms (x%.1f)%n", nsReutilizadas / 1e6, nsSeparados / nsReutilizadas);
+        MedidasCalidad m = reutilizadas[0];
+        System.out.printf("  WCSS %.4f / %.4f, CH %.4f / %.4f, DB %.4f / %.4f, S %.4f / %.4f%n",
+                wcssSeparado[0], m.getWCSS(), separados[0], m.getCalinskiHarabasz(),
+                separados[1], m.getDaviesBouldin(), separados[2], m.getSilhouetteSimplificada());
+        boolean iguales = Math.abs(wcssSeparado[0] - m.getWCSS()) <= 1e-4 * wcssSeparado[0]
+                && Math.abs(separados[0] - m.getCalinskiHarabasz()) <= 1e-4f * separados[0]
+                && Math.abs(separados[1] - m.getDaviesBouldin()) <= 1e-4f * separados[1]
+                && Math.abs(separados[2] - m.getSilhouetteSimplificada()) <= 1e-5f;
+        System.out.println(iguales ? verde("  mismos valores") : rojo("  VALORES DISTINTOS"));
+    }
+
+    // ---------------------------------------------------------------- resultado
+
+    private static void medirResultado() {
+        Random rnd = new Random(61);
+        int n = 20000;
+        int k = 10;
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            respuestas.add(r);
+        }
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(
+                new InicializadorKMeansPlusPlus(3).generaIniciales(respuestas, k, comp), respuestas, k, comp);
+        ResultadoClustering[] resultado = new ResultadoClustering[1];
+        double nsCrear = medir(() -> resultado[0] = ResultadoClustering.crear(respuestas, clusters, kmeans.getCentros(), kmeans.getDistanciasAsignacion(), comp));
+
+        //cluster de 1000 respuestas: buscándolas en las listas o por su etiqueta
+        int consultas = 1000;
+        int[] sumaListas = new int[1];
+        double nsListas = medir(() -> {
+            int suma = 0;
+            for (int q = 0; q < consultas; ++q) {
+                RespuestaEncuesta r = respuestas.get(q * (n / consultas));
+                for (int c = 0; c < clusters.size(); ++c) {
+                    if (clusters.get(c).contains(r)) {
+                        suma += c;
+                        break;
+                    }
+                }
+            }
+            sumaListas[0] = suma;
+        });
+        int[] sumaEtiquetas = new int[1];
+        double nsEtiquetas = medir(() -> {
+            int suma = 0;
+            for (int q = 0; q < consultas; ++q) suma += resultado[0].getCluster(respuestas.get(q * (n / consultas)));
+            sumaEtiquetas[0] = suma;
+        });
+
+        //recorrido de todos los clusters: copiándolos o con las vistas de sus miembros
+        long[] letras = new long[2];
+        double nsCopias = medir(() -> {
+            long total = 0;
+            for (List<RespuestaEncuesta> cluster : resultado[0].getClusters()) {
+                for (RespuestaEncuesta r : cluster) total += r.getEmailrespuesta().length();
+            }
+            letras[0] = total;
+        });
+        double nsVistas = medir(() -> {
+            long total = 0;
+            for (int c = 0; c < k; ++c) {
+                for (RespuestaEncuesta r : resultado[0].miembros(c)) total += r.getEmailrespuesta().length();
+            }
+            letras[1] = total;
+        });
+
+        System.out.println(cyan("Resultado del clustering con " + n + " respuestas, k = " + k));
+        System.out.printf("  creación:                 %10.3f ms%n", nsCrear / 1e6);
+        informar(consultas + " clusters de respuestas", nsListas, nsEtiquetas, consultas, sumaListas[0] == sumaEtiquetas[0]);
+        informar("recorrido de los clusters", nsCopias, nsVistas, n, letras[0] == letras[1]);
+    }
+
+    // ---------------------------------------------------------------- jerarquico
+
+    private static ArrayList<RespuestaEncuesta> respuestasJerarquico(Random rnd, int n) {
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(100001), 100000, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(100001), 100000, 0));
+            ArrayList<Integer> una = new ArrayList<>();
+            una.add(rnd.nextInt(5));
+            r.addRespuesta(3, new TDatosOpciones(una, true, 5));
+            respuestas.add(r);
+        }
+        return respuestas;
+    }
+
+    // Enlace medio ingenuo O(n³): en cada paso se busca el par más cercano en toda la matriz
+    private static float[] jerarquicoReferencia(ArrayList<RespuestaEncuesta> respuestas, Comparador comp) {
+        int n = respuestas.size();
+        float[][] d = new float[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = i + 1; j < n; ++j) d[i][j] = d[j][i] = comp.distancia(respuestas.get(i), respuestas.get(j));
+        }
+        int[] tamanos = new int[n];
+        Arrays.fill(tamanos, 1);
+        boolean[] activo = new boolean[n];
+        Arrays.fill(activo, true);
+        float[] alturas = new float[n - 1];
+        for (int s = 0; s < n - 1; ++s) {
+            int x = -1;
+            int y = -1;
+            float minima = Float.POSITIVE_INFINITY;
+            for (int i = 0; i < n; ++i) {
+                if (!activo[i]) continue;
+                for (int j = i + 1; j < n; ++j) {
+                    if (activo[j] && d[i][j] < minima) {
+                        minima = d[i][j];
+                        x = i;
+                        y = j;
+                    }
+                }
+            }
+            for (int i = 0; i < n; ++i) {
+                if (activo[i] && i != x && i != y) d[i][y] = d[y][i] = (tamanos[x] * d[i][x] + tamanos[y] * d[i][y]) / (tamanos[x] + tamanos[y]);
+            }
+            activo[x] = false;
+            tamanos[y] += tamanos[x];
+            alturas[s] = minima;
+        }
+        Arrays.sort(alturas);
+        return alturas;
+    }
+
+    private static void medirJerarquico() {
+        Random rnd = new Random(67);
+        int n = 600;
+        ArrayList<RespuestaEncuesta> respuestas = respuestasJerarquico(rnd, n);
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas);
+
+        float[][] alturas = new float[2][];
+        double nsReferencia = medir(() -> alturas[0] = jerarquicoReferencia(respuestas, comp));
+        //cada repetición construye el árbol desde cero
+        double nsActual = medir(() -> alturas[1] = new ClusteringJerarquico().construir(respuestas, comp).getAlturas());
+        boolean iguales = true;
+        for (int s = 0; s < n - 1; ++s) iguales &= Math.abs(alturas[0][s] - alturas[1][s]) <= 1e-5f;
+        informar("Enlace medio con " + n + " respuestas", nsReferencia, nsActual, 1, iguales);
+
+        //con más respuestas solo la cadena de vecinos, por enlace, y todos los cortes de un mismo árbol
+        int grande = 5000;
+        ArrayList<RespuestaEncuesta> muchas = respuestasJerarquico(rnd, grande);
+        Comparador compMuchas = new Comparador();
+        compMuchas.compilar(muchas);
+        System.out.println(cyan("Cadena de vecinos con " + grande + " respuestas (" + (4L * grande * (grande - 1) / 2 >> 20) + " MB de distancias)"));
+        Dendrograma ultimo = null;
+        for (ClusteringJerarquico.Enlace enlace : ClusteringJerarquico.Enlace.values()) {
+            long inicio = System.nanoTime();
+            ultimo = new ClusteringJerarquico(enlace).construir(muchas, compMuchas);
+            System.out.printf("  %-9s %10.3f ms%n", enlace, (System.nanoTime() - inicio) / 1e6);
+        }
+        Dendrograma arbol = ultimo;
+        int kMaxima = BarridoK.getKMaxima(grande);
+        int[] distintos = new int[1];
+        double nsCortes = medir(() -> {
+            int total = 0;
+            for (int k = 1; k <= kMaxima; ++k) total += Arrays.stream(arbol.cortar(k)).max().getAsInt() + 1;
+            distintos[0] = total;
+        });
+        System.out.printf("  cortes k = 1..%d: %10.3f ms (%.3f ms por k)%n", kMaxima, nsCortes / 1e6, nsCortes / 1e6 / kMaxima);
+        System.out.println(distintos[0] == kMaxima * (kMaxima + 1) / 2 ? verde("  cada corte tiene k clusters") : rojo("  CORTES INCORRECTOS"));
+    }
+}
@@ -1,15 +1,33 @@
 package main.domain;
 
 import main.domain.analisis.Analizador;
+import main.domain.analisis.algoritmo.AlgoritmoTipo;
+import main.domain.analisis.algoritmo.CLARA;
+import main.domain.analisis.algoritmo.CLARANS;
+import main.domain.analisis.algoritmo.ClusteringJerarquico;
+import main.domain.analisis.algoritmo.InterfazAlgoritmo;
+import main.domain.analisis.algoritmo.JerarquicoTipo;
 import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansHamerly;
+import main.domain.analisis.algoritmo.KMeansMiniBatch;
 import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.algoritmo.KMeansParalelo;
+import main.domain.analisis.algoritmo.KMeansTipo;
 import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.analisis.algoritmo.KMedoidsTipo;
 import main.domain.analisis.evaluador.CalinskiHarabasz;
 import main.domain.analisis.evaluador.DaviesBouldinen;
+import main.domain.analisis.evaluador.MedidasCalidad;
 import main.domain.analisis.evaluador.Silhouette;
+import main.domain.analisis.evaluador.SilhouetteMuestreado;
+import main.domain.analisis.evaluador.SilhouetteSimplificada;
+import main.domain.analisis.inicializador.InicializadorJerarquico;
+import main.domain.analisis.inicializador.InicializadorKMeansParallel;
 import main.domain.analisis.inicializador.InicializadorKMeansPlusPlus;
+import main.domain.analisis.inicializador.InicializadorKMedoidsAleatorio;
 import main.domain.analisis.inicializador.InicializadorKMedoidsGreedy;
 import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.analisis.inicializador.InterfazInicializadorAlgoritmo;
 import main.domain.exceptions.*;
 import main.domain.types.TDatos;
 import main.domain.types.TDatosInteger;
@@ -20,7 +38,12 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.IntFunction;
 
 /**
  * Controlador del dominio que gestiona las operaciones relacionadas con encuestas, respuestas, perfiles y análisis.
@@ -28,9 +51,41 @@ import java.util.TreeMap;
  * @author Sergi Malaguilla Bombin
  */
 public class CtrlDominio {
+    //inicializadores compatibles con cada tipo de algoritmo, construidos a partir del paralelismo
+    private static final Map<String, IntFunction<InterfazInicializadorAlgoritmo<KMeansTipo>>> INICIALIZADORES_KMEANS = Map.of(
+            "KMeans++", p -> new InicializadorKMeansPlusPlus(),
+            "KMeans||", p -> new InicializadorKMeansParallel(new Random().nextLong(), p),
+            "Aleatorio", p -> new InicializadorRandom());
+    private static final Map<String, IntFunction<InterfazInicializadorAlgoritmo<KMedoidsTipo>>> INICIALIZADORES_GREEDY = Map.of(
+            "Greedy", p -> new InicializadorKMedoidsGreedy(new Random().nextLong(), p, false),
+            "LAB", p -> new InicializadorKMedoidsGreedy(new Random().nextLong(), p, true));
+    private static final Map<String, IntFunction<InterfazInicializadorAlgoritmo<KMedoidsTipo>>> INICIALIZADORES_KMEDOIDS = Map.of(
+            "Greedy", INICIALIZADORES_GREEDY.get("Greedy"),
+            "LAB", INICIALIZADORES_GREEDY.get("LAB"),
+            "Aleatorio", p -> new InicializadorKMedoidsAleatorio());
+    private static final Map<String, IntFunction<InterfazInicializadorAlgoritmo<JerarquicoTipo>>> INICIALIZADORES_JERARQUICO = Map.of(
+            "Ninguno", p -> new InicializadorJerarquico());
+    private static final Set<String> INICIALIZADORES = Set.of("KMeans++", "KMeans||", "Aleatorio", "Greedy", "LAB", "Ninguno");
+
+    //algoritmos que se pueden elegir, construidos a partir del paralelismo, con sus inicializadores compatibles
+    private static final Map<String, Combinaciones<?>> ALGORITMOS = Map.ofEntries(
+            Map.entry("KMeans", new Combinaciones<>(p -> new KMeans(), INICIALIZADORES_KMEANS)),
+            Map.entry("KMeansOptimizado", new Combinaciones<>(p -> new KMeansOptimizado(), INICIALIZADORES_KMEANS)),
+            Map.entry("KMeansHamerly", new Combinaciones<>(p -> new KMeansHamerly(), INICIALIZADORES_KMEANS)),
+            Map.entry("KMeansParalelo", new Combinaciones<>(KMeansParalelo::new, INICIALIZADORES_KMEANS)),
+            Map.entry("KMeansMiniBatch", new Combinaciones<>(p -> new KMeansMiniBatch(), INICIALIZADORES_KMEANS)),
+            Map.entry("KMedoids", new Combinaciones<>(KMedoids::new, INICIALIZADORES_GREEDY)),
+            Map.entry("CLARA", new Combinaciones<>(CLARA::new, INICIALIZADORES_KMEDOIDS)),
+            Map.entry("CLARANS", new Combinaciones<>(p -> new CLARANS(), INICIALIZADORES_KMEDOIDS)),
+            Map.entry("JerarquicoPromedio", new Combinaciones<>(p -> new ClusteringJerarquico(ClusteringJerarquico.Enlace.PROMEDIO), INICIALIZADORES_JERARQUICO)),
+            Map.entry("JerarquicoCompleto", new Combinaciones<>(p -> new ClusteringJerarquico(ClusteringJerarquico.Enlace.COMPLETO), INICIALIZADORES_JERARQUICO)),
+            Map.entry("JerarquicoWard", new Combinaciones<>(p -> new ClusteringJerarquico(ClusteringJerarquico.Enlace.WARD), INICIALIZADORES_JERARQUICO)));
+
     CtrlEncuesta ce;
     CtrlRespuesta cr;
     CtrlPerfil cp;
+    //número de hilos de los algoritmos paralelos
+    private int paralelismo = Runtime.getRuntime().availableProcessors();
 
     public CtrlDominio() {
         this.ce = new CtrlEncuesta();
@@ -548,7 +603,8 @@ public class CtrlDominio {
             throw new NoHayRespuestasSeleccionadas("No hay respuestas cargadas para calcular K");
         }
 
-        Analizador.getInstance().calcularK(respuestas);
+        Analizador.getInstance().sincronizarSesion(cr.getVersion());
+        Analizador.getInstance().calcularK(respuestas, paralelismo);
 
         return Analizador.getInstance().getK();
     }
@@ -576,7 +632,8 @@ public class CtrlDominio {
                 throw new EncuestaDiferente("No se puede analizar la encuesta porque una o más respuestas pertenecen a otra encuesta");
             }
         }
-        Analizador.getInstance().analizarRespuestas(new ArrayList<>(respuestas));
+        Analizador.getInstance().sincronizarSesion(cr.getVersion());
+        Analizador.getInstance().analizarRespuestas(new ArrayList<>(respuestas), paralelismo);
     }
 
     /**
@@ -607,7 +664,8 @@ public class CtrlDominio {
      * Analiza las respuestas cargadas en memoria.
      * */
     public void analizar() {
-        Analizador.getInstance().analizarRespuestas(new ArrayList<>(cr.getRespuestasCargadas()));
+        Analizador.getInstance().sincronizarSesion(cr.getVersion());
+        Analizador.getInstance().analizarRespuestas(new ArrayList<>(cr.getRespuestasCargadas()), paralelismo);
     }
 
     /**
@@ -618,54 +676,165 @@ public class CtrlDominio {
         return Analizador.getInstance().evaluarCalidadClustering();
     }
 
-    private boolean esAlgorimoValido(String nombreAlgoritmo) {
-        return nombreAlgoritmo.equals("KMeans") || nombreAlgoritmo.equals("KMedoids" ) || nombreAlgoritmo.equals("KMeansOptimizado");
+    /**
+     * Obtiene el intervalo de confianza del 95 % de la última evaluación de calidad, si el evaluador es muestreado.
+     * @return Extremos inferior y superior, o null si el evaluador calcula el valor exacto.
+     */
+    public float[] getIntervaloEvaluacionCalidad() {
+        if (Analizador.getInstance().getEvaluador() instanceof SilhouetteMuestreado muestreado) return muestreado.getIntervaloConfianza();
+        return null;
+    }
+
+    /**
+     * Obtiene las medidas de calidad del clustering realizado, calculadas en una sola pasada.
+     * @return Valor de WCSS, BCSS, CalinskiHarabasz, DaviesBouldin y SilhouetteSimplificada, en este orden.
+     */
+    public LinkedHashMap<String, Float> getMedidasCalidad() {
+        MedidasCalidad medidas = Analizador.getInstance().getMedidasCalidad();
+        LinkedHashMap<String, Float> valores = new LinkedHashMap<>();
+        valores.put("WCSS", (float) medidas.getWCSS());
+        valores.put("BCSS", (float) medidas.getBCSS());
+        valores.put("CalinskiHarabasz", medidas.getCalinskiHarabasz());
+        valores.put("DaviesBouldin", medidas.getDaviesBouldin());
+        valores.put("SilhouetteSimplificada", medidas.getSilhouetteSimplificada());
+        return valores;
+    }
+
+    /**
+     * Obtiene la dispersión de cada cluster del clustering realizado: la distancia media de sus respuestas a su centro.
+     * @return Dispersión de cada cluster; 0 en los vacíos.
+     */
+    public float[] getDispersionesClusters() {
+        return Analizador.getInstance().getMedidasCalidad().getDispersiones();
+    }
+
+    /**
+     * Devuelve el número de hilos que usan los algoritmos paralelos.
+     * @return Paralelismo actual; por defecto, el número de procesadores disponibles.
+     */
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    /**
+     * Establece cuántas ejecuciones independientes hace cada análisis; se queda con la mejor.
+     * Las ejecuciones se reparten entre los hilos del último paralelismo elegido.
+     * @param numInicializaciones Número de ejecuciones con semillas distintas.
+     * @param elegirConEvaluador Si es true se elige la de mejor evaluación de calidad; si no, la de menor WCSS.
+     * @throws InicializacionesMenorQueUno Si el número de inicializaciones es menor que 1.
+     */
+    public void setNumInicializaciones(int numInicializaciones, boolean elegirConEvaluador) {
+        Analizador.getInstance().setNumInicializaciones(numInicializaciones, elegirConEvaluador);
+    }
+
+    /**
+     * Devuelve el número de ejecuciones independientes de cada análisis.
+     * @return Número de inicializaciones; por defecto 1.
+     */
+    public int getNumInicializaciones() {
+        return Analizador.getInstance().getNumInicializaciones();
+    }
+
+    /**
+     * Obtiene el tiempo de cada ejecución del último análisis.
+     * @return Milisegundos de cada ejecución.
+     */
+    public double[] getTiemposInicializaciones() {
+        long[] tiempos = Analizador.getInstance().getTiemposInicializaciones();
+        double[] ms = new double[tiempos.length];
+        for (int i = 0; i < tiempos.length; ++i) ms[i] = tiempos[i] / 1e6;
+        return ms;
+    }
+
+    /**
+     * Obtiene el número de iteraciones de cada ejecución del último análisis.
+     * @return Iteraciones de cada ejecución; 0 si el algoritmo no es iterativo.
+     */
+    public int[] getIteracionesInicializaciones() {
+        return Analizador.getInstance().getIteracionesInicializaciones();
+    }
+
+    /**
+     * Obtiene el desplazamiento de los centroides en la última iteración de cada ejecución del último análisis.
+     * @return Desplazamiento final de cada ejecución; NaN si no se conoce.
+     */
+    public float[] getDesplazamientosInicializaciones() {
+        return Analizador.getInstance().getDesplazamientosInicializaciones();
     }
 
-    private boolean esInicializadorValido(String nombreInicializador) {
-        return nombreInicializador.equals("KMeans++") || nombreInicializador.equals("Aleatorio") || nombreInicializador.equals("Greedy");
+    /**
+     * Establece el algoritmo de análisis, el inicializador de centroides y el número de hilos a utilizar.
+     * @param nombreAlgoritmo Nombre del algoritmo (KMeans, KMedoids, KMeansOptimizado, KMeansHamerly, KMeansParalelo, KMeansMiniBatch, CLARA, CLARANS, JerarquicoPromedio, JerarquicoCompleto, JerarquicoWard).
+     * @param nombreInicializador Nombre del algoritmo de inicialización (KMeans++, KMeans||, Aleatorio, Greedy, LAB, Ninguno).
+     * @param paralelismo Número de hilos de los algoritmos paralelos.
+     * @throws ParalelismoMenorQueUno Si el paralelismo es menor que 1.
+     * @throws AlgoritmoNoReconocido Si el nombre del algoritmo no es válido.
+     * @throws InicializadorNoReconocido Si el nombre del inicializador no es válido.
+     * @throws InicializadorYAlgoritmoIncompatibles Si la combinación elegida no está soportada.
+     */
+    public void elegirAlgoritmoAnalisis(String nombreAlgoritmo, String nombreInicializador, int paralelismo) {
+        if(paralelismo < 1) throw new ParalelismoMenorQueUno("El paralelismo es menor que 1");
+        this.paralelismo = paralelismo;
+        elegirAlgoritmoAnalisis(nombreAlgoritmo, nombreInicializador);
     }
 
     /**
      * Establece el algoritmo de análisis y el inicializador de centroides a utilizar.
-     * @param nombreAlgoritmo Nombre del algoritmo (KMeans, KMedoids, KMeansOptimizado).
-     * @param nombreInicializador Nombre del algoritmo de inicialización (KMeans++, Aleatorio, Greedy).
+     * Los algoritmos paralelos (KMeansParalelo, los intercambios de KMedoids, las muestras de CLARA, KMeans||, Greedy y LAB) usan el último paralelismo elegido.
+     * @param nombreAlgoritmo Nombre del algoritmo (KMeans, KMedoids, KMeansOptimizado, KMeansHamerly, KMeansParalelo, KMeansMiniBatch, CLARA, CLARANS, JerarquicoPromedio, JerarquicoCompleto, JerarquicoWard).
+     * @param nombreInicializador Nombre del algoritmo de inicialización (KMeans++, KMeans||, Aleatorio, Greedy, LAB, Ninguno).
      * @throws AlgoritmoNoReconocido Si el nombre del algoritmo no es válido.
      * @throws InicializadorNoReconocido Si el nombre del inicializador no es válido.
      * @throws InicializadorYAlgoritmoIncompatibles Si la combinación elegida no está soportada.
      */
     public void elegirAlgoritmoAnalisis(String nombreAlgoritmo, String nombreInicializador) {
-        if(!esAlgorimoValido(nombreAlgoritmo)){throw new AlgoritmoNoReconocido("Algoritmo no reconocido");}
-        if(!esInicializadorValido(nombreInicializador)){throw new InicializadorNoReconocido("Inicializador no reconocido");}
-        if(nombreAlgoritmo.equals("KMeans") && nombreInicializador.equals("KMeans++")) {
-            Analizador.getInstance().cambiarAlgoritmo(new KMeans(), new InicializadorKMeansPlusPlus());
-        }
-        else if(nombreAlgoritmo.equals("KMeans") && nombreInicializador.equals("Aleatorio")) {
-            Analizador.getInstance().cambiarAlgoritmo(new KMeans(), new InicializadorRandom());
-        }
-        else if(nombreAlgoritmo.equals("KMedoids") && nombreInicializador.equals("Greedy")) {
-            Analizador.getInstance().cambiarAlgoritmo(new KMedoids(), new InicializadorKMedoidsGreedy());
-        }
-        else if(nombreAlgoritmo.equals("KMeansOptimizado") && nombreInicializador.equals("Aleatorio")) {
-            Analizador.getInstance().cambiarAlgoritmo(new KMeansOptimizado(), new InicializadorRandom());
-        }
-        else if(nombreAlgoritmo.equals("KMeansOptimizado") && nombreInicializador.equals("KMeans++")) {
-            Analizador.getInstance().cambiarAlgoritmo(new KMeansOptimizado(), new InicializadorKMeansPlusPlus());
-        }
-        else throw new InicializadorYAlgoritmoIncompatibles("El inicializador" + nombreInicializador + " no es compatible con el algoritmo" + nombreAlgoritmo);
+        Combinaciones<?> combinaciones = ALGORITMOS.get(nombreAlgoritmo);
+        if(combinaciones == null){throw new AlgoritmoNoReconocido("Algoritmo no reconocido");}
+        if(!INICIALIZADORES.contains(nombreInicializador)){throw new InicializadorNoReconocido("Inicializador no reconocido");}
+        if(!combinaciones.elegir(nombreInicializador, paralelismo))
+            throw new InicializadorYAlgoritmoIncompatibles("El inicializador" + nombreInicializador + " no es compatible con el algoritmo" + nombreAlgoritmo);
     }
 
     /**
-     * Establece el evaluador de calidad a utilizar.
-     * @param nombreEvaluador Nombre del evaluador de calidad a utilizar.
+     * Establece el evaluador de calidad a utilizar. SilhouetteMuestreado usa su muestra por defecto y no tiene límite de tiempo.
+     * @param nombreEvaluador Nombre del evaluador de calidad (Silhouette, SilhouetteMuestreado, SilhouetteSimplificada, CalinskiHarabasz, DaviesBouldinen).
      * @throws EvaluadorNoReconocido Si el nombre del evaluador no es reconocido.
      * */
     public void elegirEvaluadorCalidad(String nombreEvaluador) {
+        elegirEvaluadorCalidad(nombreEvaluador, SilhouetteMuestreado.MUESTRA_POR_DEFECTO, 0);
+    }
+
+    /**
+     * Establece el evaluador de calidad a utilizar, con el tamaño de muestra y el límite de tiempo de SilhouetteMuestreado.
+     * @param nombreEvaluador Nombre del evaluador de calidad (Silhouette, SilhouetteMuestreado, SilhouetteSimplificada, CalinskiHarabasz, DaviesBouldinen).
+     * @param tamMuestra Número de respuestas de la muestra; solo lo usa SilhouetteMuestreado.
+     * @param limiteMilis Tiempo máximo de cada evaluación en milisegundos, 0 para no limitarlo; solo lo usa SilhouetteMuestreado.
+     * @throws EvaluadorNoReconocido Si el nombre del evaluador no es reconocido.
+     * @throws MuestraMenorQueUno Si el evaluador es SilhouetteMuestreado y la muestra es menor que 1 o el límite es negativo.
+     * */
+    public void elegirEvaluadorCalidad(String nombreEvaluador, int tamMuestra, long limiteMilis) {
         switch (nombreEvaluador) {
-            case "Silhouette" -> Analizador.getInstance().cambiarEvaluador(new Silhouette());
+            case "Silhouette" -> Analizador.getInstance().cambiarEvaluador(new Silhouette(paralelismo));
+            case "SilhouetteMuestreado" -> Analizador.getInstance().cambiarEvaluador(
+                    new SilhouetteMuestreado(tamMuestra, SilhouetteMuestreado.MUESTRA_CLUSTER_POR_DEFECTO, limiteMilis));
+            case "SilhouetteSimplificada" -> Analizador.getInstance().cambiarEvaluador(new SilhouetteSimplificada());
             case "CalinskiHarabasz" -> Analizador.getInstance().cambiarEvaluador(new CalinskiHarabasz());
             case "DaviesBouldinen" -> Analizador.getInstance().cambiarEvaluador(new DaviesBouldinen());
             default -> throw new EvaluadorNoReconocido("Evaluador no reconocido");
         }
     }
+
+    //un algoritmo y los inicializadores compatibles con él; el tipo T garantiza que se pueden combinar
+    private record Combinaciones<T extends AlgoritmoTipo>(
+            IntFunction<InterfazAlgoritmo<T>> algoritmo,
+            Map<String, IntFunction<InterfazInicializadorAlgoritmo<T>>> inicializadores) {
+
+        //cambia el algoritmo del Analizador; devuelve false si el inicializador no es compatible
+        boolean elegir(String nombreInicializador, int paralelismo) {
+            IntFunction<InterfazInicializadorAlgoritmo<T>> inicializador = inicializadores.get(nombreInicializador);
+            if (inicializador == null) return false;
+            Analizador.getInstance().cambiarAlgoritmo(algoritmo.apply(paralelismo), inicializador.apply(paralelismo));
+            return true;
+        }
+    }
 }
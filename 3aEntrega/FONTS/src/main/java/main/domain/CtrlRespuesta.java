@@ -23,6 +23,8 @@ import java.util.TreeMap;
 public class CtrlRespuesta {
     private RespuestaEncuesta respuestaActual;
     private HashSet<RespuestaEncuesta> respuestasCargadas;
+    //se incrementa cada vez que cambian las respuestas cargadas o su contenido
+    private long version;
 
     public CtrlRespuesta() {
         this.respuestaActual = null;
@@ -44,6 +46,7 @@ public class CtrlRespuesta {
             try (ObjectInputStream ois = new ObjectInputStream(datos)) {
                 this.respuestaActual = (RespuestaEncuesta) ois.readObject();
                 this.respuestasCargadas.add(this.respuestaActual);
+                ++version;
             }
             catch (IOException | ClassNotFoundException e) {
                 throw new FalloPersistencia("Error al deserializar respuesta: " + e.getMessage());
@@ -72,6 +75,7 @@ public class CtrlRespuesta {
             }
         }
         this.respuestasCargadas = respuestas;
+        ++version;
     }
 
     /**
@@ -90,6 +94,7 @@ public class CtrlRespuesta {
                 try (ObjectInputStream ois = new ObjectInputStream(dato)) {
                     RespuestaEncuesta r = (RespuestaEncuesta) ois.readObject();
                     this.respuestasCargadas.add(r);
+                    ++version;
                 }
                 catch (IOException | ClassNotFoundException e) {
                     throw new FalloPersistencia("Error al deserializar respuesta: " + e.getMessage());
@@ -140,6 +145,7 @@ public class CtrlRespuesta {
 
         this.respuestaActual = nuevaRespuesta;
         this.respuestasCargadas.add(nuevaRespuesta);
+        ++version;
     }
 
     /**
@@ -155,6 +161,7 @@ public class CtrlRespuesta {
 
         this.respuestasCargadas.remove(this.respuestaActual);
         this.respuestaActual = null;
+        ++version;
         CtrlPersistencia.getInstance().borrarRespuestaEncuesta(emailCreador, titulo, emailRespuesta);
     }
 
@@ -167,6 +174,7 @@ public class CtrlRespuesta {
     public void addDatoRespuesta(int idPregunta, TDatos datos) {
         checkRespuestaActual();
         this.respuestaActual.addRespuesta(idPregunta, datos);
+        ++version;
     }
 
     /**
@@ -187,6 +195,16 @@ public class CtrlRespuesta {
         return this.respuestasCargadas;
     }
 
+    /**
+     * Obtiene la versión de las respuestas cargadas en memoria.
+     * Cambia cada vez que se cargan, crean, borran o modifican respuestas, de modo que
+     * permite saber si los resultados calculados a partir de ellas siguen siendo válidos.
+     * @return Versión actual de las respuestas cargadas.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
     /**
      * Obtiene el dato de respuesta para una pregunta específica en la respuesta actual.
      * @param idPregunta El ID de la pregunta cuyo dato se desea obtener.
@@ -235,6 +253,7 @@ public class CtrlRespuesta {
     public void deseleccionarRespuestas() {
         this.respuestaActual = null;
         this.respuestasCargadas.clear();
+        ++version;
     }
 
     /**
@@ -252,6 +271,7 @@ public class CtrlRespuesta {
             this.respuestaActual = (RespuestaEncuesta) ois.readObject();
             guardarRespuesta();
             this.respuestasCargadas.add(this.respuestaActual);
+            ++version;
         }
         catch (IOException | ClassNotFoundException e) {
             throw new FalloPersistencia("Error al deserializar respuesta: " + e.getMessage());
@@ -2,14 +2,27 @@ package main.domain.analisis;
 
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.algoritmo.AlgoritmoTipo;
+import main.domain.analisis.algoritmo.ClusteringJerarquico;
+import main.domain.analisis.algoritmo.Dendrograma;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
 import main.domain.analisis.algoritmo.InterfazAlgoritmo;
+import main.domain.analisis.algoritmo.InterfazAlgoritmoIterativo;
 import main.domain.analisis.algoritmo.KMeansOptimizado;
 import main.domain.analisis.evaluador.InterfazEvaluadorCalidad;
+import main.domain.analisis.evaluador.MedidasCalidad;
 import main.domain.analisis.evaluador.Silhouette;
 import main.domain.analisis.inicializador.InicializadorKMeansPlusPlus;
 import main.domain.analisis.inicializador.InterfazInicializadorAlgoritmo;
+import main.domain.exceptions.InicializacionesMenorQueUno;
+import main.domain.exceptions.ParalelismoMenorQueUno;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Clase singleton encargada de coordinar el proceso de análisis y clustering.
@@ -35,7 +48,26 @@ public class Analizador {
 
     private final float ELBOW_THRESHOLD = 0.15f;
 
-    private ArrayList<ArrayList<RespuestaEncuesta>> resultados;
+    private ResultadoClustering resultado;
+    //distancias de la asignación final que dio el resultado, si el algoritmo las tiene
+    private DistanciasAsignacion distanciasAsignacion;
+    //medidas de calidad del resultado, calculadas la primera vez que se piden
+    private MedidasCalidad medidasCalidad;
+
+    //número de ejecuciones independientes de inicializador y algoritmo de las que se queda la mejor
+    private int numInicializaciones = 1;
+    //si es false las ejecuciones se comparan por WCSS; si es true, con el evaluador de calidad
+    private boolean elegirConEvaluador = false;
+    private final Random semillas = new Random();
+    private long[] tiemposInicializaciones = new long[0];
+    private double[] puntuacionesInicializaciones = new double[0];
+    private int[] iteracionesInicializaciones = new int[0];
+    private float[] desplazamientosInicializaciones = new float[0];
+    private int mejorInicializacion = -1;
+
+    private static final long SIN_SESION = -1;
+    //versión de las respuestas cargadas para la que es válida la matriz compilada del comparador
+    private long versionSesion = SIN_SESION;
 
     /**
      * Devuelve la instancia única del analizador.
@@ -89,6 +121,101 @@ public class Analizador {
     }
 
 
+    /**
+     * Devuelve el número de ejecuciones independientes de cada análisis.
+     *
+     * @return Número de inicializaciones; por defecto 1.
+     */
+    public int getNumInicializaciones() {
+        return numInicializaciones;
+    }
+
+    /**
+     * Cambia el número de ejecuciones independientes de cada análisis. Cada ejecución usa su propia semilla en el
+     * inicializador y en el algoritmo, y el análisis se queda con la de mejor puntuación.
+     *
+     * @param numInicializaciones Número de inicializaciones.
+     * @param elegirConEvaluador Si es {@code true} se elige la ejecución con mejor valor del evaluador de calidad;
+     *                           si es {@code false}, la de menor WCSS.
+     * @throws InicializacionesMenorQueUno si {@code numInicializaciones} es menor a 1.
+     */
+    public void setNumInicializaciones(int numInicializaciones, boolean elegirConEvaluador) {
+        if (numInicializaciones < 1) throw new InicializacionesMenorQueUno("El número de inicializaciones es menor que 1");
+        this.numInicializaciones = numInicializaciones;
+        this.elegirConEvaluador = elegirConEvaluador;
+    }
+
+    /**
+     * Devuelve el tiempo de cada ejecución del último análisis (inicializador y algoritmo, sin la puntuación).
+     *
+     * @return Nanosegundos de cada ejecución, en el orden de sus semillas.
+     */
+    public long[] getTiemposInicializaciones() {
+        return tiemposInicializaciones.clone();
+    }
+
+    /**
+     * Devuelve la puntuación de cada ejecución del último análisis: su WCSS o el valor del evaluador de calidad.
+     * Con una sola inicialización no se puntúa y el valor es {@code NaN}.
+     *
+     * @return Puntuación de cada ejecución, en el orden de sus semillas.
+     */
+    public double[] getPuntuacionesInicializaciones() {
+        return puntuacionesInicializaciones.clone();
+    }
+
+    /**
+     * Devuelve el número de iteraciones de cada ejecución del último análisis. Si el algoritmo no es
+     * iterativo (ver {@link InterfazAlgoritmoIterativo}) los valores son 0.
+     *
+     * @return Iteraciones de cada ejecución, en el orden de sus semillas.
+     */
+    public int[] getIteracionesInicializaciones() {
+        return iteracionesInicializaciones.clone();
+    }
+
+    /**
+     * Devuelve el mayor desplazamiento de un centroide en la última iteración de cada ejecución del último
+     * análisis. Si el algoritmo no es iterativo, o una ejecución acaba sin recalcular los centroides, el valor es {@code NaN}.
+     *
+     * @return Desplazamiento final de cada ejecución, en el orden de sus semillas.
+     */
+    public float[] getDesplazamientosInicializaciones() {
+        return desplazamientosInicializaciones.clone();
+    }
+
+    /**
+     * Devuelve la posición de la ejecución elegida en el último análisis.
+     *
+     * @return Índice en {@link #getTiemposInicializaciones()}, o -1 si no se ha analizado.
+     */
+    public int getMejorInicializacion() {
+        return mejorInicializacion;
+    }
+
+    /**
+     * Indica al analizador la versión de las respuestas cargadas que se van a analizar.
+     * <p>
+     * Mientras la versión no cambie, la matriz compilada y las distancias precalculadas entre
+     * respuestas se reutilizan entre análisis, cálculo de {@code k}, evaluación y consultas de distancias.
+     * Si cambia, se descartan.
+     * </p>
+     * @param versionRespuestas versión de las respuestas cargadas (ver {@code CtrlRespuesta#getVersion()}).
+     */
+    public void sincronizarSesion(long versionRespuestas) {
+        if (versionRespuestas != versionSesion) {
+            comparador.invalidar();
+            versionSesion = versionRespuestas;
+        }
+    }
+
+    //compila las respuestas, salvo que la sesión sincronizada ya tenga compiladas exactamente las mismas
+    private void prepararSesion(ArrayList<RespuestaEncuesta> respuestas) {
+        if (versionSesion == SIN_SESION || comparador.getMatriz(respuestas) == null) {
+            comparador.compilar(respuestas);
+        }
+    }
+
     /**
      * Devuelve una matriz de distancias internas por cada cluster.
      *
@@ -97,18 +224,20 @@ public class Analizador {
     public ArrayList<ArrayList<ArrayList<Float>>> getDistanciasClusters() {
         ArrayList<ArrayList<ArrayList<Float>>> mat = new ArrayList<>();
 
-        for (ArrayList<RespuestaEncuesta> cluster : resultados) {
+        RespuestasIndexadas puntos = puntosDeResultado();
+        for (int c = 0; c < resultado.getK(); ++c) {
             ArrayList<ArrayList<Float>> clusterMat = new ArrayList<>();
-            for (RespuestaEncuesta r1 : cluster) {
+            for (int j1 = 0; j1 < resultado.getTamano(c); ++j1) {
+                int r1 = resultado.getMiembro(c, j1);
                 ArrayList<Float> fila = new ArrayList<>();
-                for (RespuestaEncuesta r2 : cluster) {
-                    fila.add(comparador.getDistancia(r1, r2));
+                for (int j2 = 0; j2 < resultado.getTamano(c); ++j2) {
+                    int r2 = resultado.getMiembro(c, j2);
+                    fila.add(puntos.distancia(r1, r2));
                 }
                 clusterMat.add(fila);
             }
             mat.add(clusterMat);
         }
-
         return mat;
     }
 
@@ -119,23 +248,31 @@ public class Analizador {
      * @return Matriz de distancias.
      */
     public ArrayList<ArrayList<Float>> getDistancias() {
-        ArrayList<RespuestaEncuesta> todas = new ArrayList<>();
-        //aplanar matriz a vector
-        for (ArrayList<RespuestaEncuesta> cluster : resultados) {
-            todas.addAll(cluster);
+        //posiciones de las respuestas, cluster a cluster
+        int[] todas = new int[resultado.getNumRespuestas()];
+        for (int c = 0, p = 0; c < resultado.getK(); ++c) {
+            for (int j = 0; j < resultado.getTamano(c); ++j) todas[p++] = resultado.getMiembro(c, j);
         }
 
         ArrayList<ArrayList<Float>> mat = new ArrayList<>();
-        for (RespuestaEncuesta toda : todas) {
+        RespuestasIndexadas puntos = puntosDeResultado();
+        for (int i : todas) {
             ArrayList<Float> fila = new ArrayList<>();
-            for (RespuestaEncuesta respuestaEncuesta : todas) {
-                fila.add(comparador.getDistancia(toda, respuestaEncuesta));
+            for (int j : todas) {
+                fila.add(puntos.distancia(i, j));
             }
             mat.add(fila);
         }
         return mat;
     }
 
+    //respuestas de los resultados por posición; si son las compiladas, con las distancias precalculadas
+    private RespuestasIndexadas puntosDeResultado() {
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(resultado.getRespuestas(), comparador);
+        puntos.precalcularDistancias();
+        return puntos;
+    }
+
     /**
      * Devuelve los emails de las respuestas agrupadas por cluster.
      *
@@ -144,9 +281,9 @@ public class Analizador {
     public ArrayList<ArrayList<String>> getAutoresClusters() {
         ArrayList<ArrayList<String>> mat = new ArrayList<>();
 
-        for (ArrayList<RespuestaEncuesta> cluster : resultados) {
+        for (int c = 0; c < resultado.getK(); ++c) {
             ArrayList<String> fila = new ArrayList<>();
-            for (RespuestaEncuesta respuesta : cluster) {
+            for (RespuestaEncuesta respuesta : resultado.miembros(c)) {
                 fila.add(respuesta.getEmailrespuesta());
             }
             mat.add(fila);
@@ -177,54 +314,191 @@ public class Analizador {
     }
 
     /**
-     * Ejecuta el clustering sobre las respuestas proporcionadas.
+     * Ejecuta el clustering sobre las respuestas proporcionadas, con un hilo por procesador disponible.
      *
      * @param respuestas Respuestas a analizar.
      */
     public void analizarRespuestas(ArrayList<RespuestaEncuesta> respuestas) {
-        resultados = analizar(respuestas, k);
+        analizarRespuestas(respuestas, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ejecuta el clustering sobre las respuestas proporcionadas.
+     * <p>
+     * Con varias inicializaciones (ver {@link #setNumInicializaciones(int, boolean)}), las ejecuciones se reparten
+     * entre {@code paralelismo} hilos y comparten la matriz compilada de las respuestas, que solo se lee. Con más
+     * de un hilo, cada ejecución usa un algoritmo e inicializador de un solo hilo (ver
+     * {@link InterfazAlgoritmo#conSemillaSecuencial(long)}). Las ejecuciones se puntúan al acabar todas, en orden, y
+     * el resultado es el de la ejecución con mejor puntuación; en caso de empate, la primera.
+     * </p>
+     *
+     * @param respuestas Respuestas a analizar.
+     * @param paralelismo Número de ejecuciones que se hacen a la vez.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public void analizarRespuestas(ArrayList<RespuestaEncuesta> respuestas, int paralelismo) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno("El paralelismo es menor que 1");
+        prepararSesion(respuestas);
+        if (numInicializaciones == 1) {
+            long inicio = System.nanoTime();
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = analizar(respuestas, k);
+            distanciasAsignacion = algoritmo.getDistanciasAsignacion();
+            resultado = ResultadoClustering.crear(respuestas, clusters, algoritmo.getCentros(), distanciasAsignacion, comparador);
+            medidasCalidad = null;
+            tiemposInicializaciones = new long[]{System.nanoTime() - inicio};
+            puntuacionesInicializaciones = new double[]{Double.NaN};
+            iteracionesInicializaciones = new int[1];
+            desplazamientosInicializaciones = new float[1];
+            registrarConvergencia(algoritmo, 0, iteracionesInicializaciones, desplazamientosInicializaciones);
+            mejorInicializacion = 0;
+            return;
+        }
+
+        int n = numInicializaciones;
+        long[] semillasInicializador = new long[n];
+        long[] semillasAlgoritmo = new long[n];
+        for (int i = 0; i < n; ++i) {
+            semillasInicializador[i] = semillas.nextLong();
+            semillasAlgoritmo[i] = semillas.nextLong();
+        }
+        List<ArrayList<ArrayList<RespuestaEncuesta>>> clusterings = new ArrayList<>(Collections.nCopies(n, null));
+        long[] tiempos = new long[n];
+        double[] puntuaciones = new double[n];
+        int[] iteraciones = new int[n];
+        float[] desplazamientos = new float[n];
+        DistanciasAsignacion[] distancias = new DistanciasAsignacion[n];
+        List<ArrayList<RespuestaEncuesta>> centros = new ArrayList<>(Collections.nCopies(n, null));
+
+        //con varias ejecuciones a la vez, cada una trabaja en un solo hilo para no abrir grupos de hilos anidados
+        boolean secuencial = paralelismo > 1;
+        IntConsumer ejecucion = i -> {
+            long inicio = System.nanoTime();
+            InterfazInicializadorAlgoritmo<? extends AlgoritmoTipo> inicializador = secuencial
+                    ? inicializadorAlgoritmo.conSemillaSecuencial(semillasInicializador[i])
+                    : inicializadorAlgoritmo.conSemilla(semillasInicializador[i]);
+            InterfazAlgoritmo<? extends AlgoritmoTipo> ejecutor = secuencial
+                    ? algoritmo.conSemillaSecuencial(semillasAlgoritmo[i])
+                    : algoritmo.conSemilla(semillasAlgoritmo[i]);
+            ArrayList<RespuestaEncuesta> iniciales = inicializador.generaIniciales(respuestas, k, comparador);
+            clusterings.set(i, ejecutor.analizar(iniciales, respuestas, k, comparador));
+            tiempos[i] = System.nanoTime() - inicio;
+            registrarConvergencia(ejecutor, i, iteraciones, desplazamientos);
+            distancias[i] = ejecutor.getDistanciasAsignacion();
+            centros.set(i, ejecutor.getCentros());
+        };
+        if (paralelismo == 1) {
+            for (int i = 0; i < n; ++i) ejecucion.accept(i);
+        }
+        else {
+            try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                pool.submit(() -> IntStream.range(0, n).parallel().forEach(ejecucion)).join();
+            }
+        }
+
+        //las ejecuciones se puntúan después y en orden: el evaluador es compartido y puede guardar estado
+        for (int i = 0; i < n; ++i) {
+            puntuaciones[i] = elegirConEvaluador
+                    ? evaluador.evaluar(clusterings.get(i), comparador, distancias[i])
+                    : WCSS(clusterings.get(i), centros.get(i), distancias[i]);
+        }
+
+        boolean mayorEsMejor = elegirConEvaluador && evaluador.mayorEsMejor();
+        int mejor = 0;
+        for (int i = 1; i < n; ++i) {
+            if (mayorEsMejor ? puntuaciones[i] > puntuaciones[mejor] : puntuaciones[i] < puntuaciones[mejor]) mejor = i;
+        }
+        distanciasAsignacion = distancias[mejor];
+        resultado = ResultadoClustering.crear(respuestas, clusterings.get(mejor), centros.get(mejor), distanciasAsignacion, comparador);
+        medidasCalidad = null;
+        tiemposInicializaciones = tiempos;
+        puntuacionesInicializaciones = puntuaciones;
+        iteracionesInicializaciones = iteraciones;
+        desplazamientosInicializaciones = desplazamientos;
+        mejorInicializacion = mejor;
+    }
+
+    //guarda las estadísticas de convergencia de la ejecución i, si el algoritmo las tiene
+    private static void registrarConvergencia(InterfazAlgoritmo<? extends AlgoritmoTipo> ejecutor, int i,
+                                              int[] iteraciones, float[] desplazamientos) {
+        if (ejecutor instanceof InterfazAlgoritmoIterativo iterativo) {
+            iteraciones[i] = iterativo.getNumIteraciones();
+            desplazamientos[i] = iterativo.getDesplazamientoFinal();
+        }
+        else desplazamientos[i] = Float.NaN;
     }
 
     /**
-     * Evalúa la calidad del clustering actual.
+     * Evalúa la calidad del clustering actual. Si el algoritmo dio las distancias de su asignación final, el
+     * evaluador las puede usar en lugar de calcularlas (ver {@link InterfazEvaluadorCalidad#evaluar(List, Comparador, DistanciasAsignacion)}).
      *
      * @return Valor de calidad calculado.
      */
     public Float evaluarCalidadClustering() {
-        return evaluador.evaluarCalidad(resultados, comparador);
+        return evaluador.evaluar(resultado.getClusters(), comparador, distanciasAsignacion);
     }
 
     /**
-     * Calcula automáticamente el valor óptimo de {@code k} usando el Elbow Method.
+     * Devuelve el resultado del último análisis.
+     *
+     * @return Resultado con la etiqueta de cada respuesta, los centros y las distancias a ellos; {@code null} si no se ha analizado.
+     */
+    public ResultadoClustering getResultado() {
+        return resultado;
+    }
+
+    /**
+     * Devuelve el árbol de uniones del último análisis, si el algoritmo es jerárquico.
+     *
+     * @return Dendrograma de las respuestas analizadas; {@code null} si el algoritmo no es {@link ClusteringJerarquico} o no se ha analizado.
+     */
+    public Dendrograma getDendrograma() {
+        return (algoritmo instanceof ClusteringJerarquico jerarquico) ? jerarquico.getDendrograma() : null;
+    }
+
+    /**
+     * Devuelve las medidas de calidad del clustering actual (WCSS, BCSS, dispersión de cada cluster,
+     * Calinski-Harabasz, Davies-Bouldin y Silhouette simplificado), calculadas en una sola pasada sobre los
+     * resultados. Se reutilizan los centros y las distancias de la asignación del algoritmo si los da, y el
+     * cálculo se hace una sola vez por análisis.
+     *
+     * @return Medidas de calidad de los resultados.
+     */
+    public MedidasCalidad getMedidasCalidad() {
+        if (medidasCalidad == null) medidasCalidad = MedidasCalidad.calcular(resultado.getClusters(), resultado.getCentros(), comparador, distanciasAsignacion);
+        return medidasCalidad;
+    }
+
+    /**
+     * Calcula automáticamente el valor óptimo de {@code k} usando el Elbow Method, con un hilo por
+     * procesador disponible.
      *
      * @param respuestas Respuestas a analizar.
      */
     public void calcularK(ArrayList<RespuestaEncuesta> respuestas) {
+        calcularK(respuestas, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Calcula automáticamente el valor óptimo de {@code k} usando el Elbow Method.
+     * <p>
+     * Los valores de {@code k} se prueban hasta {@link BarridoK#getKMaxima(int)}, varios a la vez y partiendo
+     * cada uno de la solución del anterior (ver {@link BarridoK}).
+     * </p>
+     *
+     * @param respuestas Respuestas a analizar.
+     * @param paralelismo Número de tramos de valores de {@code k} que se prueban a la vez.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public void calcularK(ArrayList<RespuestaEncuesta> respuestas, int paralelismo) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno("El paralelismo es menor que 1");
         if(respuestas.size() == 1) {
             k = 1;
             return;
         }
 
-        Integer numK = 1;
-        ArrayList<ArrayList<RespuestaEncuesta>> clustering = analizar(respuestas, numK);
-
-        double WCSS;
-        double prevWCSS = WCSS(clustering);
-
-        while(numK < respuestas.size()) {
-            ++numK;
-            clustering = analizar(respuestas, numK);
-
-            WCSS = WCSS(clustering);
-
-            if(prevWCSS == WCSS) break;
-            double delta = (prevWCSS - WCSS) / prevWCSS;
-            if(delta < ELBOW_THRESHOLD) break;
-
-            prevWCSS = WCSS;
-        }
-
-        this.k = --numK;
+        prepararSesion(respuestas);
+        BarridoK barrido = new BarridoK(algoritmo, inicializadorAlgoritmo, comparador, ELBOW_THRESHOLD, paralelismo);
+        this.k = barrido.calcularK(respuestas);
     }
 
     private ArrayList<ArrayList<RespuestaEncuesta>> analizar(ArrayList<RespuestaEncuesta> respuestas, Integer numK) {
@@ -233,14 +507,25 @@ public class Analizador {
         return algoritmo.analizar(iniciales, respuestas, numK, comparador);
     }
 
-    private double WCSS (ArrayList<ArrayList<RespuestaEncuesta>> clusters) {
+    //cada centroide se codifica una vez y las distancias se calculan por posición;
+    //si el algoritmo da sus centros o las distancias a ellos, no se recalculan
+    private double WCSS (ArrayList<ArrayList<RespuestaEncuesta>> clusters, ArrayList<RespuestaEncuesta> centros,
+                         DistanciasAsignacion distancias) {
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comparador);
+        int[][] indices = puntos.getIndicesClusters();
         double WCSS = 0.0;
-        for(ArrayList<RespuestaEncuesta> cluster : clusters) {
+        if (centros != null && distancias != null && puntos.estaCompilado() && distancias.getNumRespuestas() == puntos.getNumRespuestas()) {
+            for (int[] cluster : indices) {
+                for (int i : cluster) WCSS += Math.pow(distancias.getPropia(i), 2);
+            }
+            return WCSS;
+        }
+        for(int c = 0; c < clusters.size(); ++c) {
+            ArrayList<RespuestaEncuesta> cluster = clusters.get(c);
             if(!cluster.isEmpty()) {
-                RespuestaEncuesta centroide = comparador.calcularNuevoCentroide(cluster);
-                for(RespuestaEncuesta respuesta : cluster) {
-                    WCSS += Math.pow(comparador.getDistancia(centroide, respuesta),2);
-                }
+                RespuestaEncuesta centroide = (centros != null) ? centros.get(c) : comparador.calcularNuevoCentroide(cluster);
+                RespuestasIndexadas centro = puntos.codificar(List.of(centroide));
+                for(int i : indices[c]) WCSS += Math.pow(centro.distancia(0, puntos, i), 2);
             }
         }
         return WCSS;
@@ -0,0 +1,256 @@
+package main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.algoritmo.AlgoritmoTipo;
+import main.domain.analisis.algoritmo.ClusteringJerarquico;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+import main.domain.analisis.algoritmo.InterfazAlgoritmo;
+import main.domain.analisis.inicializador.InterfazInicializadorAlgoritmo;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Cálculo automático de {@code k} con el método del codo sobre un rango acotado de valores.
+ * <p>
+ * Los valores de {@code k} se prueban en tandas de tramos consecutivos que se resuelven a la vez en un
+ * {@link ForkJoinPool}. Dentro de un tramo, cada {@code k + 1} parte de la solución de {@code k}: un
+ * representante de cada cluster (la respuesta más cercana a su centro) y la respuesta más alejada del
+ * centro en el cluster con más suma de distancias cuadradas (WCSS), que así se parte en dos. El primer
+ * tramo de cada tanda continúa el último de la anterior; los demás empiezan con el inicializador.
+ * </p>
+ * <p>
+ * Los centros y las distancias a ellos son los que da el algoritmo (ver {@link InterfazAlgoritmo#getCentros()}
+ * y {@link InterfazAlgoritmo#getDistanciasAsignacion()}); solo si no los da se calculan los centroides.
+ * </p>
+ * <p>
+ * La WCSS de cada {@code k} se calcula en la misma pasada que da los representantes para el siguiente, y
+ * un tramo deja de avanzar en cuanto cumple el criterio del codo. Con un solo hilo, todos los {@code k}
+ * forman una única cadena que parte de la solución anterior.
+ * </p>
+ * <p>
+ * Con {@link ClusteringJerarquico}, el árbol se construye una sola vez y cada {@code k} es un corte suyo en O(n),
+ * así que los valores se prueban en orden y sin tramos.
+ * </p>
+ * <p>
+ * Los centros iniciales de los tramos se generan en orden antes de repartirlos, y cada tramo usa su propia
+ * copia del algoritmo (ver {@link InterfazAlgoritmo#conSemilla(long)}; de un solo hilo si hay varios tramos a la
+ * vez), así que el resultado no depende del
+ * orden en que avanzan los hilos. Las estadísticas de la última ejecución (número de distancias, de
+ * iteraciones, coste...) quedan en esas copias y no en el algoritmo recibido.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class BarridoK {
+
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    //número de valores de k de cada tramo
+    private static final int K_POR_TRAMO = 4;
+    //el rango de k llega hasta √n, y al menos hasta este valor
+    private static final int K_MAXIMA_MINIMA = 10;
+
+    private final InterfazAlgoritmo<? extends AlgoritmoTipo> algoritmo;
+    private final InterfazInicializadorAlgoritmo<? extends AlgoritmoTipo> inicializador;
+    private final Comparador comparador;
+    private final float umbralCodo;
+    private final int paralelismo;
+    private double[] wcss = new double[0];
+
+    /**
+     * Constructora del barrido.
+     * @param algoritmo Algoritmo de clustering.
+     * @param inicializador Inicializador de los tramos que no parten de una solución anterior.
+     * @param comparador Comparador de distancias y centroides.
+     * @param umbralCodo Mejora relativa de la WCSS por debajo de la cual no compensa añadir un cluster.
+     * @param paralelismo Número de tramos que se resuelven a la vez.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public BarridoK(InterfazAlgoritmo<? extends AlgoritmoTipo> algoritmo,
+                    InterfazInicializadorAlgoritmo<? extends AlgoritmoTipo> inicializador,
+                    Comparador comparador, float umbralCodo, int paralelismo) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+        this.algoritmo = algoritmo;
+        this.inicializador = inicializador;
+        this.comparador = comparador;
+        this.umbralCodo = umbralCodo;
+        this.paralelismo = paralelismo;
+    }
+
+    /**
+     * Devuelve el mayor {@code k} que se prueba para un número de respuestas.
+     * @param n Número de respuestas.
+     * @return {@code min(n, max(10, ⌈√n⌉))}.
+     */
+    public static int getKMaxima(int n) {
+        return Math.min(n, Math.max(K_MAXIMA_MINIMA, (int) Math.ceil(Math.sqrt(n))));
+    }
+
+    /**
+     * Devuelve la WCSS de cada {@code k} de la última llamada a {@link #calcularK}, en la posición {@code k}.
+     * Los valores no calculados son {@code NaN}.
+     * @return WCSS por valor de {@code k}.
+     */
+    public double[] getWCSS() {
+        return wcss.clone();
+    }
+
+    /**
+     * Calcula el valor de {@code k} con el método del codo: el último {@code k} antes del primero que no
+     * reduce la WCSS al menos en la fracción {@code umbralCodo}.
+     * @param respuestas Respuestas a analizar, no vacías.
+     * @return Valor de {@code k}, como mucho {@link #getKMaxima}.
+     */
+    public int calcularK(ArrayList<RespuestaEncuesta> respuestas) {
+        int kMaxima = getKMaxima(respuestas.size());
+        wcss = new double[kMaxima + 1];
+        Arrays.fill(wcss, Double.NaN);
+        if (kMaxima == 1) return 1;
+        if (algoritmo instanceof ClusteringJerarquico jerarquico) return calcularKJerarquico(respuestas, kMaxima, jerarquico);
+
+        if (paralelismo == 1) return calcularK(respuestas, kMaxima, null);
+        try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+            return calcularK(respuestas, kMaxima, pool);
+        }
+    }
+
+    private int calcularK(ArrayList<RespuestaEncuesta> respuestas, int kMaxima, ForkJoinPool pool) {
+        Solucion ultima = null;
+        int comprobado = 1;
+        for (int inicio = 1; inicio <= kMaxima; inicio += K_POR_TRAMO * paralelismo) {
+            int numTramos = Math.min(paralelismo, (kMaxima - inicio) / K_POR_TRAMO + 1);
+            Solucion[] finales = new Solucion[numTramos];
+            int primero = inicio;
+            Solucion anterior = ultima;
+            //los centros iniciales de cada tramo se generan aquí y en orden, para que el resultado no dependa
+            //de qué hilo use antes el generador aleatorio del inicializador
+            List<ArrayList<RespuestaEncuesta>> iniciales = new ArrayList<>(numTramos);
+            for (int t = 0; t < numTramos; ++t) {
+                int k = primero + t * K_POR_TRAMO;
+                ArrayList<RespuestaEncuesta> centros = (t == 0 && anterior != null) ? anterior.semillas(k) : null;
+                iniciales.add((centros != null) ? centros : inicializador.generaIniciales(respuestas, k, comparador));
+            }
+            if (pool == null) finales[0] = resolverTramo(respuestas, primero, kMaxima, anterior, iniciales.get(0), false);
+            else pool.submit(() -> IntStream.range(0, numTramos).parallel().forEach(t ->
+                    finales[t] = resolverTramo(respuestas, primero + t * K_POR_TRAMO, kMaxima, (t == 0) ? anterior : null,
+                            iniciales.get(t), true))).join();
+
+            //el criterio se comprueba en orden, también entre el final de un tramo y el principio del siguiente
+            int fin = Math.min(kMaxima, inicio + numTramos * K_POR_TRAMO - 1);
+            for (int k = Math.max(2, comprobado + 1); k <= fin; ++k) {
+                if (codo(wcss[k - 1], wcss[k])) return k - 1;
+            }
+            comprobado = fin;
+            ultima = finales[numTramos - 1];
+        }
+        return kMaxima;
+    }
+
+    //cada k corta el mismo árbol, construido en el primer análisis
+    private int calcularKJerarquico(ArrayList<RespuestaEncuesta> respuestas, int kMaxima, ClusteringJerarquico jerarquico) {
+        jerarquico.construir(respuestas, comparador);
+        for (int k = 1; k <= kMaxima; ++k) {
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = jerarquico.analizar(null, respuestas, k, comparador);
+            wcss[k] = new Solucion(clusters, respuestas, jerarquico.getCentros(), jerarquico.getDistanciasAsignacion()).wcss;
+            if (k > 1 && codo(wcss[k - 1], wcss[k])) return k - 1;
+        }
+        return kMaxima;
+    }
+
+    //resuelve los k del tramo que empieza en desde con los centros primeros; anterior es la solución de desde - 1, si se tiene.
+    //si los tramos se resuelven a la vez, cada uno trabaja en un solo hilo
+    private Solucion resolverTramo(ArrayList<RespuestaEncuesta> respuestas, int desde, int kMaxima, Solucion anterior,
+                                   ArrayList<RespuestaEncuesta> primeros, boolean secuencial) {
+        int hasta = Math.min(kMaxima, desde + K_POR_TRAMO - 1);
+        //copia propia del tramo, para que los algoritmos aleatorios no compartan generador entre hilos
+        InterfazAlgoritmo<? extends AlgoritmoTipo> algoritmoTramo = secuencial ? algoritmo.conSemillaSecuencial(desde) : algoritmo.conSemilla(desde);
+        Solucion solucion = anterior;
+        for (int k = desde; k <= hasta; ++k) {
+            ArrayList<RespuestaEncuesta> iniciales = (k == desde) ? primeros : solucion.semillas(k);
+            //si no se puede partir de la solución anterior, una copia del inicializador con semilla propia de k
+            if (iniciales == null) {
+                InterfazInicializadorAlgoritmo<? extends AlgoritmoTipo> inicializadorK = secuencial ? inicializador.conSemillaSecuencial(k) : inicializador.conSemilla(k);
+                iniciales = inicializadorK.generaIniciales(respuestas, k, comparador);
+            }
+            double wcssAnterior = (solucion == null) ? Double.NaN : solucion.wcss;
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmoTramo.analizar(iniciales, respuestas, k, comparador);
+            solucion = new Solucion(clusters, respuestas, algoritmoTramo.getCentros(), algoritmoTramo.getDistanciasAsignacion());
+            wcss[k] = solucion.wcss;
+            if (!Double.isNaN(wcssAnterior) && codo(wcssAnterior, solucion.wcss)) break;
+        }
+        return solucion;
+    }
+
+    //mismo criterio que el cálculo secuencial: se para si la WCSS no cambia o mejora menos que el umbral
+    private boolean codo(double anterior, double actual) {
+        if (anterior == actual) return true;
+        return (anterior - actual) / anterior < umbralCodo;
+    }
+
+    //clustering de un k con su WCSS y lo necesario para partir de él en k + 1
+    private final class Solucion {
+        final double wcss;
+        //respuesta más cercana al centro de cada cluster no vacío
+        final ArrayList<RespuestaEncuesta> representantes = new ArrayList<>();
+        //respuesta más alejada del centro en el cluster con más WCSS
+        RespuestaEncuesta division;
+
+        //centros y distancias son los del algoritmo, si los tiene; si no, se calculan los centroides y las distancias
+        Solucion(ArrayList<ArrayList<RespuestaEncuesta>> clusters, ArrayList<RespuestaEncuesta> respuestas,
+                 ArrayList<RespuestaEncuesta> centros, DistanciasAsignacion distancias) {
+            //las distancias al centro se obtienen una vez y sirven para la WCSS y para elegir los centros de k + 1
+            RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comparador);
+            int[][] indices = puntos.indicesClusters(clusters);
+            //las posiciones de las distancias son las de respuestas, igual que las de puntos
+            boolean conDistancias = centros != null && distancias != null && distancias.getNumRespuestas() == puntos.getNumRespuestas();
+
+            double total = 0.0;
+            double peor = -1.0;
+            for (int c = 0; c < clusters.size(); ++c) {
+                ArrayList<RespuestaEncuesta> cluster = clusters.get(c);
+                if (cluster.isEmpty()) continue;
+                RespuestasIndexadas centro = null;
+                if (!conDistancias) {
+                    RespuestaEncuesta centroide = (centros != null) ? centros.get(c) : comparador.calcularNuevoCentroide(cluster);
+                    centro = puntos.codificar(List.of(centroide));
+                }
+
+                double suma = 0.0;
+                int cercana = 0;
+                int lejana = 0;
+                float minima = Float.POSITIVE_INFINITY;
+                float maxima = Float.NEGATIVE_INFINITY;
+                for (int r = 0; r < cluster.size(); ++r) {
+                    float d = conDistancias ? distancias.getPropia(indices[c][r]) : centro.distancia(0, puntos, indices[c][r]);
+                    suma += Math.pow(d, 2);
+                    if (d < minima) {
+                        minima = d;
+                        cercana = r;
+                    }
+                    if (d > maxima) {
+                        maxima = d;
+                        lejana = r;
+                    }
+                }
+                total += suma;
+                representantes.add(cluster.get(cercana));
+                if (suma > peor && lejana != cercana) {
+                    peor = suma;
+                    division = cluster.get(lejana);
+                }
+            }
+            this.wcss = total;
+        }
+
+        //centros iniciales de k + 1 a partir de esta solución de k, o null si no se pueden formar
+        ArrayList<RespuestaEncuesta> semillas(int k) {
+            if (division == null || representantes.size() + 1 != k) return null;
+            ArrayList<RespuestaEncuesta> semillas = new ArrayList<>(representantes);
+            semillas.add(division);
+            return semillas;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.types.InterfazAcumuladorCentroide;
+import main.domain.types.TDatos;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Centroides de {@code k} clusters sobre una lista de respuestas, mantenidos de forma incremental.
+ * <p>
+ * Cada cluster guarda un {@link InterfazAcumuladorCentroide} por pregunta. Mover una respuesta de cluster
+ * cuesta O(d) y solo se recalculan los centroides de los clusters que han cambiado, en lugar de reconstruir
+ * todos los clusters en cada iteración. Los centroides son los mismos que daría
+ * {@link Comparador#calcularNuevoCentroide(List)} con las respuestas del cluster en orden de fila.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class CentroidesIncrementales {
+    private static final int SIN_CLUSTER = -1;
+
+    private final TDatos[][] datos;
+    private final int numPreguntas;
+    private final InterfazAcumuladorCentroide[][] acumuladores;
+    private final BitSet[] miembros;
+    private final int[] asignaciones;
+    private final boolean[] modificado;
+    private final RespuestaEncuesta[] ultimos;
+
+    private CentroidesIncrementales(TDatos[][] datos, int numPreguntas, InterfazAcumuladorCentroide[][] acumuladores) {
+        int k = acumuladores.length;
+        this.datos = datos;
+        this.numPreguntas = numPreguntas;
+        this.acumuladores = acumuladores;
+        this.miembros = new BitSet[k];
+        for (int c = 0; c < k; ++c) miembros[c] = new BitSet(datos.length);
+        this.asignaciones = new int[datos.length];
+        Arrays.fill(asignaciones, SIN_CLUSTER);
+        this.modificado = new boolean[k];
+        this.ultimos = new RespuestaEncuesta[k];
+    }
+
+    /**
+     * Crea los centroides incrementales de {@code k} clusters vacíos.
+     *
+     * @param matriz Matriz compilada de las respuestas que se agrupan.
+     * @param k Número de clusters.
+     * @return Los centroides incrementales, o {@code null} si no se pueden usar (ver {@link #crear(List, int)}).
+     */
+    public static CentroidesIncrementales crear(MatrizRespuestas matriz, int k) {
+        return crear(matriz.getRespuestas(), k);
+    }
+
+    /**
+     * Crea los centroides incrementales de {@code k} clusters vacíos. La fila {@code i} es {@code respuestas.get(i)}.
+     *
+     * @param respuestas Respuestas que se agrupan.
+     * @param k Número de clusters.
+     * @return Los centroides incrementales, o {@code null} si las respuestas no tienen todas las mismas preguntas
+     * y tipos, o algún tipo de dato no admite acumuladores; en ese caso se usa
+     * {@link Comparador#calcularNuevoCentroide(List)}.
+     */
+    public static CentroidesIncrementales crear(List<RespuestaEncuesta> respuestas, int k) {
+        TDatos[][] datos = datosPorFila(respuestas);
+        if (datos == null) return null;
+        int m = datos[0].length;
+        InterfazAcumuladorCentroide[][] acumuladores = new InterfazAcumuladorCentroide[k][];
+        for (int c = 0; c < k; ++c) acumuladores[c] = crearAcumuladores(datos[0]);
+        return new CentroidesIncrementales(datos, m, acumuladores);
+    }
+
+    /**
+     * Extrae los datos de cada fila de una matriz, si admiten centroides por acumuladores.
+     *
+     * @param matriz Matriz compilada de respuestas.
+     * @return {@code datos[fila][pregunta]}, o {@code null} si no admiten acumuladores (ver {@link #datosPorFila(List)}).
+     */
+    public static TDatos[][] datosPorFila(MatrizRespuestas matriz) {
+        return datosPorFila(matriz.getRespuestas());
+    }
+
+    /**
+     * Extrae los datos de cada respuesta, si admiten centroides por acumuladores.
+     *
+     * @param respuestas Respuestas a una misma encuesta.
+     * @return {@code datos[fila][pregunta]}, o {@code null} si no hay respuestas, no tienen todas las mismas
+     * preguntas y tipos o algún tipo de dato no admite acumuladores.
+     */
+    public static TDatos[][] datosPorFila(List<RespuestaEncuesta> respuestas) {
+        int n = respuestas.size();
+        if (n == 0) return null;
+        TDatos[][] datos = new TDatos[n][];
+        for (int i = 0; i < n; ++i) datos[i] = respuestas.get(i).getDatos().toArray(new TDatos[0]);
+        int m = datos[0].length;
+
+        for (int q = 0; q < m; ++q) {
+            if (datos[0][q] == null) return null;
+            Class<?> tipo = datos[0][q].getClass();
+            for (int i = 1; i < n; ++i) {
+                if (datos[i].length != m || datos[i][q] == null || datos[i][q].getClass() != tipo) return null;
+            }
+            if (datos[0][q].crearAcumuladorCentroide() == null) return null;
+        }
+        return datos;
+    }
+
+    /**
+     * Crea un acumulador vacío por pregunta.
+     *
+     * @param plantilla Datos de una fila obtenida con {@link #datosPorFila(List)}.
+     * @return Un acumulador por pregunta.
+     */
+    public static InterfazAcumuladorCentroide[] crearAcumuladores(TDatos[] plantilla) {
+        InterfazAcumuladorCentroide[] acumuladores = new InterfazAcumuladorCentroide[plantilla.length];
+        for (int q = 0; q < plantilla.length; ++q) acumuladores[q] = plantilla[q].crearAcumuladorCentroide();
+        return acumuladores;
+    }
+
+    /**
+     * Construye el centroide de un cluster a partir de sus acumuladores.
+     *
+     * @param acumuladores Un acumulador por pregunta, con las respuestas del cluster.
+     * @param primero Datos de la primera respuesta del cluster, en orden de fila.
+     * @return El centroide, igual que el que daría {@link Comparador#calcularNuevoCentroide(List)}.
+     */
+    public static RespuestaEncuesta construirCentroide(InterfazAcumuladorCentroide[] acumuladores, TDatos[] primero) {
+        RespuestaEncuesta centro = new RespuestaEncuesta("", "", "");
+        for (int q = 0; q < acumuladores.length; ++q) {
+            centro.addRespuesta(q + 1, acumuladores[q].getComponenteCentroide(primero[q]));
+        }
+        return centro;
+    }
+
+    /**
+     * Asigna una fila a un cluster, quitándola del que tuviera antes. Si ya estaba en ese cluster no hace nada.
+     *
+     * @param fila Fila (posición de la respuesta).
+     * @param cluster Cluster de destino.
+     */
+    public void asignar(int fila, int cluster) {
+        int anterior = asignaciones[fila];
+        if (anterior == cluster) return;
+        TDatos[] d = datos[fila];
+        if (anterior != SIN_CLUSTER) {
+            for (int q = 0; q < numPreguntas; ++q) acumuladores[anterior][q].quitar(d[q]);
+            miembros[anterior].clear(fila);
+            modificado[anterior] = true;
+        }
+        for (int q = 0; q < numPreguntas; ++q) acumuladores[cluster][q].anadir(d[q]);
+        miembros[cluster].set(fila);
+        modificado[cluster] = true;
+        asignaciones[fila] = cluster;
+    }
+
+    /**
+     * Asigna todas las filas a la vez.
+     *
+     * @param asignaciones Cluster de cada fila.
+     */
+    public void asignar(int[] asignaciones) {
+        for (int i = 0; i < asignaciones.length; ++i) asignar(i, asignaciones[i]);
+    }
+
+    /**
+     * Devuelve el centroide de un cluster. Solo se recalcula si el cluster ha cambiado desde la última llamada.
+     *
+     * @param cluster Índice del cluster.
+     * @return El centroide del cluster, o {@code null} si está vacío.
+     */
+    public RespuestaEncuesta getCentroide(int cluster) {
+        int primero = miembros[cluster].nextSetBit(0);
+        if (primero < 0) return null;
+        if (!modificado[cluster] && ultimos[cluster] != null) return ultimos[cluster];
+
+        RespuestaEncuesta centro = construirCentroide(acumuladores[cluster], datos[primero]);
+        ultimos[cluster] = centro;
+        modificado[cluster] = false;
+        return centro;
+    }
+}
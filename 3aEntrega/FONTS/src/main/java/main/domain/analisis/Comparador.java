@@ -1,10 +1,10 @@
 package main.domain.analisis;
 
 import main.domain.RespuestaEncuesta;
-import main.domain.exceptions.*;
 import main.domain.types.TDatos;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
 
 /**
@@ -12,41 +12,109 @@ import java.util.TreeMap;
  * @author Yimin Jin
  */
 public class Comparador {
+    //matriz compilada de las respuestas que se están analizando, si la hay
+    private MatrizRespuestas matriz;
+
     /**
      * Constructor de la clase.
      */
     public Comparador() {}
 
+    /**
+     * Compila las respuestas que se van a analizar en una {@link MatrizRespuestas}.
+     * Los algoritmos, inicializadores y evaluadores la usan para calcular distancias por índice.
+     * @param respuestas Respuestas a una misma encuesta.
+     */
+    public void compilar(ArrayList<RespuestaEncuesta> respuestas) {
+        if (matriz != null) matriz.liberarDistancias();
+        this.matriz = MatrizRespuestas.compilar(respuestas);
+    }
+
+    /**
+     * Descarta la matriz compilada y sus distancias precalculadas.
+     */
+    public void invalidar() {
+        if (matriz != null) matriz.liberarDistancias();
+        this.matriz = null;
+    }
+
+    /**
+     * Precalcula las distancias entre todas las respuestas de la matriz compilada, si la hay.
+     * Los algoritmos que consultan muchos pares de respuestas lo llaman antes de empezar;
+     * las distancias se calculan una sola vez y se reutilizan hasta que se vuelve a compilar.
+     */
+    public void precalcularDistancias() {
+        if (matriz != null) matriz.precalcularDistancias();
+    }
+
+    /**
+     * Devuelve la matriz compilada actual.
+     * @return La matriz compilada, o {@code null} si no hay ninguna.
+     */
+    public MatrizRespuestas getMatriz() {
+        return matriz;
+    }
+
+    /**
+     * Devuelve la matriz compilada si corresponde exactamente a la lista de respuestas dada.
+     * @param respuestas Lista de respuestas que se quiere recorrer por índice.
+     * @return La matriz compilada, o {@code null} si no hay ninguna o es de otras respuestas.
+     */
+    public MatrizRespuestas getMatriz(ArrayList<RespuestaEncuesta> respuestas) {
+        if (matriz != null && matriz.esDe(respuestas)) return matriz;
+        return null;
+    }
+
     /**
      * Operación que calcula la distancia entre dos respuestas.
      * @param r1 Una respuesta a una encuesta.
      * @param r2 Una respuesta a la misma encuesta que r1.
      * @return La distancia entre las dos respuestas. Esta distancia está normalizada.
      */
-    public Float getDistancia(RespuestaEncuesta r1, RespuestaEncuesta r2) {
-        Float suma = 0.f;
+    public float distancia(RespuestaEncuesta r1, RespuestaEncuesta r2) {
+        float suma = 0.f;
         TreeMap<Integer, TDatos> datosR1 = r1.getDatosRespuesta();
         TreeMap<Integer, TDatos> datosR2 = r2.getDatosRespuesta();
         for (int i = 1; i <= datosR1.size(); i++) {
-            float dist = 0.0f;
-            try {
-                dist = datosR1.get(i).calcularDistancia(datosR2.get(i));
-            }
-            catch (AmbosTextosSonVacios | NumeroModalidadesMenorQueDos | NumMaxIgualANumMin |
-                   UnionEntreConjuntosDeOpcionesVacio e) {
-                dist = 0.0f;
-            }
-            suma += dist;
+            //los casos en los que la distancia no está definida cuentan como 0
+            float dist = datosR1.get(i).distancia(datosR2.get(i));
+            if (!Float.isNaN(dist)) suma += dist;
         }
         return suma / datosR1.size();
     }
 
+    /**
+     * Indica si la distancia entre un conjunto de respuestas cumple la desigualdad triangular. La distancia es la
+     * media de las de cada pregunta, así que lo es si todas las preguntas lo son (ver {@link TDatos#esMetrica()}).
+     * @param respuestas Respuestas a una misma encuesta.
+     * @return {@code true} si ninguna pregunta tiene una distancia no métrica.
+     */
+    public boolean esMetrica(List<RespuestaEncuesta> respuestas) {
+        for (RespuestaEncuesta r : respuestas) {
+            for (TDatos d : r.getDatosRespuesta().values()) {
+                if (!d.esMetrica()) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Operación que calcula la distancia entre dos respuestas, como objeto.
+     * Equivale a {@link #distancia(RespuestaEncuesta, RespuestaEncuesta)}, que es la que deben usar los algoritmos.
+     * @param r1 Una respuesta a una encuesta.
+     * @param r2 Una respuesta a la misma encuesta que r1.
+     * @return La distancia entre las dos respuestas. Esta distancia está normalizada.
+     */
+    public Float getDistancia(RespuestaEncuesta r1, RespuestaEncuesta r2) {
+        return distancia(r1, r2);
+    }
+
     /**
      * Operación que calcula el centroide de una lista de respuestas.
      * @param cluster Lista de respuestas a una misma encuesta.
      * @return Una respuesta que solo contiene los centroides de cada pregunta de la lista de respuestas.
      */
-    public RespuestaEncuesta calcularNuevoCentroide(ArrayList<RespuestaEncuesta> cluster) {
+    public RespuestaEncuesta calcularNuevoCentroide(List<RespuestaEncuesta> cluster) {
         //inicializa matriz que guarda datos
         ArrayList<ArrayList<TDatos>> aux = new ArrayList<>();
 
@@ -0,0 +1,162 @@
+package main.domain.analisis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz de distancias entre todas las filas de una {@link MatrizRespuestas}, calculada una sola vez.
+ * <p>
+ * Solo se guarda el triángulo superior sin la diagonal, de forma condensada: el par {@code (i, j)} con
+ * {@code i < j} ocupa la posición {@code i·(2n - i - 1)/2 + (j - i - 1)}. Si el tamaño supera
+ * {@link #UMBRAL_MEMORIA} bytes (o el umbral pasado a {@link #calcular(MatrizRespuestas, long)}), los valores se
+ * guardan fuera del heap en un fichero temporal
+ * proyectado en memoria. El cálculo se reparte por bloques de filas entre los hilos disponibles.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class DistanciasPrecalculadas implements AutoCloseable {
+    /**
+     * Tamaño máximo en bytes que se guarda en el heap por defecto: 256 MB (unas 11.500 respuestas).
+     */
+    public static final long UMBRAL_MEMORIA = 256L << 20;
+    //número de floats por segmento proyectado (1 GB)
+    private static final int FLOATS_POR_SEGMENTO = 1 << 28;
+    //número de filas por bloque de cálculo
+    private static final int FILAS_POR_BLOQUE = 16;
+
+    private final int n;
+    private final long numPares;
+    private final float[] enHeap;
+    private final FloatBuffer[] segmentos;
+    private final Path fichero;
+
+    private DistanciasPrecalculadas(int n, long umbralMemoria) {
+        this.n = n;
+        this.numPares = (long) n * (n - 1) / 2;
+        if (numPares * Float.BYTES <= umbralMemoria && numPares <= Integer.MAX_VALUE - 8) {
+            enHeap = new float[(int) numPares];
+            segmentos = null;
+            fichero = null;
+        }
+        else {
+            enHeap = null;
+            try {
+                fichero = Files.createTempFile("distancias", ".bin");
+                fichero.toFile().deleteOnExit();
+                int numSegmentos = (int) ((numPares + FLOATS_POR_SEGMENTO - 1) / FLOATS_POR_SEGMENTO);
+                segmentos = new FloatBuffer[numSegmentos];
+                try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    for (int s = 0; s < numSegmentos; ++s) {
+                        long inicio = (long) s * FLOATS_POR_SEGMENTO;
+                        long tam = Math.min(FLOATS_POR_SEGMENTO, numPares - inicio);
+                        segmentos[s] = canal.map(FileChannel.MapMode.READ_WRITE, inicio * Float.BYTES, tam * Float.BYTES)
+                                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("No se ha podido crear el almacén de distancias", e);
+            }
+        }
+    }
+
+    /**
+     * Calcula las distancias entre todas las filas de una matriz.
+     * La matriz debe ser simétrica (ver {@link MatrizRespuestas#esSimetrica()}).
+     *
+     * @param matriz Matriz de respuestas.
+     * @return Distancias precalculadas de la matriz.
+     */
+    public static DistanciasPrecalculadas calcular(MatrizRespuestas matriz) {
+        return calcular(matriz, UMBRAL_MEMORIA);
+    }
+
+    /**
+     * Calcula las distancias entre todas las filas de una matriz con un umbral de memoria dado.
+     * La matriz debe ser simétrica (ver {@link MatrizRespuestas#esSimetrica()}).
+     *
+     * @param matriz Matriz de respuestas.
+     * @param umbralMemoria Tamaño máximo en bytes que se guarda en el heap; por encima se usa un fichero proyectado.
+     * @return Distancias precalculadas de la matriz.
+     */
+    public static DistanciasPrecalculadas calcular(MatrizRespuestas matriz, long umbralMemoria) {
+        DistanciasPrecalculadas d = new DistanciasPrecalculadas(matriz.getNumFilas(), umbralMemoria);
+        d.rellenar(matriz);
+        return d;
+    }
+
+    /**
+     * Devuelve el número de filas.
+     * @return Número de filas de la matriz de origen.
+     */
+    public int getNumFilas() {
+        return n;
+    }
+
+    /**
+     * Indica si los valores se guardan fuera del heap.
+     * @return {@code true} si se usa un fichero proyectado en memoria.
+     */
+    public boolean esFueraDelHeap() {
+        return enHeap == null;
+    }
+
+    /**
+     * Distancia entre dos filas.
+     * @param i Primera fila.
+     * @param j Segunda fila.
+     * @return Distancia precalculada; 0 si {@code i == j}.
+     */
+    public float distancia(int i, int j) {
+        if (i == j) return 0.f;
+        long p = (i < j) ? posicion(i, j) : posicion(j, i);
+        if (enHeap != null) return enHeap[(int) p];
+        return segmentos[(int) (p / FLOATS_POR_SEGMENTO)].get((int) (p % FLOATS_POR_SEGMENTO));
+    }
+
+    private long posicion(int i, int j) {
+        return (long) i * (2L * n - i - 1) / 2 + (j - i - 1);
+    }
+
+    private void poner(long p, float v) {
+        if (enHeap != null) enHeap[(int) p] = v;
+        else segmentos[(int) (p / FLOATS_POR_SEGMENTO)].put((int) (p % FLOATS_POR_SEGMENTO), v);
+    }
+
+    private void rellenar(MatrizRespuestas matriz) {
+        int numBloques = (n + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+        //cada bloque escribe posiciones distintas, así que se pueden rellenar en paralelo
+        IntStream.range(0, numBloques).parallel().forEach(b -> {
+            int desde = b * FILAS_POR_BLOQUE;
+            int hasta = Math.min(n, desde + FILAS_POR_BLOQUE);
+            for (int i = desde; i < hasta; ++i) {
+                long p = posicion(i, i + 1);
+                for (int j = i + 1; j < n; ++j, ++p) {
+                    poner(p, matriz.calcularDistancia(i, j));
+                }
+            }
+        });
+    }
+
+    /**
+     * Libera el fichero temporal, si lo hay.
+     */
+    @Override
+    public void close() {
+        if (fichero != null) {
+            try {
+                Files.deleteIfExists(fichero);
+            }
+            catch (IOException ignored) {
+                //se borrará al salir
+            }
+        }
+    }
+}
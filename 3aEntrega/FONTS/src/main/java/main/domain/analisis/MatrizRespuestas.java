@@ -0,0 +1,422 @@
+package main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.types.MascaraOpciones;
+import main.domain.types.TDatos;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Representación compilada y por columnas de un conjunto de respuestas a una misma encuesta.
+ * <p>
+ * Cada pregunta se guarda en arrays primitivos según su tipo: valores {@code int} para las
+ * numéricas, máscaras de bits para las de opciones y textos codificados en un diccionario
+ * de {@code char[]} para las de formato libre. Las distancias se calculan por índice de fila
+ * sin pasar por {@link TreeMap} ni por {@link TDatos}, y dan exactamente el mismo valor que
+ * {@link Comparador#distancia(RespuestaEncuesta, RespuestaEncuesta)}.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class MatrizRespuestas {
+
+    private static final int NUMERICA = 0;
+    private static final int OPCIONES = 1;
+    private static final int TEXTO = 2;
+
+    private final ArrayList<RespuestaEncuesta> respuestas;
+    private final IdentityHashMap<RespuestaEncuesta, Integer> indices;
+    private final int numFilas;
+    private final int numPreguntas;
+    private final int[] tipos;
+
+    //columnas numéricas: valor y rango (numMax - numMin) de cada fila
+    private final int[][] valores;
+    private final float[][] rangos;
+
+    //columnas de opciones: primera opción, número de opciones elegidas y máscara de bits
+    private final int[][] primeraOpcion;
+    private final int[][] numElegidas;
+    private final long[][] mascaras;
+    private final int[] palabras;
+    private final boolean[][] ordenadas;
+    private final int[][] numOpciones;
+
+    //columnas de texto: identificador en el diccionario de textos de la columna
+    private final int[][] idTexto;
+    private final char[][][] diccionario;
+
+    //distancias entre todas las filas, si ya se han precalculado; se pueden pedir desde varios hilos a la vez
+    private volatile DistanciasPrecalculadas distancias;
+
+    private MatrizRespuestas(ArrayList<RespuestaEncuesta> respuestas, int numPreguntas, int[] tipos) {
+        this.respuestas = respuestas;
+        this.numFilas = respuestas.size();
+        this.numPreguntas = numPreguntas;
+        this.tipos = tipos;
+        this.indices = new IdentityHashMap<>(numFilas * 2);
+        for (int i = 0; i < numFilas; ++i) indices.putIfAbsent(respuestas.get(i), i);
+
+        valores = new int[numPreguntas][];
+        rangos = new float[numPreguntas][];
+        primeraOpcion = new int[numPreguntas][];
+        numElegidas = new int[numPreguntas][];
+        mascaras = new long[numPreguntas][];
+        palabras = new int[numPreguntas];
+        ordenadas = new boolean[numPreguntas][];
+        numOpciones = new int[numPreguntas][];
+        idTexto = new int[numPreguntas][];
+        diccionario = new char[numPreguntas][][];
+    }
+
+    /**
+     * Compila un conjunto de respuestas en una matriz por columnas.
+     * <p>
+     * La fila {@code i} de la matriz corresponde a {@code respuestas.get(i)}.
+     * </p>
+     *
+     * @param respuestas Respuestas a una misma encuesta.
+     * @return La matriz compilada, o {@code null} si las respuestas no se pueden codificar
+     * (lista vacía, preguntas que no son {@code 1..m}, tipos distintos entre respuestas o
+     * tipos de dato desconocidos). En ese caso se debe usar el cálculo por objetos.
+     */
+    public static MatrizRespuestas compilar(List<RespuestaEncuesta> respuestas) {
+        if (respuestas == null || respuestas.isEmpty()) return null;
+
+        TreeMap<Integer, TDatos> primera = respuestas.getFirst().getDatosRespuesta();
+        if (primera == null) return null;
+        int m = primera.size();
+        int[] tipos = new int[m];
+        for (int c = 0; c < m; ++c) {
+            TDatos d = primera.get(c + 1);
+            if (d == null) return null;
+            tipos[c] = tipoDe(d);
+            if (tipos[c] < 0) return null;
+        }
+        return construir(new ArrayList<>(respuestas), m, tipos);
+    }
+
+    /**
+     * Codifica un conjunto de respuestas externas (por ejemplo centroides) con el mismo
+     * formato de columnas que esta matriz, de forma que se puedan comparar con
+     * {@link #distancia(int, MatrizRespuestas, int)}.
+     *
+     * @param externas Respuestas a codificar.
+     * @return Matriz con una fila por respuesta externa.
+     * @throws IllegalArgumentException Si alguna respuesta no es compatible con las columnas de la matriz.
+     */
+    public MatrizRespuestas codificar(List<RespuestaEncuesta> externas) {
+        MatrizRespuestas res = construir(new ArrayList<>(externas), numPreguntas, tipos);
+        if (res == null) throw new IllegalArgumentException("Las respuestas no son compatibles con la matriz");
+        return res;
+    }
+
+    private static MatrizRespuestas construir(ArrayList<RespuestaEncuesta> respuestas, int m, int[] tipos) {
+        int n = respuestas.size();
+        MatrizRespuestas mat = new MatrizRespuestas(respuestas, m, tipos);
+
+        //comprueba la forma de cada fila antes de reservar las columnas
+        TDatos[][] celdas = new TDatos[m][n];
+        for (int i = 0; i < n; ++i) {
+            TreeMap<Integer, TDatos> datos = respuestas.get(i).getDatosRespuesta();
+            if (datos == null || datos.size() != m) return null;
+            for (int c = 0; c < m; ++c) {
+                TDatos d = datos.get(c + 1);
+                if (d == null || tipoDe(d) != tipos[c]) return null;
+                celdas[c][i] = d;
+            }
+        }
+
+        for (int c = 0; c < m; ++c) {
+            boolean ok = switch (tipos[c]) {
+                case NUMERICA -> mat.compilarNumerica(c, celdas[c]);
+                case OPCIONES -> mat.compilarOpciones(c, celdas[c]);
+                default -> mat.compilarTexto(c, celdas[c]);
+            };
+            if (!ok) return null;
+        }
+        return mat;
+    }
+
+    private static int tipoDe(TDatos d) {
+        Class<?> clase = d.getClass();
+        if (clase == TDatosInteger.class) return NUMERICA;
+        if (clase == TDatosOpciones.class) return OPCIONES;
+        if (clase == TDatosString.class) return TEXTO;
+        return -1;
+    }
+
+    private boolean compilarNumerica(int c, TDatos[] celdas) {
+        int n = celdas.length;
+        int[] v = new int[n];
+        float[] r = new float[n];
+        for (int i = 0; i < n; ++i) {
+            TDatosInteger d = (TDatosInteger) celdas[i];
+            v[i] = d.getNum();
+            r[i] = (float) ((long) d.getNumMax() - (long) d.getNumMin());
+        }
+        valores[c] = v;
+        rangos[c] = r;
+        return true;
+    }
+
+    private boolean compilarOpciones(int c, TDatos[] celdas) {
+        int n = celdas.length;
+        int maxId = 0;
+        for (TDatos t : celdas) {
+            for (Integer id : ((TDatosOpciones) t).getIdOpciones()) {
+                if (id == null || id < 0) return false;
+                if (id > maxId) maxId = id;
+            }
+        }
+        int w = (maxId >>> 6) + 1;
+
+        int[] primera = new int[n];
+        int[] elegidas = new int[n];
+        long[] bits = new long[n * w];
+        boolean[] orden = new boolean[n];
+        int[] totalOpciones = new int[n];
+        for (int i = 0; i < n; ++i) {
+            TDatosOpciones d = (TDatosOpciones) celdas[i];
+            ArrayList<Integer> ids = d.getIdOpciones();
+            elegidas[i] = ids.size();
+            primera[i] = ids.isEmpty() ? -1 : ids.getFirst();
+            for (int id : ids) bits[i * w + (id >>> 6)] |= 1L << id;
+            orden[i] = d.isOrden();
+            totalOpciones[i] = d.getNumOpciones();
+        }
+        primeraOpcion[c] = primera;
+        numElegidas[c] = elegidas;
+        mascaras[c] = bits;
+        palabras[c] = w;
+        ordenadas[c] = orden;
+        numOpciones[c] = totalOpciones;
+        return true;
+    }
+
+    private boolean compilarTexto(int c, TDatos[] celdas) {
+        int n = celdas.length;
+        HashMap<String, Integer> ids = new HashMap<>();
+        ArrayList<char[]> textos = new ArrayList<>();
+        int[] id = new int[n];
+        for (int i = 0; i < n; ++i) {
+            String texto = ((TDatosString) celdas[i]).getTexto();
+            if (texto == null) return false;
+            Integer existente = ids.get(texto);
+            if (existente == null) {
+                existente = textos.size();
+                ids.put(texto, existente);
+                textos.add(texto.toCharArray());
+            }
+            id[i] = existente;
+        }
+        idTexto[c] = id;
+        diccionario[c] = textos.toArray(new char[0][]);
+        return true;
+    }
+
+    /**
+     * Devuelve el número de filas (respuestas) de la matriz.
+     * @return Número de filas.
+     */
+    public int getNumFilas() {
+        return numFilas;
+    }
+
+    /**
+     * Devuelve el número de preguntas (columnas) de la matriz.
+     * @return Número de columnas.
+     */
+    public int getNumPreguntas() {
+        return numPreguntas;
+    }
+
+    /**
+     * Devuelve la respuesta original de una fila.
+     * @param i Índice de la fila.
+     * @return Respuesta de la fila {@code i}.
+     */
+    public RespuestaEncuesta getRespuesta(int i) {
+        return respuestas.get(i);
+    }
+
+    /**
+     * Devuelve las respuestas originales en orden de fila.
+     * @return Lista de respuestas. No se debe modificar.
+     */
+    public ArrayList<RespuestaEncuesta> getRespuestas() {
+        return respuestas;
+    }
+
+    /**
+     * Devuelve la fila que ocupa una respuesta en la matriz.
+     * @param r Respuesta (se compara por identidad).
+     * @return Índice de la fila, o {@code -1} si la respuesta no está en la matriz.
+     */
+    public int indiceDe(RespuestaEncuesta r) {
+        Integer i = indices.get(r);
+        return (i == null) ? -1 : i;
+    }
+
+    /**
+     * Indica si la matriz se compiló exactamente a partir de la lista dada, en el mismo orden.
+     * @param lista Lista de respuestas.
+     * @return {@code true} si la fila {@code i} corresponde a {@code lista.get(i)} para toda {@code i}.
+     */
+    public boolean esDe(List<RespuestaEncuesta> lista) {
+        if (lista == null || lista.size() != numFilas) return false;
+        for (int i = 0; i < numFilas; ++i) {
+            if (lista.get(i) != respuestas.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve los índices de fila de una lista de respuestas.
+     * @param lista Respuestas contenidas en la matriz.
+     * @return Índices de fila, o {@code null} si alguna respuesta no está en la matriz.
+     */
+    public int[] indicesDe(List<RespuestaEncuesta> lista) {
+        int[] res = new int[lista.size()];
+        for (int i = 0; i < res.length; ++i) {
+            res[i] = indiceDe(lista.get(i));
+            if (res[i] < 0) return null;
+        }
+        return res;
+    }
+
+    /**
+     * Devuelve los índices de fila de cada cluster de un clustering.
+     * @param clusters Clusters de respuestas contenidas en la matriz.
+     * @return Índices de fila por cluster, o {@code null} si alguna respuesta no está en la matriz.
+     */
+    public int[][] indicesClusters(List<? extends List<RespuestaEncuesta>> clusters) {
+        int[][] res = new int[clusters.size()][];
+        for (int c = 0; c < res.length; ++c) {
+            res[c] = indicesDe(clusters.get(c));
+            if (res[c] == null) return null;
+        }
+        return res;
+    }
+
+    /**
+     * Distancia normalizada entre dos filas de la matriz.
+     * @param i Primera fila.
+     * @param j Segunda fila.
+     * @return La misma distancia que daría {@link Comparador#distancia(RespuestaEncuesta, RespuestaEncuesta)}.
+     */
+    public float distancia(int i, int j) {
+        DistanciasPrecalculadas precalculadas = distancias;
+        if (precalculadas != null) return precalculadas.distancia(i, j);
+        return distancia(i, this, j);
+    }
+
+    //distancia entre dos filas calculada siempre, sin pasar por las distancias precalculadas
+    float calcularDistancia(int i, int j) {
+        return distancia(i, this, j);
+    }
+
+    /**
+     * Indica si la distancia entre filas es simétrica, es decir, si todas las filas comparten el rango
+     * de las preguntas numéricas y el orden y número de opciones de las preguntas de opciones.
+     * Solo en ese caso se pueden precalcular las distancias en un triángulo.
+     * @return {@code true} si {@code distancia(i, j) == distancia(j, i)} para todo par de filas.
+     */
+    public boolean esSimetrica() {
+        for (int c = 0; c < numPreguntas; ++c) {
+            for (int i = 1; i < numFilas; ++i) {
+                if (tipos[c] == NUMERICA && rangos[c][i] != rangos[c][0]) return false;
+                if (tipos[c] == OPCIONES && (ordenadas[c][i] != ordenadas[c][0] || numOpciones[c][i] != numOpciones[c][0])) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Precalcula las distancias entre todas las filas, si no se ha hecho ya y la matriz es simétrica.
+     * A partir de entonces {@link #distancia(int, int)} las lee de {@link DistanciasPrecalculadas}.
+     * @return Las distancias precalculadas, o {@code null} si la matriz no es simétrica.
+     */
+    public synchronized DistanciasPrecalculadas precalcularDistancias() {
+        if (distancias == null && esSimetrica()) distancias = DistanciasPrecalculadas.calcular(this);
+        return distancias;
+    }
+
+    /**
+     * Libera las distancias precalculadas, si las hay.
+     */
+    public synchronized void liberarDistancias() {
+        if (distancias != null) {
+            distancias.close();
+            distancias = null;
+        }
+    }
+
+    /**
+     * Distancia normalizada entre una fila de esta matriz y una fila de otra matriz con el mismo
+     * formato de columnas (obtenida con {@link #codificar(List)}).
+     * <p>
+     * Los casos degenerados (textos vacíos, rango numérico nulo, menos de dos modalidades o
+     * conjuntos de opciones vacíos) cuentan como distancia 0, igual que en {@link Comparador}.
+     * </p>
+     * @param i Fila de esta matriz.
+     * @param otra Matriz de la otra fila.
+     * @param j Fila de {@code otra}.
+     * @return Distancia normalizada entre ambas filas.
+     */
+    public float distancia(int i, MatrizRespuestas otra, int j) {
+        float suma = 0.f;
+        for (int c = 0; c < numPreguntas; ++c) {
+            float d = switch (tipos[c]) {
+                case NUMERICA -> distanciaNumerica(c, i, otra, j);
+                case OPCIONES -> distanciaOpciones(c, i, otra, j);
+                default -> distanciaTexto(c, i, otra, j);
+            };
+            suma += d;
+        }
+        return suma / numPreguntas;
+    }
+
+    private float distanciaNumerica(int c, int i, MatrizRespuestas otra, int j) {
+        float rango = rangos[c][i];
+        if (rango == 0.f) return 0.f;
+        long diff = Math.abs((long) valores[c][i] - (long) otra.valores[c][j]);
+        return (float) diff / rango;
+    }
+
+    private float distanciaOpciones(int c, int i, MatrizRespuestas otra, int j) {
+        if (numElegidas[c][i] == 1 && otra.numElegidas[c][j] == 1) {
+            int a = primeraOpcion[c][i];
+            int b = otra.primeraOpcion[c][j];
+            if (ordenadas[c][i]) {
+                int modalidades = numOpciones[c][i];
+                if (modalidades < 2) return 0.f;
+                float diff = Math.abs(a - b);
+                return diff / (modalidades - 1);
+            }
+            return (a == b) ? 0.f : 1.f;
+        }
+
+        int wa = palabras[c];
+        int wb = otra.palabras[c];
+        float distancia = MascaraOpciones.jaccard(mascaras[c], i * wa, wa, otra.mascaras[c], j * wb, wb);
+        return Float.isNaN(distancia) ? 0.f : distancia;
+    }
+
+    private float distanciaTexto(int c, int i, MatrizRespuestas otra, int j) {
+        int idA = idTexto[c][i];
+        int idB = otra.idTexto[c][j];
+        if (otra == this && idA == idB) return 0.f;
+        char[] a = diccionario[c][idA];
+        char[] b = otra.diccionario[c][idB];
+        float maxLength = Math.max(a.length, b.length);
+        if (maxLength == 0.0) return 0.f;
+        return TDatosString.distanciaEdicion(a, a.length, b, b.length) / maxLength;
+    }
+}
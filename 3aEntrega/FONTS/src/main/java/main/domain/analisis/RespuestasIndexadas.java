@@ -0,0 +1,215 @@
+package main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Conjunto de respuestas identificadas por su posición, con las distancias entre ellas calculadas por índice.
+ * <p>
+ * Si el {@link Comparador} tiene compiladas las respuestas en una {@link MatrizRespuestas}, las distancias se
+ * calculan sobre ella (y se leen de las distancias precalculadas, si lo están); si no, con
+ * {@link Comparador#distancia(RespuestaEncuesta, RespuestaEncuesta)}. Los dos cálculos dan el mismo valor, así que
+ * los algoritmos, inicializadores y evaluadores tienen una sola implementación por índices que sirve para ambos.
+ * </p>
+ * <p>
+ * Los centros (centroides o medoids) y otras respuestas que no son del conjunto se representan igual con
+ * {@link #codificar(List)}, y se comparan con {@link #distancia(int, RespuestasIndexadas, int)}.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class RespuestasIndexadas {
+
+    private final List<RespuestaEncuesta> respuestas;
+    private final MatrizRespuestas matriz;
+    private final Comparador comp;
+    //posiciones de los miembros de cada cluster, si el conjunto se creó a partir de unos clusters
+    private final int[][] indicesClusters;
+    //posición de cada respuesta sin matriz compilada, calculada la primera vez que se busca una
+    private IdentityHashMap<RespuestaEncuesta, Integer> posiciones;
+
+    private RespuestasIndexadas(List<RespuestaEncuesta> respuestas, MatrizRespuestas matriz, Comparador comp, int[][] indicesClusters) {
+        this.respuestas = respuestas;
+        this.matriz = matriz;
+        this.comp = comp;
+        this.indicesClusters = indicesClusters;
+    }
+
+    /**
+     * Indexa una lista de respuestas: la posición {@code i} es {@code respuestas.get(i)}.
+     * @param respuestas Respuestas a una misma encuesta; no se deben modificar mientras se use el conjunto.
+     * @param comp Comparador; se usa su matriz compilada si es exactamente la de {@code respuestas}.
+     * @return Conjunto indexado de las respuestas.
+     */
+    public static RespuestasIndexadas de(List<RespuestaEncuesta> respuestas, Comparador comp) {
+        MatrizRespuestas matriz = comp.getMatriz();
+        if (matriz != null && matriz.esDe(respuestas)) return new RespuestasIndexadas(matriz.getRespuestas(), matriz, comp, null);
+        return new RespuestasIndexadas(respuestas, null, comp, null);
+    }
+
+    /**
+     * Indexa las respuestas de un clustering. Si todas están en la matriz compilada del comparador, el conjunto
+     * son las filas de la matriz; si no, los miembros de los clusters en orden. Las posiciones de los miembros de
+     * cada cluster se obtienen con {@link #getIndicesClusters()}.
+     * @param clusters Grupos de respuestas.
+     * @param comp Comparador.
+     * @return Conjunto indexado que contiene todas las respuestas de los clusters.
+     */
+    public static RespuestasIndexadas deClusters(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        MatrizRespuestas matriz = comp.getMatriz();
+        int[][] indices = (matriz == null) ? null : matriz.indicesClusters(clusters);
+        if (indices != null) return new RespuestasIndexadas(matriz.getRespuestas(), matriz, comp, indices);
+
+        ArrayList<RespuestaEncuesta> miembros = new ArrayList<>();
+        indices = new int[clusters.size()][];
+        for (int c = 0; c < indices.length; ++c) {
+            List<RespuestaEncuesta> cluster = clusters.get(c);
+            indices[c] = new int[cluster.size()];
+            for (int j = 0; j < indices[c].length; ++j) indices[c][j] = miembros.size() + j;
+            miembros.addAll(cluster);
+        }
+        return new RespuestasIndexadas(miembros, null, comp, indices);
+    }
+
+    /**
+     * Representa otras respuestas (por ejemplo, centroides) igual que este conjunto, para compararlas con
+     * {@link #distancia(int, RespuestasIndexadas, int)}.
+     * @param externas Respuestas a la misma encuesta; con la matriz compilada no pueden ser {@code null}.
+     * @return Conjunto indexado de las respuestas externas.
+     * @throws IllegalArgumentException si las respuestas no son compatibles con la matriz compilada.
+     */
+    public RespuestasIndexadas codificar(List<RespuestaEncuesta> externas) {
+        ArrayList<RespuestaEncuesta> copia = new ArrayList<>(externas);
+        return new RespuestasIndexadas(copia, (matriz == null) ? null : matriz.codificar(copia), comp, null);
+    }
+
+    /**
+     * Devuelve el número de respuestas.
+     * @return Número de respuestas del conjunto.
+     */
+    public int getNumRespuestas() {
+        return respuestas.size();
+    }
+
+    /**
+     * Devuelve la respuesta de una posición.
+     * @param i Posición.
+     * @return Respuesta de la posición {@code i}.
+     */
+    public RespuestaEncuesta getRespuesta(int i) {
+        return respuestas.get(i);
+    }
+
+    /**
+     * Devuelve las respuestas en orden de posición.
+     * @return Vista no modificable de las respuestas.
+     */
+    public List<RespuestaEncuesta> getRespuestas() {
+        return Collections.unmodifiableList(respuestas);
+    }
+
+    /**
+     * Devuelve el comparador con el que se calculan las distancias y los centroides.
+     * @return Comparador del conjunto.
+     */
+    public Comparador getComparador() {
+        return comp;
+    }
+
+    /**
+     * Indica si las posiciones son las filas de la matriz compilada del comparador, que son las de la lista de
+     * respuestas analizada. Solo entonces sirven las {@link main.domain.analisis.algoritmo.DistanciasAsignacion}
+     * de un algoritmo para las respuestas de este conjunto.
+     * @return {@code true} si el conjunto está sobre la matriz compilada.
+     */
+    public boolean estaCompilado() {
+        return matriz != null && matriz == comp.getMatriz();
+    }
+
+    /**
+     * Devuelve las posiciones de los miembros de cada cluster, si el conjunto se creó con {@link #deClusters}.
+     * @return Posiciones por cluster, en el orden de sus miembros; {@code null} si se creó de una lista.
+     */
+    public int[][] getIndicesClusters() {
+        return indicesClusters;
+    }
+
+    /**
+     * Devuelve la posición de una respuesta.
+     * @param r Respuesta (se compara por identidad).
+     * @return Posición de la respuesta, o {@code -1} si no está en el conjunto.
+     */
+    public int indiceDe(RespuestaEncuesta r) {
+        if (matriz != null) return matriz.indiceDe(r);
+        if (posiciones == null) {
+            IdentityHashMap<RespuestaEncuesta, Integer> mapa = new IdentityHashMap<>(respuestas.size() * 2);
+            for (int i = 0; i < respuestas.size(); ++i) mapa.putIfAbsent(respuestas.get(i), i);
+            posiciones = mapa;
+        }
+        Integer i = posiciones.get(r);
+        return (i == null) ? -1 : i;
+    }
+
+    /**
+     * Devuelve las posiciones de una lista de respuestas.
+     * @param lista Respuestas del conjunto.
+     * @return Posiciones, o {@code null} si alguna respuesta no está en el conjunto.
+     */
+    public int[] indicesDe(List<RespuestaEncuesta> lista) {
+        int[] res = new int[lista.size()];
+        for (int i = 0; i < res.length; ++i) {
+            res[i] = indiceDe(lista.get(i));
+            if (res[i] < 0) return null;
+        }
+        return res;
+    }
+
+    /**
+     * Devuelve las posiciones de los miembros de cada cluster de un clustering.
+     * @param clusters Clusters de respuestas del conjunto.
+     * @return Posiciones por cluster, o {@code null} si alguna respuesta no está en el conjunto.
+     */
+    public int[][] indicesClusters(List<? extends List<RespuestaEncuesta>> clusters) {
+        int[][] res = new int[clusters.size()][];
+        for (int c = 0; c < res.length; ++c) {
+            res[c] = indicesDe(clusters.get(c));
+            if (res[c] == null) return null;
+        }
+        return res;
+    }
+
+    /**
+     * Precalcula las distancias entre todas las respuestas, si están compiladas en una matriz simétrica (ver
+     * {@link MatrizRespuestas#precalcularDistancias()}). Se calculan una sola vez por sesión.
+     * @return {@code true} si las distancias de {@link #distancia(int, int)} se leen precalculadas.
+     */
+    public boolean precalcularDistancias() {
+        return matriz != null && matriz.precalcularDistancias() != null;
+    }
+
+    /**
+     * Distancia entre dos respuestas del conjunto.
+     * @param i Posición de la primera respuesta.
+     * @param j Posición de la segunda respuesta.
+     * @return La misma distancia que {@link Comparador#distancia(RespuestaEncuesta, RespuestaEncuesta)}.
+     */
+    public float distancia(int i, int j) {
+        if (matriz != null) return matriz.distancia(i, j);
+        return comp.distancia(respuestas.get(i), respuestas.get(j));
+    }
+
+    /**
+     * Distancia entre una respuesta de este conjunto y una de otro representado igual (ver {@link #codificar(List)}).
+     * @param i Posición en este conjunto.
+     * @param otras Conjunto de la otra respuesta.
+     * @param j Posición en {@code otras}.
+     * @return La misma distancia que {@link Comparador#distancia(RespuestaEncuesta, RespuestaEncuesta)}, en ese orden.
+     */
+    public float distancia(int i, RespuestasIndexadas otras, int j) {
+        if (matriz != null && otras.matriz != null) return matriz.distancia(i, otras.matriz, j);
+        return comp.distancia(respuestas.get(i), otras.respuestas.get(j));
+    }
+}
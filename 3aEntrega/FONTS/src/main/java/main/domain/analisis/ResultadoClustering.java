@@ -0,0 +1,274 @@
+package main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Resultado inmutable de un clustering sobre una lista de respuestas.
+ * <p>
+ * Cada respuesta se identifica por su posición en la lista analizada y tiene la etiqueta de su cluster en un
+ * {@code int[]}. Los miembros de cada cluster se guardan seguidos en un único array de posiciones, en el orden
+ * en que los dio el algoritmo, así que el tamaño, el cluster de una respuesta y el miembro {@code j} de un
+ * cluster se consultan en O(1) y los clusters se recorren sin copiarlos (ver {@link #miembros(int)}).
+ * </p>
+ * <p>
+ * También guarda el centro de cada cluster (centroide o medoid) y la distancia de cada respuesta a él.
+ * Si el algoritmo no los da, se calculan una vez al crear el resultado.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class ResultadoClustering {
+
+    private final RespuestaEncuesta[] respuestas;
+    private final IdentityHashMap<RespuestaEncuesta, Integer> posiciones;
+    private final int[] etiquetas;
+    //los miembros del cluster c son las posiciones miembros[inicio[c]] .. miembros[inicio[c + 1] - 1]
+    private final int[] inicio;
+    private final int[] miembros;
+    private final RespuestaEncuesta[] centros;
+    private final float[] distanciasCentro;
+
+    private ResultadoClustering(RespuestaEncuesta[] respuestas, IdentityHashMap<RespuestaEncuesta, Integer> posiciones,
+                                int[] etiquetas, int[] inicio, int[] miembros, RespuestaEncuesta[] centros,
+                                float[] distanciasCentro) {
+        this.respuestas = respuestas;
+        this.posiciones = posiciones;
+        this.etiquetas = etiquetas;
+        this.inicio = inicio;
+        this.miembros = miembros;
+        this.centros = centros;
+        this.distanciasCentro = distanciasCentro;
+    }
+
+    /**
+     * Crea el resultado de un clustering.
+     * @param respuestas Respuestas analizadas; sus posiciones identifican las respuestas en el resultado.
+     * @param clusters Clusters que da el algoritmo; cada respuesta debe estar en exactamente uno.
+     * @param centros Centro de cada cluster que da el algoritmo (ver {@link main.domain.analisis.algoritmo.InterfazAlgoritmo#getCentros()}),
+     *                o {@code null} para usar los centroides.
+     * @param distancias Distancias de la asignación final a esos centros, en el orden de {@code respuestas},
+     *                   o {@code null} para calcularlas.
+     * @param comp Comparador para calcular los centroides y las distancias que falten.
+     * @return Resultado del clustering.
+     * @throws IllegalArgumentException si alguna respuesta no está en ningún cluster, está en varios o no es de {@code respuestas}.
+     */
+    public static ResultadoClustering crear(List<RespuestaEncuesta> respuestas, List<? extends List<RespuestaEncuesta>> clusters,
+                                            List<RespuestaEncuesta> centros, DistanciasAsignacion distancias, Comparador comp) {
+        int n = respuestas.size();
+        int k = clusters.size();
+        RespuestaEncuesta[] rs = respuestas.toArray(new RespuestaEncuesta[0]);
+        IdentityHashMap<RespuestaEncuesta, Integer> posiciones = new IdentityHashMap<>(n);
+        for (int i = 0; i < n; ++i) posiciones.put(rs[i], i);
+
+        int[] etiquetas = new int[n];
+        Arrays.fill(etiquetas, -1);
+        int[] inicio = new int[k + 1];
+        int[] miembros = new int[n];
+        int p = 0;
+        for (int c = 0; c < k; ++c) {
+            inicio[c] = p;
+            for (RespuestaEncuesta r : clusters.get(c)) {
+                Integer i = posiciones.get(r);
+                if (i == null || etiquetas[i] >= 0 || p == n) throw new IllegalArgumentException("Respuesta que no está en la lista analizada o en varios clusters");
+                etiquetas[i] = c;
+                miembros[p++] = i;
+            }
+        }
+        inicio[k] = p;
+        if (p != n) throw new IllegalArgumentException("Hay respuestas que no están en ningún cluster");
+
+        RespuestaEncuesta[] centrosResultado = new RespuestaEncuesta[k];
+        if (centros == null || centros.size() != k) {
+            for (int c = 0; c < k; ++c) {
+                if (!clusters.get(c).isEmpty()) centrosResultado[c] = comp.calcularNuevoCentroide(clusters.get(c));
+            }
+            //unas distancias de otros centros no sirven para los centroides recalculados
+            distancias = null;
+        }
+        else centros.toArray(centrosResultado);
+
+        float[] distanciasCentro = new float[n];
+        if (distancias != null && distancias.getNumRespuestas() == n) {
+            for (int i = 0; i < n; ++i) distanciasCentro[i] = distancias.getPropia(i);
+        }
+        else {
+            //los centros se codifican una vez y se mide por posición
+            //(los de clusters vacíos pueden faltar y no se codifican)
+            RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+            int[] posicion = new int[k];
+            ArrayList<RespuestaEncuesta> usados = new ArrayList<>(k);
+            for (int c = 0; c < k; ++c) {
+                posicion[c] = usados.size();
+                if (inicio[c + 1] > inicio[c]) usados.add(centrosResultado[c]);
+            }
+            RespuestasIndexadas codificados = puntos.codificar(usados);
+            for (int i = 0; i < n; ++i) distanciasCentro[i] = puntos.distancia(i, codificados, posicion[etiquetas[i]]);
+        }
+        return new ResultadoClustering(rs, posiciones, etiquetas, inicio, miembros, centrosResultado, distanciasCentro);
+    }
+
+    /**
+     * Devuelve el número de respuestas analizadas.
+     * @return Número de respuestas.
+     */
+    public int getNumRespuestas() {
+        return respuestas.length;
+    }
+
+    /**
+     * Devuelve el número de clusters, contando los vacíos.
+     * @return Número de clusters.
+     */
+    public int getK() {
+        return inicio.length - 1;
+    }
+
+    /**
+     * Devuelve la respuesta de una posición.
+     * @param i Posición en la lista analizada.
+     * @return Respuesta de la posición {@code i}.
+     */
+    public RespuestaEncuesta getRespuesta(int i) {
+        return respuestas[i];
+    }
+
+    /**
+     * Devuelve las respuestas analizadas, en su orden, sin copiarlas.
+     * @return Vista no modificable de las respuestas.
+     */
+    public List<RespuestaEncuesta> getRespuestas() {
+        return Collections.unmodifiableList(Arrays.asList(respuestas));
+    }
+
+    /**
+     * Devuelve la posición de una respuesta en la lista analizada.
+     * @param r Respuesta (se compara por identidad).
+     * @return Posición de la respuesta, o {@code -1} si no se analizó.
+     */
+    public int getPosicion(RespuestaEncuesta r) {
+        Integer i = posiciones.get(r);
+        return (i == null) ? -1 : i;
+    }
+
+    /**
+     * Devuelve el cluster de una respuesta.
+     * @param i Posición de la respuesta en la lista analizada.
+     * @return Índice de su cluster.
+     */
+    public int getCluster(int i) {
+        return etiquetas[i];
+    }
+
+    /**
+     * Devuelve el cluster de una respuesta.
+     * @param r Respuesta (se compara por identidad).
+     * @return Índice de su cluster, o {@code -1} si no se analizó.
+     */
+    public int getCluster(RespuestaEncuesta r) {
+        int i = getPosicion(r);
+        return (i < 0) ? -1 : etiquetas[i];
+    }
+
+    /**
+     * Devuelve el número de respuestas de un cluster.
+     * @param c Índice del cluster.
+     * @return Tamaño del cluster.
+     */
+    public int getTamano(int c) {
+        return inicio[c + 1] - inicio[c];
+    }
+
+    /**
+     * Devuelve el tamaño de cada cluster.
+     * @return Tamaños, en el orden de los clusters.
+     */
+    public int[] getTamanos() {
+        int[] tamanos = new int[getK()];
+        for (int c = 0; c < tamanos.length; ++c) tamanos[c] = getTamano(c);
+        return tamanos;
+    }
+
+    /**
+     * Devuelve la posición de un miembro de un cluster.
+     * @param c Índice del cluster.
+     * @param j Índice del miembro dentro del cluster, entre 0 y {@code getTamano(c) - 1}.
+     * @return Posición en la lista analizada del miembro {@code j} del cluster {@code c}.
+     */
+    public int getMiembro(int c, int j) {
+        return miembros[inicio[c] + j];
+    }
+
+    /**
+     * Devuelve las respuestas de un cluster como una vista, sin copiarlas.
+     * @param c Índice del cluster.
+     * @return Vista no modificable de los miembros del cluster, en el orden que dio el algoritmo.
+     */
+    public List<RespuestaEncuesta> miembros(int c) {
+        int desde = inicio[c];
+        int tam = getTamano(c);
+        return new AbstractList<>() {
+            @Override
+            public RespuestaEncuesta get(int j) {
+                if (j < 0 || j >= tam) throw new IndexOutOfBoundsException(j);
+                return respuestas[miembros[desde + j]];
+            }
+
+            @Override
+            public int size() {
+                return tam;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el centro de un cluster.
+     * @param c Índice del cluster.
+     * @return Centroide o medoid del cluster; {@code null} si el cluster es vacío y el algoritmo no le dio centro.
+     */
+    public RespuestaEncuesta getCentro(int c) {
+        return centros[c];
+    }
+
+    /**
+     * Devuelve los centros de los clusters, en una lista nueva.
+     * @return Centro de cada cluster, en el orden de los clusters.
+     */
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return new ArrayList<>(Arrays.asList(centros));
+    }
+
+    /**
+     * Devuelve la distancia de una respuesta al centro de su cluster.
+     * @param i Posición de la respuesta en la lista analizada.
+     * @return Distancia al centro propio.
+     */
+    public float getDistanciaCentro(int i) {
+        return distanciasCentro[i];
+    }
+
+    /**
+     * Devuelve los clusters como una vista, sin copiarlos. Cada cluster es la vista de {@link #miembros(int)}.
+     * @return Vista no modificable con una lista por cluster, en el orden que dio el algoritmo.
+     */
+    public List<List<RespuestaEncuesta>> getClusters() {
+        return new AbstractList<>() {
+            @Override
+            public List<RespuestaEncuesta> get(int c) {
+                if (c < 0 || c >= getK()) throw new IndexOutOfBoundsException(c);
+                return miembros(c);
+            }
+
+            @Override
+            public int size() {
+                return getK();
+            }
+        };
+    }
+}
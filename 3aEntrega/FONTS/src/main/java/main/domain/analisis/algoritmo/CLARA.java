@@ -0,0 +1,266 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.MuestraMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Implementación de {@link InterfazAlgoritmo} con el algoritmo CLARA (Clustering LARge Applications).
+ * <p>
+ * {@link KMedoids} es cuadrático en el número de respuestas. CLARA lo aplica sobre varias muestras aleatorias
+ * pequeñas, cada una con los medoids iniciales y otras respuestas escogidas al azar, y se queda con
+ * los medoids de la muestra que dan menor suma de distancias sobre todas las respuestas. El coste es
+ * O(muestras·(s² + n·k)) distancias, con {@code s} el tamaño de muestra. Las muestras se resuelven de forma
+ * independiente en {@code paralelismo} hilos.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class CLARA implements InterfazAlgoritmo<KMedoidsTipo> {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+    private static final String textoMuestraMenor = "El número o el tamaño de las muestras es menor que 1";
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    private static final int MUESTRAS_POR_DEFECTO = 5;
+
+    private final int numMuestras;
+    //0 si se usa el tamaño por defecto, 40 + 2k
+    private final int tamMuestra;
+    private final Random rand;
+    private final int paralelismo;
+    private double coste;
+    private DistanciasAsignacion distanciasAsignacion;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora con 5 muestras de 40 + 2k respuestas, semilla aleatoria y un solo hilo.
+     */
+    public CLARA() {
+        this(MUESTRAS_POR_DEFECTO, 0, new Random(), 1);
+    }
+
+    /**
+     * Constructora con 5 muestras de 40 + 2k respuestas, semilla aleatoria y el número de hilos que resuelven las muestras.
+     * @param paralelismo Número de hilos.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public CLARA(int paralelismo) {
+        this(MUESTRAS_POR_DEFECTO, 0, new Random(), paralelismo);
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+    }
+
+    /**
+     * Constructora con el número y el tamaño de las muestras.
+     * @param numMuestras Número de muestras en las que se aplica {@link KMedoids}.
+     * @param tamMuestra Número de respuestas de cada muestra, incluidos los medoids iniciales.
+     * @param semilla Semilla de la elección de las muestras.
+     * @throws MuestraMenorQueUno si {@code numMuestras} o {@code tamMuestra} es menor a 1.
+     */
+    public CLARA(int numMuestras, int tamMuestra, long semilla) {
+        this(numMuestras, tamMuestra, semilla, 1);
+    }
+
+    /**
+     * Constructora con el número y el tamaño de las muestras y el número de hilos que las resuelven.
+     * El resultado es el mismo que con un solo hilo.
+     * @param numMuestras Número de muestras en las que se aplica {@link KMedoids}.
+     * @param tamMuestra Número de respuestas de cada muestra, incluidos los medoids iniciales.
+     * @param semilla Semilla de la elección de las muestras.
+     * @param paralelismo Número de hilos.
+     * @throws MuestraMenorQueUno si {@code numMuestras} o {@code tamMuestra} es menor a 1.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public CLARA(int numMuestras, int tamMuestra, long semilla, int paralelismo) {
+        this(numMuestras, tamMuestra, new Random(semilla), paralelismo);
+        if (numMuestras < 1 || tamMuestra < 1) throw new MuestraMenorQueUno(textoMuestraMenor);
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+    }
+
+    private CLARA(int numMuestras, int tamMuestra, Random rand, int paralelismo) {
+        this.numMuestras = numMuestras;
+        this.tamMuestra = tamMuestra;
+        this.rand = rand;
+        this.paralelismo = paralelismo;
+    }
+
+    /**
+     * Devuelve el número de muestras.
+     * @return Número de muestras.
+     */
+    public int getNumMuestras() {
+        return numMuestras;
+    }
+
+    /**
+     * Devuelve el número de hilos que resuelven las muestras.
+     * @return Paralelismo del algoritmo.
+     */
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    /**
+     * Devuelve el tamaño de las muestras para un número de clusters.
+     * @param k Número de clusters.
+     * @return Número de respuestas de cada muestra.
+     */
+    public int getTamMuestra(int k) {
+        return (tamMuestra > 0) ? Math.max(tamMuestra, k) : 40 + 2 * k;
+    }
+
+    /**
+     * Devuelve la suma de las distancias de cada respuesta a su medoid en la última llamada a {@link #analizar}.
+     * @return Coste del clustering obtenido.
+     */
+    public double getCoste() {
+        return coste;
+    }
+
+    /**
+     * Devuelve las distancias de cada respuesta a su medoid y al segundo medoid más cercano en la última llamada
+     * a {@link #analizar}, con los medoids de la mejor muestra.
+     * @return Distancias de la asignación final, o {@code null} si no se ha analizado.
+     */
+    @Override
+    public DistanciasAsignacion getDistanciasAsignacion() {
+        return distanciasAsignacion;
+    }
+
+    /**
+     * Devuelve los medoids finales de la última llamada a {@link #analizar}.
+     * @return Medoid de cada cluster, o {@code null} si no se ha analizado.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
+
+    /**
+     * Devuelve un CLARA independiente con la misma configuración y otra semilla, para ejecutarlo a la vez que este.
+     * @param semilla Semilla de la nueva instancia.
+     * @return Nueva instancia.
+     */
+    @Override
+    public CLARA conSemilla(long semilla) {
+        return new CLARA(numMuestras, tamMuestra, new Random(semilla), paralelismo);
+    }
+
+    /**
+     * Devuelve un CLARA de un solo hilo con la misma configuración y otra semilla.
+     * @param semilla Semilla de la nueva instancia.
+     * @return Nueva instancia.
+     */
+    @Override
+    public CLARA conSemillaSecuencial(long semilla) {
+        return new CLARA(numMuestras, tamMuestra, new Random(semilla), 1);
+    }
+
+    /**
+     * Analiza las respuestas con el algoritmo CLARA.
+     * @param medoids Medoids iniciales; deben ser respuestas del conjunto. Al acabar contiene los medoids finales.
+     * @param respuestas Conjunto de respuestas a analizar.
+     * @param k Número de clusters a formar.
+     * @param comp Comparador utilizado para calcular distancias entre respuestas.
+     * @return Lista de clusters, donde cada cluster es una lista de respuestas asignadas a ese cluster.
+     * @throws NoHayRespuestasParaAnalizar si {@code respuestas} es vacío.
+     * @throws KMenorQueUno si {@code k} es menor a 1.
+     * @throws IllegalArgumentException si algún medoid no está entre las respuestas.
+     */
+    @Override
+    public ArrayList<ArrayList<RespuestaEncuesta>> analizar(ArrayList<RespuestaEncuesta> medoids, ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
+
+        int n = respuestas.size();
+        //las distancias sobre todas las respuestas no se precalculan: serían n² y solo se usan n·k por muestra
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        CercanosMedoids.Distancia dist = puntos::distancia;
+        int[] iniciales = CercanosMedoids.indices(medoids, puntos);
+
+        int s = Math.min(n, getTamMuestra(iniciales.length));
+        CercanosMedoids mejor;
+        if (s >= n) {
+            //la muestra abarcaría todas las respuestas: es directamente KMedoids
+            mejor = new CercanosMedoids(iniciales.clone(), n, dist);
+            new KMedoids(paralelismo).fasterPAM(mejor);
+        }
+        else {
+            int[][] muestras = new int[numMuestras][];
+            for (int j = 0; j < numMuestras; ++j) muestras[j] = muestra(iniciales, n, s);
+
+            //cada muestra se resuelve y se puntúa sobre todas las respuestas de forma independiente
+            CercanosMedoids[] resultados = new CercanosMedoids[numMuestras];
+            if (paralelismo == 1) {
+                for (int j = 0; j < numMuestras; ++j) resultados[j] = resolverMuestra(muestras[j], iniciales.length, n, dist);
+            }
+            else {
+                try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                    pool.submit(() -> IntStream.range(0, numMuestras).parallel()
+                            .forEach(j -> resultados[j] = resolverMuestra(muestras[j], iniciales.length, n, dist))).join();
+                }
+            }
+
+            //en caso de empate gana la primera muestra, así el resultado no depende del orden de los hilos
+            mejor = resultados[0];
+            for (int j = 1; j < numMuestras; ++j) {
+                if (resultados[j].coste() < mejor.coste()) mejor = resultados[j];
+            }
+        }
+
+        coste = mejor.coste();
+        for (int m = 0; m < mejor.medoids.length; m++) medoids.set(m, puntos.getRespuesta(mejor.medoids[m]));
+        centros = new ArrayList<>(medoids);
+        distanciasAsignacion = new DistanciasAsignacion(mejor.distanciaMasCercana, mejor.segundaDistanciaMasCercana);
+        return mejor.clusters(puntos::getRespuesta);
+    }
+
+    //los medoids iniciales en las primeras posiciones y el resto escogidas al azar sin repetir
+    private int[] muestra(int[] iniciales, int n, int s) {
+        boolean[] usada = new boolean[n];
+        int[] muestra = new int[s];
+        int tam = 0;
+        for (int m : iniciales) {
+            usada[m] = true;
+            muestra[tam++] = m;
+        }
+        while (tam < muestra.length) {
+            int fila = rand.nextInt(n);
+            if (usada[fila]) continue;
+            usada[fila] = true;
+            muestra[tam++] = fila;
+        }
+        return muestra;
+    }
+
+    private static CercanosMedoids resolverMuestra(int[] muestra, int k, int n, CercanosMedoids.Distancia dist) {
+        int s = muestra.length;
+        //las distancias de la muestra sí se precalculan, son pocas y FasterPAM las lee muchas veces
+        float[] distancias = new float[s * s];
+        for (int i = 0; i < s; ++i) {
+            for (int j = i + 1; j < s; ++j) {
+                float d = dist.distancia(muestra[i], muestra[j]);
+                distancias[i * s + j] = d;
+                distancias[j * s + i] = d;
+            }
+        }
+        int[] locales = new int[k];
+        for (int m = 0; m < k; ++m) locales[m] = m;
+        CercanosMedoids enMuestra = new CercanosMedoids(locales, s, (i, j) -> distancias[i * s + j]);
+        new KMedoids().fasterPAM(enMuestra);
+
+        int[] globales = new int[k];
+        for (int m = 0; m < k; ++m) globales[m] = muestra[enMuestra.medoids[m]];
+        return new CercanosMedoids(globales, n, dist);
+    }
+}
@@ -0,0 +1,227 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.exceptions.VecinosMenorQueUno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Implementación de {@link InterfazAlgoritmo} con el algoritmo CLARANS (Clustering Large Applications based on
+ * RANdomized Search).
+ * <p>
+ * En lugar de evaluar todos los intercambios de medoid por respuesta como {@link KMedoids}, prueba intercambios
+ * al azar y aplica el primero que mejora el coste. Una búsqueda local acaba cuando {@code maxVecinos} intercambios
+ * seguidos no mejoran; se hacen {@code numLocal} búsquedas, la primera desde los medoids iniciales y las demás
+ * desde medoids al azar, y se queda con la de menor coste. Cada intercambio probado cuesta O(n) distancias y
+ * no hace falta precalcular las n² distancias.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class CLARANS implements InterfazAlgoritmo<KMedoidsTipo> {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+    private static final String textoVecinosMenor = "El número de búsquedas o de vecinos es menor que 1";
+    private static final int BUSQUEDAS_POR_DEFECTO = 2;
+    private static final double EPSILON = 1e-7;
+
+    private final int numLocal;
+    //0 si se usa el número por defecto, el 1,25% de los k(n - k) vecinos entre 250 y 1000
+    private final int maxVecinos;
+    private final Random rand;
+    private double coste;
+    private int numIntercambios;
+    private DistanciasAsignacion distanciasAsignacion;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora con 2 búsquedas locales, el número de vecinos por defecto y semilla aleatoria.
+     */
+    public CLARANS() {
+        this(BUSQUEDAS_POR_DEFECTO, 0, new Random());
+    }
+
+    /**
+     * Constructora con el número de búsquedas locales y de vecinos.
+     * @param numLocal Número de búsquedas locales.
+     * @param maxVecinos Número de intercambios seguidos sin mejora para acabar una búsqueda local.
+     * @param semilla Semilla de la elección de los intercambios.
+     * @throws VecinosMenorQueUno si {@code numLocal} o {@code maxVecinos} es menor a 1.
+     */
+    public CLARANS(int numLocal, int maxVecinos, long semilla) {
+        this(numLocal, maxVecinos, new Random(semilla));
+        if (numLocal < 1 || maxVecinos < 1) throw new VecinosMenorQueUno(textoVecinosMenor);
+    }
+
+    private CLARANS(int numLocal, int maxVecinos, Random rand) {
+        this.numLocal = numLocal;
+        this.maxVecinos = maxVecinos;
+        this.rand = rand;
+    }
+
+    /**
+     * Devuelve el número de intercambios seguidos sin mejora que acaban una búsqueda local.
+     * @param n Número de respuestas.
+     * @param k Número de clusters.
+     * @return Número de vecinos.
+     */
+    public int getMaxVecinos(int n, int k) {
+        if (maxVecinos > 0) return maxVecinos;
+        long vecinos = (long) Math.ceil(0.0125 * k * (long) Math.max(n - k, 0));
+        return (int) Math.min(1000, Math.max(250, vecinos));
+    }
+
+    /**
+     * Devuelve la suma de las distancias de cada respuesta a su medoid en la última llamada a {@link #analizar}.
+     * @return Coste del clustering obtenido.
+     */
+    public double getCoste() {
+        return coste;
+    }
+
+    /**
+     * Devuelve el número de intercambios aplicados en todas las búsquedas de la última llamada a {@link #analizar}.
+     * @return Número de intercambios.
+     */
+    public int getNumIntercambios() {
+        return numIntercambios;
+    }
+
+    /**
+     * Devuelve las distancias de cada respuesta a su medoid y al segundo medoid más cercano en la última llamada
+     * a {@link #analizar}, con los medoids de la mejor búsqueda.
+     * @return Distancias de la asignación final, o {@code null} si no se ha analizado.
+     */
+    @Override
+    public DistanciasAsignacion getDistanciasAsignacion() {
+        return distanciasAsignacion;
+    }
+
+    /**
+     * Devuelve los medoids finales de la última llamada a {@link #analizar}.
+     * @return Medoid de cada cluster, o {@code null} si no se ha analizado.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
+
+    /**
+     * Devuelve un CLARANS independiente con la misma configuración y otra semilla, para ejecutarlo a la vez que este.
+     * @param semilla Semilla de la nueva instancia.
+     * @return Nueva instancia.
+     */
+    @Override
+    public CLARANS conSemilla(long semilla) {
+        return new CLARANS(numLocal, maxVecinos, new Random(semilla));
+    }
+
+    /**
+     * Analiza las respuestas con el algoritmo CLARANS.
+     * @param medoids Medoids iniciales; deben ser respuestas del conjunto y, si se repite alguno, se sustituye por
+     *                otra respuesta al azar. Al acabar contiene los medoids finales.
+     * @param respuestas Conjunto de respuestas a analizar.
+     * @param k Número de clusters a formar.
+     * @param comp Comparador utilizado para calcular distancias entre respuestas.
+     * @return Lista de clusters, donde cada cluster es una lista de respuestas asignadas a ese cluster.
+     * @throws NoHayRespuestasParaAnalizar si {@code respuestas} es vacío.
+     * @throws KMenorQueUno si {@code k} es menor a 1.
+     * @throws IllegalArgumentException si algún medoid no está entre las respuestas.
+     */
+    @Override
+    public ArrayList<ArrayList<RespuestaEncuesta>> analizar(ArrayList<RespuestaEncuesta> medoids, ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
+
+        int n = respuestas.size();
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        CercanosMedoids.Distancia dist = puntos::distancia;
+        int[] iniciales = CercanosMedoids.indices(medoids, puntos);
+        int vecinos = getMaxVecinos(n, iniciales.length);
+        numIntercambios = 0;
+        //si todas las respuestas son medoids no hay intercambios posibles ni medoids al azar distintos
+        int busquedas = (iniciales.length < n) ? numLocal : 1;
+
+        CercanosMedoids mejor = null;
+        for (int b = 0; b < busquedas; ++b) {
+            int[] inicio = (b == 0) ? sinRepetidos(iniciales.clone(), n) : medoidsAleatorios(iniciales.length, n);
+            CercanosMedoids actual = new CercanosMedoids(inicio, n, dist);
+            busquedaLocal(actual, vecinos);
+            if (mejor == null || actual.coste() < mejor.coste()) mejor = actual;
+        }
+
+        coste = mejor.coste();
+        for (int m = 0; m < mejor.medoids.length; m++) medoids.set(m, puntos.getRespuesta(mejor.medoids[m]));
+        centros = new ArrayList<>(medoids);
+        distanciasAsignacion = new DistanciasAsignacion(mejor.distanciaMasCercana, mejor.segundaDistanciaMasCercana);
+        return mejor.clusters(puntos::getRespuesta);
+    }
+
+    private void busquedaLocal(CercanosMedoids cercanos, int vecinos) {
+        int n = cercanos.getNumRespuestas();
+        int k = cercanos.medoids.length;
+        boolean[] esMedoid = new boolean[n];
+        int numMedoids = 0;
+        for (int m : cercanos.medoids) {
+            if (!esMedoid[m]) ++numMedoids;
+            esMedoid[m] = true;
+        }
+        //todas las respuestas son medoids, no hay vecinos
+        if (numMedoids >= n) return;
+
+        for (int j = 0; j < vecinos; ) {
+            int m = rand.nextInt(k);
+            int c = rand.nextInt(n);
+            if (esMedoid[c]) continue;
+            if (cercanos.deltaIntercambio(m, c) < -EPSILON) {
+                esMedoid[cercanos.medoids[m]] = false;
+                esMedoid[c] = true;
+                cercanos.intercambiar(m, c);
+                ++numIntercambios;
+                j = 0;
+            }
+            else ++j;
+        }
+    }
+
+    //cambia cada medoid repetido por una respuesta al azar que no es medoid; con dos medoids iguales uno de los
+    //clusters quedaría vacío y un intercambio de uno de ellos dejaría de marcar la respuesta como medoid
+    private int[] sinRepetidos(int[] medoids, int n) {
+        //con más clusters que respuestas no puede haber k medoids distintos
+        if (medoids.length > n) return medoids;
+        boolean[] esMedoid = new boolean[n];
+        boolean repetidos = false;
+        for (int m : medoids) {
+            repetidos |= esMedoid[m];
+            esMedoid[m] = true;
+        }
+        if (!repetidos) return medoids;
+        Arrays.fill(esMedoid, false);
+        for (int m = 0; m < medoids.length; ++m) {
+            while (esMedoid[medoids[m]]) medoids[m] = rand.nextInt(n);
+            esMedoid[medoids[m]] = true;
+        }
+        return medoids;
+    }
+
+    //k < n respuestas distintas al azar, con los k primeros pasos de Fisher-Yates
+    private int[] medoidsAleatorios(int k, int n) {
+        int[] filas = new int[n];
+        for (int i = 0; i < n; ++i) filas[i] = i;
+        for (int m = 0; m < k; ++m) {
+            int j = m + rand.nextInt(n - m);
+            int aux = filas[m];
+            filas[m] = filas[j];
+            filas[j] = aux;
+        }
+        return Arrays.copyOf(filas, k);
+    }
+}
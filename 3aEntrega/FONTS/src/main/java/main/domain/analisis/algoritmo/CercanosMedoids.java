@@ -0,0 +1,151 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.RespuestasIndexadas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Medoid más cercano y segundo más cercano de cada respuesta, compartido por los algoritmos de tipo
+ * {@link KMedoidsTipo} ({@link KMedoids}, {@link CLARA}, {@link CLARANS}).
+ * <p>
+ * Los medoids son filas de un conjunto de {@code n} respuestas y se identifican por su posición en
+ * {@link #medoids}. Al cambiar un medoid por otra fila, solo se vuelve a buscar entre todos los medoids
+ * para las respuestas que pierden su más cercano o su segundo y no los sustituye el nuevo medoid.
+ * </p>
+ * @author Javier Zhangpan
+ */
+final class CercanosMedoids {
+
+    /**
+     * Distancia entre dos respuestas por su posición.
+     */
+    interface Distancia {
+        float distancia(int i, int j);
+    }
+
+    final int[] medoids;
+    final int[] masCercano;
+    final int[] segundo;
+    final float[] distanciaMasCercana;
+    final float[] segundaDistanciaMasCercana;
+    private final Distancia dist;
+
+    CercanosMedoids(int[] medoids, int n, Distancia dist) {
+        this.medoids = medoids;
+        this.masCercano = new int[n];
+        this.segundo = new int[n];
+        this.distanciaMasCercana = new float[n];
+        this.segundaDistanciaMasCercana = new float[n];
+        this.dist = dist;
+        for (int o = 0; o < n; o++) buscar(o);
+    }
+
+    /**
+     * Posición de cada medoid en {@code puntos}: la de la misma respuesta o, si no está, la de la primera igual.
+     * @throws IllegalArgumentException si algún medoid no está entre las respuestas.
+     */
+    static int[] indices(List<RespuestaEncuesta> medoids, RespuestasIndexadas puntos) {
+        int[] indices = puntos.indicesDe(medoids);
+        if (indices != null) return indices;
+        indices = new int[medoids.size()];
+        for (int m = 0; m < indices.length; m++) {
+            indices[m] = puntos.getRespuestas().indexOf(medoids.get(m));
+            if (indices[m] < 0) throw new IllegalArgumentException("Los medoids deben ser respuestas a analizar");
+        }
+        return indices;
+    }
+
+    float distancia(int i, int j) {
+        return dist.distancia(i, j);
+    }
+
+    int getNumRespuestas() {
+        return masCercano.length;
+    }
+
+    /**
+     * Suma de las distancias de cada respuesta a su medoid más cercano.
+     */
+    double coste() {
+        double coste = 0.0;
+        for (float d : distanciaMasCercana) coste += d;
+        return coste;
+    }
+
+    /**
+     * Cambio del coste si se cambia el medoid en la posición {@code m} por la fila {@code c}, en una pasada O(n).
+     */
+    double deltaIntercambio(int m, int c) {
+        double delta = 0.0;
+        for (int o = 0; o < masCercano.length; o++) {
+            float d = dist.distancia(o, c);
+            if (masCercano[o] == m) delta += Math.min(d, segundaDistanciaMasCercana[o]) - distanciaMasCercana[o];
+            else if (d < distanciaMasCercana[o]) delta += d - distanciaMasCercana[o];
+        }
+        return delta;
+    }
+
+    /**
+     * Cambia el medoid en la posición {@code m} por la fila {@code c} y actualiza los cercanos.
+     */
+    void intercambiar(int m, int c) {
+        medoids[m] = c;
+        for (int o = 0; o < masCercano.length; o++) {
+            float d = dist.distancia(o, c);
+            if (masCercano[o] == m) {
+                if (d < segundaDistanciaMasCercana[o]) distanciaMasCercana[o] = d;
+                else buscar(o);
+            }
+            else if (d < distanciaMasCercana[o]) {
+                segundo[o] = masCercano[o];
+                segundaDistanciaMasCercana[o] = distanciaMasCercana[o];
+                masCercano[o] = m;
+                distanciaMasCercana[o] = d;
+            }
+            else if (d < segundaDistanciaMasCercana[o]) {
+                segundo[o] = m;
+                segundaDistanciaMasCercana[o] = d;
+            }
+            else if (segundo[o] == m) {
+                buscar(o);
+            }
+        }
+    }
+
+    /**
+     * Clusters de respuestas según su medoid más cercano.
+     */
+    ArrayList<ArrayList<RespuestaEncuesta>> clusters(IntFunction<RespuestaEncuesta> respuesta) {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        for (int m = 0; m < medoids.length; m++) clusters.add(new ArrayList<>());
+        for (int o = 0; o < masCercano.length; o++) clusters.get(masCercano[o]).add(respuesta.apply(o));
+        return clusters;
+    }
+
+    private void buscar(int o) {
+        float primera = Float.MAX_VALUE;
+        float segunda = Float.MAX_VALUE;
+        int cercano = -1;
+        int siguiente = -1;
+        for (int m = 0; m < medoids.length; m++) {
+            float d = dist.distancia(o, medoids[m]);
+            if (d < primera) {
+                segunda = primera;
+                siguiente = cercano;
+                primera = d;
+                cercano = m;
+            }
+            else if (d < segunda) {
+                segunda = d;
+                siguiente = m;
+            }
+        }
+        masCercano[o] = cercano;
+        segundo[o] = siguiente;
+        distanciaMasCercana[o] = primera;
+        segundaDistanciaMasCercana[o] = segunda;
+    }
+}
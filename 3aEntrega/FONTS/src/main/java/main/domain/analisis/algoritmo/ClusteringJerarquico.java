@@ -0,0 +1,270 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Implementación de {@link InterfazAlgoritmo} con clustering jerárquico aglomerativo.
+ * <p>
+ * Construye el {@link Dendrograma} completo de las respuestas con el algoritmo de la cadena de vecinos más
+ * cercanos (NN-chain): se sigue una cadena en la que cada cluster es el más cercano del anterior hasta llegar a
+ * dos clusters que son mutuamente los más cercanos, que se unen. Con los enlaces medio, completo y de Ward
+ * (que cumplen la propiedad de reducibilidad) da las mismas uniones que el algoritmo ingenuo, en O(n²) tiempo en
+ * lugar de O(n³). Las distancias entre clusters se guardan en el triángulo superior condensado, igual que
+ * {@link main.domain.analisis.DistanciasPrecalculadas}, y se actualizan con la fórmula de Lance-Williams.
+ * </p>
+ * <p>
+ * El árbol de las últimas respuestas se guarda, así que analizarlas otra vez con otro {@code k} solo corta el
+ * árbol en O(n) (ver {@link Dendrograma#cortar(int)}). Los centros iniciales no se usan.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class ClusteringJerarquico implements InterfazAlgoritmo<JerarquicoTipo> {
+
+    /**
+     * Criterio de distancia entre dos clusters.
+     */
+    public enum Enlace {
+        /** Media de las distancias entre las respuestas de los dos clusters (UPGMA). */
+        PROMEDIO,
+        /** Mayor distancia entre una respuesta de cada cluster. */
+        COMPLETO,
+        /** Aumento de la suma de distancias cuadradas al centro al unir los dos clusters. */
+        WARD
+    }
+
+    private static final String textoDemasiadasRespuestas = "Hay demasiadas respuestas para el clustering jerárquico";
+    //número de filas por bloque al rellenar las distancias iniciales
+    private static final int FILAS_POR_BLOQUE = 16;
+
+    private final Enlace enlace;
+    //árbol de las últimas respuestas construidas, comparadas por identidad
+    private RespuestaEncuesta[] construidas;
+    private Comparador comparadorConstruido;
+    private Dendrograma dendrograma;
+
+    /**
+     * Constructor por defecto de la clase, con el enlace medio.
+     */
+    public ClusteringJerarquico() {
+        this(Enlace.PROMEDIO);
+    }
+
+    /**
+     * Constructor con el criterio de enlace entre clusters.
+     * @param enlace Enlace medio, completo o de Ward.
+     */
+    public ClusteringJerarquico(Enlace enlace) {
+        this.enlace = enlace;
+    }
+
+    /**
+     * Devuelve el criterio de enlace entre clusters.
+     * @return Enlace del algoritmo.
+     */
+    public Enlace getEnlace() {
+        return enlace;
+    }
+
+    /**
+     * Devuelve el árbol de la última llamada a {@link #analizar} o {@link #construir}.
+     * @return Dendrograma de las últimas respuestas, o {@code null} si no se ha analizado.
+     */
+    public synchronized Dendrograma getDendrograma() {
+        return dendrograma;
+    }
+
+    /**
+     * Agrupa las respuestas cortando su dendrograma en {@code k} clusters. Si el árbol de estas mismas
+     * respuestas ya está construido, no se calcula ninguna distancia.
+     * @param centroides Centros iniciales (no se usan).
+     * @param respuestas Respuestas a agrupar.
+     * @param k Número de clusters; si hay menos respuestas, los clusters que sobran quedan vacíos.
+     * @param comp Comparador para calcular las distancias.
+     * @return Lista de {@code k} clusters.
+     * @throws main.domain.exceptions.KMenorQueUno si {@code k} es menor a 1.
+     * @throws IllegalArgumentException si hay demasiadas respuestas para guardar todas las distancias.
+     */
+    @Override
+    public ArrayList<ArrayList<RespuestaEncuesta>> analizar(ArrayList<RespuestaEncuesta> centroides, ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
+        int[] etiquetas = construir(respuestas, comp).cortar(k);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>(k);
+        for (int c = 0; c < k; ++c) clusters.add(new ArrayList<>());
+        for (int i = 0; i < etiquetas.length; ++i) clusters.get(etiquetas[i]).add(respuestas.get(i));
+        return clusters;
+    }
+
+    /**
+     * Construye el dendrograma de unas respuestas, o devuelve el ya construido si son las mismas respuestas
+     * (por identidad y en el mismo orden) con el mismo comparador.
+     * <p>
+     * Si las respuestas están compiladas en {@code comp}, las distancias iniciales se leen de la matriz
+     * (precalculadas, si lo están). Se guardan {@code n(n-1)/2} distancias en un solo {@code float[]}.
+     * </p>
+     * @param respuestas Respuestas a agrupar.
+     * @param comp Comparador para calcular las distancias.
+     * @return Dendrograma de las respuestas.
+     * @throws IllegalArgumentException si hay demasiadas respuestas para guardar todas las distancias.
+     */
+    public synchronized Dendrograma construir(ArrayList<RespuestaEncuesta> respuestas, Comparador comp) {
+        if (dendrograma != null && comp == comparadorConstruido && sonLasConstruidas(respuestas)) return dendrograma;
+        int n = respuestas.size();
+        long numPares = (long) n * (n - 1) / 2;
+        if (numPares > Integer.MAX_VALUE - 8) throw new IllegalArgumentException(textoDemasiadasRespuestas);
+
+        float[] distancias = distanciasIniciales(respuestas, comp, n, (int) numPares);
+        dendrograma = cadenaVecinos(distancias, n);
+        construidas = respuestas.toArray(new RespuestaEncuesta[0]);
+        comparadorConstruido = comp;
+        return dendrograma;
+    }
+
+    private boolean sonLasConstruidas(ArrayList<RespuestaEncuesta> respuestas) {
+        if (construidas.length != respuestas.size()) return false;
+        for (int i = 0; i < construidas.length; ++i) {
+            if (construidas[i] != respuestas.get(i)) return false;
+        }
+        return true;
+    }
+
+    //triángulo condensado de distancias entre respuestas; con Ward, al cuadrado
+    private float[] distanciasIniciales(ArrayList<RespuestaEncuesta> respuestas, Comparador comp, int n, int numPares) {
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        float[] d = new float[numPares];
+        int numBloques = (n + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+        //cada bloque escribe filas distintas, así que se pueden rellenar en paralelo
+        IntStream.range(0, numBloques).parallel().forEach(b -> {
+            int hasta = Math.min(n, (b + 1) * FILAS_POR_BLOQUE);
+            for (int i = b * FILAS_POR_BLOQUE; i < hasta; ++i) {
+                int p = posicion(n, i, i + 1);
+                for (int j = i + 1; j < n; ++j, ++p) {
+                    float v = puntos.distancia(i, j);
+                    d[p] = (enlace == Enlace.WARD) ? v * v : v;
+                }
+            }
+        });
+        return d;
+    }
+
+    //posición del par (i, j), con i < j, en el triángulo condensado
+    private static int posicion(int n, int i, int j) {
+        return (int) ((long) i * (2L * n - i - 1) / 2 + (j - i - 1));
+    }
+
+    private static int posicionPar(int n, int i, int j) {
+        return (i < j) ? posicion(n, i, j) : posicion(n, j, i);
+    }
+
+    //NN-chain sobre las distancias d, que se modifican; el cluster unido ocupa el lugar del segundo
+    private Dendrograma cadenaVecinos(float[] d, int n) {
+        int numUniones = Math.max(0, n - 1);
+        int[] tamanos = new int[n];
+        Arrays.fill(tamanos, 1);
+        boolean[] activo = new boolean[n];
+        Arrays.fill(activo, true);
+        int[] cadena = new int[n];
+        int largo = 0;
+        int primeraActiva = 0;
+        int[] unidosA = new int[numUniones];
+        int[] unidosB = new int[numUniones];
+        float[] alturas = new float[numUniones];
+
+        for (int s = 0; s < numUniones; ++s) {
+            if (largo == 0) {
+                while (!activo[primeraActiva]) ++primeraActiva;
+                cadena[largo++] = primeraActiva;
+            }
+            int x;
+            int y;
+            float dxy;
+            while (true) {
+                x = cadena[largo - 1];
+                //en caso de empate se prefiere el anterior de la cadena, para que acabe
+                int anterior = (largo >= 2) ? cadena[largo - 2] : -1;
+                y = anterior;
+                dxy = (anterior >= 0) ? d[posicionPar(n, x, anterior)] : Float.POSITIVE_INFINITY;
+                for (int i = 0; i < x; ++i) {
+                    if (activo[i] && d[posicion(n, i, x)] < dxy) {
+                        dxy = d[posicion(n, i, x)];
+                        y = i;
+                    }
+                }
+                int p = posicion(n, x, x + 1);
+                for (int i = x + 1; i < n; ++i, ++p) {
+                    if (activo[i] && d[p] < dxy) {
+                        dxy = d[p];
+                        y = i;
+                    }
+                }
+                if (y == anterior) break;
+                cadena[largo++] = y;
+            }
+            largo -= 2;
+
+            int nx = tamanos[x];
+            int ny = tamanos[y];
+            for (int i = 0; i < n; ++i) {
+                if (!activo[i] || i == x || i == y) continue;
+                int pix = posicionPar(n, i, x);
+                int piy = posicionPar(n, i, y);
+                d[piy] = lanceWilliams(d[pix], d[piy], dxy, nx, ny, tamanos[i]);
+            }
+            activo[x] = false;
+            tamanos[y] = nx + ny;
+            unidosA[s] = x;
+            unidosB[s] = y;
+            alturas[s] = (enlace == Enlace.WARD) ? (float) Math.sqrt(dxy) : dxy;
+        }
+        return ordenar(n, unidosA, unidosB, alturas);
+    }
+
+    //distancia de i al cluster x ∪ y a partir de las distancias a x, a y y entre x e y
+    private float lanceWilliams(float dix, float diy, float dxy, int nx, int ny, int ni) {
+        return switch (enlace) {
+            case PROMEDIO -> (nx * dix + ny * diy) / (nx + ny);
+            case COMPLETO -> Math.max(dix, diy);
+            case WARD -> Math.max(0.f, ((nx + ni) * dix + (ny + ni) * diy - ni * dxy) / (nx + ny + ni));
+        };
+    }
+
+    //las uniones de NN-chain no salen por altura: se ordenan (de forma estable) y se numeran los clusters
+    //que forman con una unión-búsqueda sobre las respuestas
+    private static Dendrograma ordenar(int n, int[] unidosA, int[] unidosB, float[] alturas) {
+        int numUniones = alturas.length;
+        Integer[] orden = new Integer[numUniones];
+        for (int s = 0; s < numUniones; ++s) orden[s] = s;
+        Arrays.sort(orden, Comparator.comparingDouble(s -> alturas[s]));
+
+        int[] padre = new int[n + numUniones];
+        for (int i = 0; i < padre.length; ++i) padre[i] = i;
+        int[] izquierdos = new int[numUniones];
+        int[] derechos = new int[numUniones];
+        float[] alturasOrdenadas = new float[numUniones];
+        int[] tamanos = new int[numUniones];
+        for (int s = 0; s < numUniones; ++s) {
+            int a = raiz(padre, unidosA[orden[s]]);
+            int b = raiz(padre, unidosB[orden[s]]);
+            izquierdos[s] = Math.min(a, b);
+            derechos[s] = Math.max(a, b);
+            alturasOrdenadas[s] = alturas[orden[s]];
+            tamanos[s] = ((a < n) ? 1 : tamanos[a - n]) + ((b < n) ? 1 : tamanos[b - n]);
+            padre[a] = n + s;
+            padre[b] = n + s;
+        }
+        return new Dendrograma(n, izquierdos, derechos, alturasOrdenadas, tamanos);
+    }
+
+    private static int raiz(int[] padre, int i) {
+        while (padre[i] != i) {
+            padre[i] = padre[padre[i]];
+            i = padre[i];
+        }
+        return i;
+    }
+}
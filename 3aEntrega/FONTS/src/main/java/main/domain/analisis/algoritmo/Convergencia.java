@@ -0,0 +1,87 @@
+package main.domain.analisis.algoritmo;
+
+/**
+ * Seguimiento de la convergencia de una ejecución de K-Means con un {@link CriterioConvergencia}: cuenta las
+ * iteraciones, las seguidas que cumplen cada condición y guarda el último desplazamiento máximo de los centroides.
+ * @author Javier Zhangpan
+ */
+final class Convergencia {
+
+    private final CriterioConvergencia criterio;
+    private final int n;
+    private int numIteraciones;
+    //iteraciones seguidas que cumplen la condición de reasignadas y la de desplazamiento
+    private int seguidasReasignadas;
+    private int seguidasDesplazamiento;
+    private float desplazamiento = Float.NaN;
+    private boolean convergido;
+    private boolean centroidesAlDia;
+
+    Convergencia(CriterioConvergencia criterio, int n) {
+        this.criterio = criterio;
+        this.n = n;
+    }
+
+    /**
+     * Se llama tras cada asignación de todas las respuestas.
+     * @param reasignadas Respuestas que han cambiado de cluster (todas en la primera asignación).
+     * @return {@code true} si el algoritmo debe parar con esta asignación.
+     */
+    boolean terminaTrasAsignar(int reasignadas) {
+        return terminaTrasAsignar(reasignadas, n);
+    }
+
+    /**
+     * Se llama tras cada asignación de una parte de las respuestas.
+     * @param reasignadas Respuestas que han cambiado de cluster.
+     * @param medidas Respuestas de las que se sabe si han cambiado de cluster; con 0 la condición no se cumple.
+     * @return {@code true} si el algoritmo debe parar con esta asignación.
+     */
+    boolean terminaTrasAsignar(int reasignadas, int medidas) {
+        ++numIteraciones;
+        centroidesAlDia = (reasignadas == 0);
+        boolean cumple = medidas > 0 && criterio.convergePorReasignadas(reasignadas, medidas);
+        seguidasReasignadas = cumple ? seguidasReasignadas + 1 : 0;
+        if (seguidasReasignadas >= criterio.getPaciencia()) {
+            convergido = true;
+            //sin reasignaciones los centroides ya no se moverían
+            if (reasignadas == 0) desplazamiento = 0.f;
+            return true;
+        }
+        return numIteraciones >= criterio.getMaxIteraciones();
+    }
+
+    /**
+     * Se llama tras cada recálculo de centroides.
+     * @param desplazamientoMaximo Mayor desplazamiento de un centroide.
+     * @return {@code true} si el algoritmo debe parar sin volver a asignar.
+     */
+    boolean terminaTrasRecalcular(float desplazamientoMaximo) {
+        desplazamiento = desplazamientoMaximo;
+        centroidesAlDia = true;
+        seguidasDesplazamiento = criterio.convergePorDesplazamiento(desplazamientoMaximo) ? seguidasDesplazamiento + 1 : 0;
+        convergido = seguidasDesplazamiento >= criterio.getPaciencia();
+        return convergido;
+    }
+
+    int getNumIteraciones() {
+        return numIteraciones;
+    }
+
+    float getDesplazamiento() {
+        return desplazamiento;
+    }
+
+    boolean haConvergido() {
+        return convergido;
+    }
+
+    /**
+     * Indica si los últimos centroides calculados son los de los clusters de la última asignación: lo son si se
+     * paró tras recalcularlos o si la última asignación no cambió ninguna respuesta de cluster.
+     * @return {@code true} si los centroides actuales sirven como centros del resultado.
+     */
+    boolean centroidesAlDia() {
+        return centroidesAlDia;
+    }
+}
@@ -0,0 +1,122 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.exceptions.CriterioConvergenciaInvalido;
+
+/**
+ * Criterio de parada de las variantes de K-Means de Lloyd ({@link KMeans}, {@link KMeansOptimizado},
+ * {@link KMeansHamerly} y {@link KMeansParalelo}) y de {@link KMeansMiniBatch}, en el que cada lote es una
+ * iteración.
+ * <p>
+ * El algoritmo para en cuanto se cumple una de estas condiciones:
+ * </p>
+ * <ul>
+ *     <li>Una asignación cambia de cluster como mucho la fracción {@code fraccionReasignadas} de las respuestas.
+ *     Con 0, solo para cuando ninguna respuesta cambia, es decir, en el mismo punto fijo en el que los centroides
+ *     ya no cambian.</li>
+ *     <li>Ningún centroide se desplaza {@code toleranciaDesplazamiento} o más al recalcularlo. Con 0 no se aplica.</li>
+ *     <li>Se llega a {@code maxIteraciones} asignaciones. En ese caso no se considera convergido.</li>
+ * </ul>
+ * <p>
+ * Con una {@code paciencia} mayor que 1, las dos primeras condiciones se tienen que cumplir en ese número de
+ * iteraciones seguidas. Sirve para {@link KMeansMiniBatch}, en el que un solo lote puede no mover los centroides
+ * por azar; en las variantes de Lloyd basta con 1, que es el valor por defecto.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class CriterioConvergencia {
+
+    private static final String textoInvalido = "La tolerancia o la fracción de reasignadas están fuera de rango o el máximo de iteraciones o la paciencia es menor que 1";
+
+    /**
+     * Criterio por defecto: hasta que ninguna respuesta cambie de cluster, con un máximo de 300 iteraciones.
+     */
+    public static final CriterioConvergencia POR_DEFECTO = new CriterioConvergencia(0.f, 0.f, 300);
+
+    private final float toleranciaDesplazamiento;
+    private final float fraccionReasignadas;
+    private final int maxIteraciones;
+    private final int paciencia;
+
+    /**
+     * Constructora del criterio, con paciencia 1.
+     * @param toleranciaDesplazamiento Desplazamiento máximo de los centroides (las distancias están en [0, 1]) por
+     *                                 debajo del cual se para; 0 para no usarlo.
+     * @param fraccionReasignadas Fracción de respuestas reasignadas, en [0, 1], por debajo de la cual se para.
+     * @param maxIteraciones Número máximo de asignaciones de todas las respuestas.
+     * @throws CriterioConvergenciaInvalido si la tolerancia es negativa, la fracción no está en [0, 1] o el máximo
+     * de iteraciones es menor que 1.
+     */
+    public CriterioConvergencia(float toleranciaDesplazamiento, float fraccionReasignadas, int maxIteraciones) {
+        this(toleranciaDesplazamiento, fraccionReasignadas, maxIteraciones, 1);
+    }
+
+    /**
+     * Constructora del criterio con paciencia.
+     * @param toleranciaDesplazamiento Desplazamiento máximo de los centroides (las distancias están en [0, 1]) por
+     *                                 debajo del cual se para; 0 para no usarlo.
+     * @param fraccionReasignadas Fracción de respuestas reasignadas, en [0, 1], por debajo de la cual se para.
+     * @param maxIteraciones Número máximo de asignaciones de todas las respuestas.
+     * @param paciencia Número de iteraciones seguidas en las que se tiene que cumplir una condición para parar.
+     * @throws CriterioConvergenciaInvalido si la tolerancia es negativa, la fracción no está en [0, 1] o el máximo
+     * de iteraciones o la paciencia es menor que 1.
+     */
+    public CriterioConvergencia(float toleranciaDesplazamiento, float fraccionReasignadas, int maxIteraciones, int paciencia) {
+        if (!(toleranciaDesplazamiento >= 0.f) || !(fraccionReasignadas >= 0.f && fraccionReasignadas <= 1.f) || maxIteraciones < 1 || paciencia < 1)
+            throw new CriterioConvergenciaInvalido(textoInvalido);
+        this.toleranciaDesplazamiento = toleranciaDesplazamiento;
+        this.fraccionReasignadas = fraccionReasignadas;
+        this.maxIteraciones = maxIteraciones;
+        this.paciencia = paciencia;
+    }
+
+    /**
+     * Devuelve la tolerancia de desplazamiento de los centroides.
+     * @return Tolerancia; 0 si no se usa.
+     */
+    public float getToleranciaDesplazamiento() {
+        return toleranciaDesplazamiento;
+    }
+
+    /**
+     * Devuelve la fracción de respuestas reasignadas por debajo de la cual se para.
+     * @return Fracción en [0, 1].
+     */
+    public float getFraccionReasignadas() {
+        return fraccionReasignadas;
+    }
+
+    /**
+     * Devuelve el número máximo de iteraciones.
+     * @return Máximo de iteraciones.
+     */
+    public int getMaxIteraciones() {
+        return maxIteraciones;
+    }
+
+    /**
+     * Devuelve el número de iteraciones seguidas en las que se tiene que cumplir una condición para parar.
+     * @return Paciencia; 1 si basta con una iteración.
+     */
+    public int getPaciencia() {
+        return paciencia;
+    }
+
+    /**
+     * Indica si una asignación con este número de respuestas reasignadas se considera convergida.
+     * @param reasignadas Respuestas que han cambiado de cluster.
+     * @param n Número de respuestas.
+     * @return {@code true} si se para por reasignaciones.
+     */
+    public boolean convergePorReasignadas(int reasignadas, int n) {
+        return reasignadas <= fraccionReasignadas * n;
+    }
+
+    /**
+     * Indica si un recálculo de centroides con este desplazamiento máximo se considera convergido.
+     * @param desplazamientoMaximo Mayor distancia entre el centroide anterior y el nuevo de un cluster.
+     * @return {@code true} si se para por desplazamiento.
+     */
+    public boolean convergePorDesplazamiento(float desplazamientoMaximo) {
+        return desplazamientoMaximo < toleranciaDesplazamiento;
+    }
+}
@@ -0,0 +1,141 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.exceptions.KMenorQueUno;
+
+import java.util.Arrays;
+
+/**
+ * Árbol inmutable de uniones de un clustering jerárquico aglomerativo sobre {@code n} respuestas.
+ * <p>
+ * Las respuestas son los clusters {@code 0 .. n-1}, en el orden de la lista analizada, y la unión {@code s}
+ * (de {@code 0} a {@code n-2}) junta los clusters {@link #getIzquierdo(int)} y {@link #getDerecho(int)} en el
+ * cluster {@code n + s}. Las uniones están ordenadas por altura creciente, así que las {@code n - k} primeras
+ * dan el corte en {@code k} clusters y cada corte se obtiene en O(n) sin repetir el clustering
+ * (ver {@link #cortar(int)}).
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class Dendrograma {
+
+    private static final String textoKMenor = "La K es menor que 1";
+
+    private final int n;
+    private final int[] izquierdos;
+    private final int[] derechos;
+    private final float[] alturas;
+    private final int[] tamanos;
+
+    /**
+     * Constructora del dendrograma a partir de las uniones ya ordenadas por altura.
+     * @param n Número de respuestas.
+     * @param izquierdos Menor cluster de cada unión.
+     * @param derechos Mayor cluster de cada unión.
+     * @param alturas Distancia entre los dos clusters de cada unión, no decreciente.
+     * @param tamanos Número de respuestas del cluster que forma cada unión.
+     */
+    Dendrograma(int n, int[] izquierdos, int[] derechos, float[] alturas, int[] tamanos) {
+        this.n = n;
+        this.izquierdos = izquierdos;
+        this.derechos = derechos;
+        this.alturas = alturas;
+        this.tamanos = tamanos;
+    }
+
+    /**
+     * Devuelve el número de respuestas, que son las hojas del árbol.
+     * @return Número de respuestas.
+     */
+    public int getNumRespuestas() {
+        return n;
+    }
+
+    /**
+     * Devuelve el número de uniones.
+     * @return {@code n - 1}, o 0 si no hay respuestas.
+     */
+    public int getNumUniones() {
+        return alturas.length;
+    }
+
+    /**
+     * Devuelve el menor de los dos clusters de una unión.
+     * @param s Índice de la unión.
+     * @return Respuesta (si es menor que {@code n}) o cluster {@code n + t} formado por la unión {@code t < s}.
+     */
+    public int getIzquierdo(int s) {
+        return izquierdos[s];
+    }
+
+    /**
+     * Devuelve el mayor de los dos clusters de una unión.
+     * @param s Índice de la unión.
+     * @return Respuesta (si es menor que {@code n}) o cluster {@code n + t} formado por la unión {@code t < s}.
+     */
+    public int getDerecho(int s) {
+        return derechos[s];
+    }
+
+    /**
+     * Devuelve la altura de una unión: la distancia según el enlace entre los dos clusters que junta.
+     * @param s Índice de la unión.
+     * @return Altura de la unión.
+     */
+    public float getAltura(int s) {
+        return alturas[s];
+    }
+
+    /**
+     * Devuelve las alturas de todas las uniones.
+     * @return Alturas, en orden creciente.
+     */
+    public float[] getAlturas() {
+        return alturas.clone();
+    }
+
+    /**
+     * Devuelve el número de respuestas del cluster que forma una unión.
+     * @param s Índice de la unión.
+     * @return Tamaño del cluster {@code n + s}.
+     */
+    public int getTamano(int s) {
+        return tamanos[s];
+    }
+
+    /**
+     * Corta el árbol en {@code k} clusters aplicando las {@code n - k} uniones más bajas, en O(n).
+     * <p>
+     * Las uniones aplicadas se recorren de la más alta a la más baja pasando la etiqueta de cada cluster a sus
+     * dos hijos, y al final las etiquetas se numeran por orden de primera aparición en la lista analizada.
+     * </p>
+     * @param k Número de clusters; si es mayor que {@code n}, cada respuesta es un cluster.
+     * @return Etiqueta de cada respuesta, entre 0 y {@code min(k, n) - 1}, en el orden de la lista analizada.
+     * @throws KMenorQueUno si {@code k} es menor a 1.
+     */
+    public int[] cortar(int k) {
+        if (k < 1) throw new KMenorQueUno(textoKMenor);
+        int aplicadas = Math.max(0, n - k);
+        int[] etiquetas = new int[n + aplicadas];
+        Arrays.fill(etiquetas, -1);
+        int siguiente = 0;
+        for (int s = aplicadas - 1; s >= 0; --s) {
+            if (etiquetas[n + s] < 0) etiquetas[n + s] = siguiente++;
+            etiquetas[izquierdos[s]] = etiquetas[n + s];
+            etiquetas[derechos[s]] = etiquetas[n + s];
+        }
+
+        //renumeración por primera aparición; las respuestas que no se han unido son clusters propios
+        int[] nueva = new int[n];
+        Arrays.fill(nueva, -1);
+        int[] resultado = new int[n];
+        int numeradas = 0;
+        for (int i = 0; i < n; ++i) {
+            int e = etiquetas[i];
+            if (e < 0) resultado[i] = numeradas++;
+            else {
+                if (nueva[e] < 0) nueva[e] = numeradas++;
+                resultado[i] = nueva[e];
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,53 @@
+package main.domain.analisis.algoritmo;
+
+/**
+ * Distancias de la asignación final de un algoritmo: de cada respuesta al centro de su cluster (centroide o
+ * medoid) y al centro más cercano de otro cluster. Las posiciones son las de la lista de respuestas analizada.
+ * <p>
+ * Permiten evaluar el clustering sin volver a calcular distancias (ver
+ * {@link main.domain.analisis.evaluador.SilhouetteSimplificada}).
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class DistanciasAsignacion {
+
+    private final float[] propias;
+    private final float[] otras;
+
+    /**
+     * Constructora; los arrays no se copian y no se deben modificar después.
+     * @param propias Distancia de cada respuesta al centro de su cluster.
+     * @param otras Distancia de cada respuesta al centro más cercano de otro cluster, o {@link Float#MAX_VALUE}
+     *              si no hay otro cluster.
+     */
+    public DistanciasAsignacion(float[] propias, float[] otras) {
+        this.propias = propias;
+        this.otras = otras;
+    }
+
+    /**
+     * Devuelve el número de respuestas.
+     * @return Número de respuestas analizadas.
+     */
+    public int getNumRespuestas() {
+        return propias.length;
+    }
+
+    /**
+     * Devuelve la distancia de una respuesta al centro de su cluster.
+     * @param i Posición de la respuesta.
+     * @return Distancia al centro propio.
+     */
+    public float getPropia(int i) {
+        return propias[i];
+    }
+
+    /**
+     * Devuelve la distancia de una respuesta al centro más cercano de otro cluster.
+     * @param i Posición de la respuesta.
+     * @return Distancia al otro centro más cercano, o {@link Float#MAX_VALUE} si no hay otro cluster.
+     */
+    public float getOtra(int i) {
+        return otras[i];
+    }
+}
@@ -0,0 +1,168 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.CentroidesIncrementales;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+
+import java.util.ArrayList;
+
+/**
+ * Estado compartido por las variantes de K-Means con cotas ({@link KMeansOptimizado}, {@link KMeansHamerly}):
+ * centroides actuales, cálculo de distancias por índice y recálculo de centroides.
+ * <p>
+ * Las distancias se calculan por índice con {@link RespuestasIndexadas} y los centroides se mantienen con
+ * {@link CentroidesIncrementales} si los tipos de datos lo permiten; si no, con el {@link Comparador}.
+ * Lleva la cuenta de las distancias calculadas para poder comprobar cuántas se ahorran las cotas.
+ * </p>
+ * <p>
+ * Las cotas se apoyan en la desigualdad triangular. Si alguna pregunta no la cumple (las de texto, o las ordenadas
+ * con varias opciones; ver {@link Comparador#esMetrica}), el margen es infinito: no se descarta ningún centroide y se calculan todas las
+ * distancias, como en {@link KMeans}.
+ * </p>
+ * @author Javier Zhangpan
+ */
+final class EstadoKMeans {
+    /**
+     * Margen con el que las cotas descartan un centroide. Las distancias están en [0, 1] y se calculan en
+     * {@code float}, así que la desigualdad triangular puede fallar por unos pocos ulps; con este margen
+     * los empates y casi empates se calculan siempre y el resultado es el mismo que el de {@link KMeans}.
+     */
+    static final float MARGEN = 1e-5f;
+    //margen sin cotas, para distancias que no cumplen la desigualdad triangular
+    private static final float SIN_COTAS = Float.POSITIVE_INFINITY;
+
+    private final RespuestasIndexadas puntos;
+    private final Comparador comp;
+    private final CentroidesIncrementales incrementales;
+    private final int k;
+    private final float margen;
+
+    private ArrayList<RespuestaEncuesta> centroides;
+    private RespuestasIndexadas centros;
+    private long numDistancias;
+
+    EstadoKMeans(ArrayList<RespuestaEncuesta> centroides, ArrayList<RespuestaEncuesta> respuestas, int k, Comparador comp) {
+        this.puntos = RespuestasIndexadas.de(respuestas, comp);
+        this.comp = comp;
+        this.incrementales = CentroidesIncrementales.crear(puntos.getRespuestas(), k);
+        this.k = k;
+        this.margen = comp.esMetrica(puntos.getRespuestas()) ? MARGEN : SIN_COTAS;
+        this.centroides = centroides;
+        this.centros = puntos.codificar(centroides);
+    }
+
+    int getNumRespuestas() {
+        return puntos.getNumRespuestas();
+    }
+
+    /**
+     * Margen con el que las cotas descartan un centroide: {@link #MARGEN}, o infinito si la distancia no es
+     * una métrica y las cotas no sirven.
+     */
+    float getMargen() {
+        return margen;
+    }
+
+    /**
+     * Indica si las cotas pueden descartar centroides.
+     */
+    boolean usaCotas() {
+        return margen != SIN_COTAS;
+    }
+
+    long getNumDistancias() {
+        return numDistancias;
+    }
+
+    ArrayList<RespuestaEncuesta> getCentroides() {
+        return centroides;
+    }
+
+    /**
+     * Distancia entre la respuesta {@code i} y el centroide {@code c}.
+     */
+    float distancia(int i, int c) {
+        ++numDistancias;
+        return puntos.distancia(i, centros, c);
+    }
+
+    /**
+     * Distancias entre todos los centroides, en una matriz {@code k·k} por filas.
+     * Sin cotas no se usan y se devuelven a cero, sin calcularlas.
+     */
+    float[] distanciasEntreCentroides() {
+        float[] dist = new float[k * k];
+        if (!usaCotas()) return dist;
+        for (int a = 0; a < k; ++a) {
+            for (int b = a + 1; b < k; ++b) {
+                float d = centros.distancia(a, centros, b);
+                dist[a * k + b] = d;
+                dist[b * k + a] = d;
+            }
+        }
+        numDistancias += (long) k * (k - 1) / 2;
+        return dist;
+    }
+
+    /**
+     * Mitad de la distancia de cada centroide a su centroide más cercano.
+     */
+    float[] mitadDistanciaMinima(float[] entreCentroides) {
+        float[] s = new float[k];
+        for (int a = 0; a < k; ++a) {
+            float minima = Float.POSITIVE_INFINITY;
+            for (int b = 0; b < k; ++b) {
+                if (a != b && entreCentroides[a * k + b] < minima) minima = entreCentroides[a * k + b];
+            }
+            s[a] = (minima == Float.POSITIVE_INFINITY) ? 0.f : 0.5f * minima;
+        }
+        return s;
+    }
+
+    /**
+     * Recalcula los centroides con las asignaciones dadas. Un cluster vacío conserva su centroide.
+     *
+     * @param asignaciones Cluster de cada respuesta.
+     * @param desplazamientos Se rellena con la distancia entre el centroide anterior y el nuevo de cada cluster.
+     * @return El mayor de los desplazamientos.
+     */
+    float recalcularCentroides(int[] asignaciones, float[] desplazamientos) {
+        ArrayList<RespuestaEncuesta> nuevos = new ArrayList<>(k);
+        if (incrementales != null) {
+            incrementales.asignar(asignaciones);
+            for (int c = 0; c < k; ++c) {
+                RespuestaEncuesta centroide = incrementales.getCentroide(c);
+                nuevos.add((centroide == null) ? centroides.get(c) : centroide);
+            }
+        }
+        else {
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = generarClusters(asignaciones);
+            for (int c = 0; c < k; ++c) {
+                nuevos.add(clusters.get(c).isEmpty() ? centroides.get(c) : comp.calcularNuevoCentroide(clusters.get(c)));
+            }
+        }
+
+        RespuestasIndexadas nuevosCentros = puntos.codificar(nuevos);
+        float maximo = 0.f;
+        for (int c = 0; c < k; ++c) {
+            //un centroide que no cambia no se desplaza, sin calcular la distancia
+            if (nuevos.get(c) == centroides.get(c)) desplazamientos[c] = 0.f;
+            else {
+                desplazamientos[c] = centros.distancia(c, nuevosCentros, c);
+                ++numDistancias;
+            }
+            maximo = Math.max(maximo, desplazamientos[c]);
+        }
+        centroides = nuevos;
+        centros = nuevosCentros;
+        return maximo;
+    }
+
+    ArrayList<ArrayList<RespuestaEncuesta>> generarClusters(int[] asignaciones) {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>(k);
+        for (int c = 0; c < k; ++c) clusters.add(new ArrayList<>());
+        for (int i = 0; i < asignaciones.length; ++i) clusters.get(asignaciones[i]).add(puntos.getRespuesta(i));
+        return clusters;
+    }
+}
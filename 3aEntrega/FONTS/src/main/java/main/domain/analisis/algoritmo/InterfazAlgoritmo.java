@@ -23,4 +23,49 @@ public interface InterfazAlgoritmo <T extends AlgoritmoTipo> {
      *  {@link ArrayList} de {@link RespuestaEncuesta}.
      */
     ArrayList<ArrayList<RespuestaEncuesta>> analizar(ArrayList<RespuestaEncuesta> centroides, ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp);
-}
+
+    /**
+     * Devuelve un algoritmo independiente con la misma configuración y la semilla indicada, para hacer varias
+     * ejecuciones a la vez. Cada ejecución guarda sus estadísticas en su propia instancia.
+     * <p>
+     * Por defecto devuelve este mismo objeto, así que solo lo pueden usar sin redefinirlo los algoritmos
+     * deterministas y sin estado.
+     * </p>
+     * @param semilla Semilla de la nueva instancia, si el algoritmo tiene elecciones aleatorias.
+     * @return Algoritmo para una ejecución independiente.
+     */
+    default InterfazAlgoritmo<T> conSemilla(long semilla) {
+        return this;
+    }
+
+    /**
+     * Como {@link #conSemilla(long)}, pero el algoritmo devuelto trabaja en un solo hilo. Se usa para las
+     * ejecuciones que ya se reparten entre varios hilos, para no abrir un grupo de hilos dentro de cada una.
+     * <p>
+     * Por defecto equivale a {@link #conSemilla(long)}; lo redefinen los algoritmos con paralelismo propio.
+     * </p>
+     * @param semilla Semilla de la nueva instancia, si el algoritmo tiene elecciones aleatorias.
+     * @return Algoritmo de un solo hilo para una ejecución independiente.
+     */
+    default InterfazAlgoritmo<T> conSemillaSecuencial(long semilla) {
+        return conSemilla(semilla);
+    }
+
+    /**
+     * Devuelve las distancias de la asignación final de la última ejecución, si el algoritmo las tiene exactas
+     * sin cálculos adicionales.
+     * @return Distancias de cada respuesta a su centro y al otro centro más cercano, o {@code null} si no se tienen.
+     */
+    default DistanciasAsignacion getDistanciasAsignacion() {
+        return null;
+    }
+
+    /**
+     * Devuelve los centros (centroides o medoids) de los clusters de la última ejecución, si el algoritmo los tiene
+     * sin cálculos adicionales. Están en el orden de los clusters; los de clusters vacíos no se deben usar.
+     * @return Centro de cada cluster, o {@code null} si no se tienen.
+     */
+    default ArrayList<RespuestaEncuesta> getCentros() {
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package main.domain.analisis.algoritmo;
+
+/**
+ * Información de convergencia de la última ejecución de un algoritmo iterativo con {@link CriterioConvergencia}.
+ * @author Javier Zhangpan
+ */
+public interface InterfazAlgoritmoIterativo {
+    /**
+     * Devuelve el criterio de parada del algoritmo.
+     * @return Criterio de convergencia.
+     */
+    CriterioConvergencia getCriterio();
+
+    /**
+     * Devuelve el número de iteraciones (asignaciones de todas las respuestas) de la última ejecución.
+     * @return Número de iteraciones.
+     */
+    int getNumIteraciones();
+
+    /**
+     * Devuelve el mayor desplazamiento de un centroide en el último recálculo de la última ejecución.
+     * Es 0 si la ejecución acabó sin reasignaciones y {@code NaN} si no llegó a recalcular los centroides.
+     * @return Desplazamiento final.
+     */
+    float getDesplazamientoFinal();
+
+    /**
+     * Indica si la última ejecución paró por el criterio de convergencia y no por el máximo de iteraciones.
+     * @return {@code true} si ha convergido.
+     */
+    boolean haConvergido();
+}
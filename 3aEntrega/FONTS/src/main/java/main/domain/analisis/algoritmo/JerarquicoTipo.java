@@ -0,0 +1,11 @@
+package main.domain.analisis.algoritmo;
+
+/**
+ * Interfaz marcador para identificar que un algoritmo es de clustering jerárquico.
+ * <p>
+ * Se utiliza exclusivamente para diferenciar implementaciones de algoritmos de clustering.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public interface JerarquicoTipo extends AlgoritmoTipo {
+}
@@ -1,11 +1,14 @@
 package main.domain.analisis.algoritmo;
 
 import main.domain.RespuestaEncuesta;
+import main.domain.analisis.CentroidesIncrementales;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
 import main.domain.exceptions.KMenorQueUno;
 import main.domain.exceptions.NoHayRespuestasParaAnalizar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Implementación de {@link InterfazAlgoritmo} con el algoritmo de clustering K-Means versión Naive (algoritmo de Lloyd)
@@ -15,23 +18,100 @@ import java.util.ArrayList;
  * </p>
  * @author Javier Zhangpan
  */
-public class KMeans implements InterfazAlgoritmo<KMeansTipo> {
+public class KMeans implements InterfazAlgoritmo<KMeansTipo>, InterfazAlgoritmoIterativo {
 
     private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
     private static final String textoKMenor = "La K es menor que 1";
 
+    private final CriterioConvergencia criterio;
+    private int numIteraciones;
+    private float desplazamientoFinal = Float.NaN;
+    private boolean convergido;
+    private DistanciasAsignacion distanciasAsignacion;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora por defecto, con el criterio de convergencia por defecto.
+     */
+    public KMeans() {
+        this(CriterioConvergencia.POR_DEFECTO);
+    }
+
+    /**
+     * Constructora con un criterio de convergencia.
+     * @param criterio Criterio de parada.
+     */
+    public KMeans(CriterioConvergencia criterio) {
+        this.criterio = criterio;
+    }
+
+    /**
+     * Devuelve un KMeans independiente con la misma configuración, para ejecutarlo a la vez que este.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMeans conSemilla(long semilla) {
+        return new KMeans(criterio);
+    }
+
+    /**
+     * Devuelve el número de iteraciones (asignaciones de todas las respuestas) de la última llamada a {@link #analizar}.
+     * @return Número de iteraciones.
+     */
+    @Override
+    public int getNumIteraciones() {
+        return numIteraciones;
+    }
+
+    @Override
+    public CriterioConvergencia getCriterio() {
+        return criterio;
+    }
+
+    @Override
+    public float getDesplazamientoFinal() {
+        return desplazamientoFinal;
+    }
+
+    @Override
+    public boolean haConvergido() {
+        return convergido;
+    }
+
+    /**
+     * Devuelve las distancias de cada respuesta a su centroide y al siguiente centroide más cercano, calculadas en
+     * la última asignación de la última llamada a {@link #analizar}.
+     * <p>
+     * Solo se tienen si la ejecución acabó sin reasignaciones y sin clusters vacíos: entonces los centroides de la
+     * última asignación son los de los clusters devueltos.
+     * </p>
+     * @return Distancias de la asignación final, o {@code null} si no se tienen.
+     */
+    @Override
+    public DistanciasAsignacion getDistanciasAsignacion() {
+        return distanciasAsignacion;
+    }
+
     /**
-     * Constructora por defecto
+     * Devuelve los centroides de los clusters de la última llamada a {@link #analizar}, si acabó con ellos
+     * recalculados o sin reasignaciones.
+     * @return Centroide de cada cluster, o {@code null} si la última asignación los dejó desfasados.
      */
-    public KMeans() {}
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
 
     /**
      * Aplica el algoritmo de clustering K-Means sobre un conjunto de respuestas a una encuesta
      * <p>
      * El algoritmo asigna de manera iterativa cada respuesta a su centroide más cercano y
      * recalcula estos centroides al final de la iteración hasta alcanzar convergencia.
+     * Los centroides se actualizan solo con las respuestas que cambian de cluster (ver {@link CentroidesIncrementales}).
      * <p>
-     * La condición de convergencia es que los centroides no cambien entre iteraciones.
+     * La condición de convergencia es la de su {@link CriterioConvergencia}; por defecto, que ninguna respuesta
+     * cambie de cluster, con un máximo de iteraciones.
      * </p>
      *
      * @param centroides Centroides iniciales. Debe contener {@code k} elementos.
@@ -51,31 +131,102 @@ public class KMeans implements InterfazAlgoritmo<KMeansTipo> {
             Comparador comp
     ) {
         validarParametros(respuestas, k);
+        distanciasAsignacion = null;
+        centros = null;
+
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        int n = puntos.getNumRespuestas();
+        int[] asignaciones = new int[n];
+        Arrays.fill(asignaciones, -1);
+        //los centroides se actualizan solo con las respuestas que cambian de cluster
+        CentroidesIncrementales incrementales = CentroidesIncrementales.crear(puntos.getRespuestas(), k);
+        Convergencia convergencia = new Convergencia(criterio, n);
+        RespuestasIndexadas actuales = puntos.codificar(centroides);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters;
+        //distancias al centroide más cercano y al siguiente, que sirven para evaluar si la última asignación no cambia nada
+        float[] propias = new float[n];
+        float[] otras = new float[n];
 
-        boolean acaba = false;
-        ArrayList<ArrayList<RespuestaEncuesta>> resultado = new ArrayList<>();
+        while (true) {
+            //encuentra centroide más cercano para cada respuesta
+            int reasignadas = 0;
+            for (int i = 0; i < n; ++i) {
+                int c = centroMasCercano(puntos, i, actuales, k, propias, otras);
+                if (c != asignaciones[i]) ++reasignadas;
+                asignaciones[i] = c;
+            }
 
-        while (!acaba) {
-            //inicializa clusters
-            ArrayList<ArrayList<RespuestaEncuesta>> clusters = inicializarClusters(k);
+            clusters = inicializarClusters(k);
+            for (int i = 0; i < n; ++i) clusters.get(asignaciones[i]).add(puntos.getRespuesta(i));
 
-            //encuentra centroide más cercano para esa respuesta
-            //y añade esa respuesta al clustering asociado a ese centroide
-            asignarRespuestasAClusters(respuestas, centroides, clusters, k, comp);
+            //comprueba si el algoritmo ha convergido
+            if (convergencia.terminaTrasAsignar(reasignadas)) {
+                if (reasignadas == 0 && clusters.stream().noneMatch(ArrayList::isEmpty)) distanciasAsignacion = new DistanciasAsignacion(propias, otras);
+                break;
+            }
 
             //recalcula centroides
-            ArrayList<RespuestaEncuesta> nuevosCentroides =
-                    recalcularCentroides(clusters, centroides, k, comp);
+            ArrayList<RespuestaEncuesta> nuevosCentroides = (incrementales != null)
+                    ? recalcularCentroides(incrementales, asignaciones, centroides, k)
+                    : recalcularCentroides(clusters, centroides, k, comp);
+            RespuestasIndexadas nuevos = puntos.codificar(nuevosCentroides);
+            float desplazamiento = desplazamientoMaximo(centroides, nuevosCentroides, actuales, nuevos);
+            centroides = nuevosCentroides;
+            actuales = nuevos;
+            if (convergencia.terminaTrasRecalcular(desplazamiento)) break;
+        }
+        numIteraciones = convergencia.getNumIteraciones();
+        desplazamientoFinal = convergencia.getDesplazamiento();
+        convergido = convergencia.haConvergido();
+        if (convergencia.centroidesAlDia()) centros = centroides;
+        return clusters;
+    }
 
-            //comprueba si el algoritmo ha convergido
-            if (nuevosCentroides.equals(centroides)) {
-                acaba = true;
-                resultado = clusters;
-            } else {
-                centroides = nuevosCentroides;
+    /**
+     * Busca el centroide más cercano a una respuesta. Lo usan todas las variantes de K-Means por asignación directa.
+     *
+     * @param puntos Respuestas que se agrupan.
+     * @param i Posición de la respuesta.
+     * @param centros Centroides, codificados con {@link RespuestasIndexadas#codificar}.
+     * @param k Número de centroides.
+     * @param propias Si no es {@code null}, se guarda en {@code propias[i]} la distancia al centroide más cercano.
+     * @param otras Si no es {@code null}, se guarda en {@code otras[i]} la distancia al siguiente centroide más cercano.
+     * @return Índice del centroide más cercano; en caso de empate, el menor.
+     */
+    static int centroMasCercano(RespuestasIndexadas puntos, int i, RespuestasIndexadas centros, int k,
+                                float[] propias, float[] otras) {
+        int indiceMasCercano = 0;
+        float distanciaMinima = puntos.distancia(i, centros, 0);
+        float segunda = Float.MAX_VALUE;
+
+        for (int j = 1; j < k; ++j) {
+            float distancia = puntos.distancia(i, centros, j);
+            if (distancia < distanciaMinima) {
+                segunda = distanciaMinima;
+                distanciaMinima = distancia;
+                indiceMasCercano = j;
             }
+            else if (distancia < segunda) segunda = distancia;
+        }
+
+        if (propias != null) propias[i] = distanciaMinima;
+        if (otras != null) otras[i] = segunda;
+        return indiceMasCercano;
+    }
+
+    //mayor distancia entre el centroide anterior y el nuevo de cada cluster; los que no cambian no se miden
+    private static float desplazamientoMaximo(
+            ArrayList<RespuestaEncuesta> anteriores,
+            ArrayList<RespuestaEncuesta> nuevos,
+            RespuestasIndexadas centrosAnteriores,
+            RespuestasIndexadas centrosNuevos
+    ) {
+        float maximo = 0.f;
+        for (int c = 0; c < nuevos.size(); ++c) {
+            if (nuevos.get(c) == anteriores.get(c)) continue;
+            maximo = Math.max(maximo, centrosAnteriores.distancia(c, centrosNuevos, c));
         }
-        return resultado;
+        return maximo;
     }
 
     private void validarParametros(ArrayList<RespuestaEncuesta> respuestas, Integer k) {
@@ -93,39 +244,6 @@ public class KMeans implements InterfazAlgoritmo<KMeansTipo> {
         return clusters;
     }
 
-    private void asignarRespuestasAClusters(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<RespuestaEncuesta> centroides,
-            ArrayList<ArrayList<RespuestaEncuesta>> clusters,
-            int k,
-            Comparador comp
-    ) {
-        for (RespuestaEncuesta respuesta : respuestas) {
-            int indiceMasCercano = encontrarCentroideMasCercano(respuesta, centroides, k, comp);
-            clusters.get(indiceMasCercano).add(respuesta);
-        }
-    }
-
-    private int encontrarCentroideMasCercano(
-            RespuestaEncuesta respuesta,
-            ArrayList<RespuestaEncuesta> centroides,
-            int k,
-            Comparador comp
-    ) {
-        int indiceMasCercano = 0;
-        float distanciaMinima = comp.getDistancia(respuesta, centroides.getFirst());
-
-        for (int j = 1; j < k; ++j) {
-            float distancia = comp.getDistancia(respuesta, centroides.get(j));
-            if (distancia < distanciaMinima) {
-                distanciaMinima = distancia;
-                indiceMasCercano = j;
-            }
-        }
-
-        return indiceMasCercano;
-    }
-
     private ArrayList<RespuestaEncuesta> recalcularCentroides(
             ArrayList<ArrayList<RespuestaEncuesta>> clusters,
             ArrayList<RespuestaEncuesta> centroides,
@@ -146,4 +264,21 @@ public class KMeans implements InterfazAlgoritmo<KMeansTipo> {
 
         return nuevosCentroides;
     }
+
+    private ArrayList<RespuestaEncuesta> recalcularCentroides(
+            CentroidesIncrementales incrementales,
+            int[] asignaciones,
+            ArrayList<RespuestaEncuesta> centroides,
+            int k
+    ) {
+        incrementales.asignar(asignaciones);
+        ArrayList<RespuestaEncuesta> nuevosCentroides = new ArrayList<>();
+
+        for (int i = 0; i < k; ++i) {
+            RespuestaEncuesta nuevoCentroide = incrementales.getCentroide(i);
+            nuevosCentroides.add((nuevoCentroide == null) ? centroides.get(i) : nuevoCentroide);
+        }
+
+        return nuevosCentroides;
+    }
 }
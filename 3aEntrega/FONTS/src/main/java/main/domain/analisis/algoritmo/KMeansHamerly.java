@@ -0,0 +1,229 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+
+import java.util.ArrayList;
+
+/**
+ * Implementación de {@link InterfazAlgoritmo} con el algoritmo de clustering K-Means de Hamerly.
+ * <p>
+ * Como {@link KMeansOptimizado}, usa la desigualdad triangular para ahorrar cálculos de distancias, pero
+ * cada respuesta guarda solo una cota superior de la distancia a su centroide y una única cota inferior de
+ * la distancia al segundo centroide más cercano. Ocupa O(n) en lugar de O(n·k) y es más rápido con
+ * {@code k} pequeña. El resultado es el mismo que el de {@link KMeans}: si alguna pregunta no cumple la
+ * desigualdad triangular (las de texto, o las ordenadas con varias opciones), las cotas no descartan ningún
+ * centroide (ver {@link EstadoKMeans}).
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class KMeansHamerly implements InterfazAlgoritmo<KMeansTipo>, InterfazAlgoritmoIterativo {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+
+    private final CriterioConvergencia criterio;
+    private long numDistancias;
+    private int numIteraciones;
+    private float desplazamientoFinal = Float.NaN;
+    private boolean convergido;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora con el criterio de convergencia por defecto.
+     */
+    public KMeansHamerly() {
+        this(CriterioConvergencia.POR_DEFECTO);
+    }
+
+    /**
+     * Constructora con un criterio de convergencia.
+     * @param criterio Criterio de parada.
+     */
+    public KMeansHamerly(CriterioConvergencia criterio) {
+        this.criterio = criterio;
+    }
+
+    /**
+     * Devuelve un KMeansHamerly independiente con la misma configuración, para ejecutarlo a la vez que este.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMeansHamerly conSemilla(long semilla) {
+        return new KMeansHamerly(criterio);
+    }
+
+    /**
+     * Aplica el algoritmo de clustering K-Means sobre un conjunto de respuestas a una encuesta
+     * <p>
+     * El algoritmo asigna de manera iterativa cada respuesta a su centroide más cercano y
+     * recalcula estos centroides al final de la iteración hasta alcanzar convergencia.
+     * Solo se buscan de nuevo los centroides de las respuestas cuyas cotas no garantizan la asignación.
+     * <p>
+     * La condición de convergencia es la de su {@link CriterioConvergencia}; por defecto, que ninguna respuesta
+     * cambie de cluster, con un máximo de iteraciones.
+     * </p>
+     *
+     * @param centroides Centroides iniciales. Debe contener {@code k} elementos.
+     * @param respuestas Las respuestas que se quieren agrupar.
+     * @param k          Número de clusters deseados
+     * @param comp       Comparador a usar para el cálculo de distancias y centroides
+     * @return Devuelve un {@link ArrayList} con {@code k} clusters, donde cada cluster es a su vez un
+     *  {@link ArrayList} de {@link RespuestaEncuesta}.
+     * @throws NoHayRespuestasParaAnalizar si {@code respuestas} es vacío.
+     * @throws KMenorQueUno si {@code k} es menor a 1.
+     */
+    @Override
+    public ArrayList<ArrayList<RespuestaEncuesta>> analizar(
+            ArrayList<RespuestaEncuesta> centroides,
+            ArrayList<RespuestaEncuesta> respuestas,
+            Integer k,
+            Comparador comp
+    ) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
+
+        EstadoKMeans estado = new EstadoKMeans(centroides, respuestas, k, comp);
+        int n = estado.getNumRespuestas();
+        float[] cotasSuperiores = new float[n];
+        float[] cotasInferiores = new float[n];
+        int[] asignaciones = new int[n];
+        float[] desplazamientos = new float[k];
+
+        for (int i = 0; i < n; ++i) buscarMasCercanos(estado, i, -1, 0.f, cotasSuperiores, cotasInferiores, asignaciones, k);
+        Convergencia convergencia = new Convergencia(criterio, n);
+
+        //en la primera asignación todas las respuestas se cuentan como reasignadas
+        int reasignadas = n;
+        while (!convergencia.terminaTrasAsignar(reasignadas)
+                && !convergencia.terminaTrasRecalcular(estado.recalcularCentroides(asignaciones, desplazamientos))) {
+            actualizarCotas(cotasSuperiores, cotasInferiores, asignaciones, desplazamientos, k);
+            float[] mitadDistanciaMinima = estado.mitadDistanciaMinima(estado.distanciasEntreCentroides());
+
+            reasignadas = 0;
+            for (int i = 0; i < n; ++i) {
+                int asignado = asignaciones[i];
+                float limite = Math.max(mitadDistanciaMinima[asignado], cotasInferiores[i]);
+                //el resto de centroides está estrictamente más lejos que el asignado
+                if (cotasSuperiores[i] + estado.getMargen() < limite) continue;
+
+                float distancia = estado.distancia(i, asignado);
+                cotasSuperiores[i] = distancia;
+                if (distancia + estado.getMargen() < limite) continue;
+
+                buscarMasCercanos(estado, i, asignado, distancia, cotasSuperiores, cotasInferiores, asignaciones, k);
+                if (asignaciones[i] != asignado) ++reasignadas;
+            }
+        }
+
+        numIteraciones = convergencia.getNumIteraciones();
+        desplazamientoFinal = convergencia.getDesplazamiento();
+        convergido = convergencia.haConvergido();
+        numDistancias = estado.getNumDistancias();
+        centros = convergencia.centroidesAlDia() ? estado.getCentroides() : null;
+        return estado.generarClusters(asignaciones);
+    }
+
+    /**
+     * Devuelve el número de distancias calculadas en la última llamada a {@link #analizar}, contando
+     * las de respuestas a centroides, entre centroides y de desplazamiento de los centroides.
+     * Sin cotas serían al menos {@code n·k} por iteración.
+     * @return Número de distancias calculadas.
+     */
+    public long getNumDistancias() {
+        return numDistancias;
+    }
+
+    /**
+     * Devuelve el número de iteraciones (asignaciones de todas las respuestas) de la última llamada a {@link #analizar}.
+     * @return Número de iteraciones.
+     */
+    @Override
+    public int getNumIteraciones() {
+        return numIteraciones;
+    }
+
+    @Override
+    public CriterioConvergencia getCriterio() {
+        return criterio;
+    }
+
+    @Override
+    public float getDesplazamientoFinal() {
+        return desplazamientoFinal;
+    }
+
+    @Override
+    public boolean haConvergido() {
+        return convergido;
+    }
+
+    /**
+     * Devuelve los centroides de los clusters de la última llamada a {@link #analizar}, si acabó con ellos
+     * recalculados o sin reasignaciones.
+     * @return Centroide de cada cluster, o {@code null} si la última asignación los dejó desfasados.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
+
+    //calcula la distancia a todos los centroides (salvo a conocido, cuya distancia ya se sabe) y guarda
+    //el más cercano, con empates por el menor índice, y la distancia al segundo como cota inferior
+    private static void buscarMasCercanos(
+            EstadoKMeans estado,
+            int i,
+            int conocido,
+            float distanciaConocido,
+            float[] cotasSuperiores,
+            float[] cotasInferiores,
+            int[] asignaciones,
+            int k
+    ) {
+        int masCercano = -1;
+        float primera = Float.POSITIVE_INFINITY;
+        float segunda = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < k; ++c) {
+            float distancia = (c == conocido) ? distanciaConocido : estado.distancia(i, c);
+            if (distancia < primera) {
+                segunda = primera;
+                primera = distancia;
+                masCercano = c;
+            }
+            else if (distancia < segunda) segunda = distancia;
+        }
+        asignaciones[i] = masCercano;
+        cotasSuperiores[i] = primera;
+        cotasInferiores[i] = segunda;
+    }
+
+    //la cota inferior baja en lo que más se haya movido cualquier otro centroide
+    private static void actualizarCotas(
+            float[] cotasSuperiores,
+            float[] cotasInferiores,
+            int[] asignaciones,
+            float[] desplazamientos,
+            int k
+    ) {
+        int mayor = 0;
+        float segundoMayor = 0.f;
+        for (int c = 1; c < k; ++c) {
+            if (desplazamientos[c] > desplazamientos[mayor]) {
+                segundoMayor = desplazamientos[mayor];
+                mayor = c;
+            }
+            else if (desplazamientos[c] > segundoMayor) segundoMayor = desplazamientos[c];
+        }
+
+        for (int i = 0; i < cotasSuperiores.length; ++i) {
+            int asignado = asignaciones[i];
+            cotasSuperiores[i] += desplazamientos[asignado];
+            cotasInferiores[i] -= (asignado == mayor) ? segundoMayor : desplazamientos[mayor];
+        }
+    }
+}
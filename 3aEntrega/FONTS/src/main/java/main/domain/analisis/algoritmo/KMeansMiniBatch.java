@@ -0,0 +1,262 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.CentroidesIncrementales;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.exceptions.TamanoLoteMenorQueUno;
+import main.domain.types.InterfazAcumuladorCentroide;
+import main.domain.types.TDatos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Implementación de {@link InterfazAlgoritmo} con el algoritmo de clustering K-Means por mini-lotes (Sculley).
+ * <p>
+ * En lugar de recorrer todas las respuestas en cada iteración, toma lotes aleatorios de {@code tamLote}
+ * respuestas: asigna cada una a su centroide más cercano y acerca ese centroide a la respuesta con una tasa
+ * de aprendizaje {@code 1/v}, donde {@code v} es el número de respuestas que ha recibido el centroide hasta
+ * el momento. Con esa tasa, cada centroide es el centroide de {@link TDatos#getComponenteCentroide(ArrayList)}
+ * de las respuestas que ha recibido (media para las numéricas, moda para las de opciones y palabras más
+ * frecuentes para las de texto), así que se mantiene con los mismos {@link InterfazAcumuladorCentroide}.
+ * </p>
+ * <p>
+ * Cada lote es una iteración de su {@link CriterioConvergencia}: se detiene cuando, durante su paciencia en
+ * lotes seguidos, ningún centroide se mueve la tolerancia o más, o como mucho la fracción de reasignadas de las
+ * respuestas del lote que ya se habían elegido cambian de cluster respecto a la última vez; o al llegar al máximo
+ * de lotes. Los centroides de opciones y de texto son modas y a menudo no se mueven nada en un lote aunque no
+ * hayan convergido, por eso no basta con un lote. Al final se asigna cada respuesta a su centroide más cercano.
+ * Necesita tipos de datos con acumuladores de centroide; si no los hay, se ejecuta {@link KMeans} con el mismo
+ * criterio.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class KMeansMiniBatch implements InterfazAlgoritmo<KMeansTipo>, InterfazAlgoritmoIterativo {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+    private static final String textoLoteMenor = "El tamaño de lote es menor que 1";
+    private static final int TAM_LOTE_POR_DEFECTO = 1024;
+
+    /**
+     * Criterio por defecto: hasta que en 10 lotes seguidos ningún centroide se mueva 0.001 o más (o no cambie de
+     * cluster ninguna respuesta ya elegida), con un máximo de 500 lotes.
+     */
+    public static final CriterioConvergencia CRITERIO_POR_DEFECTO = new CriterioConvergencia(1e-3f, 0.f, 500, 10);
+
+    private final int tamLote;
+    private final long semilla;
+    private final CriterioConvergencia criterio;
+    private int numIteraciones;
+    private float desplazamientoFinal = Float.NaN;
+    private boolean convergido;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora con lotes de 1024 respuestas, semilla aleatoria y el criterio de convergencia por defecto.
+     */
+    public KMeansMiniBatch() {
+        this(TAM_LOTE_POR_DEFECTO, new Random().nextLong());
+    }
+
+    /**
+     * Constructora con un tamaño de lote y una semilla dados y el criterio de convergencia por defecto.
+     * @param tamLote Número de respuestas de cada lote.
+     * @param semilla Semilla de la elección de los lotes.
+     * @throws TamanoLoteMenorQueUno si {@code tamLote} es menor a 1.
+     */
+    public KMeansMiniBatch(int tamLote, long semilla) {
+        this(tamLote, semilla, CRITERIO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructora con un tamaño de lote, una semilla y un criterio de convergencia.
+     * @param tamLote Número de respuestas de cada lote.
+     * @param semilla Semilla de la elección de los lotes; cada llamada a {@link #analizar} empieza con ella.
+     * @param criterio Criterio de parada, con un lote por iteración.
+     * @throws TamanoLoteMenorQueUno si {@code tamLote} es menor a 1.
+     */
+    public KMeansMiniBatch(int tamLote, long semilla, CriterioConvergencia criterio) {
+        if (tamLote < 1) throw new TamanoLoteMenorQueUno(textoLoteMenor);
+        this.tamLote = tamLote;
+        this.semilla = semilla;
+        this.criterio = criterio;
+    }
+
+    /**
+     * Devuelve el número de respuestas de cada lote.
+     * @return Tamaño de lote.
+     */
+    public int getTamLote() {
+        return tamLote;
+    }
+
+    /**
+     * Devuelve el número de lotes procesados en la última llamada a {@link #analizar}.
+     * @return Número de lotes.
+     */
+    @Override
+    public int getNumIteraciones() {
+        return numIteraciones;
+    }
+
+    @Override
+    public CriterioConvergencia getCriterio() {
+        return criterio;
+    }
+
+    @Override
+    public float getDesplazamientoFinal() {
+        return desplazamientoFinal;
+    }
+
+    @Override
+    public boolean haConvergido() {
+        return convergido;
+    }
+
+    /**
+     * Devuelve el centroide de cada cluster de la última llamada a {@link #analizar}. Se calcula con los
+     * acumuladores de las respuestas del cluster, así que es el centroide exacto y no el aproximado por los lotes.
+     * @return Centroide de cada cluster.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
+
+    /**
+     * Devuelve un KMeansMiniBatch independiente con la misma configuración y otra semilla, para ejecutarlo a la vez que este.
+     * @param semilla Semilla de la nueva instancia.
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMeansMiniBatch conSemilla(long semilla) {
+        return new KMeansMiniBatch(tamLote, semilla, criterio);
+    }
+
+    /**
+     * Aplica el algoritmo de clustering K-Means por mini-lotes sobre un conjunto de respuestas a una encuesta.
+     *
+     * @param centroides Centroides iniciales. Debe contener {@code k} elementos.
+     * @param respuestas Las respuestas que se quieren agrupar.
+     * @param k          Número de clusters deseados
+     * @param comp       Comparador a usar para el cálculo de distancias y centroides
+     * @return Devuelve un {@link ArrayList} con {@code k} clusters, donde cada cluster es a su vez un
+     *  {@link ArrayList} de {@link RespuestaEncuesta}.
+     * @throws NoHayRespuestasParaAnalizar si {@code respuestas} es vacío.
+     * @throws KMenorQueUno si {@code k} es menor a 1.
+     */
+    @Override
+    public ArrayList<ArrayList<RespuestaEncuesta>> analizar(
+            ArrayList<RespuestaEncuesta> centroides,
+            ArrayList<RespuestaEncuesta> respuestas,
+            Integer k,
+            Comparador comp
+    ) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
+
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        TDatos[][] datos = CentroidesIncrementales.datosPorFila(puntos.getRespuestas());
+        if (datos == null) return analizarConKMeans(centroides, respuestas, k, comp);
+
+        Random rand = new Random(semilla);
+        int n = puntos.getNumRespuestas();
+        InterfazAcumuladorCentroide[][] acumuladores = new InterfazAcumuladorCentroide[k][];
+        for (int c = 0; c < k; ++c) acumuladores[c] = CentroidesIncrementales.crearAcumuladores(datos[0]);
+        //primera respuesta que ha recibido cada centroide, de la que se toman los metadatos
+        int[] primero = new int[k];
+        Arrays.fill(primero, -1);
+        //último cluster al que se asignó cada respuesta, para contar las reasignadas de cada lote
+        int[] asignaciones = new int[n];
+        Arrays.fill(asignaciones, -1);
+        int[] lote = new int[tamLote];
+        int[] asignacionesLote = new int[tamLote];
+        boolean[] modificado = new boolean[k];
+        Convergencia convergencia = new Convergencia(criterio, tamLote);
+
+        ArrayList<RespuestaEncuesta> actuales = new ArrayList<>(centroides);
+        RespuestasIndexadas centrosLote = puntos.codificar(actuales);
+
+        while (true) {
+            //primero se asigna todo el lote con los centroides actuales y después se actualizan
+            //solo cuentan las respuestas que ya se habían elegido en algún lote
+            int reasignadas = 0;
+            int repetidas = 0;
+            for (int b = 0; b < tamLote; ++b) {
+                lote[b] = rand.nextInt(n);
+                asignacionesLote[b] = KMeans.centroMasCercano(puntos, lote[b], centrosLote, k, null, null);
+                int anterior = asignaciones[lote[b]];
+                if (anterior >= 0) {
+                    ++repetidas;
+                    if (anterior != asignacionesLote[b]) ++reasignadas;
+                }
+                asignaciones[lote[b]] = asignacionesLote[b];
+            }
+            if (convergencia.terminaTrasAsignar(reasignadas, repetidas)) break;
+
+            Arrays.fill(modificado, false);
+            for (int b = 0; b < tamLote; ++b) {
+                int c = asignacionesLote[b];
+                TDatos[] d = datos[lote[b]];
+                for (int q = 0; q < d.length; ++q) acumuladores[c][q].anadir(d[q]);
+                if (primero[c] < 0) primero[c] = lote[b];
+                modificado[c] = true;
+            }
+
+            for (int c = 0; c < k; ++c) {
+                if (modificado[c]) actuales.set(c, CentroidesIncrementales.construirCentroide(acumuladores[c], datos[primero[c]]));
+            }
+            RespuestasIndexadas nuevos = puntos.codificar(actuales);
+            float desplazamientoMaximo = 0.f;
+            for (int c = 0; c < k; ++c) {
+                if (modificado[c]) desplazamientoMaximo = Math.max(desplazamientoMaximo, centrosLote.distancia(c, nuevos, c));
+            }
+            centrosLote = nuevos;
+            if (convergencia.terminaTrasRecalcular(desplazamientoMaximo)) break;
+        }
+        numIteraciones = convergencia.getNumIteraciones();
+        desplazamientoFinal = convergencia.getDesplazamiento();
+        convergido = convergencia.haConvergido();
+
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>(k);
+        for (int c = 0; c < k; ++c) clusters.add(new ArrayList<>());
+        for (int i = 0; i < n; ++i) {
+            asignaciones[i] = KMeans.centroMasCercano(puntos, i, centrosLote, k, null, null);
+            clusters.get(asignaciones[i]).add(puntos.getRespuesta(i));
+        }
+
+        //centroides exactos de los clusters finales; un cluster vacío conserva el de los lotes
+        CentroidesIncrementales finales = CentroidesIncrementales.crear(puntos.getRespuestas(), k);
+        finales.asignar(asignaciones);
+        centros = new ArrayList<>(k);
+        for (int c = 0; c < k; ++c) {
+            RespuestaEncuesta centroide = finales.getCentroide(c);
+            centros.add((centroide == null) ? actuales.get(c) : centroide);
+        }
+        return clusters;
+    }
+
+    //sin acumuladores de centroide no hay lotes: se ejecuta KMeans y se toman sus estadísticas
+    private ArrayList<ArrayList<RespuestaEncuesta>> analizarConKMeans(
+            ArrayList<RespuestaEncuesta> centroides,
+            ArrayList<RespuestaEncuesta> respuestas,
+            int k,
+            Comparador comp
+    ) {
+        KMeans kmeans = new KMeans(criterio);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(centroides, respuestas, k, comp);
+        numIteraciones = kmeans.getNumIteraciones();
+        desplazamientoFinal = kmeans.getDesplazamientoFinal();
+        convergido = kmeans.haConvergido();
+        centros = kmeans.getCentros();
+        return clusters;
+    }
+}
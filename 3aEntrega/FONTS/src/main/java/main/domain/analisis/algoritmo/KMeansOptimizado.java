@@ -8,19 +8,59 @@ import main.domain.exceptions.NoHayRespuestasParaAnalizar;
 import java.util.ArrayList;
 
 /**
- * Implementación de {@link InterfazAlgoritmo} con el algoritmo de clustering K-Means versión optimizada.
+ * Implementación de {@link InterfazAlgoritmo} con el algoritmo de clustering K-Means versión optimizada (Elkan).
  * Explota la desigualdad triangular para ahorrar cálculos de distancias
  * <p>
  * Esta clase agrupa las respuestas de la encuesta en {@code k} grupos en base a sus distancias.
  * La métrica de distancia y cálculo de centroides se relega a {@link Comparador}.
  * </p>
+ * <p>
+ * Cada respuesta guarda una cota superior de la distancia a su centroide y una cota inferior de la distancia
+ * a cada uno de los {@code k} centroides, en arrays primitivos que se actualizan en el sitio. Las cotas solo
+ * descartan centroides claramente más lejanos (ver {@link EstadoKMeans#MARGEN}) y los empates se resuelven
+ * por el menor índice, así que el resultado es el mismo que el de {@link KMeans}. Si alguna pregunta no cumple la
+ * desigualdad triangular (las de texto, o las ordenadas con varias opciones), no se descarta ningún centroide. Para {@code k} pequeña,
+ * {@link KMeansHamerly} guarda una sola cota inferior por respuesta.
+ * </p>
  * @author Javier Zhangpan
  */
-public class KMeansOptimizado implements InterfazAlgoritmo<KMeansTipo> {
+public class KMeansOptimizado implements InterfazAlgoritmo<KMeansTipo>, InterfazAlgoritmoIterativo {
 
     private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
     private static final String textoKMenor = "La K es menor que 1";
 
+    private final CriterioConvergencia criterio;
+    private long numDistancias;
+    private int numIteraciones;
+    private float desplazamientoFinal = Float.NaN;
+    private boolean convergido;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora con el criterio de convergencia por defecto.
+     */
+    public KMeansOptimizado() {
+        this(CriterioConvergencia.POR_DEFECTO);
+    }
+
+    /**
+     * Constructora con un criterio de convergencia.
+     * @param criterio Criterio de parada.
+     */
+    public KMeansOptimizado(CriterioConvergencia criterio) {
+        this.criterio = criterio;
+    }
+
+    /**
+     * Devuelve un KMeansOptimizado independiente con la misma configuración, para ejecutarlo a la vez que este.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMeansOptimizado conSemilla(long semilla) {
+        return new KMeansOptimizado(criterio);
+    }
+
     /**
      * Aplica el algoritmo de clustering K-Means sobre un conjunto de respuestas a una encuesta
      * <p>
@@ -30,7 +70,8 @@ public class KMeansOptimizado implements InterfazAlgoritmo<KMeansTipo> {
      * Además, el algoritmo mantiene estructuras de datos adicionales para poder
      * ahorrarse cálculos de distancias.
      * <p>
-     * La condición de convergencia es que los centroides no cambien entre iteraciones.
+     * La condición de convergencia es la de su {@link CriterioConvergencia}; por defecto, que ninguna respuesta
+     * cambie de cluster, con un máximo de iteraciones.
      * </p>
      *
      * @param centroides Centroides iniciales. Debe contener {@code k} elementos.
@@ -51,265 +92,187 @@ public class KMeansOptimizado implements InterfazAlgoritmo<KMeansTipo> {
     ) {
         validarEntradas(respuestas, k);
 
-        ArrayList<Float> upperBounds = initFloats(respuestas.size());
-        ArrayList<ArrayList<Float>> lowerBounds = initMat(respuestas.size(), centroides.size());
-        ArrayList<Integer> asignaciones = initInts(respuestas.size());
-        ArrayList<ArrayList<Float>> distanciasEntreCentroides = initMatDistancias(centroides, comp);
-        ArrayList<ArrayList<Float>> distanciasACentroides = initMat(respuestas.size(), centroides.size());
-        ArrayList<Float> S = computarS(distanciasEntreCentroides);
-        ArrayList<RespuestaEncuesta> nuevosCentroides = initCentroides(centroides.size());
-
-        initBounds(upperBounds, lowerBounds, asignaciones, centroides, respuestas,
-                comp, distanciasEntreCentroides, distanciasACentroides);
-
-        ArrayList<Boolean> respuestasQueNoNecesitanRecalcular =
-                identificarRespuestasQueNoNecesitanRecalcular(respuestas, upperBounds, S, asignaciones);
-
-        boolean convergido = false;
-
-        while (!convergido) {
-            actualizarAsignaciones(respuestas, centroides, upperBounds, lowerBounds,
-                    distanciasEntreCentroides, distanciasACentroides,
-                    asignaciones, respuestasQueNoNecesitanRecalcular, comp);
-
-            recalcularCentroides(nuevosCentroides, centroides, respuestas, asignaciones, comp);
-
-            distanciasEntreCentroides = initMatDistancias(nuevosCentroides, comp);
-            S = computarS(distanciasEntreCentroides);
-
-            convergenciaYActualizacion(respuestas, centroides, nuevosCentroides,
-                    upperBounds, lowerBounds, asignaciones,
-                    respuestasQueNoNecesitanRecalcular, comp);
-
-            if (nuevosCentroides.equals(centroides)) convergido = true;
-            else centroides = nuevosCentroides;
+        EstadoKMeans estado = new EstadoKMeans(centroides, respuestas, k, comp);
+        int n = estado.getNumRespuestas();
+        float[] cotasSuperiores = new float[n];
+        //cota inferior de la distancia de la respuesta i al centroide c en la posición i·k + c
+        float[] cotasInferiores = new float[n * k];
+        int[] asignaciones = new int[n];
+        float[] desplazamientos = new float[k];
+
+        float[] entreCentroides = estado.distanciasEntreCentroides();
+        initBounds(estado, entreCentroides, cotasSuperiores, cotasInferiores, asignaciones, k);
+        Convergencia convergencia = new Convergencia(criterio, n);
+
+        //en la primera asignación todas las respuestas se cuentan como reasignadas
+        int reasignadas = n;
+        while (!convergencia.terminaTrasAsignar(reasignadas)
+                && !convergencia.terminaTrasRecalcular(estado.recalcularCentroides(asignaciones, desplazamientos))) {
+            actualizarBounds(cotasSuperiores, cotasInferiores, asignaciones, desplazamientos, k);
+            entreCentroides = estado.distanciasEntreCentroides();
+            reasignadas = actualizarAsignaciones(estado, entreCentroides, estado.mitadDistanciaMinima(entreCentroides),
+                    cotasSuperiores, cotasInferiores, asignaciones, k);
         }
 
-        return generarClusters(respuestas, asignaciones, k);
+        numIteraciones = convergencia.getNumIteraciones();
+        desplazamientoFinal = convergencia.getDesplazamiento();
+        convergido = convergencia.haConvergido();
+        numDistancias = estado.getNumDistancias();
+        centros = convergencia.centroidesAlDia() ? estado.getCentroides() : null;
+        return estado.generarClusters(asignaciones);
     }
 
-    private static void validarEntradas(ArrayList<RespuestaEncuesta> respuestas, int k) {
-        if (respuestas.isEmpty())
-            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
-        if (k < 1)
-            throw new KMenorQueUno(textoKMenor);
-    }
-
-    private static ArrayList<RespuestaEncuesta> initCentroides(int k) {
-        ArrayList<RespuestaEncuesta> nuevos = new ArrayList<>();
-        for (int i = 0; i < k; ++i) nuevos.add(null);
-        return nuevos;
-    }
-
-    private static ArrayList<Float> initFloats(int n) {
-        ArrayList<Float> array = new ArrayList<>();
-        for (int i = 0; i < n; ++i) array.add(0.0f);
-        return array;
+    /**
+     * Devuelve el número de distancias calculadas en la última llamada a {@link #analizar}, contando
+     * las de respuestas a centroides, entre centroides y de desplazamiento de los centroides.
+     * Sin cotas serían al menos {@code n·k} por iteración.
+     * @return Número de distancias calculadas.
+     */
+    public long getNumDistancias() {
+        return numDistancias;
     }
 
-    private static ArrayList<Integer> initInts(int n) {
-        ArrayList<Integer> array = new ArrayList<>();
-        for (int i = 0; i < n; ++i) array.add(0);
-        return array;
+    /**
+     * Devuelve el número de iteraciones (asignaciones de todas las respuestas) de la última llamada a {@link #analizar}.
+     * @return Número de iteraciones.
+     */
+    @Override
+    public int getNumIteraciones() {
+        return numIteraciones;
     }
 
-    private static ArrayList<ArrayList<Float>> initMat(int n, int m) {
-        ArrayList<ArrayList<Float>> mat = new ArrayList<>();
-        for (int i = 0; i < n; ++i) {
-            ArrayList<Float> row = new ArrayList<>();
-            for (int j = 0; j < m; ++j) row.add(0.0f);
-            mat.add(row);
-        }
-        return mat;
+    @Override
+    public CriterioConvergencia getCriterio() {
+        return criterio;
     }
 
-    private static ArrayList<ArrayList<Float>> initMatDistancias(
-            ArrayList<RespuestaEncuesta> centroides,
-            Comparador comp) {
-        int n = centroides.size();
-        ArrayList<ArrayList<Float>> mat = initMat(n, n);
-        for (int i = 0; i < n; i++) {
-            for (int j = i; j < n; j++) {
-                float d = comp.getDistancia(centroides.get(i), centroides.get(j));
-                mat.get(i).set(j, d);
-                mat.get(j).set(i, d);
-            }
-        }
-        return mat;
+    @Override
+    public float getDesplazamientoFinal() {
+        return desplazamientoFinal;
     }
 
-    private static void initBounds(
-            ArrayList<Float> upperBounds,
-            ArrayList<ArrayList<Float>> lowerBounds,
-            ArrayList<Integer> asignaciones,
-            ArrayList<RespuestaEncuesta> centroides,
-            ArrayList<RespuestaEncuesta> respuestas,
-            Comparador comp,
-            ArrayList<ArrayList<Float>> distanciasEntreCentroides,
-            ArrayList<ArrayList<Float>> distanciasACentroides
-    ) {
-        int k = centroides.size();
-
-        for (int i = 0; i < respuestas.size(); ++i) {
-            RespuestaEncuesta respuesta = respuestas.get(i);
-            int indiceMasCercano = 0;
-            float distanciaMinima = comp.getDistancia(respuesta, centroides.get(0));
-            distanciasACentroides.get(i).set(0, distanciaMinima);
-            lowerBounds.get(i).set(0, distanciaMinima);
-
-            for (int j = 1; j < k; ++j) {
-                float mitadDistEntreCentroides =
-                        0.5f * distanciasEntreCentroides.get(indiceMasCercano).get(j);
-
-                if (distanciaMinima > mitadDistEntreCentroides) {
-                    float distancia = comp.getDistancia(respuesta, centroides.get(j));
-                    distanciasACentroides.get(i).set(j, distancia);
-                    lowerBounds.get(i).set(j, distancia);
-                    if (distancia < distanciaMinima) {
-                        distanciaMinima = distancia;
-                        indiceMasCercano = j;
-                    }
-                } else {
-                    lowerBounds.get(i).set(j, mitadDistEntreCentroides);
-                }
-            }
-
-            upperBounds.set(i, distanciaMinima);
-            asignaciones.set(i, indiceMasCercano);
-            distanciasACentroides.get(i).set(indiceMasCercano, distanciaMinima);
-        }
+    @Override
+    public boolean haConvergido() {
+        return convergido;
     }
 
-    private static ArrayList<Float> computarS(ArrayList<ArrayList<Float>> distMat) {
-        ArrayList<Float> s = new ArrayList<>();
-        int k = distMat.size();
-        for (int i = 0; i < k; ++i) {
-            float minDist = Float.POSITIVE_INFINITY;
-            for (int j = 0; j < k; ++j) {
-                if (i == j) continue;
-                float d = distMat.get(i).get(j);
-                if (d < minDist) minDist = d;
-            }
-            s.add((minDist == Float.POSITIVE_INFINITY) ? 0.0f : 0.5f * minDist);
-        }
-        return s;
+    /**
+     * Devuelve los centroides de los clusters de la última llamada a {@link #analizar}, si acabó con ellos
+     * recalculados o sin reasignaciones.
+     * @return Centroide de cada cluster, o {@code null} si la última asignación los dejó desfasados.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
     }
 
-    private static ArrayList<Boolean> identificarRespuestasQueNoNecesitanRecalcular(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<Float> upperBounds,
-            ArrayList<Float> S,
-            ArrayList<Integer> asignaciones) {
-
-        ArrayList<Boolean> result = new ArrayList<>();
-        for (int i = 0; i < respuestas.size(); ++i) {
-            result.add(upperBounds.get(i) <= S.get(asignaciones.get(i)));
-        }
-        return result;
+    private static void validarEntradas(ArrayList<RespuestaEncuesta> respuestas, int k) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
     }
 
-    private static void actualizarAsignaciones(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<RespuestaEncuesta> centroides,
-            ArrayList<Float> upperBounds,
-            ArrayList<ArrayList<Float>> lowerBounds,
-            ArrayList<ArrayList<Float>> distanciasEntreCentroides,
-            ArrayList<ArrayList<Float>> distanciasACentroides,
-            ArrayList<Integer> asignaciones,
-            ArrayList<Boolean> respuestasQueNoNecesitanRecalcular,
-            Comparador comp
+    //primera asignación: solo se calculan las distancias a los centroides que pueden estar más cerca
+    private static void initBounds(
+            EstadoKMeans estado,
+            float[] entreCentroides,
+            float[] cotasSuperiores,
+            float[] cotasInferiores,
+            int[] asignaciones,
+            int k
     ) {
-        for (int i = 0; i < centroides.size(); ++i) {
-            for (int j = 0; j < respuestas.size(); ++j) {
-
-                if (i != asignaciones.get(j)
-                        && upperBounds.get(j) > lowerBounds.get(j).get(i)
-                        && upperBounds.get(j) > 0.5f * distanciasEntreCentroides.get(asignaciones.get(j)).get(i)) {
-
-                    if (!respuestasQueNoNecesitanRecalcular.get(j)) {
-                        float newDist = comp.getDistancia(
-                                centroides.get(asignaciones.get(j)),
-                                respuestas.get(j)
-                        );
-                        distanciasACentroides.get(j).set(asignaciones.get(j), newDist);
-                    } else {
-                        distanciasACentroides.get(j).set(asignaciones.get(j), upperBounds.get(j));
-                    }
-
-                    if (distanciasACentroides.get(j).get(asignaciones.get(j)) > lowerBounds.get(j).get(i)
-                            || distanciasACentroides.get(j).get(asignaciones.get(j))
-                            > 0.5f * distanciasEntreCentroides.get(asignaciones.get(j)).get(i)) {
-
-                        float newDist = comp.getDistancia(respuestas.get(j), centroides.get(i));
-
-                        if (newDist < distanciasACentroides.get(j).get(asignaciones.get(j))) {
-                            distanciasACentroides.get(j).set(i, newDist);
-                            asignaciones.set(j, i);
-                            upperBounds.set(j, newDist);
-                        }
-                    }
+        for (int i = 0; i < cotasSuperiores.length; ++i) {
+            int base = i * k;
+            int asignado = 0;
+            float distanciaMinima = estado.distancia(i, 0);
+            cotasInferiores[base] = distanciaMinima;
+
+            for (int c = 1; c < k; ++c) {
+                float entre = entreCentroides[asignado * k + c];
+                //d(i, c) >= d(asignado, c) - d(i, asignado)
+                if (0.5f * entre > distanciaMinima + estado.getMargen()) {
+                    cotasInferiores[base + c] = entre - distanciaMinima;
+                    continue;
+                }
+                float distancia = estado.distancia(i, c);
+                cotasInferiores[base + c] = distancia;
+                if (distancia < distanciaMinima) {
+                    distanciaMinima = distancia;
+                    asignado = c;
                 }
             }
-        }
-    }
 
-    private static void recalcularCentroides(
-            ArrayList<RespuestaEncuesta> nuevosCentroides,
-            ArrayList<RespuestaEncuesta> centroides,
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<Integer> asignaciones,
-            Comparador comp
-    ) {
-        for (int i = 0; i < centroides.size(); ++i) {
-            ArrayList<RespuestaEncuesta> clustering = new ArrayList<>();
-            for (int j = 0; j < respuestas.size(); ++j) {
-                if (asignaciones.get(j) == i) clustering.add(respuestas.get(j));
-            }
-            nuevosCentroides.set(i,
-                    clustering.isEmpty() ? centroides.get(i) : comp.calcularNuevoCentroide(clustering));
+            cotasSuperiores[i] = distanciaMinima;
+            asignaciones[i] = asignado;
         }
     }
 
-    private static void convergenciaYActualizacion(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<RespuestaEncuesta> centroides,
-            ArrayList<RespuestaEncuesta> nuevosCentroides,
-            ArrayList<Float> upperBounds,
-            ArrayList<ArrayList<Float>> lowerBounds,
-            ArrayList<Integer> asignaciones,
-            ArrayList<Boolean> respuestasQueNoNecesitanRecalcular,
-            Comparador comp
+    //los centroides se han movido: las cotas se relajan en lo que se ha desplazado cada uno
+    private static void actualizarBounds(
+            float[] cotasSuperiores,
+            float[] cotasInferiores,
+            int[] asignaciones,
+            float[] desplazamientos,
+            int k
     ) {
-        ArrayList<Float> deltaCentroide = new ArrayList<>();
-        for (int i = 0; i < centroides.size(); ++i) {
-            deltaCentroide.add(comp.getDistancia(centroides.get(i), nuevosCentroides.get(i)));
-        }
-
-        for (int j = 0; j < respuestas.size(); ++j) {
-            for (int i = 0; i < centroides.size(); ++i) {
-                float m = Math.max(lowerBounds.get(j).get(i) - deltaCentroide.get(i), 0);
-                lowerBounds.get(j).set(i, m);
+        for (int i = 0; i < cotasSuperiores.length; ++i) {
+            int base = i * k;
+            for (int c = 0; c < k; ++c) {
+                cotasInferiores[base + c] = Math.max(cotasInferiores[base + c] - desplazamientos[c], 0.f);
             }
-        }
-
-        for (int j = 0; j < respuestas.size(); ++j) {
-            upperBounds.set(j, upperBounds.get(j) + deltaCentroide.get(asignaciones.get(j)));
-            respuestasQueNoNecesitanRecalcular.set(j, upperBounds.get(j) <= 0.5f * deltaCentroide.get(asignaciones.get(j)));
+            cotasSuperiores[i] += desplazamientos[asignaciones[i]];
         }
     }
 
-    private static ArrayList<ArrayList<RespuestaEncuesta>> generarClusters(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<Integer> asignaciones,
+    //devuelve el número de respuestas que cambian de cluster
+    private static int actualizarAsignaciones(
+            EstadoKMeans estado,
+            float[] entreCentroides,
+            float[] mitadDistanciaMinima,
+            float[] cotasSuperiores,
+            float[] cotasInferiores,
+            int[] asignaciones,
             int k
     ) {
-        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
-        for (int i = 0; i < k; ++i) clusters.add(new ArrayList<>());
+        int reasignadas = 0;
+        for (int i = 0; i < cotasSuperiores.length; ++i) {
+            int asignado = asignaciones[i];
+            float cotaSuperior = cotasSuperiores[i];
+            //todos los demás centroides están estrictamente más lejos
+            if (cotaSuperior + estado.getMargen() < mitadDistanciaMinima[asignado]) continue;
+
+            int base = i * k;
+            float conMargen = cotaSuperior + estado.getMargen();
+            boolean exacta = false;
+            for (int c = 0; c < k; ++c) {
+                if (c == asignado
+                        || conMargen < cotasInferiores[base + c]
+                        || conMargen < 0.5f * entreCentroides[asignado * k + c]) continue;
+
+                if (!exacta) {
+                    cotaSuperior = estado.distancia(i, asignado);
+                    cotasInferiores[base + asignado] = cotaSuperior;
+                    conMargen = cotaSuperior + estado.getMargen();
+                    exacta = true;
+                    if (conMargen < cotasInferiores[base + c]
+                            || conMargen < 0.5f * entreCentroides[asignado * k + c]) continue;
+                }
 
-        for (int j = 0; j < respuestas.size(); ++j) {
-            clusters.get(asignaciones.get(j)).add(respuestas.get(j));
-        }
+                float distancia = estado.distancia(i, c);
+                cotasInferiores[base + c] = distancia;
+                //en caso de empate se queda el centroide de menor índice, como en KMeans
+                if (distancia < cotaSuperior || (distancia == cotaSuperior && c < asignado)) {
+                    cotaSuperior = distancia;
+                    conMargen = distancia + estado.getMargen();
+                    asignado = c;
+                }
+            }
 
-        return clusters;
+            cotasSuperiores[i] = cotaSuperior;
+            if (asignado != asignaciones[i]) ++reasignadas;
+            asignaciones[i] = asignado;
+        }
+        return reasignadas;
     }
 }
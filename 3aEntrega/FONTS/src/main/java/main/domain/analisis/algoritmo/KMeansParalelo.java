@@ -0,0 +1,302 @@
+package main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.CentroidesIncrementales;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+import main.domain.types.InterfazAcumuladorCentroide;
+import main.domain.types.TDatos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Implementación de {@link InterfazAlgoritmo} con el algoritmo de clustering K-Means (Lloyd) en paralelo.
+ * <p>
+ * En cada iteración las respuestas se reparten en bloques de filas consecutivas que se procesan en un
+ * {@link ForkJoinPool}: cada bloque asigna sus respuestas al centroide más cercano y acumula sus propios
+ * centroides parciales. Los parciales se juntan en el orden de los bloques y dan los nuevos centroides.
+ * Los bloques no dependen del número de hilos y los acumuladores suman recuentos exactos, así que el
+ * resultado es el mismo que el de {@link KMeans} con cualquier paralelismo.
+ * </p>
+ * <p>
+ * Necesita tipos de datos con acumuladores de centroide; si no los hay, se ejecuta {@link KMeans} de forma
+ * secuencial.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class KMeansParalelo implements InterfazAlgoritmo<KMeansTipo>, InterfazAlgoritmoIterativo {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    //número de filas por bloque: fijo para que el resultado no dependa del número de hilos
+    private static final int FILAS_POR_BLOQUE = 512;
+
+    private final int paralelismo;
+    private final CriterioConvergencia criterio;
+    private int numIteraciones;
+    private float desplazamientoFinal = Float.NaN;
+    private boolean convergido;
+    private ArrayList<RespuestaEncuesta> centros;
+
+    /**
+     * Constructora con un hilo por procesador disponible.
+     */
+    public KMeansParalelo() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructora con un número de hilos dado.
+     * @param paralelismo Número de hilos que se usan en cada iteración.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public KMeansParalelo(int paralelismo) {
+        this(paralelismo, CriterioConvergencia.POR_DEFECTO);
+    }
+
+    /**
+     * Constructora con un número de hilos y un criterio de convergencia dados.
+     * @param paralelismo Número de hilos que se usan en cada iteración.
+     * @param criterio Criterio de parada.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public KMeansParalelo(int paralelismo, CriterioConvergencia criterio) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+        this.paralelismo = paralelismo;
+        this.criterio = criterio;
+    }
+
+    /**
+     * Devuelve el número de hilos que se usan en cada iteración.
+     * @return Paralelismo del algoritmo.
+     */
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    /**
+     * Devuelve un KMeansParalelo independiente con la misma configuración, para ejecutarlo a la vez que este.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMeansParalelo conSemilla(long semilla) {
+        return new KMeansParalelo(paralelismo, criterio);
+    }
+
+    /**
+     * Devuelve un KMeansParalelo de un solo hilo con el mismo criterio.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMeansParalelo conSemillaSecuencial(long semilla) {
+        return new KMeansParalelo(1, criterio);
+    }
+
+    /**
+     * Devuelve el número de iteraciones (asignaciones de todas las respuestas) de la última llamada a {@link #analizar}.
+     * @return Número de iteraciones.
+     */
+    @Override
+    public int getNumIteraciones() {
+        return numIteraciones;
+    }
+
+    @Override
+    public CriterioConvergencia getCriterio() {
+        return criterio;
+    }
+
+    @Override
+    public float getDesplazamientoFinal() {
+        return desplazamientoFinal;
+    }
+
+    @Override
+    public boolean haConvergido() {
+        return convergido;
+    }
+
+    /**
+     * Devuelve los centroides de los clusters de la última llamada a {@link #analizar}, si acabó con ellos
+     * recalculados o sin reasignaciones.
+     * @return Centroide de cada cluster, o {@code null} si la última asignación los dejó desfasados.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
+
+    /**
+     * Aplica el algoritmo de clustering K-Means sobre un conjunto de respuestas a una encuesta,
+     * repartiendo el trabajo de cada iteración entre varios hilos.
+     * <p>
+     * La condición de convergencia es la de su {@link CriterioConvergencia}; por defecto, que ninguna respuesta
+     * cambie de cluster, con un máximo de iteraciones.
+     * </p>
+     *
+     * @param centroides Centroides iniciales. Debe contener {@code k} elementos.
+     * @param respuestas Las respuestas que se quieren agrupar.
+     * @param k          Número de clusters deseados
+     * @param comp       Comparador a usar para el cálculo de distancias y centroides
+     * @return Devuelve un {@link ArrayList} con {@code k} clusters, donde cada cluster es a su vez un
+     *  {@link ArrayList} de {@link RespuestaEncuesta}.
+     * @throws NoHayRespuestasParaAnalizar si {@code respuestas} es vacío.
+     * @throws KMenorQueUno si {@code k} es menor a 1.
+     */
+    @Override
+    public ArrayList<ArrayList<RespuestaEncuesta>> analizar(
+            ArrayList<RespuestaEncuesta> centroides,
+            ArrayList<RespuestaEncuesta> respuestas,
+            Integer k,
+            Comparador comp
+    ) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
+
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        TDatos[][] datos = CentroidesIncrementales.datosPorFila(puntos.getRespuestas());
+        if (datos == null) {
+            KMeans secuencial = new KMeans(criterio);
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = secuencial.analizar(centroides, respuestas, k, comp);
+            numIteraciones = secuencial.getNumIteraciones();
+            desplazamientoFinal = secuencial.getDesplazamientoFinal();
+            convergido = secuencial.haConvergido();
+            centros = secuencial.getCentros();
+            return clusters;
+        }
+
+        try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+            return analizar(centroides, puntos, datos, k, pool);
+        }
+    }
+
+    private ArrayList<ArrayList<RespuestaEncuesta>> analizar(
+            ArrayList<RespuestaEncuesta> centroides,
+            RespuestasIndexadas puntos,
+            TDatos[][] datos,
+            int k,
+            ForkJoinPool pool
+    ) {
+        int n = puntos.getNumRespuestas();
+        int[] asignaciones = new int[n];
+        Arrays.fill(asignaciones, -1);
+        int numBloques = (n + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+        Convergencia convergencia = new Convergencia(criterio, n);
+        RespuestasIndexadas centros = puntos.codificar(centroides);
+
+        while (true) {
+            RespuestasIndexadas actuales = centros;
+            List<Callable<Parcial>> tareas = new ArrayList<>(numBloques);
+            for (int b = 0; b < numBloques; ++b) {
+                int desde = b * FILAS_POR_BLOQUE;
+                int hasta = Math.min(n, desde + FILAS_POR_BLOQUE);
+                tareas.add(() -> procesarBloque(puntos, actuales, datos, asignaciones, desde, hasta, k));
+            }
+
+            //los parciales se juntan siempre en el orden de los bloques
+            Parcial total = null;
+            for (Future<Parcial> parcial : pool.invokeAll(tareas)) {
+                if (total == null) total = obtener(parcial);
+                else total.combinar(obtener(parcial));
+            }
+            if (convergencia.terminaTrasAsignar(total.reasignadas)) break;
+
+            ArrayList<RespuestaEncuesta> nuevosCentroides = new ArrayList<>();
+            for (int c = 0; c < k; ++c) {
+                if (total.primero[c] < 0) nuevosCentroides.add(centroides.get(c));
+                else nuevosCentroides.add(
+                        CentroidesIncrementales.construirCentroide(total.acumuladores[c], datos[total.primero[c]]));
+            }
+
+            RespuestasIndexadas nuevosCentros = puntos.codificar(nuevosCentroides);
+            //los centroides de clusters sin cambios se reconstruyen igual: se comparan por distancia
+            float desplazamiento = 0.f;
+            for (int c = 0; c < k; ++c) {
+                if (nuevosCentroides.get(c) != centroides.get(c)) desplazamiento = Math.max(desplazamiento, centros.distancia(c, nuevosCentros, c));
+            }
+            centroides = nuevosCentroides;
+            centros = nuevosCentros;
+            if (convergencia.terminaTrasRecalcular(desplazamiento)) break;
+        }
+        numIteraciones = convergencia.getNumIteraciones();
+        desplazamientoFinal = convergencia.getDesplazamiento();
+        convergido = convergencia.haConvergido();
+        this.centros = convergencia.centroidesAlDia() ? centroides : null;
+
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>(k);
+        for (int c = 0; c < k; ++c) clusters.add(new ArrayList<>());
+        for (int i = 0; i < n; ++i) clusters.get(asignaciones[i]).add(puntos.getRespuesta(i));
+        return clusters;
+    }
+
+    private static Parcial procesarBloque(RespuestasIndexadas puntos, RespuestasIndexadas centros, TDatos[][] datos,
+                                          int[] asignaciones, int desde, int hasta, int k) {
+        Parcial parcial = new Parcial(datos[0], k);
+        for (int i = desde; i < hasta; ++i) {
+            int c = KMeans.centroMasCercano(puntos, i, centros, k, null, null);
+            if (c != asignaciones[i]) ++parcial.reasignadas;
+            asignaciones[i] = c;
+            parcial.anadir(i, datos[i], c);
+        }
+        return parcial;
+    }
+
+    private static Parcial obtener(Future<Parcial> futuro) {
+        try {
+            return futuro.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //centroides parciales de un bloque de filas: acumuladores y primera fila de cada cluster
+    private static final class Parcial {
+        final InterfazAcumuladorCentroide[][] acumuladores;
+        final int[] primero;
+        int reasignadas;
+
+        Parcial(TDatos[] plantilla, int k) {
+            acumuladores = new InterfazAcumuladorCentroide[k][];
+            primero = new int[k];
+            for (int c = 0; c < k; ++c) {
+                acumuladores[c] = CentroidesIncrementales.crearAcumuladores(plantilla);
+                primero[c] = -1;
+            }
+        }
+
+        void anadir(int fila, TDatos[] datos, int c) {
+            for (int q = 0; q < datos.length; ++q) acumuladores[c][q].anadir(datos[q]);
+            if (primero[c] < 0) primero[c] = fila;
+        }
+
+        //los bloques se combinan en orden, así que la primera fila es la del primer bloque que la tenga
+        void combinar(Parcial otro) {
+            reasignadas += otro.reasignadas;
+            for (int c = 0; c < acumuladores.length; ++c) {
+                if (otro.primero[c] < 0) continue;
+                for (int q = 0; q < acumuladores[c].length; ++q) acumuladores[c][q].combinar(otro.acumuladores[c][q]);
+                if (primero[c] < 0) primero[c] = otro.primero[c];
+            }
+        }
+    }
+}
@@ -2,8 +2,16 @@ package main.domain.analisis.algoritmo;
 
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.ParalelismoMenorQueUno;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Implementación de {@link InterfazAlgoritmo} con el algoritmo K-Medoids para el análisis de respuestas.
@@ -11,129 +19,263 @@ import java.util.ArrayList;
  */
 public class KMedoids implements InterfazAlgoritmo<KMedoidsTipo> {
 
+    // Mejoras mas pequenas que esto se consideran errores de redondeo (las distancias estan en [0, 1])
+    private static final double EPSILON = 1e-7;
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    // Candidatos evaluados a la vez por cada hilo en el modo paralelo
+    private static final int CANDIDATOS_POR_HILO = 4;
+
+    private final int paralelismo;
+    private int numIntercambios;
+    private DistanciasAsignacion distanciasAsignacion;
+    private ArrayList<RespuestaEncuesta> centros;
+
     /**
-     * Constructor por defecto de la clase KMedoids.
+     * Constructor por defecto de la clase KMedoids, que evalúa los intercambios en un solo hilo.
      */
-    public KMedoids() {}
-
-    private ArrayList<ArrayList<RespuestaEncuesta>> construirClusters (ArrayList<RespuestaEncuesta> medoids, ArrayList<RespuestaEncuesta> respuestas, Comparador comp) {
-        // Inicializar lista de clusters
-        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
-        for (int i = 0; i < medoids.size(); i++) clusters.add(new ArrayList<>());
-
-        for (RespuestaEncuesta respuesta: respuestas) {
-            // Para cada respuesta, encontrar el indice del medoid más cercano, que corresponde al cluster que se le asignara
-            int indiceMedoidMasCercano = 0;
-            float distanciaMinima = Float.MAX_VALUE;
-
-            for (RespuestaEncuesta medoid: medoids) {
-                int idx = medoids.indexOf(medoid);
-                float distancia = comp.getDistancia(respuesta, medoid);
-                if (distancia < distanciaMinima) {
-                    distanciaMinima = distancia;
-                    indiceMedoidMasCercano = idx;
-                }
-            }
+    public KMedoids() {
+        this.paralelismo = 1;
+    }
 
-            clusters.get(indiceMedoidMasCercano).add(respuesta);
-        }
+    /**
+     * Constructor con el número de hilos que evalúan los candidatos a intercambio.
+     * El resultado es el mismo que con un solo hilo.
+     * @param paralelismo Número de hilos.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public KMedoids(int paralelismo) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+        this.paralelismo = paralelismo;
+    }
 
-        return clusters;
+    /**
+     * Devuelve el número de hilos que evalúan los candidatos a intercambio.
+     * @return Paralelismo del algoritmo.
+     */
+    public int getParalelismo() {
+        return paralelismo;
     }
 
-    private void actualizaCercanos (ArrayList<RespuestaEncuesta> respuestas, ArrayList<RespuestaEncuesta> medoids, Comparador comp, int[] indicesMedoidMasCercano, float[] distanciaMasCercana, float[] segundaDistanciaMasCercana, int n) {
-        // Este helper simplemente actualiza los arrays de distancias mas cercanas y segundas distancias mas cercanas, implementacion "trivial"
-        for (int i = 0; i < n; i++) {
-            distanciaMasCercana[i] = Float.MAX_VALUE;
-            segundaDistanciaMasCercana[i] = Float.MAX_VALUE;
-
-            RespuestaEncuesta r = respuestas.get(i);
-            for (RespuestaEncuesta m : medoids) {
-                float distancia = comp.getDistancia(r, m);
-                if (distancia < distanciaMasCercana[i]) {
-                    segundaDistanciaMasCercana[i] = distanciaMasCercana[i];
-                    distanciaMasCercana[i] = distancia;
-                    indicesMedoidMasCercano[i] = medoids.indexOf(m);
-                } else if (distancia < segundaDistanciaMasCercana[i]) {
-                    segundaDistanciaMasCercana[i] = distancia;
-                }
-            }
-        }
+    /**
+     * Devuelve el número de intercambios de medoids hechos en la última llamada a {@link #analizar}.
+     * @return Número de intercambios.
+     */
+    public int getNumIntercambios() {
+        return numIntercambios;
+    }
+
+    /**
+     * Devuelve las distancias de cada respuesta a su medoid y al segundo medoid más cercano en la última llamada
+     * a {@link #analizar}, que FasterPAM mantiene durante los intercambios.
+     * @return Distancias de la asignación final, o {@code null} si no se ha analizado.
+     */
+    @Override
+    public DistanciasAsignacion getDistanciasAsignacion() {
+        return distanciasAsignacion;
+    }
+
+    /**
+     * Devuelve los medoids finales de la última llamada a {@link #analizar}.
+     * @return Medoid de cada cluster, o {@code null} si no se ha analizado.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> getCentros() {
+        return centros;
+    }
+
+    /**
+     * Devuelve un KMedoids independiente con la misma configuración, para ejecutarlo a la vez que este.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMedoids conSemilla(long semilla) {
+        return new KMedoids(paralelismo);
+    }
+
+    /**
+     * Devuelve un KMedoids que evalúa los intercambios en un solo hilo.
+     * @param semilla Semilla (no se usa: el algoritmo es determinista).
+     * @return Nueva instancia.
+     */
+    @Override
+    public KMedoids conSemillaSecuencial(long semilla) {
+        return new KMedoids();
     }
 
     /**
      * Analiza las respuestas utilizando el algoritmo K-Medoids.
-     * Utiliza la versión rápida Partitioning Around Medoids (FasterPAM) para agrupar respuestas en clusters basados en medoids.
-     * Su complejidad temporal es de O(nk) en el caso promedio y O(n²k²) en el peor caso.
-     * @param medoids Conjunto de medoids del inicializador Greedy en ArrayList.
+     * Utiliza la versión rápida Partitioning Around Medoids (FasterPAM) para agrupar respuestas en clusters basados en medoids:
+     * cada candidato se evalúa contra todos los medoids a la vez en una sola pasada O(n) con las pérdidas por quitar
+     * cada medoid, y el primer intercambio que mejora se aplica enseguida actualizando el medoid más cercano y el
+     * segundo más cercano de cada respuesta. Una pasada completa por los candidatos cuesta O(n²) distancias.
+     * Las distancias se calculan por índice; si las respuestas están compiladas, se leen de la matriz precalculada.
+     * @param medoids Conjunto de medoids del inicializador Greedy en ArrayList. Deben ser respuestas del conjunto;
+     *                al acabar contiene los medoids finales.
      * @param respuestas Conjunto de respuestas a analizar en ArrayList.
      * @param k Número de clusters a formar.
      * @param comp Comparador utilizado para calcular distancias entre respuestas.
      * @return Lista de clusters, donde cada cluster es una lista de respuestas asignadas a ese cluster en un ArrayList de ArrayList.
+     * @throws IllegalArgumentException si algún medoid no está entre las respuestas.
      */
     @Override
     public ArrayList<ArrayList<RespuestaEncuesta>> analizar(ArrayList<RespuestaEncuesta> medoids, ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
-        // Partitioning Around Medoids version rapida (FasterPAM)
-
-        // Inicializaciones
-        int n = respuestas.size();
-        int[] indicesMedoidMasCercano = new int[n];
-        float[] distanciaMasCercana = new float[n];
-        float[] segundaDistanciaMasCercana = new float[n];
-        actualizaCercanos(respuestas, medoids, comp, indicesMedoidMasCercano, distanciaMasCercana, segundaDistanciaMasCercana, n);
-        boolean cambiado = true;
-
-        // Basicamente la idea de esta optimizacion es en vez de recalcular el coste total todo el rato,
-        // mantenemos "caches" de las distancias mas cercanas y segundas distancias mas cercanas cambiando
-        // el coste de forma incremental.
-
-        while (cambiado) {
-            cambiado = false;
-
-            int mejorIndiceMedoid = -1;
-            int mejorIndiceCandidato = -1;
-            float mejoraActual = 0.0f;
-
-            // En esta version se usan indices ya que el caching es de indices
-            for (int r = 0; r < n; r++) {
-                RespuestaEncuesta candidato = respuestas.get(r);
-                if (medoids.contains(candidato)) continue; // Saltar si r ya es un medoid
-
-                // Intenta intercambiar cada medoid con el candidato
-                for (int m = 0; m < medoids.size(); m++) {
-                    float mejora = 0.0f;
-
-                    for (int i = 0; i < n; i++) {
-                        float distanciaVieja = distanciaMasCercana[i];
-                        float distanciaACandidato = comp.getDistancia(respuestas.get(i), candidato);
-
-                        float nuevaDistancia;
-                        if (indicesMedoidMasCercano[i] == m) {
-                            nuevaDistancia = Math.min(distanciaACandidato, segundaDistanciaMasCercana[i]);
-                            mejora += (distanciaVieja - nuevaDistancia);
-                        } else {
-                            nuevaDistancia = Math.min(distanciaVieja, distanciaACandidato);
-                            mejora += (distanciaVieja - nuevaDistancia);
-                        }
-                    }
-
-                    if (mejora > mejoraActual) {
-                        mejoraActual = mejora;
-                        mejorIndiceMedoid = m;
-                        mejorIndiceCandidato = r;
-                    }
+        // Se trabaja solo con indices; si las respuestas estan compiladas, con distancias precalculadas
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        puntos.precalcularDistancias();
+
+        int[] indicesMedoids = CercanosMedoids.indices(medoids, puntos);
+        CercanosMedoids cercanos = new CercanosMedoids(indicesMedoids, puntos.getNumRespuestas(), puntos::distancia);
+        fasterPAM(cercanos);
+
+        for (int m = 0; m < indicesMedoids.length; m++) medoids.set(m, puntos.getRespuesta(indicesMedoids[m]));
+        centros = new ArrayList<>(medoids);
+        distanciasAsignacion = new DistanciasAsignacion(cercanos.distanciaMasCercana.clone(), cercanos.segundaDistanciaMasCercana.clone());
+        // Los clusters finales salen directamente de los caches del medoid mas cercano
+        return cercanos.clusters(puntos::getRespuesta);
+    }
+
+    /**
+     * Fase de intercambios de FasterPAM sobre unos medoids ya inicializados.
+     * <p>
+     * Con más de un hilo, se evalúan en paralelo bloques de candidatos consecutivos contra los cercanos actuales
+     * y se aplica el primer intercambio que mejora en el orden de los candidatos; los candidatos posteriores del
+     * bloque se descartan y se vuelven a evaluar con los cercanos nuevos. Cada candidato se evalúa igual que en
+     * secuencial, así que los intercambios y el resultado son exactamente los mismos.
+     * </p>
+     * @param cercanos Medoids y cercanos de cada respuesta; se actualizan con los intercambios.
+     */
+    void fasterPAM(CercanosMedoids cercanos) {
+        numIntercambios = 0;
+        if (paralelismo == 1) {
+            fasterPAM(cercanos, null);
+            return;
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+            fasterPAM(cercanos, pool);
+        }
+    }
+
+    private void fasterPAM(CercanosMedoids cercanos, ForkJoinPool pool) {
+        int n = cercanos.getNumRespuestas();
+        int k = cercanos.medoids.length;
+        boolean[] esMedoid = new boolean[n];
+        for (int m : cercanos.medoids) esMedoid[m] = true;
+
+        // perdidaPorQuitar[m]: cuanto empeora el coste total si se quita el medoid m sin poner otro
+        double[] perdidaPorQuitar = new double[k];
+        calcularPerdidaPorQuitar(perdidaPorQuitar, cercanos);
+        int tamBloque = (pool == null) ? 1 : paralelismo * CANDIDATOS_POR_HILO;
+        Intercambio[] bloque = new Intercambio[tamBloque];
+        for (int b = 0; b < tamBloque; b++) bloque[b] = new Intercambio(k);
+        List<Callable<Intercambio>> tareas = new ArrayList<>(tamBloque);
+
+        // Se recorren los candidatos de forma ciclica hasta dar una vuelta entera sin intercambios
+        int candidatosSinMejora = 0;
+        int c = 0;
+        while (candidatosSinMejora < n) {
+            int tam = Math.min(tamBloque, n - candidatosSinMejora);
+            if (pool == null) {
+                if (!esMedoid[c]) bloque[0].evaluar(cercanos, c, perdidaPorQuitar);
+            }
+            else {
+                tareas.clear();
+                for (int b = 0; b < tam; b++) {
+                    int candidato = (c + b) % n;
+                    if (esMedoid[candidato]) continue;
+                    Intercambio intercambio = bloque[b];
+                    tareas.add(() -> intercambio.evaluar(cercanos, candidato, perdidaPorQuitar));
                 }
+                for (Future<Intercambio> tarea : pool.invokeAll(tareas)) obtener(tarea);
             }
 
-            if (mejoraActual > 0.0f) {
-                medoids.set(mejorIndiceMedoid, respuestas.get(mejorIndiceCandidato));
-                // Recomputar los caches de distancias
-                actualizaCercanos(respuestas, medoids, comp, indicesMedoidMasCercano, distanciaMasCercana, segundaDistanciaMasCercana, n);
-                cambiado = true;
+            // Los candidatos del bloque se miran en orden, como si se hubieran evaluado uno a uno
+            int siguiente = (c + tam) % n;
+            for (int b = 0; b < tam; b++) {
+                int candidato = (c + b) % n;
+                candidatosSinMejora++;
+                if (esMedoid[candidato] || !bloque[b].mejora()) continue;
+                // Intercambio inmediato (eager) y actualizacion incremental de los caches
+                int mejor = bloque[b].mejor;
+                esMedoid[cercanos.medoids[mejor]] = false;
+                esMedoid[candidato] = true;
+                cercanos.intercambiar(mejor, candidato);
+                calcularPerdidaPorQuitar(perdidaPorQuitar, cercanos);
+                numIntercambios++;
+                candidatosSinMejora = 0;
+                siguiente = (candidato + 1) % n;
+                break;
             }
+            c = siguiente;
         }
+    }
+
+    private static void calcularPerdidaPorQuitar(double[] perdidaPorQuitar, CercanosMedoids cercanos) {
+        Arrays.fill(perdidaPorQuitar, 0.0);
+        for (int o = 0; o < cercanos.getNumRespuestas(); o++) {
+            if (cercanos.segundo[o] < 0) continue;
+            perdidaPorQuitar[cercanos.masCercano[o]] += cercanos.segundaDistanciaMasCercana[o] - cercanos.distanciaMasCercana[o];
+        }
+    }
 
-        // Construir y devolver los clusters finales a partir de los medoids refinados
-        return construirClusters(medoids, respuestas, comp);
+    private static void obtener(Future<Intercambio> futuro) {
+        try {
+            futuro.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Mejor intercambio de un candidato por algun medoid; cada hilo usa su propio objeto
+    private static final class Intercambio {
+        final double[] delta;
+        int mejor;
+        double cambio;
+
+        Intercambio(int k) {
+            delta = new double[k];
+        }
+
+        boolean mejora() {
+            return cambio < -EPSILON;
+        }
+
+        Intercambio evaluar(CercanosMedoids cercanos, int c, double[] perdidaPorQuitar) {
+            int[] masCercano = cercanos.masCercano;
+            int[] segundo = cercanos.segundo;
+            float[] distanciaMasCercana = cercanos.distanciaMasCercana;
+            float[] segundaDistanciaMasCercana = cercanos.segundaDistanciaMasCercana;
+
+            // Una sola pasada calcula el cambio de coste de cambiar cualquier medoid por el candidato
+            System.arraycopy(perdidaPorQuitar, 0, delta, 0, delta.length);
+            double ganancia = 0.0;
+            for (int o = 0; o < masCercano.length; o++) {
+                float d = cercanos.distancia(o, c);
+                if (segundo[o] < 0) {
+                    // con un solo medoid, quitarlo lleva todas las respuestas al candidato
+                    delta[masCercano[o]] += d - distanciaMasCercana[o];
+                }
+                else if (d < distanciaMasCercana[o]) {
+                    // o pasa al candidato; si se quita su medoid, ya no va al segundo sino al candidato
+                    ganancia += d - distanciaMasCercana[o];
+                    delta[masCercano[o]] += distanciaMasCercana[o] - segundaDistanciaMasCercana[o];
+                }
+                else if (d < segundaDistanciaMasCercana[o]) {
+                    // si se quita su medoid, o va al candidato en vez de al segundo
+                    delta[masCercano[o]] += d - segundaDistanciaMasCercana[o];
+                }
+            }
+
+            mejor = 0;
+            for (int m = 1; m < delta.length; m++) if (delta[m] < delta[mejor]) mejor = m;
+            cambio = delta[mejor] + ganancia;
+            return this;
+        }
     }
 }
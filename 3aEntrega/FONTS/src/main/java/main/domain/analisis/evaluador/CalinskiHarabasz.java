@@ -2,8 +2,10 @@ package main.domain.analisis.evaluador;
 
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Implementación de {@link InterfazEvaluadorCalidad} con el índice de Calinski-Harabasz.
@@ -22,36 +24,39 @@ public class CalinskiHarabasz implements InterfazEvaluadorCalidad {
      * @return Un valor positivo comenzando desde el 0. Un valor más alto indica un mejor agrupamiento.
      */
     @Override
-    public Float evaluarCalidad(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
-        clusters.removeIf(ArrayList::isEmpty);
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        //los clusters vacíos no cuentan; la lista recibida no se modifica
+        clusters = new ArrayList<>(clusters);
+        clusters.removeIf(List::isEmpty);
         int k = clusters.size();
-        int n = clusters.stream().mapToInt(ArrayList::size).sum();
+        int n = clusters.stream().mapToInt(List::size).sum();
 
         if (k < 2 || n <= k) return 0.f; // evitar divisiones inválidas
 
         // Calcular centroide global
         ArrayList<RespuestaEncuesta> todo = new ArrayList<>();
-        for (ArrayList<RespuestaEncuesta> cluster : clusters) todo.addAll(cluster);
+        for (List<RespuestaEncuesta> cluster : clusters) todo.addAll(cluster);
 
         RespuestaEncuesta cg = comp.calcularNuevoCentroide(todo);
 
-        Float wcss = 0.f;
-        Float bcss = 0.f;
-
-        for (ArrayList<RespuestaEncuesta> cluster : clusters) {
-            // Centroide del cluster
-
-            RespuestaEncuesta ci = comp.calcularNuevoCentroide(cluster);
+        ArrayList<RespuestaEncuesta> centroides = new ArrayList<>();
+        for (List<RespuestaEncuesta> cluster : clusters) centroides.add(comp.calcularNuevoCentroide(cluster));
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        RespuestasIndexadas centros = puntos.codificar(centroides);
+        RespuestasIndexadas global = puntos.codificar(List.of(cg));
+        int[][] indices = puntos.getIndicesClusters();
 
+        float wcss = 0.f;
+        float bcss = 0.f;
+        for (int c = 0; c < indices.length; ++c) {
             // WCSS
-            for (RespuestaEncuesta punto : cluster) {
-                Float distancia = comp.getDistancia(punto, ci);
+            for (int punto : indices[c]) {
+                float distancia = puntos.distancia(punto, centros, c);
                 wcss += distancia * distancia;
             }
-
             // BCSS
-            Float distanciaCentroide = comp.getDistancia(ci, cg);
-            bcss += cluster.size() * distanciaCentroide * distanciaCentroide;
+            float distanciaCentroide = centros.distancia(c, global, 0);
+            bcss += indices[c].length * distanciaCentroide * distanciaCentroide;
         }
 
         if (wcss == 0.f) return 0.f;
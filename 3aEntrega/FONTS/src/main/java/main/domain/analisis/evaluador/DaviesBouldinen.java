@@ -1,8 +1,10 @@
 package main.domain.analisis.evaluador;
 
 import java.util.ArrayList;
+import java.util.List;
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
 
 /**
  * Implementación de {@link InterfazEvaluadorCalidad} con el índice de Davies-Bouldin.
@@ -14,6 +16,15 @@ public class DaviesBouldinen implements InterfazEvaluadorCalidad {
      */
     public DaviesBouldinen() {}
 
+    /**
+     * En el índice de Davies-Bouldin los valores menores indican un mejor agrupamiento.
+     * @return {@code false}.
+     */
+    @Override
+    public boolean mayorEsMejor() {
+        return false;
+    }
+
     /**
      * Evalua la calidad del clustering con el índice de Davies-Bouldin.
      * @param clusters Grupos de respuestas.
@@ -22,59 +33,49 @@ public class DaviesBouldinen implements InterfazEvaluadorCalidad {
      * Los valores más cercanos al 0 indican un mejor agrupamiento.
      */
     @Override
-    public Float evaluarCalidad(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
-        clusters.removeIf(ArrayList::isEmpty);
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        //los clusters vacíos no cuentan; la lista recibida no se modifica
+        clusters = new ArrayList<>(clusters);
+        clusters.removeIf(List::isEmpty);
         int k = clusters.size();
         if (k < 2) return 0.f;
 
         // Calcular centroides
         ArrayList<RespuestaEncuesta> centroides = new ArrayList<>();
 
-        for (ArrayList<RespuestaEncuesta> cluster : clusters) {
+        for (List<RespuestaEncuesta> cluster : clusters) {
             RespuestaEncuesta c = comp.calcularNuevoCentroide(cluster);
             centroides.add(c);
         }
 
-        // Calcular dispersion de cada cluster
-        ArrayList<Float> dispersion = calcDispersion(clusters, centroides, k, comp);
-
-        // Calcular Rij y sumarlos
-        Float sumaTotal = calcSumaTotal(centroides, dispersion, k, comp);
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        RespuestasIndexadas centros = puntos.codificar(centroides);
+        int[][] indices = puntos.getIndicesClusters();
 
-        return sumaTotal / k;
-    }
-
-    private ArrayList<Float> calcDispersion(ArrayList<ArrayList<RespuestaEncuesta>> clusters,
-                                            ArrayList<RespuestaEncuesta> centroides, int k, Comparador comp) {
-        ArrayList<Float> dispersion = new ArrayList<>();
+        // Calcular dispersion de cada cluster
+        float[] dispersion = new float[k];
         for (int i = 0; i < k; i++) {
-            ArrayList<RespuestaEncuesta> cluster = clusters.get(i);
-            if (cluster.isEmpty()) dispersion.add(0.f);
-            else {
-                RespuestaEncuesta centroide = centroides.get(i);
-                Float suma = 0.f;
-                for (RespuestaEncuesta punto : cluster) suma += comp.getDistancia(punto, centroide);
-                dispersion.add(suma / cluster.size());
-            }
+            float suma = 0.f;
+            for (int punto : indices[i]) suma += puntos.distancia(punto, centros, i);
+            dispersion[i] = suma / indices[i].length;
         }
-        return dispersion;
-    }
 
-    private Float calcSumaTotal(ArrayList<RespuestaEncuesta> centroides, ArrayList<Float> dispersion, int k, Comparador comp) {
-        Float sumaTotal = 0.f;
+        // Calcular Rij y sumarlos
+        float sumaTotal = 0.f;
         for (int i = 0; i < k; i++) {
-            Float max = Float.NEGATIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
             for (int j = 0; j < k; j++) {
                 if (j != i) {
-                    Float mij = comp.getDistancia(centroides.get(i), centroides.get(j));
+                    float mij = centros.distancia(i, centros, j);
                     if (mij > 0.f) {
-                        Float rij = (dispersion.get(i) + dispersion.get(j)) / mij;
+                        float rij = (dispersion[i] + dispersion[j]) / mij;
                         max = Math.max(max, rij);
                     }
                 }
             }
             sumaTotal += max;
         }
-        return sumaTotal;
+
+        return sumaTotal / k;
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,9 @@ package main.domain.analisis.evaluador;
 
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
 
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Interfaz con la operación para evaluar la calidad de un clustering.
@@ -16,5 +17,37 @@ public interface InterfazEvaluadorCalidad {
      * @param comp Comparador para calcular distancias.
      * @return Valor que representa la calidad del clustering.
      */
-    public Float evaluarCalidad(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp);
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp);
+
+    /**
+     * Método que evalua la calidad de un clustering con las distancias de la asignación final del algoritmo que lo
+     * ha generado. Por defecto no las usa y equivale a {@link #evaluar(List, Comparador)}.
+     * @param clusters Grupos de respuestas.
+     * @param comp Comparador para calcular distancias.
+     * @param distancias Distancias de la asignación final (ver {@link main.domain.analisis.algoritmo.InterfazAlgoritmo#getDistanciasAsignacion()}),
+     *                   en el orden de las respuestas compiladas en {@code comp}; puede ser {@code null}.
+     * @return Valor que representa la calidad del clustering.
+     */
+    public default float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp, DistanciasAsignacion distancias) {
+        return evaluar(clusters, comp);
+    }
+
+    /**
+     * Método que evalua la calidad de un clustering, como objeto.
+     * Equivale a {@link #evaluar(List, Comparador)}.
+     * @param clusters Grupos de respuestas.
+     * @param comp Comparador para calcular distancias.
+     * @return Valor que representa la calidad del clustering.
+     */
+    public default Float evaluarCalidad(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        return evaluar(clusters, comp);
+    }
+
+    /**
+     * Indica el sentido del valor de calidad, para poder comparar varios clusterings.
+     * @return {@code true} si un valor mayor indica un mejor clustering.
+     */
+    public default boolean mayorEsMejor() {
+        return true;
+    }
 }
@@ -0,0 +1,197 @@
+package main.domain.analisis.evaluador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+
+/**
+ * Medidas de calidad de un clustering calculadas en una sola pasada: WCSS, BCSS, dispersión de cada cluster,
+ * índices de Calinski-Harabasz y Davies-Bouldin y coeficiente de Silhouette simplificado.
+ * <p>
+ * {@link CalinskiHarabasz}, {@link DaviesBouldinen} y {@link SilhouetteSimplificada} calculan cada uno los
+ * centroides y las distancias de cada respuesta a ellos. Aquí se calculan una vez, o se reutilizan los centros y
+ * las distancias de la asignación que da el algoritmo: cada respuesta se visita una sola vez y de su distancia al
+ * centro propio salen la WCSS, la dispersión y a(i), y de la distancia al otro centro más cercano, b(i).
+ * </p>
+ * <p>
+ * Con los centroides, los valores son los de los evaluadores por separado salvo redondeo. Con otros centros (por
+ * ejemplo, los medoids de {@link main.domain.analisis.algoritmo.KMedoids}) las medidas se refieren a ellos.
+ * Los clusters vacíos no cuentan para ninguna medida.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class MedidasCalidad {
+
+    private final double wcss;
+    private final double bcss;
+    private final float[] dispersiones;
+    private final float calinskiHarabasz;
+    private final float daviesBouldin;
+    private final float silhouetteSimplificada;
+
+    private MedidasCalidad(double wcss, double bcss, float[] dispersiones, float calinskiHarabasz,
+                           float daviesBouldin, float silhouetteSimplificada) {
+        this.wcss = wcss;
+        this.bcss = bcss;
+        this.dispersiones = dispersiones;
+        this.calinskiHarabasz = calinskiHarabasz;
+        this.daviesBouldin = daviesBouldin;
+        this.silhouetteSimplificada = silhouetteSimplificada;
+    }
+
+    /**
+     * Calcula todas las medidas de un clustering.
+     * @param clusters Grupos de respuestas; no se modifican.
+     * @param centros Centro de cada cluster en el mismo orden (ver {@link main.domain.analisis.algoritmo.InterfazAlgoritmo#getCentros()}),
+     *                o {@code null} para usar los centroides.
+     * @param comp Comparador para calcular distancias y centroides.
+     * @param distancias Distancias de la asignación final a esos centros, en el orden de las respuestas compiladas
+     *                   en {@code comp}, o {@code null} para calcularlas.
+     * @return Medidas del clustering.
+     */
+    public static MedidasCalidad calcular(List<? extends List<RespuestaEncuesta>> clusters, List<RespuestaEncuesta> centros,
+                                          Comparador comp, DistanciasAsignacion distancias) {
+        int k = clusters.size();
+        if (centros == null || centros.size() != k) {
+            centros = new ArrayList<>(k);
+            for (List<RespuestaEncuesta> cluster : clusters) centros.add(cluster.isEmpty() ? null : comp.calcularNuevoCentroide(cluster));
+            //unas distancias de otros centros no sirven para los centroides recalculados
+            distancias = null;
+        }
+
+        //solo cuentan los clusters no vacíos; usados[p] es el centro del p-ésimo
+        ArrayList<RespuestaEncuesta> usados = new ArrayList<>(k);
+        ArrayList<RespuestaEncuesta> todas = new ArrayList<>();
+        int[] posicion = new int[k];
+        for (int c = 0; c < k; ++c) {
+            posicion[c] = clusters.get(c).isEmpty() ? -1 : usados.size();
+            if (posicion[c] >= 0) usados.add(centros.get(c));
+            todas.addAll(clusters.get(c));
+        }
+        int m = usados.size();
+        int n = todas.size();
+        if (n == 0) return new MedidasCalidad(0.0, 0.0, new float[k], 0.f, 0.f, Float.NaN);
+        RespuestaEncuesta global = comp.calcularNuevoCentroide(todas);
+
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        int[][] indices = puntos.getIndicesClusters();
+        //las distancias del algoritmo son por posición en las respuestas analizadas, que son las compiladas
+        if (!puntos.estaCompilado() || (distancias != null && distancias.getNumRespuestas() != puntos.getNumRespuestas())) distancias = null;
+        //los centros y el centroide global se codifican juntos: el global va en la posición m
+        ArrayList<RespuestaEncuesta> aCodificar = new ArrayList<>(usados);
+        aCodificar.add(global);
+        RespuestasIndexadas codificados = puntos.codificar(aCodificar);
+
+        double wcss = 0.0;
+        double bcss = 0.0;
+        double sumaSilhouette = 0.0;
+        float[] dispersiones = new float[k];
+        float[] dispersionUsados = new float[m];
+        for (int c = 0; c < k; ++c) {
+            List<RespuestaEncuesta> cluster = clusters.get(c);
+            int p = posicion[c];
+            if (p < 0) continue;
+            double suma = 0.0;
+            for (int j = 0; j < cluster.size(); ++j) {
+                float a;
+                float b = Float.MAX_VALUE;
+                if (distancias != null) {
+                    a = distancias.getPropia(indices[c][j]);
+                    b = distancias.getOtra(indices[c][j]);
+                }
+                else {
+                    a = Float.NaN;
+                    for (int o = 0; o < m; ++o) {
+                        float d = puntos.distancia(indices[c][j], codificados, o);
+                        if (o == p) a = d;
+                        else b = Math.min(b, d);
+                    }
+                }
+                wcss += (double) a * a;
+                suma += a;
+                if (cluster.size() > 1) sumaSilhouette += s(a, b);
+            }
+            dispersiones[c] = dispersionUsados[p] = (float) (suma / cluster.size());
+            float distanciaGlobal = codificados.distancia(p, codificados, m);
+            bcss += (double) cluster.size() * distanciaGlobal * distanciaGlobal;
+        }
+
+        float calinskiHarabasz = (m < 2 || n <= m || wcss == 0.0) ? 0.f : (float) ((bcss / (m - 1)) / (wcss / (n - m)));
+        return new MedidasCalidad(wcss, bcss, dispersiones, calinskiHarabasz,
+                daviesBouldin(codificados, m, dispersionUsados), (float) (sumaSilhouette / n));
+    }
+
+    //mismo índice que DaviesBouldinen, con las dispersiones ya calculadas
+    private static float daviesBouldin(RespuestasIndexadas codificados, int m, float[] dispersiones) {
+        if (m < 2) return 0.f;
+        float sumaTotal = 0.f;
+        for (int i = 0; i < m; ++i) {
+            float max = Float.NEGATIVE_INFINITY;
+            for (int j = 0; j < m; ++j) {
+                if (j == i) continue;
+                float mij = codificados.distancia(i, codificados, j);
+                if (mij > 0.f) max = Math.max(max, (dispersiones[i] + dispersiones[j]) / mij);
+            }
+            sumaTotal += max;
+        }
+        return sumaTotal / m;
+    }
+
+    //s(i); si el punto coincide con los dos centros no está ni bien ni mal asignado
+    private static float s(float a, float b) {
+        float maximo = Math.max(a, b);
+        return (maximo == 0.f) ? 0.f : (b - a) / maximo;
+    }
+
+    /**
+     * Devuelve la suma de distancias al cuadrado de cada respuesta al centro de su cluster.
+     * @return WCSS.
+     */
+    public double getWCSS() {
+        return wcss;
+    }
+
+    /**
+     * Devuelve la suma, por cluster, del tamaño por la distancia al cuadrado de su centro al centroide global.
+     * @return BCSS.
+     */
+    public double getBCSS() {
+        return bcss;
+    }
+
+    /**
+     * Devuelve la distancia media de las respuestas de cada cluster a su centro.
+     * @return Dispersión de cada cluster, en el orden de los clusters; 0 en los vacíos.
+     */
+    public float[] getDispersiones() {
+        return dispersiones.clone();
+    }
+
+    /**
+     * Devuelve el índice de Calinski-Harabasz. Un valor más alto indica un mejor agrupamiento.
+     * @return Índice de Calinski-Harabasz; 0 si hay menos de dos clusters no vacíos.
+     */
+    public float getCalinskiHarabasz() {
+        return calinskiHarabasz;
+    }
+
+    /**
+     * Devuelve el índice de Davies-Bouldin. Los valores más cercanos al 0 indican un mejor agrupamiento.
+     * @return Índice de Davies-Bouldin; 0 si hay menos de dos clusters no vacíos.
+     */
+    public float getDaviesBouldin() {
+        return daviesBouldin;
+    }
+
+    /**
+     * Devuelve el coeficiente de Silhouette simplificado, como {@link SilhouetteSimplificada}.
+     * @return Un valor entre -1 y +1; {@code NaN} si no hay respuestas.
+     */
+    public float getSilhouetteSimplificada() {
+        return silhouetteSimplificada;
+    }
+}
@@ -1,18 +1,61 @@
 package main.domain.analisis.evaluador;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.ParalelismoMenorQueUno;
 
 /**
  * Implementación de {@link InterfazEvaluadorCalidad} con el coeficiente de Silhouette.
+ * <p>
+ * Los puntos se recorren en el orden de los clusters y se reparten en bloques entre {@code paralelismo} hilos.
+ * Para cada punto se acumula la suma de distancias a cada cluster, siempre en el orden de los miembros del
+ * cluster, así que el resultado es el mismo que el del cálculo secuencial punto a punto.
+ * </p>
+ * <p>
+ * Si las distancias están precalculadas (matriz compilada simétrica), se leen por teselas de bloques de
+ * puntos. Si no, cada par se calcula una sola vez y se suma a los dos puntos: las teselas se procesan por
+ * antidiagonales, que no comparten puntos y mantienen el orden de las sumas.
+ * </p>
  * @author Yimin Jin
  */
 public class Silhouette implements InterfazEvaluadorCalidad {
+
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    //número de puntos por bloque
+    private static final int PUNTOS_POR_BLOQUE = 64;
+
+    private final int paralelismo;
+
+    /**
+     * Constructor de la clase, con un hilo por procesador disponible.
+     */
+    public Silhouette() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
     /**
-     * Constructor de la clase.
+     * Constructor de la clase con un número de hilos.
+     * @param paralelismo Número de hilos entre los que se reparten los puntos.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
      */
-    public Silhouette() {}
+    public Silhouette(int paralelismo) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+        this.paralelismo = paralelismo;
+    }
+
+    /**
+     * Devuelve el número de hilos entre los que se reparten los puntos.
+     * @return Paralelismo.
+     */
+    public int getParalelismo() {
+        return paralelismo;
+    }
 
     /**
      * Evalua la calidad de un clustering con el coeficiente de Silhouette.
@@ -21,60 +64,113 @@ public class Silhouette implements InterfazEvaluadorCalidad {
      * @return Un valor entre -1 y +1. Cuanto más alto el valor, mejor agrupados están los clusters.
      */
     @Override
-    public Float evaluarCalidad(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        int k = clusters.size();
+        int[] tamanos = new int[k];
         int n = 0;
-        Float sumaTotal = 0.f;
-
-        for (int i = 0; i < clusters.size(); i++) {
-            ArrayList<RespuestaEncuesta> cluster = clusters.get(i);
-
-            // Calculamos solo si tiene mas de 1 elemento, si tiene solo 1 elemento s(i) valdra 0
-            if (cluster.size() > 1) {
-                for (int j = 0; j < cluster.size(); ++j) {
-                    RespuestaEncuesta punto = cluster.get(j);
+        for (int c = 0; c < k; ++c) {
+            tamanos[c] = clusters.get(c).size();
+            n += tamanos[c];
+        }
+        //cluster de cada punto, en el orden de los clusters
+        int[] clusterDe = new int[n];
+        for (int c = 0, g = 0; c < k; ++c) {
+            for (int r = 0; r < tamanos[c]; ++r) clusterDe[g++] = c;
+        }
+        //suma de distancias de cada punto g a cada cluster c en la posición g·k + c
+        float[] sumas = new float[n * k];
 
-                    // a(i)
-                    // Suma de las distancias entre puntos del mismo cluster
-                    Float a = calcA(cluster, punto, j, comp);
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        if (paralelismo == 1) sumar(puntos, clusterDe, sumas, k, null);
+        else {
+            try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                sumar(puntos, clusterDe, sumas, k, pool);
+            }
+        }
 
-                    // b(i)
-                    // Calcula el minimo de las medias de las distancias entre el punto y los puntos de otros clusters
-                    Float b = calcB(clusters, punto, i, comp);
+        float sumaTotal = 0.f;
+        for (int g = 0; g < n; ++g) {
+            int c = clusterDe[g];
+            // Si el cluster tiene solo 1 elemento s(i) vale 0
+            if (tamanos[c] <= 1) continue;
 
-                    // Calculamos s(i) y lo sumamos al total
-                    Float s = (b - a) / Math.max(a, b);
-                    sumaTotal += s;
-                }
+            // a(i): media de las distancias a los puntos del mismo cluster
+            float a = sumas[g * k + c] / (tamanos[c] - 1);
+            // b(i): mínimo de las medias de las distancias a los puntos de otro cluster no vacío
+            float b = Float.MAX_VALUE;
+            for (int o = 0; o < k; ++o) {
+                if (o != c && tamanos[o] > 0) b = Math.min(b, sumas[g * k + o] / tamanos[o]);
             }
-            n += cluster.size();
+            sumaTotal += (b - a) / Math.max(a, b);
         }
-
         return sumaTotal / n;
     }
 
-    private Float calcA(ArrayList<RespuestaEncuesta> cluster, RespuestaEncuesta punto, int j, Comparador comp) {
-        Float sumaCluster = 0.f;
-        for (int k = 0; k < cluster.size(); ++k) {
-            if (k != j) sumaCluster += comp.getDistancia(punto, cluster.get(k));
+    //rellena las sumas de distancias por punto y cluster
+    private static void sumar(RespuestasIndexadas puntos, int[] clusterDe, float[] sumas, int k, ForkJoinPool pool) {
+        int n = clusterDe.length;
+        int numBloques = (n + PUNTOS_POR_BLOQUE - 1) / PUNTOS_POR_BLOQUE;
+        //posición de cada punto, en el orden de los clusters
+        int[] filas = new int[n];
+        int[][] indices = puntos.getIndicesClusters();
+        for (int c = 0, g = 0; c < indices.length; ++c) {
+            for (int fila : indices[c]) filas[g++] = fila;
+        }
+        if (puntos.precalcularDistancias()) {
+            ejecutar(pool, numBloques, bloque -> sumarBloque(puntos, filas, clusterDe, sumas, k, bloque, numBloques));
+            return;
+        }
+
+        //la tesela (I, J) con I <= J va después de (I - 1, J) y de (I, J - 1): la antidiagonal I + J
+        for (int t = 0; t <= 2 * (numBloques - 1); ++t) {
+            int diagonal = t;
+            int desde = Math.max(0, t - (numBloques - 1));
+            ejecutar(pool, diagonal / 2 - desde + 1, i -> sumarTesela(puntos, filas, clusterDe, sumas, k, desde + i, diagonal - desde - i));
         }
-        Float a = sumaCluster / (cluster.size() - 1);
-        return a;
     }
 
-    private Float calcB(ArrayList<ArrayList<RespuestaEncuesta>> clusters, RespuestaEncuesta punto, int i, Comparador comp) {
-        Float b = Float.MAX_VALUE;
-        for (int k = 0; k < clusters.size(); ++k) {
-            if (k != i) {
-                ArrayList<RespuestaEncuesta> clusterDif = clusters.get(k);
-                Float sumaClusterDif = 0.f;
-                for (int l = 0; l < clusterDif.size(); ++l)
-                    sumaClusterDif += comp.getDistancia(punto, clusterDif.get(l));
-                // Division entre cero no por favor
-                if (clusterDif.size() > 0) {
-                    b = Math.min(b, sumaClusterDif / clusterDif.size());
+    private static void ejecutar(ForkJoinPool pool, int numTareas, IntConsumer tarea) {
+        if (pool == null) {
+            for (int i = 0; i < numTareas; ++i) tarea.accept(i);
+        }
+        else pool.submit(() -> IntStream.range(0, numTareas).parallel().forEach(tarea)).join();
+    }
+
+    //sumas de los puntos del bloque, leyendo las distancias por teselas de bloque × bloque
+    private static void sumarBloque(RespuestasIndexadas puntos, int[] filas, int[] clusterDe, float[] sumas, int k,
+                                    int bloque, int numBloques) {
+        int n = filas.length;
+        int desde = bloque * PUNTOS_POR_BLOQUE;
+        int hasta = Math.min(n, desde + PUNTOS_POR_BLOQUE);
+        for (int otro = 0; otro < numBloques; ++otro) {
+            int inicio = otro * PUNTOS_POR_BLOQUE;
+            int fin = Math.min(n, inicio + PUNTOS_POR_BLOQUE);
+            for (int g = desde; g < hasta; ++g) {
+                int base = g * k;
+                int fila = filas[g];
+                for (int h = inicio; h < fin; ++h) {
+                    if (h != g) sumas[base + clusterDe[h]] += puntos.distancia(fila, filas[h]);
                 }
             }
         }
-        return b;
+    }
+
+    //calcula una vez cada par de la tesela (I, J) y lo suma a los dos puntos
+    private static void sumarTesela(RespuestasIndexadas puntos, int[] filas, int[] clusterDe, float[] sumas, int k,
+                                    int bloqueI, int bloqueJ) {
+        int n = filas.length;
+        int desdeI = bloqueI * PUNTOS_POR_BLOQUE;
+        int hastaI = Math.min(n, desdeI + PUNTOS_POR_BLOQUE);
+        int hastaJ = Math.min(n, bloqueJ * PUNTOS_POR_BLOQUE + PUNTOS_POR_BLOQUE);
+        for (int g = desdeI; g < hastaI; ++g) {
+            int cg = clusterDe[g];
+            int base = g * k;
+            //en la diagonal, solo los pares con g < h
+            for (int h = (bloqueI == bloqueJ) ? g + 1 : bloqueJ * PUNTOS_POR_BLOQUE; h < hastaJ; ++h) {
+                float d = puntos.distancia(filas[g], filas[h]);
+                sumas[base + clusterDe[h]] += d;
+                sumas[h * k + cg] += d;
+            }
+        }
     }
 }
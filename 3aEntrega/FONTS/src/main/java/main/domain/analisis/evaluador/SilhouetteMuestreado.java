@@ -0,0 +1,254 @@
+package main.domain.analisis.evaluador;
+
+import java.util.List;
+import java.util.Random;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.exceptions.MuestraMenorQueUno;
+
+/**
+ * Implementación de {@link InterfazEvaluadorCalidad} que estima el coeficiente de Silhouette a partir de una muestra.
+ * <p>
+ * {@link Silhouette} calcula las distancias entre todos los pares de respuestas, O(n²). Este evaluador calcula
+ * s(i) solo para una muestra aleatoria estratificada por clusters, con un número de puntos de cada cluster
+ * proporcional a su tamaño (al menos dos). Para cada punto, a(i) y la media de distancias a cada otro cluster
+ * se calculan sobre como mucho {@code tamMuestraCluster} miembros escogidos al azar. El coste es
+ * O(tamMuestra·k·tamMuestraCluster) distancias, independiente de {@code n}.
+ * </p>
+ * <p>
+ * La estimación es la media de cada estrato ponderada por el tamaño del cluster (los clusters de un solo
+ * elemento aportan s(i) = 0 sin muestrearlos), y {@link #getIntervaloConfianza()} da su intervalo de confianza
+ * del 95 % con la aproximación normal. Si se fija un límite de tiempo, se deja de muestrear al superarlo y la
+ * estimación usa los puntos calculados hasta entonces.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class SilhouetteMuestreado implements InterfazEvaluadorCalidad {
+
+    private static final String textoMuestraMenor = "El tamaño de la muestra es menor que 1 o el límite de tiempo es negativo";
+    /**
+     * Número de puntos de la muestra de la constructora por defecto.
+     */
+    public static final int MUESTRA_POR_DEFECTO = 1000;
+    /**
+     * Número de miembros de cada cluster para las medias de la constructora por defecto.
+     */
+    public static final int MUESTRA_CLUSTER_POR_DEFECTO = 200;
+    //cuantil de la normal para el 95 %
+    private static final double Z = 1.96;
+    //puntos de cada cluster que se calculan aunque se haya superado el límite de tiempo
+    private static final int MINIMO_POR_CLUSTER = 2;
+
+    private final int tamMuestra;
+    private final int tamMuestraCluster;
+    private final long limiteMilis;
+    private final Random rand;
+    private float inferior = Float.NaN;
+    private float superior = Float.NaN;
+    private int numPuntos;
+
+    /**
+     * Constructora con 1000 puntos, 200 miembros por cluster para las medias, sin límite de tiempo y semilla aleatoria.
+     */
+    public SilhouetteMuestreado() {
+        this(MUESTRA_POR_DEFECTO, MUESTRA_CLUSTER_POR_DEFECTO, 0, new Random());
+    }
+
+    /**
+     * Constructora con el tamaño de las muestras y un límite de tiempo.
+     * @param tamMuestra Número de puntos para los que se calcula s(i).
+     * @param tamMuestraCluster Número de miembros de cada cluster con los que se calcula la media de distancias de un punto.
+     * @param limiteMilis Tiempo máximo de la evaluación en milisegundos; 0 para no limitarlo.
+     * @throws MuestraMenorQueUno si algún tamaño es menor que 1 o el límite es negativo.
+     */
+    public SilhouetteMuestreado(int tamMuestra, int tamMuestraCluster, long limiteMilis) {
+        this(tamMuestra, tamMuestraCluster, limiteMilis, new Random());
+        validar(tamMuestra, tamMuestraCluster, limiteMilis);
+    }
+
+    /**
+     * Constructora con el tamaño de las muestras, un límite de tiempo y una semilla.
+     * @param tamMuestra Número de puntos para los que se calcula s(i).
+     * @param tamMuestraCluster Número de miembros de cada cluster con los que se calcula la media de distancias de un punto.
+     * @param limiteMilis Tiempo máximo de la evaluación en milisegundos; 0 para no limitarlo.
+     * @param semilla Semilla de la elección de las muestras.
+     * @throws MuestraMenorQueUno si algún tamaño es menor que 1 o el límite es negativo.
+     */
+    public SilhouetteMuestreado(int tamMuestra, int tamMuestraCluster, long limiteMilis, long semilla) {
+        this(tamMuestra, tamMuestraCluster, limiteMilis, new Random(semilla));
+        validar(tamMuestra, tamMuestraCluster, limiteMilis);
+    }
+
+    private SilhouetteMuestreado(int tamMuestra, int tamMuestraCluster, long limiteMilis, Random rand) {
+        this.tamMuestra = tamMuestra;
+        this.tamMuestraCluster = tamMuestraCluster;
+        this.limiteMilis = limiteMilis;
+        this.rand = rand;
+    }
+
+    private static void validar(int tamMuestra, int tamMuestraCluster, long limiteMilis) {
+        if (tamMuestra < 1 || tamMuestraCluster < 1 || limiteMilis < 0) throw new MuestraMenorQueUno(textoMuestraMenor);
+    }
+
+    /**
+     * Devuelve el intervalo de confianza del 95 % de la última evaluación, acotado a [-1, 1].
+     * @return Extremos inferior y superior; {@code NaN} si no se ha evaluado.
+     */
+    public float[] getIntervaloConfianza() {
+        return new float[]{inferior, superior};
+    }
+
+    /**
+     * Devuelve el número de puntos para los que se calculó s(i) en la última evaluación.
+     * Puede ser menor que el tamaño de muestra si se superó el límite de tiempo.
+     * @return Número de puntos muestreados.
+     */
+    public int getNumPuntos() {
+        return numPuntos;
+    }
+
+    /**
+     * Estima la calidad de un clustering con el coeficiente de Silhouette sobre una muestra.
+     * @param clusters Grupos de respuestas.
+     * @param comp Comparador para calcular distancias.
+     * @return Estimación del coeficiente, entre -1 y +1. Cuanto más alto el valor, mejor agrupados están los clusters.
+     */
+    @Override
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        long limite = (limiteMilis == 0) ? Long.MAX_VALUE : System.nanoTime() + limiteMilis * 1_000_000;
+        int k = clusters.size();
+        int[] tamanos = new int[k];
+        int n = 0;
+        for (int c = 0; c < k; ++c) {
+            tamanos[c] = clusters.get(c).size();
+            n += tamanos[c];
+        }
+        numPuntos = 0;
+        inferior = superior = Float.NaN;
+        if (n == 0) return Float.NaN;
+        //las distancias nunca se precalculan todas
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        int[][] indices = puntos.getIndicesClusters();
+        Distancia distancia = (c1, j1, c2, j2) -> puntos.distancia(indices[c1][j1], indices[c2][j2]);
+
+        //muestra de cada estrato, sin repetición
+        int[][] muestras = new int[k][];
+        int total = 0;
+        int numMinimos = 0;
+        for (int c = 0; c < k; ++c) {
+            if (tamanos[c] <= 1) continue;
+            int m = (int) Math.round((double) tamMuestra * tamanos[c] / n);
+            muestras[c] = muestra(tamanos[c], Math.min(tamanos[c], Math.max(MINIMO_POR_CLUSTER, m)));
+            total += muestras[c].length;
+            numMinimos += MINIMO_POR_CLUSTER;
+        }
+        //primero MINIMO_POR_CLUSTER puntos de cada estrato; el resto en orden aleatorio, para que al cortar
+        //por tiempo la muestra siga siendo proporcional
+        int[] resto = new int[total - numMinimos];
+        for (int c = 0, p = 0; c < k; ++c) {
+            if (muestras[c] == null) continue;
+            for (int r = MINIMO_POR_CLUSTER; r < muestras[c].length; ++r) resto[p++] = c;
+        }
+        barajar(resto);
+
+        double[] suma = new double[k];
+        double[] sumaCuadrados = new double[k];
+        int[] calculados = new int[k];
+        for (int c = 0; c < k; ++c) {
+            for (int r = 0; muestras[c] != null && r < MINIMO_POR_CLUSTER; ++r) acumular(distancia, tamanos, muestras, c, suma, sumaCuadrados, calculados);
+        }
+        for (int c : resto) {
+            if (System.nanoTime() > limite) break;
+            acumular(distancia, tamanos, muestras, c, suma, sumaCuadrados, calculados);
+        }
+        boolean exacta = true;
+        for (int c = 0; c < k; ++c) {
+            numPuntos += calculados[c];
+            exacta &= tamanos[c] <= tamMuestraCluster;
+        }
+
+        //media estratificada y su varianza; con medias exactas, la parte muestreada de cada estrato es la única fuente de error
+        double estimacion = 0.0;
+        double varianza = 0.0;
+        for (int c = 0; c < k; ++c) {
+            if (calculados[c] == 0) continue;
+            double peso = (double) tamanos[c] / n;
+            double media = suma[c] / calculados[c];
+            estimacion += peso * media;
+            double cuasivarianza = Math.max(0.0, (sumaCuadrados[c] - calculados[c] * media * media) / (calculados[c] - 1));
+            double correccion = exacta ? 1.0 - (double) calculados[c] / tamanos[c] : 1.0;
+            varianza += peso * peso * correccion * cuasivarianza / calculados[c];
+        }
+        double error = Z * Math.sqrt(varianza);
+        inferior = (float) Math.max(-1.0, estimacion - error);
+        superior = (float) Math.min(1.0, estimacion + error);
+        return (float) estimacion;
+    }
+
+    //calcula s(i) del siguiente punto de la muestra del cluster c
+    private void acumular(Distancia distancia, int[] tamanos, int[][] muestras, int c,
+                          double[] suma, double[] sumaCuadrados, int[] calculados) {
+        double s = s(distancia, tamanos, c, muestras[c][calculados[c]]);
+        suma[c] += s;
+        sumaCuadrados[c] += s * s;
+        ++calculados[c];
+    }
+
+    //s(i) del miembro j del cluster c, con a(i) y b(i) sobre muestras de como mucho tamMuestraCluster miembros
+    private double s(Distancia distancia, int[] tamanos, int c, int j) {
+        float a = media(distancia, tamanos, c, j, c);
+        float b = Float.MAX_VALUE;
+        for (int o = 0; o < tamanos.length; ++o) {
+            if (o != c && tamanos[o] > 0) b = Math.min(b, media(distancia, tamanos, c, j, o));
+        }
+        return (b - a) / Math.max(a, b);
+    }
+
+    //media de distancias del miembro j de c al cluster o, sin contarse a sí mismo
+    private float media(Distancia distancia, int[] tamanos, int c, int j, int o) {
+        int otros = (o == c) ? tamanos[o] - 1 : tamanos[o];
+        float suma = 0.f;
+        if (otros <= tamMuestraCluster) {
+            for (int l = 0; l < tamanos[o]; ++l) {
+                if (o != c || l != j) suma += distancia.entre(c, j, o, l);
+            }
+            return suma / otros;
+        }
+        for (int r = 0; r < tamMuestraCluster; ++r) {
+            int l = rand.nextInt(otros);
+            if (o == c && l >= j) ++l;
+            suma += distancia.entre(c, j, o, l);
+        }
+        return suma / tamMuestraCluster;
+    }
+
+    //m posiciones distintas de entre 0 y tam - 1, con Fisher-Yates parcial
+    private int[] muestra(int tam, int m) {
+        int[] posiciones = new int[tam];
+        for (int i = 0; i < tam; ++i) posiciones[i] = i;
+        for (int i = 0; i < m; ++i) {
+            int r = i + rand.nextInt(tam - i);
+            int aux = posiciones[i];
+            posiciones[i] = posiciones[r];
+            posiciones[r] = aux;
+        }
+        int[] res = new int[m];
+        System.arraycopy(posiciones, 0, res, 0, m);
+        return res;
+    }
+
+    private void barajar(int[] v) {
+        for (int i = v.length - 1; i > 0; --i) {
+            int r = rand.nextInt(i + 1);
+            int aux = v[i];
+            v[i] = v[r];
+            v[r] = aux;
+        }
+    }
+
+    private interface Distancia {
+        float entre(int c1, int j1, int c2, int j2);
+    }
+}
@@ -0,0 +1,115 @@
+package main.domain.analisis.evaluador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+
+/**
+ * Implementación de {@link InterfazEvaluadorCalidad} con el coeficiente de Silhouette simplificado.
+ * <p>
+ * En lugar de las medias de distancias a todos los puntos de cada cluster, a(i) es la distancia al centro del
+ * cluster propio y b(i) la distancia al centro más cercano de otro cluster. Cuesta O(n·k) distancias en lugar de
+ * O(n²). Los centros son los centroides de los clusters, o los que se indiquen (por ejemplo, los medoids de
+ * {@link main.domain.analisis.algoritmo.KMedoids}).
+ * </p>
+ * <p>
+ * Si el algoritmo da las distancias de su asignación final ({@link DistanciasAsignacion}) no se calcula ninguna
+ * distancia. Como en {@link Silhouette}, los clusters de un solo elemento aportan s(i) = 0.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class SilhouetteSimplificada implements InterfazEvaluadorCalidad {
+    /**
+     * Constructor de la clase.
+     */
+    public SilhouetteSimplificada() {}
+
+    /**
+     * Evalua la calidad de un clustering con el coeficiente de Silhouette simplificado sobre los centroides.
+     * @param clusters Grupos de respuestas.
+     * @param comp Comparador para calcular distancias y centroides.
+     * @return Un valor entre -1 y +1. Cuanto más alto el valor, mejor agrupados están los clusters.
+     */
+    @Override
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp) {
+        ArrayList<RespuestaEncuesta> centros = new ArrayList<>(clusters.size());
+        for (List<RespuestaEncuesta> cluster : clusters) centros.add(cluster.isEmpty() ? null : comp.calcularNuevoCentroide(cluster));
+        return evaluar(clusters, centros, comp);
+    }
+
+    /**
+     * Evalua la calidad de un clustering con el coeficiente de Silhouette simplificado sobre unos centros dados.
+     * @param clusters Grupos de respuestas.
+     * @param centros Centro de cada cluster, en el mismo orden; los de clusters vacíos no se usan y pueden ser {@code null}.
+     * @param comp Comparador para calcular distancias.
+     * @return Un valor entre -1 y +1. Cuanto más alto el valor, mejor agrupados están los clusters.
+     */
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, List<RespuestaEncuesta> centros, Comparador comp) {
+        int k = clusters.size();
+        //solo cuentan los centros de clusters no vacíos
+        ArrayList<RespuestaEncuesta> usados = new ArrayList<>(k);
+        int[] posicion = new int[k];
+        for (int c = 0; c < k; ++c) {
+            posicion[c] = clusters.get(c).isEmpty() ? -1 : usados.size();
+            if (posicion[c] >= 0) usados.add(centros.get(c));
+        }
+
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        int[][] indices = puntos.getIndicesClusters();
+        RespuestasIndexadas codificados = puntos.codificar(usados);
+
+        int n = 0;
+        double sumaTotal = 0.0;
+        for (int c = 0; c < k; ++c) {
+            List<RespuestaEncuesta> cluster = clusters.get(c);
+            n += cluster.size();
+            if (cluster.size() <= 1) continue;
+            for (int j = 0; j < cluster.size(); ++j) {
+                float a = Float.MAX_VALUE;
+                float b = Float.MAX_VALUE;
+                for (int o = 0; o < usados.size(); ++o) {
+                    float d = puntos.distancia(indices[c][j], codificados, o);
+                    if (o == posicion[c]) a = d;
+                    else b = Math.min(b, d);
+                }
+                sumaTotal += s(a, b);
+            }
+        }
+        return (float) (sumaTotal / n);
+    }
+
+    /**
+     * Evalua la calidad de un clustering con el coeficiente de Silhouette simplificado, con las distancias de la
+     * asignación final del algoritmo si son de las respuestas compiladas en {@code comp}; si no, sobre los centroides.
+     * @param clusters Grupos de respuestas.
+     * @param comp Comparador para calcular distancias.
+     * @param distancias Distancias de la asignación final, o {@code null}.
+     * @return Un valor entre -1 y +1. Cuanto más alto el valor, mejor agrupados están los clusters.
+     */
+    @Override
+    public float evaluar(List<? extends List<RespuestaEncuesta>> clusters, Comparador comp, DistanciasAsignacion distancias) {
+        if (distancias == null) return evaluar(clusters, comp);
+        RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+        if (!puntos.estaCompilado() || distancias.getNumRespuestas() != puntos.getNumRespuestas()) return evaluar(clusters, comp);
+        int[][] indices = puntos.getIndicesClusters();
+
+        int n = 0;
+        double sumaTotal = 0.0;
+        for (int[] cluster : indices) {
+            n += cluster.length;
+            if (cluster.length <= 1) continue;
+            for (int i : cluster) sumaTotal += s(distancias.getPropia(i), distancias.getOtra(i));
+        }
+        return (float) (sumaTotal / n);
+    }
+
+    //s(i); si el punto coincide con los dos centros no está ni bien ni mal asignado
+    private static float s(float a, float b) {
+        float maximo = Math.max(a, b);
+        return (maximo == 0.f) ? 0.f : (b - a) / maximo;
+    }
+}
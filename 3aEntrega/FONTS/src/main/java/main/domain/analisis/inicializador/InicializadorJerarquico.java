@@ -0,0 +1,45 @@
+package main.domain.analisis.inicializador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.JerarquicoTipo;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+
+import java.util.ArrayList;
+
+/**
+ * Implementación de {@link InterfazInicializadorAlgoritmo} para los algoritmos {@link JerarquicoTipo}.
+ * <p>
+ * El clustering jerárquico no parte de centros iniciales, así que solo comprueba los parámetros y no
+ * selecciona ninguna respuesta ni calcula ninguna distancia.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class InicializadorJerarquico implements InterfazInicializadorAlgoritmo<JerarquicoTipo> {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+
+    /**
+     * Constructora por defecto
+     */
+    public InicializadorJerarquico() {}
+
+    /**
+     * Comprueba los parámetros del análisis; no hay centros iniciales que generar.
+     *
+     * @param respuestas Respuestas que se usarán.
+     * @param k Número de clusters.
+     * @param comp Comparador (no utilizado en este inicializador).
+     * @return Lista vacía.
+     * @throws NoHayRespuestasParaAnalizar Si {@code respuestas} es vacío.
+     * @throws KMenorQueUno Si {@code k} es menor a 1.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> generaIniciales(ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
+        if(respuestas.isEmpty()) throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        else if(k < 1) throw new KMenorQueUno(textoKMenor);
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,282 @@
+package main.domain.analisis.inicializador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.analisis.algoritmo.KMeansTipo;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Implementación de {@link InterfazInicializadorAlgoritmo} basado en el algoritmo K-Means|| (K-Means++ escalable).
+ * <p>
+ * En lugar de escoger los {@code k} centroides de uno en uno como {@link InicializadorKMeansPlusPlus}, hace unas
+ * pocas rondas en las que cada respuesta se escoge como candidata de forma independiente con probabilidad
+ * proporcional a su distancia cuadrada al candidato más cercano, unos {@code k} candidatos por ronda. Cada ronda
+ * recorre las respuestas en paralelo por bloques. Al final, cada candidato pesa el número de respuestas que tiene
+ * más cerca y se escogen {@code k} de ellos con K-Means++ ponderado.
+ * </p>
+ * <p>
+ * Cada bloque de respuestas usa su propio generador aleatorio, derivado de la semilla, así que con la misma
+ * semilla se obtienen los mismos centroides con cualquier paralelismo.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class InicializadorKMeansParallel implements InterfazInicializadorAlgoritmo<KMeansTipo> {
+
+    private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
+    private static final String textoKMenor = "La K es menor que 1";
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    private static final int RONDAS = 5;
+    //candidatos esperados por ronda, en múltiplos de k
+    private static final double SOBREMUESTREO = 1.0;
+    //número de respuestas por bloque: fijo para que el resultado no dependa del número de hilos
+    private static final int FILAS_POR_BLOQUE = 512;
+
+    private final Random rand;
+    private final int paralelismo;
+
+    /**
+     * Constructora con un hilo por procesador disponible y semilla aleatoria.
+     */
+    public InicializadorKMeansParallel() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Constructora con semilla, para obtener siempre los mismos centroides iniciales.
+     * @param semilla Semilla del generador aleatorio.
+     */
+    public InicializadorKMeansParallel(long semilla) {
+        this(semilla, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructora con semilla y número de hilos.
+     * @param semilla Semilla del generador aleatorio.
+     * @param paralelismo Número de hilos que recorren las respuestas.
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public InicializadorKMeansParallel(long semilla, int paralelismo) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+        this.rand = new Random(semilla);
+        this.paralelismo = paralelismo;
+    }
+
+    /**
+     * Devuelve un InicializadorKMeansParallel independiente con la misma configuración y otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nueva instancia.
+     */
+    @Override
+    public InicializadorKMeansParallel conSemilla(long semilla) {
+        return new InicializadorKMeansParallel(semilla, paralelismo);
+    }
+
+    /**
+     * Devuelve un inicializador KMeans|| de un solo hilo con otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nuevo inicializador.
+     */
+    @Override
+    public InicializadorKMeansParallel conSemillaSecuencial(long semilla) {
+        return new InicializadorKMeansParallel(semilla, 1);
+    }
+
+    /**
+     * Genera los centroides iniciales siguiendo el algoritmo de K-Means||.
+     *
+     * @param respuestas Respuestas que se usarán para generar los centroides.
+     * @param k Número de centroides a generar.
+     * @param comp Comparador a usar para calcular distancias.
+     * @return Centroides iniciales seleccionados.
+     * @throws NoHayRespuestasParaAnalizar Si {@code respuestas} es vacío.
+     * @throws KMenorQueUno Si {@code k} es menor a 1.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> generaIniciales(ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
+        if (respuestas.isEmpty())
+            throw new NoHayRespuestasParaAnalizar(textoNoHayRespuesta);
+        if (k < 1)
+            throw new KMenorQueUno(textoKMenor);
+
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+
+        int[] centroides;
+        if (paralelismo == 1) centroides = generaIniciales(puntos.getNumRespuestas(), k, puntos, null);
+        else {
+            try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                centroides = generaIniciales(puntos.getNumRespuestas(), k, puntos, pool);
+            }
+        }
+
+        ArrayList<RespuestaEncuesta> iniciales = new ArrayList<>(k);
+        for (int c : centroides) iniciales.add(respuestas.get(c));
+        return iniciales;
+    }
+
+    private int[] generaIniciales(int n, int k, RespuestasIndexadas puntos, ForkJoinPool pool) {
+        //distancia de cada respuesta a su candidato más cercano y posición de ese candidato
+        float[] distanciasMinimas = new float[n];
+        Arrays.fill(distanciasMinimas, Float.MAX_VALUE);
+        int[] masCercano = new int[n];
+        int[] candidatos = new int[Math.min(n, 1 + (int) Math.ceil(RONDAS * SOBREMUESTREO * k))];
+        int numCandidatos = 0;
+        boolean[] esCandidato = new boolean[n];
+
+        candidatos[numCandidatos++] = rand.nextInt(n);
+        esCandidato[candidatos[0]] = true;
+        actualizarDistancias(pool, n, puntos, candidatos, 0, 1, distanciasMinimas, masCercano);
+
+        //cada ronda escoge unos SOBREMUESTREO·k candidatos nuevos de forma independiente
+        boolean[] escogida = new boolean[n];
+        for (int r = 0; r < RONDAS; ++r) {
+            double coste = costeTotal(pool, distanciasMinimas);
+            if (coste == 0) break;
+            double factor = SOBREMUESTREO * k / coste;
+            long semillaRonda = rand.nextLong();
+            porBloques(pool, n, b -> {
+                Random aleatorio = new Random(semillaRonda + b);
+                int hasta = Math.min(n, (b + 1) * FILAS_POR_BLOQUE);
+                for (int i = b * FILAS_POR_BLOQUE; i < hasta; ++i) {
+                    float d = distanciasMinimas[i];
+                    escogida[i] = aleatorio.nextDouble() < factor * d * d;
+                }
+            });
+
+            int desde = numCandidatos;
+            for (int i = 0; i < n; ++i) {
+                if (!escogida[i] || esCandidato[i]) continue;
+                if (numCandidatos == candidatos.length) candidatos = Arrays.copyOf(candidatos, 2 * candidatos.length);
+                candidatos[numCandidatos++] = i;
+                esCandidato[i] = true;
+            }
+            actualizarDistancias(pool, n, puntos, candidatos, desde, numCandidatos, distanciasMinimas, masCercano);
+        }
+
+        //cada candidato pesa las respuestas que tiene más cerca
+        int[] pesos = new int[numCandidatos];
+        for (int i = 0; i < n; ++i) pesos[masCercano[i]]++;
+
+        if (numCandidatos <= k) return completar(n, k, puntos, Arrays.copyOf(candidatos, numCandidatos), distanciasMinimas, esCandidato);
+        return reducir(k, puntos, Arrays.copyOf(candidatos, numCandidatos), pesos);
+    }
+
+    //K-Means++ sobre los candidatos, con la distancia cuadrada de cada uno multiplicada por su peso
+    private int[] reducir(int k, RespuestasIndexadas puntos, int[] candidatos, int[] pesos) {
+        int c = candidatos.length;
+        float[] distanciasMinimas = new float[c];
+        Arrays.fill(distanciasMinimas, Float.MAX_VALUE);
+        double[] probabilidades = new double[c];
+        for (int j = 0; j < c; ++j) probabilidades[j] = pesos[j];
+
+        boolean[] escogido = new boolean[c];
+        int[] centroides = new int[k];
+        for (int m = 0; m < k; ++m) {
+            int nuevo = seleccionar(probabilidades);
+            //candidatos repetidos: todos están a distancia 0, se toma el primero que no se haya escogido
+            if (nuevo < 0) {
+                nuevo = 0;
+                while (escogido[nuevo]) ++nuevo;
+            }
+            escogido[nuevo] = true;
+            centroides[m] = candidatos[nuevo];
+            for (int j = 0; j < c; ++j) {
+                float distancia = puntos.distancia(candidatos[j], candidatos[nuevo]);
+                if (distancia < distanciasMinimas[j]) distanciasMinimas[j] = distancia;
+                probabilidades[j] = escogido[j] ? 0 : (double) pesos[j] * distanciasMinimas[j] * distanciasMinimas[j];
+            }
+        }
+        return centroides;
+    }
+
+    //hay menos candidatos que k: se completan con K-Means++ sobre todas las respuestas
+    private int[] completar(int n, int k, RespuestasIndexadas puntos, int[] candidatos, float[] distanciasMinimas, boolean[] esCandidato) {
+        int[] centroides = Arrays.copyOf(candidatos, k);
+        double[] probabilidades = new double[n];
+        for (int m = candidatos.length; m < k; ++m) {
+            for (int i = 0; i < n; ++i) {
+                probabilidades[i] = esCandidato[i] ? 0 : (double) distanciasMinimas[i] * distanciasMinimas[i];
+            }
+            int nuevo = seleccionar(probabilidades);
+            //respuestas repetidas: todas están a distancia 0, se toma cualquiera que no se haya escogido
+            if (nuevo < 0) {
+                nuevo = 0;
+                while (nuevo < n - 1 && esCandidato[nuevo]) ++nuevo;
+            }
+            centroides[m] = nuevo;
+            esCandidato[nuevo] = true;
+            for (int i = 0; i < n; ++i) {
+                float distancia = puntos.distancia(i, nuevo);
+                if (distancia < distanciasMinimas[i]) distanciasMinimas[i] = distancia;
+            }
+        }
+        return centroides;
+    }
+
+    //primera posición en la que la suma acumulada pasa de un umbral aleatorio entre 0 y el total, o -1 si el total es 0
+    private int seleccionar(double[] probabilidades) {
+        double total = 0;
+        for (double p : probabilidades) total += p;
+        if (total == 0) return -1;
+        double umbral = rand.nextDouble(total);
+        double acumulado = 0;
+        for (int i = 0; i < probabilidades.length; ++i) {
+            acumulado += probabilidades[i];
+            if (acumulado > umbral) return i;
+        }
+        //por si acaso no selecciona ninguna por redondeo, la última con probabilidad
+        int i = probabilidades.length - 1;
+        while (probabilidades[i] == 0) --i;
+        return i;
+    }
+
+    //compara cada respuesta solo con los candidatos nuevos, de desde a hasta
+    private static void actualizarDistancias(ForkJoinPool pool, int n, RespuestasIndexadas puntos, int[] candidatos, int desde, int hasta,
+                                             float[] distanciasMinimas, int[] masCercano) {
+        if (desde == hasta) return;
+        porBloques(pool, n, b -> {
+            int fin = Math.min(n, (b + 1) * FILAS_POR_BLOQUE);
+            for (int i = b * FILAS_POR_BLOQUE; i < fin; ++i) {
+                for (int c = desde; c < hasta; ++c) {
+                    float distancia = puntos.distancia(i, candidatos[c]);
+                    if (distancia < distanciasMinimas[i]) {
+                        distanciasMinimas[i] = distancia;
+                        masCercano[i] = c;
+                    }
+                }
+            }
+        });
+    }
+
+    //suma de las distancias cuadradas, sumando los bloques siempre en el mismo orden
+    private static double costeTotal(ForkJoinPool pool, float[] distanciasMinimas) {
+        int n = distanciasMinimas.length;
+        double[] parciales = new double[(n + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE];
+        porBloques(pool, n, b -> {
+            int hasta = Math.min(n, (b + 1) * FILAS_POR_BLOQUE);
+            double suma = 0;
+            for (int i = b * FILAS_POR_BLOQUE; i < hasta; ++i) suma += (double) distanciasMinimas[i] * distanciasMinimas[i];
+            parciales[b] = suma;
+        });
+        double total = 0;
+        for (double parcial : parciales) total += parcial;
+        return total;
+    }
+
+    private static void porBloques(ForkJoinPool pool, int n, IntConsumer bloque) {
+        int numBloques = (n + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+        if (pool == null) {
+            for (int b = 0; b < numBloques; ++b) bloque.accept(b);
+        }
+        else pool.submit(() -> IntStream.range(0, numBloques).parallel().forEach(bloque)).join();
+    }
+}
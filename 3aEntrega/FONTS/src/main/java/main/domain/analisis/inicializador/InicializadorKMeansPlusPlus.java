@@ -2,11 +2,13 @@ package main.domain.analisis.inicializador;
 
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
 import main.domain.analisis.algoritmo.KMeansTipo;
 import main.domain.exceptions.KMenorQueUno;
 import main.domain.exceptions.NoHayRespuestasParaAnalizar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -15,6 +17,11 @@ import java.util.Random;
  * Selecciona los centroides iniciales de forma estocástica,
  * favoreciendo respuestas alejadas de los centroides ya seleccionados.
  * </p>
+ * <p>
+ * Cada respuesta guarda la distancia a su centroide más cercano y en cada ronda solo se compara con el último
+ * centroide escogido, con O(n·k) distancias en total. Para {@code k} grande en varios núcleos, ver
+ * {@link InicializadorKMeansParallel}.
+ * </p>
  * @author Javier Zhangpan
  */
 public class InicializadorKMeansPlusPlus implements InterfazInicializadorAlgoritmo<KMeansTipo> {
@@ -22,12 +29,32 @@ public class InicializadorKMeansPlusPlus implements InterfazInicializadorAlgorit
     private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
     private static final String textoKMenor = "La K es menor que 1";
 
+    private final Random rand;
+
     /**
      * Constructora por defecto
      */
-    public InicializadorKMeansPlusPlus() {}
+    public InicializadorKMeansPlusPlus() {
+        this.rand = new Random();
+    }
 
-    private final Random rand = new Random();
+    /**
+     * Constructora con semilla, para obtener siempre los mismos centroides iniciales.
+     * @param semilla Semilla del generador aleatorio.
+     */
+    public InicializadorKMeansPlusPlus(long semilla) {
+        this.rand = new Random(semilla);
+    }
+
+    /**
+     * Devuelve un InicializadorKMeansPlusPlus independiente con la misma configuración y otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nueva instancia.
+     */
+    @Override
+    public InicializadorKMeansPlusPlus conSemilla(long semilla) {
+        return new InicializadorKMeansPlusPlus(semilla);
+    }
 
     /**
      * Genera los centroides iniciales siguiendo el algoritmo de K-Means++.
@@ -48,15 +75,25 @@ public class InicializadorKMeansPlusPlus implements InterfazInicializadorAlgorit
         validarParametros(respuestas, k);
 
         ArrayList<RespuestaEncuesta> centroides = new ArrayList<>();
-        seleccionarPrimerCentroide(respuestas, centroides);
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        int n = puntos.getNumRespuestas();
+
+        //distancia de cada respuesta al centroide más cercano de los ya escogidos: en cada ronda solo
+        //se compara con el último añadido, así que el total es O(n·k) distancias
+        float[] distanciasMinimas = new float[n];
+        Arrays.fill(distanciasMinimas, Float.MAX_VALUE);
+        float[] distanciasCuadradas = new float[n];
+
+        //selecciona primer inicial de forma aleatoria
+        int nuevo = rand.nextInt(n);
+        centroides.add(respuestas.get(nuevo));
 
         while (centroides.size() < k) {
-            ArrayList<Float> distanciasCuadradas =
-                    calcularDistanciasCuadradas(respuestas, centroides, comp);
+            // distancia consigo mismo es de 0, por lo que nunca se escoge 2 veces el mismo
+            actualizarDistancias(puntos, nuevo, distanciasMinimas, distanciasCuadradas);
 
-            centroides.add(
-                    seleccionarSiguienteCentroide(respuestas, distanciasCuadradas)
-            );
+            nuevo = seleccionarSiguienteCentroide(distanciasCuadradas);
+            centroides.add(respuestas.get(nuevo));
         }
 
         return centroides;
@@ -69,47 +106,26 @@ public class InicializadorKMeansPlusPlus implements InterfazInicializadorAlgorit
             throw new KMenorQueUno(textoKMenor);
     }
 
-    private void seleccionarPrimerCentroide(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<RespuestaEncuesta> centroides
-    ) {
-        //selecciona primer inicial de forma aleatoria
-        int indice = rand.nextInt(respuestas.size());
-        centroides.add(respuestas.get(indice));
-    }
-
-    private ArrayList<Float> calcularDistanciasCuadradas(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<RespuestaEncuesta> centroides,
-            Comparador comp
+    private static void actualizarDistancias(
+            RespuestasIndexadas puntos,
+            int nuevo,
+            float[] distanciasMinimas,
+            float[] distanciasCuadradas
     ) {
-        ArrayList<Float> distanciasCuadradas = new ArrayList<>();
-
-        for (RespuestaEncuesta respuesta : respuestas) {
-            //distancia del resto de respuestas al primer inicial
-            // distancia consigo mismo es de 0, por lo que nunca se escoge 2 veces el mismo
-            Float distanciaMinima =
-                    comp.getDistancia(respuesta, centroides.getFirst());
-
-            for (int j = 1; j < centroides.size(); ++j) {
-                Float distancia = comp.getDistancia(respuesta, centroides.get(j));
-                if (distancia < distanciaMinima) distanciaMinima = distancia;
+        for (int i = 0; i < puntos.getNumRespuestas(); ++i) {
+            float distancia = puntos.distancia(i, nuevo);
+            if (distancia < distanciasMinimas[i]) {
+                distanciasMinimas[i] = distancia;
+                //para cada respuesta me guardo su distancia mínima cuadrada para usar luego
+                distanciasCuadradas[i] = distancia * distancia;
             }
-
-            //para cada respuesta me guardo su distancia mínima cuadrada para usar luego
-            distanciasCuadradas.add(distanciaMinima * distanciaMinima);
         }
-
-        return distanciasCuadradas;
     }
 
-    private RespuestaEncuesta seleccionarSiguienteCentroide(
-            ArrayList<RespuestaEncuesta> respuestas,
-            ArrayList<Float> distanciasCuadradas
-    ) {
+    private int seleccionarSiguienteCentroide(float[] distanciasCuadradas) {
         //sumatorio de las distancias
         float total = 0;
-        for (Float d : distanciasCuadradas) total += d;
+        for (float d : distanciasCuadradas) total += d;
 
         //se usa un umbral aleatorio de 0 (inclusivo) al total (exclusivo)
         float umbral = (total == 0) ? 0 : rand.nextFloat(total);
@@ -117,13 +133,13 @@ public class InicializadorKMeansPlusPlus implements InterfazInicializadorAlgorit
 
         //se añade a centroides la primera respuesta que tenga un sumatorio acumulado
         //por encima del umbral
-        for (int i = 0; i < respuestas.size(); ++i) {
-            acumulado += distanciasCuadradas.get(i);
+        for (int i = 0; i < distanciasCuadradas.length; ++i) {
+            acumulado += distanciasCuadradas[i];
             if (acumulado >= umbral) {
-                return respuestas.get(i);
+                return i;
             }
         }
         //por si acaso no selecciona ninguna
-        return respuestas.getLast();
+        return distanciasCuadradas.length - 1;
     }
 }
\ No newline at end of file
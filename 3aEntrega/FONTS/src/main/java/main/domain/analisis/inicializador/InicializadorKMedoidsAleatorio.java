@@ -0,0 +1,64 @@
+package main.domain.analisis.inicializador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.KMedoidsTipo;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+
+import java.util.ArrayList;
+
+/**
+ * Implementación de {@link InterfazInicializadorAlgoritmo} para los algoritmos {@link KMedoidsTipo}
+ * basado en selección aleatoria, como {@link InicializadorRandom}.
+ * <p>
+ * Selecciona {@code k} respuestas distintas con distribución uniforme sin calcular ninguna distancia, así que
+ * sirve para los algoritmos por muestreo con muchas respuestas, donde {@link InicializadorKMedoidsGreedy} es
+ * cuadrático.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class InicializadorKMedoidsAleatorio implements InterfazInicializadorAlgoritmo<KMedoidsTipo> {
+
+    private final InicializadorRandom aleatorio;
+
+    /**
+     * Constructora por defecto
+     */
+    public InicializadorKMedoidsAleatorio() {
+        this.aleatorio = new InicializadorRandom();
+    }
+
+    /**
+     * Constructora con semilla, para obtener siempre los mismos medoids iniciales.
+     * @param semilla Semilla del generador aleatorio.
+     */
+    public InicializadorKMedoidsAleatorio(long semilla) {
+        this.aleatorio = new InicializadorRandom(semilla);
+    }
+
+    /**
+     * Devuelve un InicializadorKMedoidsAleatorio independiente con la misma configuración y otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nueva instancia.
+     */
+    @Override
+    public InicializadorKMedoidsAleatorio conSemilla(long semilla) {
+        return new InicializadorKMedoidsAleatorio(semilla);
+    }
+
+    /**
+     * Genera los medoids iniciales siguiendo una selección aleatoria
+     *
+     * @param respuestas Respuestas que se usarán.
+     * @param k Número de medoids a generar.
+     * @param comp Comparador (no utilizado en este inicializador).
+     * @return Medoids iniciales seleccionados.
+     * @throws NoHayRespuestasParaAnalizar Si {@code respuestas} es vacío.
+     * @throws KMenorQueUno Si {@code k} es menor a 1.
+     */
+    @Override
+    public ArrayList<RespuestaEncuesta> generaIniciales(ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
+        return aleatorio.generaIniciales(respuestas, k, comp);
+    }
+}
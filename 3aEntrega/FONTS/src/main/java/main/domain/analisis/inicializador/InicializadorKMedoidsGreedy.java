@@ -2,22 +2,89 @@ package main.domain.analisis.inicializador;
 
 import main.domain.RespuestaEncuesta;
 import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
 import main.domain.analisis.algoritmo.KMedoidsTipo;
+import main.domain.exceptions.ParalelismoMenorQueUno;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Implementación de {@link InterfazInicializadorAlgoritmo} para el algoritmo {@link KMedoidsTipo}.
  * Este inicializador selecciona los medoids de forma iterativa, eligiendo en cada paso
- * el punto que minimiza la suma total de distancias al conjunto actual de medoids.
+ * el punto que minimiza la suma total de distancias al conjunto actual de medoids (BUILD de PAM).
+ * <p>
+ * Cada respuesta guarda la distancia a su medoid más cercano, que se actualiza una vez por medoid añadido, así
+ * que cada paso cuesta O(n²) distancias y los candidatos se evalúan en paralelo. En el modo muestreado (LAB),
+ * cada paso solo evalúa una muestra aleatoria de {@code 10 + √n} respuestas como candidatos y como respuestas
+ * a sumar, con O(n) distancias por paso.
+ * </p>
  * @author Sergi Malaguilla Bombin
  */
 
 public class InicializadorKMedoidsGreedy implements InterfazInicializadorAlgoritmo<KMedoidsTipo> {
-    private final Random rand = new Random(); //inicio random para selección del primer medoid
-    public InicializadorKMedoidsGreedy() {}
+
+    private static final String textoParalelismoMenor = "El paralelismo es menor que 1";
+    //número de candidatos por bloque: fijo para que el resultado no dependa del número de hilos
+    private static final int CANDIDATOS_POR_BLOQUE = 16;
+
+    private final Random rand; //inicio random para selección del primer medoid
+    private final int paralelismo;
+    private final boolean muestreado;
+
+    /**
+     * Constructora por defecto: BUILD completo con un hilo por procesador disponible.
+     */
+    public InicializadorKMedoidsGreedy() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Constructora con semilla, para obtener siempre los mismos medoids iniciales.
+     * @param semilla Semilla del generador aleatorio.
+     */
+    public InicializadorKMedoidsGreedy(long semilla) {
+        this(semilla, Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /**
+     * Constructora con semilla, número de hilos y modo.
+     * @param semilla Semilla del generador aleatorio.
+     * @param paralelismo Número de hilos que evalúan los candidatos.
+     * @param muestreado Si es {@code true}, cada paso evalúa solo una muestra de candidatos (LAB).
+     * @throws ParalelismoMenorQueUno si {@code paralelismo} es menor a 1.
+     */
+    public InicializadorKMedoidsGreedy(long semilla, int paralelismo, boolean muestreado) {
+        if (paralelismo < 1) throw new ParalelismoMenorQueUno(textoParalelismoMenor);
+        this.rand = new Random(semilla);
+        this.paralelismo = paralelismo;
+        this.muestreado = muestreado;
+    }
+
+    /**
+     * Devuelve un InicializadorKMedoidsGreedy independiente con la misma configuración y otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nueva instancia.
+     */
+    @Override
+    public InicializadorKMedoidsGreedy conSemilla(long semilla) {
+        return new InicializadorKMedoidsGreedy(semilla, paralelismo, muestreado);
+    }
+
+    /**
+     * Devuelve un inicializador Greedy de un solo hilo con la misma configuración y otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nuevo inicializador.
+     */
     @Override
+    public InicializadorKMedoidsGreedy conSemillaSecuencial(long semilla) {
+        return new InicializadorKMedoidsGreedy(semilla, 1, muestreado);
+    }
+
     /*
      Un inicializador greedy construye el conjunto de k medoids iterativamente: partiendo de un medoid inicial aleatorio,
      en cada paso se prueba como candidato cada punto que aún no es medoid y se calcula la suma total de distancias
@@ -31,6 +98,7 @@ public class InicializadorKMedoidsGreedy implements InterfazInicializadorAlgorit
      * @param comp El comparador utilizado para calcular las distancias entre respuestas.
      * @return Una lista de respuestas seleccionadas como medoids iniciales.
      */
+    @Override
     public ArrayList<RespuestaEncuesta> generaIniciales(ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp) {
         ArrayList<RespuestaEncuesta> medoids = new ArrayList<>();
 
@@ -39,44 +107,121 @@ public class InicializadorKMedoidsGreedy implements InterfazInicializadorAlgorit
 
         //selecciona el primer medoid aleatoriamente
         int randIndex = rand.nextInt(respuestas.size());
-        medoids.add(respuestas.get(randIndex));
 
-        //iterativamente selecciona los siguientes k-1 medoids
-        while (medoids.size() < k) {
-            RespuestaEncuesta mejorCandidato = null;
-            float mejorSumaDistancias = Float.POSITIVE_INFINITY;
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(respuestas, comp);
+        //LAB solo calcula O(n·k) distancias, no compensa precalcular las n²
+        if (!muestreado) puntos.precalcularDistancias();
+
+        int[] indices;
+        if (paralelismo == 1) indices = build(puntos, randIndex, k, null);
+        else {
+            try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                indices = build(puntos, randIndex, k, pool);
+            }
+        }
+
+        //si no quedan candidatos el medoid es nulo, como en la versión original
+        for (int m : indices) medoids.add(m < 0 ? null : puntos.getRespuesta(m));
+        return medoids;
+    }
 
-            //para cada punto que no sea ya un medoid
-            for (RespuestaEncuesta candidato : respuestas) {
-                //si ya es medoid, lo ignora, sino calcula la suma total de distancias al conjunto actual de medoids
-                if (!medoids.contains(candidato)) {
-                    float sumaDistancias = 0;
-                    //calcula la distancia mínima de cada respuesta (a un medoid) del conjunto actual de medoids
-                    for (RespuestaEncuesta respuesta : respuestas) {
-                        float distMin = Float.POSITIVE_INFINITY;
-                        for (RespuestaEncuesta medoid : medoids) {
-                            float dist = comp.getDistancia(respuesta, medoid);
-                            if (dist < distMin) distMin = dist;
-                        }
-
-                        //la distancia actual de la respuesta es la distancia mínima es el mínimo entre la
-                        //distancia actual al medoid mas cercano y la distancia al candidato
-                        float distCandidato = comp.getDistancia(respuesta, candidato);
-                        float DistanciaRespuestaActual = Math.min(distMin, distCandidato);
-                        //se suma dicha distancia a la suma total de distancias del actual candidato
-                        sumaDistancias += DistanciaRespuestaActual;
-                    }
-
-                    //el mejor candidato es el que produce la menor suma total de distancias
-                    if (sumaDistancias < mejorSumaDistancias) {
-                        mejorSumaDistancias = sumaDistancias;
-                        mejorCandidato = candidato;
-                    }
+    private int[] build(RespuestasIndexadas puntos, int primero, int k, ForkJoinPool pool) {
+        int n = puntos.getNumRespuestas();
+        //distancia de cada respuesta a su medoid más cercano, actualizada una vez por medoid añadido
+        float[] distanciasMinimas = new float[n];
+        Arrays.fill(distanciasMinimas, Float.POSITIVE_INFINITY);
+        //un candidato no se puede escoger si tiene los mismos datos que un medoid (igual que medoids.contains)
+        boolean[] esMedoid = new boolean[n];
+        int disponibles = n;
+        int[] medoids = new int[k];
+
+        int nuevo = primero;
+        for (int m = 0; m < k; ++m) {
+            if (m > 0) {
+                int[] muestra = muestreado ? muestra(esMedoid, disponibles) : null;
+                nuevo = mejorCandidato(muestra, esMedoid, distanciasMinimas, puntos, pool);
+            }
+            medoids[m] = nuevo;
+            if (nuevo < 0) continue;
+            for (int o = 0; o < n; ++o) {
+                float d = puntos.distancia(o, nuevo);
+                if (d < distanciasMinimas[o]) distanciasMinimas[o] = d;
+                //dos respuestas con los mismos datos están a distancia 0
+                if (!esMedoid[o] && (o == nuevo || (d == 0 && puntos.getRespuesta(o).equals(puntos.getRespuesta(nuevo))))) {
+                    esMedoid[o] = true;
+                    --disponibles;
                 }
             }
-            //añade el mejor candidato como nuevo medoid
-            medoids.add(mejorCandidato);
         }
         return medoids;
     }
-}
\ No newline at end of file
+
+    //LAB: 10 + √n respuestas distintas que no son medoids, o todas si quedan menos
+    private int[] muestra(boolean[] esMedoid, int disponibles) {
+        int n = esMedoid.length;
+        int tam = 10 + (int) Math.ceil(Math.sqrt(n));
+        if (disponibles <= tam) {
+            int[] todas = new int[disponibles];
+            int t = 0;
+            for (int i = 0; i < n; ++i) if (!esMedoid[i]) todas[t++] = i;
+            return todas;
+        }
+        boolean[] usada = new boolean[n];
+        int[] muestra = new int[tam];
+        for (int t = 0; t < tam; ) {
+            int i = rand.nextInt(n);
+            if (esMedoid[i] || usada[i]) continue;
+            usada[i] = true;
+            muestra[t++] = i;
+        }
+        return muestra;
+    }
+
+    //candidato que minimiza la suma de distancias; con muestra, los candidatos y las respuestas sumadas son los de la muestra
+    private static int mejorCandidato(int[] muestra, boolean[] esMedoid, float[] distanciasMinimas, RespuestasIndexadas puntos, ForkJoinPool pool) {
+        int n = distanciasMinimas.length;
+        int numCandidatos = (muestra == null) ? n : muestra.length;
+        int numBloques = (numCandidatos + CANDIDATOS_POR_BLOQUE - 1) / CANDIDATOS_POR_BLOQUE;
+        int[] mejores = new int[numBloques];
+        float[] mejoresSumas = new float[numBloques];
+
+        IntConsumer bloque = b -> {
+            int mejorCandidato = -1;
+            float mejorSumaDistancias = Float.POSITIVE_INFINITY;
+            int hasta = Math.min(numCandidatos, (b + 1) * CANDIDATOS_POR_BLOQUE);
+            for (int t = b * CANDIDATOS_POR_BLOQUE; t < hasta; ++t) {
+                int candidato = (muestra == null) ? t : muestra[t];
+                if (esMedoid[candidato]) continue;
+                //la distancia de cada respuesta es el mínimo entre la de su medoid más cercano y la del candidato
+                float sumaDistancias = 0;
+                if (muestra == null) {
+                    for (int o = 0; o < n; ++o) sumaDistancias += Math.min(distanciasMinimas[o], puntos.distancia(o, candidato));
+                }
+                else {
+                    for (int o : muestra) sumaDistancias += Math.min(distanciasMinimas[o], puntos.distancia(o, candidato));
+                }
+                if (sumaDistancias < mejorSumaDistancias) {
+                    mejorSumaDistancias = sumaDistancias;
+                    mejorCandidato = candidato;
+                }
+            }
+            mejores[b] = mejorCandidato;
+            mejoresSumas[b] = mejorSumaDistancias;
+        };
+        if (pool == null) {
+            for (int b = 0; b < numBloques; ++b) bloque.accept(b);
+        }
+        else pool.submit(() -> IntStream.range(0, numBloques).parallel().forEach(bloque)).join();
+
+        //los bloques se juntan en orden: en caso de empate gana el primer candidato, como en secuencial
+        int mejorCandidato = -1;
+        float mejorSumaDistancias = Float.POSITIVE_INFINITY;
+        for (int b = 0; b < numBloques; ++b) {
+            if (mejores[b] >= 0 && mejoresSumas[b] < mejorSumaDistancias) {
+                mejorSumaDistancias = mejoresSumas[b];
+                mejorCandidato = mejores[b];
+            }
+        }
+        return mejorCandidato;
+    }
+}
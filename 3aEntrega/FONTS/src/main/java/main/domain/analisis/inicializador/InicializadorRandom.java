@@ -23,12 +23,32 @@ public class InicializadorRandom implements InterfazInicializadorAlgoritmo<KMean
     private static final String textoNoHayRespuesta = "No hay respuestas que analizar";
     private static final String textoKMenor = "La K es menor que 1";
 
+    private final Random rand;
+
     /**
      * Constructora por defecto
      */
-    public InicializadorRandom() {}
+    public InicializadorRandom() {
+        this.rand = new Random();
+    }
+
+    /**
+     * Constructora con semilla, para obtener siempre los mismos centroides iniciales.
+     * @param semilla Semilla del generador aleatorio.
+     */
+    public InicializadorRandom(long semilla) {
+        this.rand = new Random(semilla);
+    }
 
-    private final Random rand = new Random();
+    /**
+     * Devuelve un InicializadorRandom independiente con la misma configuración y otra semilla.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Nueva instancia.
+     */
+    @Override
+    public InicializadorRandom conSemilla(long semilla) {
+        return new InicializadorRandom(semilla);
+    }
 
     /**
      * Genera los centroides iniciales siguiendo una selección aleatoria
@@ -21,4 +21,31 @@ public interface InterfazInicializadorAlgoritmo <T extends AlgoritmoTipo> {
      * @return Centroides iniciales.
      */
     ArrayList<RespuestaEncuesta> generaIniciales(ArrayList<RespuestaEncuesta> respuestas, Integer k, Comparador comp);
+
+    /**
+     * Devuelve un inicializador independiente con la misma configuración y la semilla indicada, para hacer
+     * varias inicializaciones a la vez.
+     * <p>
+     * Por defecto devuelve este mismo objeto, así que solo lo pueden usar sin redefinirlo los inicializadores
+     * deterministas y sin estado.
+     * </p>
+     * @param semilla Semilla del generador aleatorio.
+     * @return Inicializador para una inicialización independiente.
+     */
+    default InterfazInicializadorAlgoritmo<T> conSemilla(long semilla) {
+        return this;
+    }
+
+    /**
+     * Como {@link #conSemilla(long)}, pero el inicializador devuelto trabaja en un solo hilo. Se usa para las
+     * inicializaciones que ya se reparten entre varios hilos.
+     * <p>
+     * Por defecto equivale a {@link #conSemilla(long)}; lo redefinen los inicializadores con paralelismo propio.
+     * </p>
+     * @param semilla Semilla del generador aleatorio.
+     * @return Inicializador de un solo hilo para una inicialización independiente.
+     */
+    default InterfazInicializadorAlgoritmo<T> conSemillaSecuencial(long semilla) {
+        return conSemilla(semilla);
+    }
 }
@@ -0,0 +1,7 @@
+package main.domain.exceptions;
+
+public class CriterioConvergenciaInvalido extends RuntimeException {
+    public CriterioConvergenciaInvalido(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package main.domain.exceptions;
+
+public class InicializacionesMenorQueUno extends RuntimeException {
+    public InicializacionesMenorQueUno(String message) {
+        super(message);
+    }
+}
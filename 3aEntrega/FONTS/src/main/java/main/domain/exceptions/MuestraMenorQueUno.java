@@ -0,0 +1,7 @@
+package main.domain.exceptions;
+
+public class MuestraMenorQueUno extends RuntimeException {
+    public MuestraMenorQueUno(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package main.domain.exceptions;
+
+public class ParalelismoMenorQueUno extends RuntimeException {
+    public ParalelismoMenorQueUno(String message) {
+        super(message);
+    }
+}
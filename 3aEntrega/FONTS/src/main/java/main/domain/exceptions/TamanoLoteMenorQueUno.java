@@ -0,0 +1,7 @@
+package main.domain.exceptions;
+
+public class TamanoLoteMenorQueUno extends RuntimeException {
+    public TamanoLoteMenorQueUno(String message) {
+        super(message);
+    }
+}
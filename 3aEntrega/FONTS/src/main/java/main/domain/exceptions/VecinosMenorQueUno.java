@@ -0,0 +1,7 @@
+package main.domain.exceptions;
+
+public class VecinosMenorQueUno extends RuntimeException {
+    public VecinosMenorQueUno(String message) {
+        super(message);
+    }
+}
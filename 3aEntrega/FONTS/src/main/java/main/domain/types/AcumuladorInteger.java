@@ -0,0 +1,35 @@
+package main.domain.types;
+
+/**
+ * Acumulador de centroide de {@link TDatosInteger}: suma y número de valores.
+ * @author Javier Zhangpan
+ */
+final class AcumuladorInteger implements InterfazAcumuladorCentroide {
+    private long suma;
+    private int num;
+
+    @Override
+    public void anadir(TDatos dato) {
+        suma += ((TDatosInteger) dato).num;
+        ++num;
+    }
+
+    @Override
+    public void quitar(TDatos dato) {
+        suma -= ((TDatosInteger) dato).num;
+        --num;
+    }
+
+    @Override
+    public void combinar(InterfazAcumuladorCentroide otro) {
+        AcumuladorInteger o = (AcumuladorInteger) otro;
+        suma += o.suma;
+        num += o.num;
+    }
+
+    @Override
+    public TDatos getComponenteCentroide(TDatos primero) {
+        TDatosInteger p = (TDatosInteger) primero;
+        return new TDatosInteger((int) (suma / num), p.numMax, p.numMin);
+    }
+}
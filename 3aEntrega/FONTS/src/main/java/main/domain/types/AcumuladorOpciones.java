@@ -0,0 +1,113 @@
+package main.domain.types;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Acumulador de centroide de {@link TDatosOpciones}: recuentos por identificador de opción.
+ * <p>
+ * Se llevan dos recuentos, el de la primera opción de cada respuesta (moda de las preguntas de una
+ * sola opción) y el de todas las opciones elegidas; cuál se usa depende del primer dato del cluster,
+ * como en {@link TDatosOpciones#getComponenteCentroide(ArrayList)}. Los identificadores no negativos
+ * se cuentan en arrays; los negativos, que no deberían darse, en un mapa aparte.
+ * </p>
+ * @author Javier Zhangpan
+ */
+final class AcumuladorOpciones implements InterfazAcumuladorCentroide {
+    private final Recuento primeras = new Recuento();
+    private final Recuento todas = new Recuento();
+
+    @Override
+    public void anadir(TDatos dato) {
+        actualizar((TDatosOpciones) dato, 1);
+    }
+
+    @Override
+    public void quitar(TDatos dato) {
+        actualizar((TDatosOpciones) dato, -1);
+    }
+
+    private void actualizar(TDatosOpciones dato, int delta) {
+        ArrayList<Integer> ids = dato.idOpciones;
+        if (ids.isEmpty()) return;
+        primeras.sumar(ids.getFirst(), delta);
+        for (int i = 0; i < ids.size(); ++i) todas.sumar(ids.get(i), delta);
+    }
+
+    @Override
+    public void combinar(InterfazAcumuladorCentroide otro) {
+        AcumuladorOpciones o = (AcumuladorOpciones) otro;
+        primeras.combinar(o.primeras);
+        todas.combinar(o.todas);
+    }
+
+    @Override
+    public TDatos getComponenteCentroide(TDatos primero) {
+        TDatosOpciones p = (TDatosOpciones) primero;
+        Recuento recuento = (p.idOpciones.size() == 1) ? primeras : todas;
+        ArrayList<Integer> opc = new ArrayList<>();
+        if (recuento.total > 0) opc.add(recuento.masFrecuente());
+        return new TDatosOpciones(opc, p.orden, p.numOpciones);
+    }
+
+    private static final class Recuento {
+        private int[] cuentas = new int[8];
+        private TreeMap<Integer, Integer> negativos;
+        private int total;
+
+        void sumar(int id, int delta) {
+            total += delta;
+            if (id < 0) {
+                if (negativos == null) negativos = new TreeMap<>();
+                int c = negativos.getOrDefault(id, 0) + delta;
+                if (c == 0) negativos.remove(id);
+                else negativos.put(id, c);
+                return;
+            }
+            if (id >= cuentas.length) {
+                int[] nuevas = new int[Math.max(cuentas.length * 2, id + 1)];
+                System.arraycopy(cuentas, 0, nuevas, 0, cuentas.length);
+                cuentas = nuevas;
+            }
+            cuentas[id] += delta;
+        }
+
+        void combinar(Recuento otro) {
+            total += otro.total;
+            if (otro.negativos != null) {
+                if (negativos == null) negativos = new TreeMap<>();
+                for (Map.Entry<Integer, Integer> entry : otro.negativos.entrySet()) {
+                    negativos.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                }
+            }
+            if (cuentas.length < otro.cuentas.length) {
+                int[] nuevas = new int[otro.cuentas.length];
+                System.arraycopy(cuentas, 0, nuevas, 0, cuentas.length);
+                cuentas = nuevas;
+            }
+            for (int i = 0; i < otro.cuentas.length; ++i) cuentas[i] += otro.cuentas[i];
+        }
+
+        //identificador con más apariciones; en caso de empate, el menor
+        int masFrecuente() {
+            int id = 0;
+            int max = 0;
+            if (negativos != null) {
+                for (Map.Entry<Integer, Integer> entry : negativos.entrySet()) {
+                    if (entry.getValue() > max) {
+                        max = entry.getValue();
+                        id = entry.getKey();
+                    }
+                }
+            }
+            for (int i = 0; i < cuentas.length; ++i) {
+                if (cuentas[i] > max) {
+                    max = cuentas[i];
+                    id = i;
+                }
+            }
+            return id;
+        }
+    }
+}
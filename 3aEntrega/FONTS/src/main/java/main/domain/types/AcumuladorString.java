@@ -0,0 +1,97 @@
+package main.domain.types;
+
+import java.util.Arrays;
+
+/**
+ * Acumulador de centroide de {@link TDatosString}: número de apariciones de cada palabra relevante.
+ * <p>
+ * Trabaja sobre los identificadores de {@link DiccionarioPalabras} de cada texto, que se calculan una sola
+ * vez por respuesta. Los recuentos se guardan en un array indexado por identificador junto con la lista de
+ * identificadores presentes, así que añadir o quitar un texto no reserva memoria y el centroide solo recorre
+ * las palabras del cluster. Las palabras empatadas se ordenan alfabéticamente, como en
+ * {@link TDatosString#getComponenteCentroide(java.util.ArrayList)}.
+ * </p>
+ * @author Javier Zhangpan
+ */
+final class AcumuladorString implements InterfazAcumuladorCentroide {
+    //cuentas[id]: apariciones de la palabra id; posiciones[id]: su posición en presentes, o -1
+    private int[] cuentas = new int[0];
+    private int[] posiciones = new int[0];
+    private int[] presentes = new int[16];
+    private int numPresentes;
+
+    @Override
+    public void anadir(TDatos dato) {
+        for (int id : ((TDatosString) dato).tokens()) {
+            if (id >= cuentas.length) crecer(id);
+            if (cuentas[id]++ == 0) {
+                if (numPresentes == presentes.length) presentes = Arrays.copyOf(presentes, numPresentes * 2);
+                posiciones[id] = numPresentes;
+                presentes[numPresentes++] = id;
+            }
+        }
+    }
+
+    @Override
+    public void quitar(TDatos dato) {
+        for (int id : ((TDatosString) dato).tokens()) {
+            if (--cuentas[id] == 0) {
+                //se sustituye por el último presente
+                int p = posiciones[id];
+                int ultimo = presentes[--numPresentes];
+                presentes[p] = ultimo;
+                posiciones[ultimo] = p;
+                posiciones[id] = -1;
+            }
+        }
+    }
+
+    @Override
+    public void combinar(InterfazAcumuladorCentroide otro) {
+        AcumuladorString o = (AcumuladorString) otro;
+        for (int i = 0; i < o.numPresentes; ++i) {
+            int id = o.presentes[i];
+            if (id >= cuentas.length) crecer(id);
+            if (cuentas[id] == 0) {
+                if (numPresentes == presentes.length) presentes = Arrays.copyOf(presentes, numPresentes * 2);
+                posiciones[id] = numPresentes;
+                presentes[numPresentes++] = id;
+            }
+            cuentas[id] += o.cuentas[id];
+        }
+    }
+
+    private void crecer(int id) {
+        int tam = Math.max(id + 1, Math.max(cuentas.length * 2, DiccionarioPalabras.getNumPalabras()));
+        int anterior = cuentas.length;
+        cuentas = Arrays.copyOf(cuentas, tam);
+        posiciones = Arrays.copyOf(posiciones, tam);
+        Arrays.fill(posiciones, anterior, tam, -1);
+    }
+
+    @Override
+    public TDatos getComponenteCentroide(TDatos primero) {
+        int max = 0;
+        int numMax = 0;
+        for (int i = 0; i < numPresentes; ++i) {
+            int c = cuentas[presentes[i]];
+            if (c > max) {
+                max = c;
+                numMax = 1;
+            }
+            else if (c == max) ++numMax;
+        }
+        if (numMax == 0) return new TDatosString("", new int[0]);
+
+        String[] strs = new String[numMax];
+        int num = 0;
+        for (int i = 0; i < numPresentes; ++i) {
+            if (cuentas[presentes[i]] == max) strs[num++] = DiccionarioPalabras.palabra(presentes[i]);
+        }
+        Arrays.sort(strs);
+
+        int[] tokens = new int[numMax];
+        for (int i = 0; i < numMax; ++i) tokens[i] = DiccionarioPalabras.id(strs[i]);
+        return new TDatosString(String.join(" ", strs), tokens);
+    }
+}
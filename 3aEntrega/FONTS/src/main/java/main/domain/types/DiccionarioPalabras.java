@@ -0,0 +1,66 @@
+package main.domain.types;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario global de palabras normalizadas de los textos libres.
+ * <p>
+ * Cada palabra distinta recibe un identificador entero la primera vez que aparece y lo conserva
+ * durante toda la ejecución, de modo que los textos se pueden guardar y comparar como arrays de
+ * identificadores. Es seguro usarlo desde varios hilos.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class DiccionarioPalabras {
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final Object cerrojo = new Object();
+    private static volatile String[] palabras = new String[256];
+    private static int numPalabras;
+
+    private DiccionarioPalabras() {}
+
+    /**
+     * Devuelve el identificador de una palabra, dándole uno nuevo si no lo tenía.
+     * @param palabra palabra ya normalizada
+     * @return identificador de la palabra
+     */
+    public static int id(String palabra) {
+        Integer id = ids.get(palabra);
+        if (id != null) return id;
+        synchronized (cerrojo) {
+            id = ids.get(palabra);
+            if (id == null) {
+                String[] p = palabras;
+                if (numPalabras == p.length) {
+                    String[] nuevas = new String[p.length * 2];
+                    System.arraycopy(p, 0, nuevas, 0, numPalabras);
+                    p = nuevas;
+                }
+                p[numPalabras] = palabra;
+                palabras = p;
+                id = numPalabras++;
+                ids.put(palabra, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Devuelve la palabra con un identificador.
+     * @param id identificador obtenido con {@link #id(String)}
+     * @return palabra normalizada
+     */
+    public static String palabra(int id) {
+        return palabras[id];
+    }
+
+    /**
+     * Devuelve el número de palabras distintas registradas.
+     * @return número de identificadores asignados
+     */
+    public static int getNumPalabras() {
+        synchronized (cerrojo) {
+            return numPalabras;
+        }
+    }
+}
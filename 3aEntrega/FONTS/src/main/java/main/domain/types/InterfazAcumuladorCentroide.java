@@ -0,0 +1,42 @@
+package main.domain.types;
+
+/**
+ * Acumulador del componente de centroide de una pregunta en un cluster que cambia poco a poco.
+ * <p>
+ * Guarda un resumen de los datos del cluster (sumas, recuentos de opciones o de palabras) que se
+ * actualiza en tiempo proporcional al dato al añadir o quitar una respuesta, en lugar de recorrer
+ * el cluster entero. El componente obtenido es el mismo que daría
+ * {@link TDatos#getComponenteCentroide(java.util.ArrayList)} con los datos acumulados.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public interface InterfazAcumuladorCentroide {
+    /**
+     * Añade un dato al cluster.
+     * @param dato dato del mismo tipo que el que creó el acumulador
+     */
+    public void anadir(TDatos dato);
+
+    /**
+     * Quita un dato añadido antes al cluster.
+     * @param dato dato que se añadió con {@link #anadir(TDatos)}
+     */
+    public void quitar(TDatos dato);
+
+    /**
+     * Suma a este acumulador los datos de otro del mismo tipo, como si se hubieran añadido uno a uno.
+     * Permite que varios hilos acumulen partes de un cluster por separado y juntarlas al final.
+     * @param otro acumulador creado por el mismo tipo de dato; no se modifica
+     */
+    public void combinar(InterfazAcumuladorCentroide otro);
+
+    /**
+     * Calcula el componente del centroide de los datos acumulados.
+     * El cluster no puede estar vacío.
+     *
+     * @param primero dato de la primera respuesta del cluster, del que se toman los metadatos
+     *                (igual que {@link TDatos#getComponenteCentroide(java.util.ArrayList)} con el primer dato)
+     * @return valor del componente del centroide
+     */
+    public TDatos getComponenteCentroide(TDatos primero);
+}
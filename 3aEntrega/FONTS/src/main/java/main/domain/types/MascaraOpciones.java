@@ -0,0 +1,75 @@
+package main.domain.types;
+
+import java.util.List;
+
+/**
+ * Conjunto de opciones representado como máscara de bits sobre {@code long[]}.
+ * <p>
+ * El bit {@code id} está activo si la opción {@code id} está elegida. Con esta representación
+ * la distancia de Jaccard entre dos conjuntos se reduce a contar bits de la intersección
+ * ({@code and}) y de la unión ({@code or}), sin crear conjuntos intermedios.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class MascaraOpciones {
+
+    private MascaraOpciones() {}
+
+    /**
+     * Construye la máscara de un conjunto de opciones.
+     *
+     * @param ids identificadores de opción (no negativos); los repetidos cuentan una sola vez
+     * @return máscara con un bit activo por opción, con tantas palabras como necesite el mayor identificador
+     */
+    public static long[] desde(List<Integer> ids) {
+        int maxId = -1;
+        for (int id : ids) {
+            if (id < 0) throw new IllegalArgumentException("Identificador de opción negativo: " + id);
+            if (id > maxId) maxId = id;
+        }
+        long[] mascara = new long[(maxId < 0) ? 0 : (maxId >>> 6) + 1];
+        for (int id : ids) mascara[id >>> 6] |= 1L << id;
+        return mascara;
+    }
+
+    /**
+     * Distancia de Jaccard entre dos conjuntos de opciones: {@code 1 - |A ∩ B| / |A ∪ B|}.
+     *
+     * @param a máscara del primer conjunto
+     * @param b máscara del segundo conjunto
+     * @return distancia de Jaccard, o {@link Float#NaN} si ambos conjuntos son vacíos
+     */
+    public static float jaccard(long[] a, long[] b) {
+        return jaccard(a, 0, a.length, b, 0, b.length);
+    }
+
+    /**
+     * Distancia de Jaccard entre dos máscaras guardadas dentro de arrays más grandes
+     * (por ejemplo, una fila de una columna de máscaras).
+     *
+     * @param a array con la primera máscara
+     * @param offA posición de la primera palabra de la primera máscara
+     * @param wa número de palabras de la primera máscara
+     * @param b array con la segunda máscara
+     * @param offB posición de la primera palabra de la segunda máscara
+     * @param wb número de palabras de la segunda máscara
+     * @return distancia de Jaccard, o {@link Float#NaN} si ambos conjuntos son vacíos
+     */
+    public static float jaccard(long[] a, int offA, int wa, long[] b, int offB, int wb) {
+        int comun = Math.min(wa, wb);
+        int interseccion = 0;
+        int union = 0;
+        for (int w = 0; w < comun; ++w) {
+            long x = a[offA + w];
+            long y = b[offB + w];
+            interseccion += Long.bitCount(x & y);
+            union += Long.bitCount(x | y);
+        }
+        //las palabras que solo tiene una de las máscaras solo cuentan para la unión
+        for (int w = comun; w < wa; ++w) union += Long.bitCount(a[offA + w]);
+        for (int w = comun; w < wb; ++w) union += Long.bitCount(b[offB + w]);
+
+        if (union == 0) return Float.NaN;
+        return 1 - ((float) interseccion / (float) union);
+    }
+}
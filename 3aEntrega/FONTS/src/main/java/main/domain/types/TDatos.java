@@ -1,5 +1,10 @@
 package main.domain.types;
 
+import main.domain.exceptions.AmbosTextosSonVacios;
+import main.domain.exceptions.NumMaxIgualANumMin;
+import main.domain.exceptions.NumeroModalidadesMenorQueDos;
+import main.domain.exceptions.UnionEntreConjuntosDeOpcionesVacio;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 
@@ -10,6 +15,12 @@ import java.util.ArrayList;
  * @author Javier Zhangpan
  */
 public interface TDatos extends Serializable {
+    /**
+     * Valor que devuelve {@link #distancia(TDatos)} cuando la distancia no está definida
+     * (textos vacíos, rango nulo, menos de dos modalidades o conjuntos de opciones vacíos).
+     */
+    float DISTANCIA_INDEFINIDA = Float.NaN;
+
     /**
      * Calcula la distancia normalizada entre este dato y otro.
      *
@@ -18,6 +29,28 @@ public interface TDatos extends Serializable {
      */
     public Float calcularDistancia(TDatos t);
 
+    /**
+     * Calcula la distancia normalizada entre este dato y otro sin lanzar excepciones.
+     * <p>
+     * Los casos en los que {@link #calcularDistancia(TDatos)} lanza una excepción por no estar
+     * definida la distancia devuelven {@link #DISTANCIA_INDEFINIDA}, que se comprueba con
+     * {@link Float#isNaN(float)}. Por defecto se apoya en {@link #calcularDistancia(TDatos)};
+     * los tipos de datos del sistema lo implementan directamente.
+     * </p>
+     *
+     * @param t dato con el que se compara
+     * @return distancia entre ambos datos, o {@link #DISTANCIA_INDEFINIDA}
+     */
+    default float distancia(TDatos t) {
+        try {
+            return calcularDistancia(t);
+        }
+        catch (AmbosTextosSonVacios | NumeroModalidadesMenorQueDos | NumMaxIgualANumMin |
+               UnionEntreConjuntosDeOpcionesVacio e) {
+            return DISTANCIA_INDEFINIDA;
+        }
+    }
+
     /**
      * Calcula el componente correspondiente del centroide
      * a partir de una colección de datos.
@@ -27,6 +60,26 @@ public interface TDatos extends Serializable {
      */
     public TDatos getComponenteCentroide(ArrayList<TDatos> datos);
 
+    /**
+     * Crea un acumulador vacío para calcular el componente del centroide de forma incremental.
+     * Por defecto no hay acumulador y el centroide se calcula con {@link #getComponenteCentroide(ArrayList)}.
+     *
+     * @return acumulador para datos de este tipo, o {@code null} si el tipo no lo admite
+     */
+    default InterfazAcumuladorCentroide crearAcumuladorCentroide() {
+        return null;
+    }
+
+    /**
+     * Indica si {@link #distancia(TDatos)} cumple la desigualdad triangular entre datos de este tipo.
+     * Las variantes de K-Means que descartan centroides con cotas solo son exactas si la cumplen todas las preguntas.
+     *
+     * @return {@code true} si la distancia es una métrica
+     */
+    default boolean esMetrica() {
+        return true;
+    }
+
     /**
      * Devuelve la representación en texto del contenido del dato.
      *
@@ -110,6 +110,19 @@ public class TDatosInteger implements TDatos{
      */
     @Override
     public Float calcularDistancia(TDatos t) {
+        float distancia = distancia(t);
+        if(Float.isNaN(distancia)) throw new NumMaxIgualANumMin("NumMax es igual a numMin, lo que provoca una división por cero");
+        return distancia;
+    }
+
+    /**
+     * Calcula la distancia normalizada entre este entero y otro {@link TDatosInteger} sin lanzar excepciones.
+     *
+     * @param t otro dato
+     * @return distancia normalizada, o {@link TDatos#DISTANCIA_INDEFINIDA} si {@code numMax == numMin}
+     */
+    @Override
+    public float distancia(TDatos t) {
         TDatosInteger aux = (TDatosInteger) t;
         return numericaDistancia(this.num, aux.getNum(), this.numMax, this.numMin);
     }
@@ -131,13 +144,23 @@ public class TDatosInteger implements TDatos{
         return new TDatosInteger(mean, this.numMax, this.numMin);
     }
 
-    private static Float numericaDistancia(int numA, int numB, int numMax, int numMin) {
-        if(numMax == numMin) throw new NumMaxIgualANumMin("NumMax es igual a numMin, lo que provoca una división por cero");
+    private static float numericaDistancia(int numA, int numB, int numMax, int numMin) {
+        if(numMax == numMin) return DISTANCIA_INDEFINIDA;
         long diffAB = Math.abs((long)numA-(long)numB);
         long diffMaxMin = (long)numMax-(long)numMin;
         return (float)diffAB/(float)diffMaxMin;
     }
 
+    /**
+     * Crea un acumulador vacío del componente de centroide para datos de tipo {@link TDatosInteger}.
+     *
+     * @return nuevo acumulador
+     */
+    @Override
+    public InterfazAcumuladorCentroide crearAcumuladorCentroide() {
+        return new AcumuladorInteger();
+    }
+
     /**
      * Comprueba si otro {@link TDatosInteger} tiene el mismo valor.
      * La función asume que pertenecen a la misma pregunta.
@@ -22,6 +22,12 @@ public class TDatosOpciones implements TDatos{
     boolean orden;
     //número total de opciones posibles
     int numOpciones;
+    //máscara de bits de idOpciones, calculada bajo demanda
+    private transient long[] mascara;
+    //lista a partir de la que se calculó la máscara
+    private transient ArrayList<Integer> origenMascara;
+    //tabla de distancias de opción única para (orden, numOpciones), obtenida bajo demanda
+    private transient TablaDistanciasOpciones tabla;
 
 
     /**
@@ -87,6 +93,8 @@ public class TDatosOpciones implements TDatos{
      */
     public void setIdOpciones(ArrayList<Integer> idOpciones) {
         this.idOpciones = idOpciones;
+        this.mascara = null;
+        this.origenMascara = null;
     }
 
     /**
@@ -95,6 +103,7 @@ public class TDatosOpciones implements TDatos{
      */
     public void setOrden(boolean orden) {
         this.orden = orden;
+        this.tabla = null;
     }
 
     /**
@@ -103,6 +112,7 @@ public class TDatosOpciones implements TDatos{
      */
     public void setNumOpciones(int numOpciones) {
         this.numOpciones = numOpciones;
+        this.tabla = null;
     }
 
     /**
@@ -113,14 +123,69 @@ public class TDatosOpciones implements TDatos{
      */
     @Override
     public Float calcularDistancia(TDatos t) {
+        float distancia = distancia(t);
+        if(Float.isNaN(distancia)) {
+            TDatosOpciones aux = (TDatosOpciones) t;
+            if(aux.getIdOpciones().size() == 1 && this.idOpciones.size() == 1) throw new NumeroModalidadesMenorQueDos("Hay menos de dos modalidades totales, por lo que se divide por cero");
+            throw new UnionEntreConjuntosDeOpcionesVacio("Ambas respuestas no contienen ninguna opción");
+        }
+        return distancia;
+    }
+
+    /**
+     * Calcula la distancia normalizada entre este dato y otro {@link TDatosOpciones} sin lanzar excepciones.
+     *
+     * @param t otro dato
+     * @return distancia normalizada, o {@link TDatos#DISTANCIA_INDEFINIDA} si hay menos de dos modalidades
+     * o ambos conjuntos de opciones son vacíos
+     */
+    @Override
+    public float distancia(TDatos t) {
         TDatosOpciones aux = (TDatosOpciones) t;
         if(aux.getIdOpciones().size() == 1 && this.idOpciones.size() == 1) {
-            if(orden) return cualitativaOrdinalDistancia(idOpciones.getFirst(), aux.getIdOpciones().getFirst(), numOpciones);
-            else return cualitativaNoOrdinalDistancia(idOpciones.getFirst(), aux.getIdOpciones().getFirst());
+            int a = idOpciones.getFirst();
+            int b = aux.getIdOpciones().getFirst();
+            if(orden && numOpciones < 2) return DISTANCIA_INDEFINIDA;
+            if(tabla == null) tabla = TablaDistanciasOpciones.de(orden, numOpciones);
+            return tabla.distancia(a, b);
         }
         else {
-            return cualitativaConjuntoDistancia(idOpciones, aux.getIdOpciones());
+            long[] mascaraA = getMascara();
+            long[] mascaraB = aux.getMascara();
+            //con identificadores negativos no hay máscara y se calcula con conjuntos
+            if(mascaraA == null || mascaraB == null) return cualitativaConjuntoDistancia(idOpciones, aux.getIdOpciones());
+            return MascaraOpciones.jaccard(mascaraA, mascaraB);
+        }
+    }
+
+    /**
+     * Con orden, dos opciones únicas se comparan por su posición y el resto con Jaccard, y las dos distancias
+     * juntas no son una métrica: con 5 opciones, d({0,4}, {1}) = 1 &gt; d({0,4}, {0}) + d({0}, {1}) = 0.5 + 0.25.
+     * Los centroides tienen siempre una opción como mucho, así que basta con una respuesta de varias opciones
+     * en una pregunta ordenada para mezclarlas.
+     *
+     * @return {@code false} si las opciones tienen orden y hay más de una seleccionada
+     */
+    @Override
+    public boolean esMetrica() {
+        return !orden || idOpciones.size() <= 1;
+    }
+
+    /**
+     * Devuelve las opciones seleccionadas como máscara de bits (ver {@link MascaraOpciones}).
+     * Se recalcula si se ha cambiado la lista de opciones con {@link #setIdOpciones(ArrayList)}.
+     *
+     * @return máscara de las opciones seleccionadas, o {@code null} si alguna opción no es representable
+     */
+    public long[] getMascara() {
+        if(origenMascara != idOpciones || mascara == null) {
+            for(Integer id : idOpciones) {
+                if(id == null || id < 0) return null;
+            }
+            mascara = MascaraOpciones.desde(idOpciones);
+            origenMascara = idOpciones;
         }
+        return mascara;
     }
 
     /**
@@ -191,24 +256,11 @@ public class TDatosOpciones implements TDatos{
         return new TDatosOpciones(opc,orden,numOpciones);
     }
 
-    private static Float cualitativaOrdinalDistancia(int numeralModalidadA, int numeralModalidadB, int numModalidades) {
-        if(numModalidades < 2) throw new NumeroModalidadesMenorQueDos("Hay menos de dos modalidades totales, por lo que se divide por cero");
-
-        float diffAB = Math.abs(numeralModalidadA-numeralModalidadB);
-        return diffAB /(numModalidades-1);
-    }
-
-    private static Float cualitativaNoOrdinalDistancia(Integer modalidadA, Integer modalidadB) {
-        float retval = 1;
-        if(modalidadA.equals(modalidadB)) retval = 0;
-        return retval;
-    }
-
-    private static Float cualitativaConjuntoDistancia(ArrayList<Integer> conjuntoA, ArrayList<Integer> conjuntoB) {
+    private static float cualitativaConjuntoDistancia(ArrayList<Integer> conjuntoA, ArrayList<Integer> conjuntoB) {
         float interseccion = interseccion(conjuntoA,conjuntoB).size();
         float union = union(conjuntoA, conjuntoB).size();
 
-        if(union == 0.0) throw new UnionEntreConjuntosDeOpcionesVacio("Ambas respuestas no contienen ninguna opción");
+        if(union == 0.0) return DISTANCIA_INDEFINIDA;
 
         return 1 - (interseccion/union);
     }
@@ -225,6 +277,16 @@ public class TDatosOpciones implements TDatos{
         return union;
     }
 
+    /**
+     * Crea un acumulador vacío del componente de centroide para datos de tipo {@link TDatosOpciones}.
+     *
+     * @return nuevo acumulador
+     */
+    @Override
+    public InterfazAcumuladorCentroide crearAcumuladorCentroide() {
+        return new AcumuladorOpciones();
+    }
+
     /**
      * Comprueba si otro {@link TDatosOpciones} tiene las mismas opciones seleccionadas.
      * La función asume que pertenecen a la misma pregunta.
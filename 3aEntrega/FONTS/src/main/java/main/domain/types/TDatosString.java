@@ -1,14 +1,15 @@
 package main.domain.types;
 
 import main.domain.exceptions.AmbosTextosSonVacios;
+import main.domain.types.edicion.DistanciaEdicionBitParalela;
+import main.domain.types.edicion.InterfazDistanciaEdicion;
 
 import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * Representa un dato de tipo texto.
@@ -20,6 +21,11 @@ import java.util.TreeMap;
 public class TDatosString implements TDatos{
 
     String texto;
+    //identificadores en DiccionarioPalabras de las palabras relevantes de texto, calculados al guardar el texto
+    private transient int[] tokens;
+    private static final int[] SIN_TOKENS = new int[0];
+    //motor con el que se calcula la distancia de edición entre textos; no guarda estado y es seguro entre hilos
+    private static final InterfazDistanciaEdicion MOTOR_DISTANCIA = new DistanciaEdicionBitParalela();
     private static final Set<String> palabrasNoFuncionales = new HashSet<>(Set.of(
             "a", "acá", "ahí", "al", "algo", "algún", "alguna", "algunas", "alguno", "algunos",
             "allá", "allí", "ante", "antes", "aquel", "aquella", "aquellas", "aquello", "aquellos",
@@ -48,6 +54,7 @@ public class TDatosString implements TDatos{
      */
     public TDatosString() {
         this.texto = "";
+        this.tokens = SIN_TOKENS;
     }
 
     /**
@@ -57,6 +64,13 @@ public class TDatosString implements TDatos{
      */
     public TDatosString(String str) {
         this.texto = str;
+        this.tokens = tokenizar(str);
+    }
+
+    //centroide ya tokenizado: las palabras de str son exactamente las de tokens
+    TDatosString(String str, int[] tokens) {
+        this.texto = str;
+        this.tokens = tokens;
     }
 
     /**
@@ -73,6 +87,7 @@ public class TDatosString implements TDatos{
      */
     public void setTexto(String texto) {
         this.texto = texto;
+        this.tokens = tokenizar(texto);
     }
 
     /**
@@ -83,52 +98,53 @@ public class TDatosString implements TDatos{
      */
     @Override
     public Float calcularDistancia(TDatos t) {
+        float distancia = distancia(t);
+        if(Float.isNaN(distancia)) throw new AmbosTextosSonVacios("Ambos strings son vacíos, lo que provoca una división por cero");
+        return distancia;
+    }
+
+    /**
+     * Calcula la distancia normalizada entre este texto y otro {@link TDatosString} sin lanzar excepciones.
+     *
+     * @param t otro dato
+     * @return distancia normalizada, o {@link TDatos#DISTANCIA_INDEFINIDA} si ambos textos son vacíos
+     */
+    @Override
+    public float distancia(TDatos t) {
         TDatosString aux = (TDatosString) t;
         return stringsDistancia(texto, aux.getTexto());
     }
 
-    private static Float stringsDistancia(String strA, String strB) {
+    private static float stringsDistancia(String strA, String strB) {
         float maxLength = Math.max(strA.length(), strB.length());
 
-        if(maxLength == 0.0) throw new AmbosTextosSonVacios("Ambos strings son vacíos, lo que provoca una división por cero");
+        if(maxLength == 0.0) return DISTANCIA_INDEFINIDA;
 
-        return levDist(strA,strB) / maxLength;
+        return MOTOR_DISTANCIA.distancia(strA, strB) / maxLength;
     }
 
-    //implementación con programación dinámica (tabulación)
-    // O(n*m) de complejidad temporal y espacial
-    private static int levDist(String strA, String strB) {
-        ArrayList<ArrayList<Integer>> E = new ArrayList<>();
-        int n = strA.length();
-        int m = strB.length();
-
-        //inicializar matriz
-        for (int i = 0; i <= n; i++) {
-            ArrayList<Integer> row = new ArrayList<>();
-            for (int j = 0; j <= m; j++) {
-                row.add(0);
-            }
-            E.add(row);
-        }
-
-        //casos base
-        for(int i = 0; i <= n; ++i) E.get(i).set(0,i);
-        for(int j = 0; j <= m; ++j) E.getFirst().set(j,j);
-
-        //casos recursivos
-        for(int i = 1; i <= n; ++i) {
-            for(int j = 1; j <= m; ++j) {
-                int delta = (strA.charAt(i-1) != strB.charAt(j-1)) ? 1 : 0;
-
-                int insert = E.get(i).get(j - 1) + 1;
-                int delete = E.get(i - 1).get(j) + 1;
-                int replace = E.get(i - 1).get(j - 1) + delta;
-
-                E.get(i).set(j, Math.min(insert, Math.min(delete, replace)));
-            }
-        }
+    /**
+     * Calcula la distancia de edición entre dos textos ya convertidos a caracteres, con el mismo motor que
+     * {@link #distancia(TDatos)}.
+     * @param a caracteres del primer texto
+     * @param n longitud del primer texto
+     * @param b caracteres del segundo texto
+     * @param m longitud del segundo texto
+     * @return número mínimo de inserciones, borrados y sustituciones
+     */
+    public static int distanciaEdicion(char[] a, int n, char[] b, int m) {
+        return MOTOR_DISTANCIA.distancia(a, n, b, m);
+    }
 
-        return E.get(n).get(m);
+    /**
+     * La distancia de edición normalizada por la longitud mayor no es una métrica:
+     * d("ab", "aba") + d("aba", "ba") = 2/3 &lt; d("ab", "ba") = 1.
+     *
+     * @return {@code false}
+     */
+    @Override
+    public boolean esMetrica() {
+        return false;
     }
 
     /**
@@ -139,63 +155,80 @@ public class TDatosString implements TDatos{
      */
     @Override
     public TDatos getComponenteCentroide(ArrayList<TDatos> datos) {
-        Map<String, Integer> diccionario = new TreeMap<>();
-        for(TDatos d : datos) {
-            TDatosString dato = (TDatosString) d;
-            String[] words = procesarTexto(dato.getTexto());
-
-            for(String word : words) {
-                if (word.isBlank()) continue;
-                if(!palabrasNoFuncionales.contains(word)) {
-                    diccionario.put(word, diccionario.getOrDefault(word, 0) + 1);
-                }
-            }
-        }
+        AcumuladorString acumulador = new AcumuladorString();
+        for(TDatos d : datos) acumulador.anadir(d);
+        return acumulador.getComponenteCentroide(this);
+    }
 
-        int max = 0;
-        for(Map.Entry<String,Integer> entry : diccionario.entrySet()) {
-            if(entry.getValue() > max) {
-                max = entry.getValue();
-            }
-        }
+    /**
+     * Crea un acumulador vacío del componente de centroide para datos de tipo {@link TDatosString}.
+     *
+     * @return nuevo acumulador
+     */
+    @Override
+    public InterfazAcumuladorCentroide crearAcumuladorCentroide() {
+        return new AcumuladorString();
+    }
 
-        ArrayList<String> strs = new ArrayList<>();
-        for(Map.Entry<String,Integer> entry : diccionario.entrySet()) {
-            if(entry.getValue() == max) {
-                strs.add(entry.getKey());
-            }
+    //identificadores de las palabras del texto que cuentan para el centroide
+    int[] tokens() {
+        int[] t = tokens;
+        //tras deserializar no hay tokens: se calculan la primera vez que se piden
+        if (t == null) {
+            t = tokenizar(texto);
+            tokens = t;
         }
+        return t;
+    }
 
-        String str = String.join(" ", strs);
-
-        return new TDatosString(str);
+    //palabras procesadas, no vacías y no funcionales, como identificadores de DiccionarioPalabras
+    private static int[] tokenizar(String texto) {
+        String[] words = procesarTexto(texto);
+        int[] ids = new int[words.length];
+        int num = 0;
+        for (String word : words) {
+            if (!word.isBlank() && !palabrasNoFuncionales.contains(word)) ids[num++] = DiccionarioPalabras.id(word);
+        }
+        return (num == 0) ? SIN_TOKENS : Arrays.copyOf(ids, num);
     }
 
+    /**
+     * Separa un texto en palabras normalizadas: solo letras, sin marcas diacríticas y en minúsculas.
+     * Las palabras que solo tienen caracteres ASCII no pasan por {@link Normalizer}, ya que no tienen marcas.
+     *
+     * @param text texto
+     * @return palabras del texto en orden
+     */
     public static String[] procesarTexto(String text) {
         List<String> out = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
+        int inicio = -1;
+        boolean ascii = true;
 
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
+        for (int i = 0; i <= text.length(); i++) {
+            char c = (i < text.length()) ? text.charAt(i) : ' ';
 
             if (Character.isLetter(c)) {
-                sb.append(c);
-            } else {
-                if (!sb.isEmpty()) {
-                    out.add(sb.toString());
-                    sb.setLength(0);
+                if (inicio < 0) {
+                    inicio = i;
+                    ascii = true;
                 }
+                if (c >= 128) ascii = false;
+            } else if (inicio >= 0) {
+                out.add(normalizar(text.substring(inicio, i), ascii));
+                inicio = -1;
             }
         }
-        if (!sb.isEmpty()) out.add(sb.toString());
-
-        out.replaceAll(src -> Normalizer.normalize(src, Normalizer.Form.NFD)
-                .replaceAll("\\p{M}", "")
-                .toLowerCase());
 
         return out.toArray(new String[0]);
     }
 
+    private static String normalizar(String palabra, boolean ascii) {
+        if (ascii) return palabra.toLowerCase();
+        return Normalizer.normalize(palabra, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase();
+    }
+
     /**
      * Comprueba si otro {@link TDatosString} tiene el mismo texto.
      * La función asume que pertenecen a la misma pregunta.
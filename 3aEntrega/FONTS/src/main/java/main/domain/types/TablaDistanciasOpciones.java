@@ -0,0 +1,75 @@
+package main.domain.types;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla precalculada de distancias entre respuestas de una sola opción.
+ * <p>
+ * Para una pregunta con {@code numOpciones} opciones guarda las {@code numOpciones × numOpciones}
+ * distancias posibles, calculadas con la misma aritmética en {@code float} que la fórmula original,
+ * por lo que el resultado es idéntico. Las tablas se comparten entre todas las respuestas con el mismo
+ * tipo de orden y número de opciones.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public final class TablaDistanciasOpciones {
+    //a partir de este número de opciones la tabla ocuparía demasiado y se usa la fórmula
+    private static final int MAX_OPCIONES_TABLA = 256;
+
+    private static final ConcurrentHashMap<Integer, TablaDistanciasOpciones> ORDINALES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, TablaDistanciasOpciones> NOMINALES = new ConcurrentHashMap<>();
+
+    private final boolean orden;
+    private final int numOpciones;
+    //distancias[a * numOpciones + b]; null si no se tabula
+    private final float[] distancias;
+
+    private TablaDistanciasOpciones(boolean orden, int numOpciones) {
+        this.orden = orden;
+        this.numOpciones = numOpciones;
+        if (numOpciones > 0 && numOpciones <= MAX_OPCIONES_TABLA) {
+            distancias = new float[numOpciones * numOpciones];
+            for (int a = 0; a < numOpciones; ++a) {
+                for (int b = 0; b < numOpciones; ++b) {
+                    distancias[a * numOpciones + b] = formula(orden, numOpciones, a, b);
+                }
+            }
+        }
+        else distancias = null;
+    }
+
+    /**
+     * Devuelve la tabla compartida para un tipo de pregunta.
+     * Para preguntas ordenadas se requieren al menos dos opciones.
+     *
+     * @param orden si las opciones tienen orden
+     * @param numOpciones número total de opciones de la pregunta
+     * @return tabla de distancias de la pregunta
+     */
+    public static TablaDistanciasOpciones de(boolean orden, int numOpciones) {
+        ConcurrentHashMap<Integer, TablaDistanciasOpciones> cache = orden ? ORDINALES : NOMINALES;
+        //las preguntas no ordenadas no dependen del número de opciones salvo por el tamaño de la tabla
+        return cache.computeIfAbsent(numOpciones, n -> new TablaDistanciasOpciones(orden, n));
+    }
+
+    /**
+     * Distancia entre dos respuestas de una sola opción.
+     * Los identificadores fuera de {@code [0, numOpciones)} se calculan con la fórmula directamente.
+     *
+     * @param a opción elegida en la primera respuesta
+     * @param b opción elegida en la segunda respuesta
+     * @return distancia normalizada entre las dos opciones
+     */
+    public float distancia(int a, int b) {
+        if (distancias != null && a >= 0 && b >= 0 && a < numOpciones && b < numOpciones) {
+            return distancias[a * numOpciones + b];
+        }
+        return formula(orden, numOpciones, a, b);
+    }
+
+    private static float formula(boolean orden, int numOpciones, int a, int b) {
+        if (!orden) return (a == b) ? 0.f : 1.f;
+        float diff = Math.abs(a - b);
+        return diff / (numOpciones - 1);
+    }
+}
@@ -0,0 +1,113 @@
+package main.domain.types.edicion;
+
+/**
+ * Buffers reutilizables por hilo de los motores de distancia de edición.
+ * Crecen según se necesitan y no se liberan, de modo que en régimen estable no se reserva memoria.
+ * @author Javier Zhangpan
+ */
+final class BufferesEdicion {
+    private static final ThreadLocal<BufferesEdicion> BUFFERES = ThreadLocal.withInitial(BufferesEdicion::new);
+
+    private char[] textoA = new char[64];
+    private char[] textoB = new char[64];
+    private int[] filaA = new int[65];
+    private int[] filaB = new int[65];
+
+    //máscaras de coincidencia por carácter: ascii[c * palabras + w] para c < 128
+    long[] ascii = new long[128];
+    //caracteres no ASCII del patrón y sus máscaras: extraMascaras[i * palabras + w]
+    char[] extra = new char[8];
+    long[] extraMascaras = new long[8];
+    int numExtra;
+    //vectores verticales positivos y negativos del algoritmo por bloques
+    long[] vp = new long[1];
+    long[] vn = new long[1];
+
+    private BufferesEdicion() {}
+
+    static BufferesEdicion get() {
+        return BUFFERES.get();
+    }
+
+    char[] textoA(String s) {
+        if (textoA.length < s.length()) textoA = new char[s.length()];
+        s.getChars(0, s.length(), textoA, 0);
+        return textoA;
+    }
+
+    char[] textoB(String s) {
+        if (textoB.length < s.length()) textoB = new char[s.length()];
+        s.getChars(0, s.length(), textoB, 0);
+        return textoB;
+    }
+
+    int[] filaA(int longitud) {
+        if (filaA.length < longitud) filaA = new int[longitud];
+        return filaA;
+    }
+
+    int[] filaB(int longitud) {
+        if (filaB.length < longitud) filaB = new int[longitud];
+        return filaB;
+    }
+
+    /**
+     * Prepara las tablas de máscaras para un patrón de {@code palabras} palabras de 64 bits.
+     * Las tablas deben estar a cero (ver {@link #limpiarMascaras(char[], int, int)}).
+     */
+    void reservarMascaras(int palabras) {
+        if (ascii.length < 128 * palabras) ascii = new long[128 * palabras];
+        if (vp.length < palabras) {
+            vp = new long[palabras];
+            vn = new long[palabras];
+        }
+        numExtra = 0;
+    }
+
+    /**
+     * Devuelve la posición de un carácter no ASCII en las tablas auxiliares, añadiéndolo si no está.
+     */
+    int indiceExtra(char c, int palabras) {
+        for (int i = 0; i < numExtra; ++i) {
+            if (extra[i] == c) return i;
+        }
+        if (numExtra == extra.length) {
+            char[] nuevo = new char[extra.length * 2];
+            System.arraycopy(extra, 0, nuevo, 0, numExtra);
+            extra = nuevo;
+        }
+        if (extraMascaras.length < (numExtra + 1) * palabras) {
+            long[] nuevas = new long[Math.max(extraMascaras.length * 2, (numExtra + 1) * palabras)];
+            System.arraycopy(extraMascaras, 0, nuevas, 0, numExtra * palabras);
+            extraMascaras = nuevas;
+        }
+        extra[numExtra] = c;
+        for (int w = 0; w < palabras; ++w) extraMascaras[numExtra * palabras + w] = 0L;
+        return numExtra++;
+    }
+
+    /**
+     * Busca un carácter no ASCII en las tablas auxiliares sin añadirlo.
+     *
+     * @return posición del carácter, o -1 si no aparece en el patrón
+     */
+    int buscarExtra(char c) {
+        for (int i = 0; i < numExtra; ++i) {
+            if (extra[i] == c) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Vuelve a dejar a cero las entradas ASCII usadas por un patrón.
+     */
+    void limpiarMascaras(char[] patron, int longitud, int palabras) {
+        for (int i = 0; i < longitud; ++i) {
+            char c = patron[i];
+            if (c < 128) {
+                for (int w = 0; w < palabras; ++w) ascii[c * palabras + w] = 0L;
+            }
+        }
+        numExtra = 0;
+    }
+}
@@ -0,0 +1,142 @@
+package main.domain.types.edicion;
+
+/**
+ * Distancia de Levenshtein con el algoritmo de vectores de bits de Myers (1999) en la
+ * formulación de Hyyrö (2003).
+ * <p>
+ * El texto más corto se usa como patrón y se codifica en máscaras de bits por carácter;
+ * cada carácter del otro texto actualiza una columna entera de la tabla de programación dinámica
+ * con unas pocas operaciones sobre {@code long}. Con patrones de hasta 64 caracteres el coste es
+ * O(n); para patrones más largos se procesa por bloques de 64 bits propagando los acarreos
+ * horizontales, con coste O(n·⌈m/64⌉).
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class DistanciaEdicionBitParalela implements InterfazDistanciaEdicion {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int distancia(char[] a, int n, char[] b, int m) {
+        return calcular(a, n, b, m, Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * El cálculo se abandona cuando la distancia parcial menos los caracteres que quedan supera el máximo.
+     */
+    @Override
+    public int distanciaAcotada(char[] a, int n, char[] b, int m, int maxDistancia) {
+        if (Math.abs(n - m) > maxDistancia) return maxDistancia + 1;
+        return Math.min(calcular(a, n, b, m, maxDistancia), maxDistancia + 1);
+    }
+
+    private static int calcular(char[] a, int n, char[] b, int m, int maxDistancia) {
+        //el patrón es el texto más corto
+        if (m > n) return calcular(b, m, a, n, maxDistancia);
+        if (m == 0) return n;
+
+        int palabras = (m + 63) >>> 6;
+        BufferesEdicion buf = BufferesEdicion.get();
+        buf.reservarMascaras(palabras);
+        try {
+            codificarPatron(buf, b, m, palabras);
+            if (palabras == 1) return unaPalabra(buf, m, a, n, maxDistancia);
+            return porBloques(buf, m, palabras, a, n, maxDistancia);
+        } finally {
+            buf.limpiarMascaras(b, m, palabras);
+        }
+    }
+
+    private static void codificarPatron(BufferesEdicion buf, char[] patron, int m, int palabras) {
+        for (int i = 0; i < m; ++i) {
+            char c = patron[i];
+            int w = i >>> 6;
+            long bit = 1L << i;
+            if (c < 128) buf.ascii[c * palabras + w] |= bit;
+            else {
+                //indiceExtra puede hacer crecer la tabla: se obtiene antes de acceder a ella
+                int indice = buf.indiceExtra(c, palabras);
+                buf.extraMascaras[indice * palabras + w] |= bit;
+            }
+        }
+    }
+
+    //máscara de coincidencias del carácter c en la palabra w del patrón
+    private static long mascara(BufferesEdicion buf, char c, int w, int palabras) {
+        if (c < 128) return buf.ascii[c * palabras + w];
+        int i = buf.buscarExtra(c);
+        return (i < 0) ? 0L : buf.extraMascaras[i * palabras + w];
+    }
+
+    private static int unaPalabra(BufferesEdicion buf, int m, char[] texto, int n, int maxDistancia) {
+        long vp = -1L;
+        long vn = 0L;
+        long ultimo = 1L << (m - 1);
+        int distancia = m;
+
+        for (int t = 0; t < n; ++t) {
+            long eq = mascara(buf, texto[t], 0, 1);
+            long d0 = (((eq & vp) + vp) ^ vp) | eq | vn;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & ultimo) != 0) ++distancia;
+            if ((hn & ultimo) != 0) --distancia;
+            //cota inferior: cada carácter restante puede reducir la distancia como mucho en 1
+            if (distancia - (n - t - 1) > maxDistancia) return maxDistancia + 1;
+            hp = (hp << 1) | 1L;
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+        }
+        return distancia;
+    }
+
+    private static int porBloques(BufferesEdicion buf, int m, int palabras, char[] texto, int n, int maxDistancia) {
+        long[] vp = buf.vp;
+        long[] vn = buf.vn;
+        for (int w = 0; w < palabras; ++w) {
+            vp[w] = -1L;
+            vn[w] = 0L;
+        }
+        long ultimo = 1L << ((m - 1) & 63);
+        int distancia = m;
+
+        for (int t = 0; t < n; ++t) {
+            char c = texto[t];
+            //la fila 0 de la tabla crece en 1 por columna: acarreo horizontal inicial positivo
+            long acarreoHp = 1L;
+            long acarreoHn = 0L;
+            for (int w = 0; w < palabras; ++w) {
+                long eq = mascara(buf, c, w, palabras);
+                long vpw = vp[w];
+                long vnw = vn[w];
+
+                long x = eq | acarreoHn;
+                long d0 = (((x & vpw) + vpw) ^ vpw) | x | vnw;
+                long hp = vnw | ~(d0 | vpw);
+                long hn = d0 & vpw;
+
+                long entradaHp = acarreoHp;
+                long entradaHn = acarreoHn;
+                if (w < palabras - 1) {
+                    acarreoHp = hp >>> 63;
+                    acarreoHn = hn >>> 63;
+                }
+                else {
+                    acarreoHp = ((hp & ultimo) != 0) ? 1L : 0L;
+                    acarreoHn = ((hn & ultimo) != 0) ? 1L : 0L;
+                }
+                hp = (hp << 1) | entradaHp;
+                hn = (hn << 1) | entradaHn;
+
+                vp[w] = hn | ~(d0 | hp);
+                vn[w] = hp & d0;
+            }
+            distancia += (int) acarreoHp - (int) acarreoHn;
+            if (distancia - (n - t - 1) > maxDistancia) return maxDistancia + 1;
+        }
+        return distancia;
+    }
+}
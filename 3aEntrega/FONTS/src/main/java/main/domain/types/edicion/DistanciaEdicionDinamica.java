@@ -0,0 +1,82 @@
+package main.domain.types.edicion;
+
+/**
+ * Distancia de Levenshtein por programación dinámica con dos filas de enteros.
+ * <p>
+ * Coste O(n·m) en tiempo y O(min(n, m)) en espacio, usando buffers reutilizables por hilo.
+ * La versión acotada solo calcula la banda diagonal {@code |i - j| <= maxDistancia} y se detiene
+ * en cuanto todas las celdas de una fila superan el máximo (Ukkonen).
+ * </p>
+ * @author Javier Zhangpan
+ */
+public class DistanciaEdicionDinamica implements InterfazDistanciaEdicion {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int distancia(char[] a, int n, char[] b, int m) {
+        //las columnas corresponden al texto más corto
+        if (m > n) return distancia(b, m, a, n);
+        if (m == 0) return n;
+
+        BufferesEdicion buf = BufferesEdicion.get();
+        int[] prev = buf.filaA(m + 1);
+        int[] cur = buf.filaB(m + 1);
+        for (int j = 0; j <= m; ++j) prev[j] = j;
+
+        for (int i = 1; i <= n; ++i) {
+            cur[0] = i;
+            char ca = a[i - 1];
+            for (int j = 1; j <= m; ++j) {
+                int delta = (ca != b[j - 1]) ? 1 : 0;
+                cur[j] = Math.min(cur[j - 1] + 1, Math.min(prev[j] + 1, prev[j - 1] + delta));
+            }
+            int[] aux = prev;
+            prev = cur;
+            cur = aux;
+        }
+        return prev[m];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int distanciaAcotada(char[] a, int n, char[] b, int m, int maxDistancia) {
+        if (m > n) return distanciaAcotada(b, m, a, n, maxDistancia);
+        int infinito = maxDistancia + 1;
+        if (n - m > maxDistancia) return infinito;
+        if (m == 0) return n;
+
+        BufferesEdicion buf = BufferesEdicion.get();
+        int[] prev = buf.filaA(m + 2);
+        int[] cur = buf.filaB(m + 2);
+        for (int j = 0; j <= m; ++j) prev[j] = Math.min(j, infinito);
+        prev[m + 1] = infinito;
+
+        for (int i = 1; i <= n; ++i) {
+            int desde = Math.max(1, i - maxDistancia);
+            int hasta = Math.min(m, i + maxDistancia);
+            //celda a la izquierda de la banda
+            cur[desde - 1] = (desde == 1) ? Math.min(i, infinito) : infinito;
+            int minFila = cur[desde - 1];
+            char ca = a[i - 1];
+            for (int j = desde; j <= hasta; ++j) {
+                int delta = (ca != b[j - 1]) ? 1 : 0;
+                int v = Math.min(cur[j - 1] + 1, Math.min(prev[j] + 1, prev[j - 1] + delta));
+                if (v > infinito) v = infinito;
+                cur[j] = v;
+                if (v < minFila) minFila = v;
+            }
+            //celda a la derecha de la banda, la leerá la fila siguiente
+            cur[hasta + 1] = infinito;
+            if (minFila > maxDistancia) return infinito;
+
+            int[] aux = prev;
+            prev = cur;
+            cur = aux;
+        }
+        return Math.min(prev[m], infinito);
+    }
+}
@@ -0,0 +1,64 @@
+package main.domain.types.edicion;
+
+/**
+ * Interfaz de los motores de distancia de edición (Levenshtein) entre textos.
+ * <p>
+ * Las implementaciones no deben reservar memoria en cada llamada: trabajan sobre {@code char[]}
+ * y reutilizan buffers por hilo, por lo que son seguras de usar desde varios hilos a la vez.
+ * </p>
+ * @author Javier Zhangpan
+ */
+public interface InterfazDistanciaEdicion {
+    /**
+     * Calcula la distancia de Levenshtein entre los prefijos {@code a[0..n)} y {@code b[0..m)}.
+     *
+     * @param a caracteres del primer texto
+     * @param n longitud del primer texto
+     * @param b caracteres del segundo texto
+     * @param m longitud del segundo texto
+     * @return número mínimo de inserciones, borrados y sustituciones
+     */
+    int distancia(char[] a, int n, char[] b, int m);
+
+    /**
+     * Calcula la distancia de Levenshtein si no supera un máximo.
+     * Permite abandonar el cálculo en cuanto se sabe que la distancia es mayor que {@code maxDistancia}.
+     *
+     * @param a caracteres del primer texto
+     * @param n longitud del primer texto
+     * @param b caracteres del segundo texto
+     * @param m longitud del segundo texto
+     * @param maxDistancia distancia máxima de interés (no negativa)
+     * @return la distancia exacta si es {@code <= maxDistancia}; {@code maxDistancia + 1} en caso contrario
+     */
+    int distanciaAcotada(char[] a, int n, char[] b, int m, int maxDistancia);
+
+    /**
+     * Calcula la distancia de Levenshtein entre dos {@link String}.
+     *
+     * @param a primer texto
+     * @param b segundo texto
+     * @return número mínimo de inserciones, borrados y sustituciones
+     */
+    default int distancia(String a, String b) {
+        BufferesEdicion buf = BufferesEdicion.get();
+        char[] ca = buf.textoA(a);
+        char[] cb = buf.textoB(b);
+        return distancia(ca, a.length(), cb, b.length());
+    }
+
+    /**
+     * Calcula la distancia de Levenshtein entre dos {@link String} si no supera un máximo.
+     *
+     * @param a primer texto
+     * @param b segundo texto
+     * @param maxDistancia distancia máxima de interés (no negativa)
+     * @return la distancia exacta si es {@code <= maxDistancia}; {@code maxDistancia + 1} en caso contrario
+     */
+    default int distanciaAcotada(String a, String b, int maxDistancia) {
+        BufferesEdicion buf = BufferesEdicion.get();
+        char[] ca = buf.textoA(a);
+        char[] cb = buf.textoB(b);
+        return distanciaAcotada(ca, a.length(), cb, b.length(), maxDistancia);
+    }
+}
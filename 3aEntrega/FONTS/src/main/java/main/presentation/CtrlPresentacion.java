@@ -6,6 +6,7 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 
 /**
  * Controlador de la capa de presentación. Es el encargado de crear toda la aplicación, conteniendo
@@ -254,4 +255,7 @@ public class CtrlPresentacion implements PresenterEncuesta, PresenterRespuesta,
 
     @Override
     public float getEval() { return ctrlDominio.getEvaluacionCalidad(); }
+
+    @Override
+    public LinkedHashMap<String, Float> getMedidasCalidad() { return ctrlDominio.getMedidasCalidad(); }
 }
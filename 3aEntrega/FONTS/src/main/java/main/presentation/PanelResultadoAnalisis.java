@@ -22,6 +22,8 @@ import java.awt.Graphics2D;
 import java.awt.GridLayout;
 import java.awt.RenderingHints;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
 
 /**
@@ -40,6 +42,7 @@ public class PanelResultadoAnalisis extends JPanel {
     private final ArrayList<ArrayList<String>> nombres;
     private final int clusters;
     private final float eval;
+    private final LinkedHashMap<String, Float> medidas;
 
     private GraficoTable estadoPanelCentral;
 
@@ -58,6 +61,8 @@ public class PanelResultadoAnalisis extends JPanel {
     private static final String CARD_TABLA = "tabla";
     private static final String TODOS_CLUSTERS = "Todos";
     private static final String EVAL_TEXTO = "Evaluación del clustering: ";
+    private static final String SEPARADOR_MEDIDAS = "   ";
+    private static final String FORMATO_MEDIDA = "%.4f";
     private static final String TEXTO_BOTON_GRAFICO = "Gráfico";
     private static final String TEXTO_BOTON_TABLA = "Tabla";
     private static final String TEXTO_COMBOBOX_CLUSTER = "Cluster";
@@ -82,15 +87,18 @@ public class PanelResultadoAnalisis extends JPanel {
      * @param ns emails de cada respuesta agrupados por cluster
      * @param k número de clusters
      * @param e valor de evaluación
+     * @param ms valor de cada medida de calidad por nombre
      */
     public PanelResultadoAnalisis(ArrayList<ArrayList<ArrayList<Float>>> distsClusters,
                                   ArrayList<ArrayList<Float>> distsGlobal,
-                                  ArrayList<ArrayList<String>> ns, int k, float e) {
+                                  ArrayList<ArrayList<String>> ns, int k, float e,
+                                  LinkedHashMap<String, Float> ms) {
         this.distanciasPorCluster = distsClusters;
         this.distanciasGlobal = distsGlobal;
         this.nombres = ns;
         this.clusters = k;
         this.eval = e;
+        this.medidas = ms;
 
         setLayout(new BorderLayout(10, 10));
 
@@ -149,6 +157,15 @@ public class PanelResultadoAnalisis extends JPanel {
         evalLabel.setFont(evalLabel.getFont().deriveFont(Font.BOLD));
         header.add(evalLabel);
 
+        StringBuilder textoMedidas = new StringBuilder();
+        for (Map.Entry<String, Float> medida : medidas.entrySet()) {
+            if (!textoMedidas.isEmpty()) textoMedidas.append(SEPARADOR_MEDIDAS);
+            textoMedidas.append(medida.getKey()).append(": ").append(String.format(FORMATO_MEDIDA, medida.getValue()));
+        }
+        JLabel medidasLabel = new JLabel(textoMedidas.toString());
+        medidasLabel.setBorder(BorderFactory.createEmptyBorder(STRUT, STRUT, STRUT, STRUT));
+        header.add(medidasLabel);
+
         panel.add(header);
         panel.add(panelCentral);
 
@@ -46,9 +46,9 @@ public class PanelSeleccionarAnalisis extends JPanel {
     private PanelResultadoAnalisis panelResultadoAnalisis;
     private JButton botonCargarSeleccion;
 
-    private static final Vector<String> ALGORITMOS_POSIBLES = new Vector<>(List.of("KMeansOptimizado", "KMeans", "KMedoids"));
-    private static final Vector<String> INICIALIZADORES_POSIBLES = new Vector<>(List.of("KMeans++", "Aleatorio", "Greedy"));
-    private static final Vector<String> EVALUADORES_POSIBLES = new Vector<>(List.of("Silhouette", "CalinskiHarabasz", "DaviesBouldinen"));
+    private static final Vector<String> ALGORITMOS_POSIBLES = new Vector<>(List.of("KMeansOptimizado", "KMeans", "KMeansHamerly", "KMeansParalelo", "KMeansMiniBatch", "KMedoids", "CLARA", "CLARANS", "JerarquicoPromedio", "JerarquicoCompleto", "JerarquicoWard"));
+    private static final Vector<String> INICIALIZADORES_POSIBLES = new Vector<>(List.of("KMeans++", "KMeans||", "Aleatorio", "Greedy", "LAB", "Ninguno"));
+    private static final Vector<String> EVALUADORES_POSIBLES = new Vector<>(List.of("Silhouette", "SilhouetteMuestreado", "SilhouetteSimplificada", "CalinskiHarabasz", "DaviesBouldinen"));
 
     private static final String TEXTO_SELECCIONAR_ENCUESTA = "Por favor, seleccione la encuesta que desea analizar.";
     private static final String TEXTO_SELECCIONAR_RESPUESTA = "Por favor, seleccione las respuestas que desea analizar.";
@@ -487,7 +487,8 @@ public class PanelSeleccionarAnalisis extends JPanel {
                     presenterAnalisis.getDistancias(),
                     presenterAnalisis.getAutoresClusters(),
                     k,
-                    presenterAnalisis.getEval()
+                    presenterAnalisis.getEval(),
+                    presenterAnalisis.getMedidasCalidad()
             );
         }
         //no debería haber excepciones en estas operaciones porque son consultas
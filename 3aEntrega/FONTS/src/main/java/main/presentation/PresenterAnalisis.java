@@ -1,6 +1,7 @@
 package main.presentation;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 
 /**
  * Interfaz del presentador para análisis.
@@ -60,4 +61,10 @@ public interface PresenterAnalisis {
      * @return Valor de la evaluación de calidad.
      */
     public float getEval();
+
+    /**
+     * Obtiene las medidas de calidad del clustering tras el análisis, calculadas en una sola pasada.
+     * @return Valor de cada medida por nombre.
+     */
+    public LinkedHashMap<String, Float> getMedidasCalidad();
 }
@@ -106,8 +106,9 @@ public class VistaPrincipal {
             "y usar <b>Shift+Click izquierdo</b> en la última respuesta que quieras incluir.</p>" +
             "<p><b>Recuerda darle al botón de cargar respuestas cuando finalices la selección.</b></p>" +
             "<p>A la derecha, hay listas desplegables para escoger los algoritmos a utilizar en el análisis. " +
-            "Las combinaciones válidas de algoritmos son: <b>KMeans/KMeansOptimizado + Aleatorio/KMeans++</b> o " +
-            "<b>KMedoids + Greedy</b>. No hay limitaciones respecto a los evaluadores que se pueden escoger. " +
+            "Las combinaciones válidas de algoritmos son: <b>KMeans/KMeansOptimizado/KMeansHamerly/KMeansParalelo/KMeansMiniBatch + Aleatorio/KMeans++/KMeans||</b> o " +
+            "<b>KMedoids + Greedy/LAB</b> o <b>CLARA/CLARANS + Greedy/LAB/Aleatorio</b> o " +
+            "<b>JerarquicoPromedio/JerarquicoCompleto/JerarquicoWard + Ninguno</b>. No hay limitaciones respecto a los evaluadores que se pueden escoger. " +
             "También puedes seleccionar la K, que es el número de grupos que quieres utilizar para el análisis.</p>" +
             "<p>El botón de cálculo automático del número de agrupaciones no está activado hasta que se hayan cargado respuestas. " +
             "Esta opción intenta calcular un valor que sea óptimo para el análisis.</p>" +
@@ -6,8 +6,12 @@ import org.junit.*;
 import org.junit.runner.RunWith;
 import org.mockito.*;
 import org.mockito.junit.MockitoJUnitRunner;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -246,6 +250,119 @@ public class TestCtrlDominio {
         ctrlDominio.elegirAlgoritmoAnalisis("KMedoids", "KMeans++");
     }
 
+    @Test(expected = InicializadorYAlgoritmoIncompatibles.class)
+    public void testElegirAlgoritmoAnalisis_MiniBatchIncompatible() {
+        ctrlDominio.elegirAlgoritmoAnalisis("KMeansMiniBatch", "Greedy");
+    }
+
+    @Test(expected = InicializadorYAlgoritmoIncompatibles.class)
+    public void testElegirAlgoritmoAnalisis_CLARAIncompatible() {
+        ctrlDominio.elegirAlgoritmoAnalisis("CLARA", "KMeans++");
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testElegirAlgoritmoAnalisis_ParalelismoInvalido() {
+        ctrlDominio.elegirAlgoritmoAnalisis("KMeansParalelo", "KMeans++", 0);
+    }
+
+    @Test
+    public void testElegirAlgoritmoAnalisis_Paralelismo() {
+        ctrlDominio.elegirAlgoritmoAnalisis("KMeansParalelo", "Aleatorio", 3);
+        assertEquals(3, ctrlDominio.getParalelismo());
+        //se deja el algoritmo por defecto para el resto de tests
+        ctrlDominio.elegirAlgoritmoAnalisis("KMeansOptimizado", "KMeans++");
+    }
+
+    @Test
+    public void testElegirAlgoritmoAnalisis_CLARAConParalelismo() {
+        ctrlDominio.elegirAlgoritmoAnalisis("CLARA", "Aleatorio", 2);
+        try {
+            Object algoritmo = main.domain.analisis.Analizador.getInstance().getAlgoritmo();
+            assertTrue(algoritmo instanceof main.domain.analisis.algoritmo.CLARA);
+            assertEquals(2, ((main.domain.analisis.algoritmo.CLARA) algoritmo).getParalelismo());
+            assertTrue(main.domain.analisis.Analizador.getInstance().getInicializador() instanceof main.domain.analisis.inicializador.InicializadorKMedoidsAleatorio);
+        } finally {
+            //se deja el algoritmo por defecto para el resto de tests
+            ctrlDominio.elegirAlgoritmoAnalisis("KMeansOptimizado", "KMeans++", Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    @Test
+    public void testElegirEvaluadorCalidad_MuestreadoConMuestra() {
+        ctrlDominio.elegirEvaluadorCalidad("SilhouetteMuestreado", 50, 10);
+        try {
+            assertTrue(main.domain.analisis.Analizador.getInstance().getEvaluador() instanceof main.domain.analisis.evaluador.SilhouetteMuestreado);
+        } finally {
+            //se deja el evaluador por defecto para el resto de tests
+            ctrlDominio.elegirEvaluadorCalidad("Silhouette");
+        }
+    }
+
+    @Test(expected = MuestraMenorQueUno.class)
+    public void testElegirEvaluadorCalidad_MuestraInvalida() {
+        ctrlDominio.elegirEvaluadorCalidad("SilhouetteMuestreado", 0, 0);
+    }
+
+    @Test
+    public void testElegirEvaluadorCalidad_Muestreado() {
+        assertNull(ctrlDominio.getIntervaloEvaluacionCalidad());
+        ctrlDominio.elegirEvaluadorCalidad("SilhouetteMuestreado");
+        try {
+            assertTrue(main.domain.analisis.Analizador.getInstance().getEvaluador() instanceof main.domain.analisis.evaluador.SilhouetteMuestreado);
+            assertEquals(2, ctrlDominio.getIntervaloEvaluacionCalidad().length);
+        } finally {
+            //se deja el evaluador por defecto para el resto de tests
+            ctrlDominio.elegirEvaluadorCalidad("Silhouette");
+        }
+    }
+
+    @Test(expected = EvaluadorNoReconocido.class)
+    public void testElegirEvaluadorCalidad_Invalido() {
+        ctrlDominio.elegirEvaluadorCalidad("Inexistente");
+    }
+
+    @Test
+    public void testAnalizarConVariasInicializaciones() throws Exception {
+        HashSet<RespuestaEncuesta> respuestas = new HashSet<>();
+        Random rnd = new Random(5);
+        for (int i = 0; i < 60; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("EncuestaSatisfaccion", "creador", "email" + i);
+            r.addRespuesta(1, new main.domain.types.TDatosInteger(rnd.nextInt(101), 100, 0));
+            respuestas.add(r);
+        }
+        when(ctrlRespuesta.getRespuestasCargadas()).thenReturn(respuestas);
+        when(ctrlEncuesta.getEncuesta()).thenReturn(encuestaMock);
+        when(encuestaMock.getTitulo()).thenReturn("EncuestaSatisfaccion");
+        ctrlDominio.setK(3);
+        ctrlDominio.setNumInicializaciones(4, false);
+        try {
+            ctrlDominio.analizarEncuesta();
+            assertEquals(4, ctrlDominio.getTiemposInicializaciones().length);
+            //el algoritmo por defecto es iterativo y converge sin reasignaciones
+            for (int iteraciones : ctrlDominio.getIteracionesInicializaciones()) assertTrue(iteraciones >= 1);
+            for (float desplazamiento : ctrlDominio.getDesplazamientosInicializaciones()) assertEquals(0.f, desplazamiento, 0.f);
+            //se queda con la ejecución de menor WCSS
+            main.domain.analisis.Analizador analizador = main.domain.analisis.Analizador.getInstance();
+            double[] wcss = analizador.getPuntuacionesInicializaciones();
+            for (double w : wcss) assertTrue(wcss[analizador.getMejorInicializacion()] <= w);
+            //las medidas de calidad reutilizan los centroides de la ejecución elegida
+            LinkedHashMap<String, Float> medidas = ctrlDominio.getMedidasCalidad();
+            assertEquals(List.of("WCSS", "BCSS", "CalinskiHarabasz", "DaviesBouldin", "SilhouetteSimplificada"), List.copyOf(medidas.keySet()));
+            assertEquals(wcss[analizador.getMejorInicializacion()], medidas.get("WCSS"), 1e-3);
+            assertEquals(3, ctrlDominio.getDispersionesClusters().length);
+            assertEquals(60, ctrlDominio.getAutoresClusters().stream().mapToInt(ArrayList::size).sum());
+        } finally {
+            //se deja la configuración por defecto para el resto de tests
+            ctrlDominio.setNumInicializaciones(1, false);
+            ctrlDominio.setK(1);
+        }
+    }
+
+    @Test(expected = InicializacionesMenorQueUno.class)
+    public void testSetNumInicializaciones_Invalido() {
+        ctrlDominio.setNumInicializaciones(0, false);
+    }
+
     //ERRORES Y EXCEPCIONES
     @Test(expected = NoHayPerfilCargado.class)
     public void testCrearEncuestaSinPerfilLanzaExcepcion() {
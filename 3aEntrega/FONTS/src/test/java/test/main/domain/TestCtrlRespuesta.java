@@ -136,6 +136,23 @@ public class TestCtrlRespuesta {
         assertNull(cr.getRespuestaActual());
     }
 
+    //testea que la versión cambia cuando cambian las respuestas cargadas o su contenido
+    @Test
+    public void testVersionCambiaAlModificarRespuestas () {
+        Encuesta e = new Encuesta("Encuesta1", "a@x.com");
+        long v0 = cr.getVersion();
+        cr.crearNuevaRespuesta(e, "b@x.com");
+        long v1 = cr.getVersion();
+        assertNotEquals(v0, v1);
+        cr.addDatoRespuesta(1, new TDatosString("Respuesta a Pregunta1"));
+        long v2 = cr.getVersion();
+        assertNotEquals(v1, v2);
+        cr.getRespuestaActual();
+        assertEquals(v2, cr.getVersion());
+        cr.deseleccionarRespuestas();
+        assertNotEquals(v2, cr.getVersion());
+    }
+
     // No hace falta testear los getters de CtrlRespuesta porque son triviales
     // El resto de metodos no se hacen tests estan muy acoplados a la persistencia que no se puede mockear correctamente
 }
@@ -0,0 +1,110 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.evaluador.CalinskiHarabasz;
+import main.domain.analisis.evaluador.DaviesBouldinen;
+import main.domain.analisis.evaluador.InterfazEvaluadorCalidad;
+import main.domain.analisis.evaluador.Silhouette;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestAsignacionMemoria {
+    private static final int N = 300;
+    private static final int K = 4;
+
+    private ThreadMXBean hilos;
+    private ArrayList<RespuestaEncuesta> rs;
+
+    @Before
+    public void setup() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        hilos = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(hilos.isThreadAllocatedMemorySupported());
+        hilos.setThreadAllocatedMemoryEnabled(true);
+
+        Random rnd = new Random(5);
+        String[] textos = {"hola", "adios", "", "buenos dias", "hola que tal"};
+        rs = new ArrayList<>();
+        for (int i = 0; i < N; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(11), 10, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            r.addRespuesta(3, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(3), 3 + rnd.nextInt(3))), false, 6));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+    }
+
+    private ArrayList<ArrayList<RespuestaEncuesta>> clusters(int n) {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        for (int c = 0; c < K; ++c) clusters.add(new ArrayList<>());
+        for (int i = 0; i < n; ++i) clusters.get(i % K).add(rs.get(i));
+        return clusters;
+    }
+
+    private long reservado(Runnable r) {
+        long tid = Thread.currentThread().threadId();
+        long antes = hilos.getThreadAllocatedBytes(tid);
+        r.run();
+        return hilos.getThreadAllocatedBytes(tid) - antes;
+    }
+
+    //testea que calcular distancias entre respuestas no reserva memoria
+    @Test
+    public void testDistanciaSinReservas() {
+        Comparador comp = new Comparador();
+        float[] suma = new float[1];
+        Runnable todas = () -> {
+            for (RespuestaEncuesta r1 : rs) {
+                for (int j = 0; j < rs.size(); ++j) suma[0] += comp.distancia(r1, rs.get(j));
+            }
+        };
+        todas.run();
+        long bytes = reservado(todas);
+        //con Float se reservarían al menos 16 bytes por par
+        assertTrue("Reservados " + bytes + " bytes", bytes < (long) N * N);
+    }
+
+    //testea que la memoria que reservan los evaluadores crece de forma lineal y no con el número de pares,
+    //con y sin matriz compilada (los centroides sí se construyen por cada evaluación)
+    @Test
+    public void testEvaluadoresSinReservasPorPar() {
+        //el contador solo mide el hilo que llama, así que Silhouette se ejecuta en un solo hilo
+        InterfazEvaluadorCalidad[] evaluadores = {new Silhouette(1), new DaviesBouldinen(), new CalinskiHarabasz()};
+        for (boolean compilada : new boolean[]{false, true}) {
+            for (InterfazEvaluadorCalidad evaluador : evaluadores) {
+                long mitad = reservadoAlEvaluar(evaluador, N / 2, compilada);
+                long todas = reservadoAlEvaluar(evaluador, N, compilada);
+                //con una reserva por par, doblar las respuestas cuadruplicaría la memoria
+                assertTrue(evaluador.getClass().getSimpleName() + " reserva " + mitad + " y " + todas + " bytes",
+                        todas < 3 * mitad + 65536);
+            }
+        }
+    }
+
+    private long reservadoAlEvaluar(InterfazEvaluadorCalidad evaluador, int n, boolean compilada) {
+        Comparador comp = new Comparador();
+        ArrayList<RespuestaEncuesta> respuestas = new ArrayList<>(rs.subList(0, n));
+        if (compilada) comp.compilar(respuestas);
+        float esperado = evaluador.evaluar(clusters(n), comp);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(n);
+        float[] obtenido = new float[1];
+        long bytes = reservado(() -> obtenido[0] = evaluador.evaluar(clusters, comp));
+        assertEquals(esperado, obtenido[0], 0.0f);
+        return bytes;
+    }
+}
@@ -0,0 +1,192 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.BarridoK;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.ClusteringJerarquico;
+import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.analisis.inicializador.InicializadorJerarquico;
+import main.domain.analisis.inicializador.InicializadorKMeansPlusPlus;
+import main.domain.analisis.inicializador.InicializadorKMedoidsGreedy;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestBarridoK {
+
+    private static final float UMBRAL = 0.15f;
+
+    //grupos que coinciden en las primeras preguntas, con ruido en el resto
+    private static ArrayList<RespuestaEncuesta> grupos(int numGrupos, int porGrupo) {
+        Random rnd = new Random(11);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int g = 0; g < numGrupos; ++g) {
+            for (int i = 0; i < porGrupo; ++i) {
+                RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + g + "_" + i);
+                for (int q = 1; q <= 4; ++q) r.addRespuesta(q, new TDatosOpciones(new ArrayList<>(List.of(g)), true, numGrupos));
+                for (int q = 5; q <= 10; ++q) r.addRespuesta(q, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+                r.addRespuesta(11, new TDatosInteger(rnd.nextInt(101), 100, 0));
+                rs.add(r);
+            }
+        }
+        return rs;
+    }
+
+    private static BarridoK barridoKMeans(Comparador comp, int paralelismo) {
+        return new BarridoK(new KMeansOptimizado(), new InicializadorKMeansPlusPlus(5), comp, UMBRAL, paralelismo);
+    }
+
+    private static boolean codo(double anterior, double actual) {
+        return anterior == actual || (anterior - actual) / anterior < UMBRAL;
+    }
+
+    //el k devuelto es el último antes del primer k que no mejora lo suficiente, o el máximo si no lo hay
+    private static void comprobarCodo(BarridoK barrido, int k, int n) {
+        double[] wcss = barrido.getWCSS();
+        int kMaxima = BarridoK.getKMaxima(n);
+        assertTrue(k >= 1 && k <= kMaxima);
+        for (int j = 2; j <= k; ++j) assertFalse(codo(wcss[j - 1], wcss[j]));
+        if (k < kMaxima) assertTrue(codo(wcss[k], wcss[k + 1]));
+    }
+
+    //testea el criterio del codo sobre la WCSS calculada, con uno y varios tramos a la vez
+    @Test
+    public void testCriterioCodo() {
+        ArrayList<RespuestaEncuesta> rs = grupos(3, 60);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        for (int paralelismo : new int[]{1, 2, 3}) {
+            BarridoK barrido = barridoKMeans(comp, paralelismo);
+            comprobarCodo(barrido, barrido.calcularK(rs), rs.size());
+        }
+    }
+
+    //testea que sin matriz compilada se obtiene lo mismo que con ella
+    @Test
+    public void testSinMatriz() {
+        ArrayList<RespuestaEncuesta> rs = grupos(4, 30);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        BarridoK compilado = barridoKMeans(comp, 2);
+        BarridoK sinMatriz = barridoKMeans(new Comparador(), 2);
+        assertEquals(compilado.calcularK(rs), sinMatriz.calcularK(rs));
+        assertArrayEquals(compilado.getWCSS(), sinMatriz.getWCSS(), 1e-3);
+    }
+
+    //testea el barrido con KMedoids, que exige que los centros iniciales sean respuestas del conjunto
+    @Test
+    public void testKMedoids() {
+        ArrayList<RespuestaEncuesta> rs = grupos(3, 50);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        BarridoK barrido = new BarridoK(new KMedoids(), new InicializadorKMedoidsGreedy(5), comp, UMBRAL, 2);
+        comprobarCodo(barrido, barrido.calcularK(rs), rs.size());
+    }
+
+    //testea que la WCSS se mide respecto a los centros del algoritmo: con k = 1, KMedoids acaba en el medoid
+    //que minimiza la suma de distancias, no en el centroide
+    @Test
+    public void testWCSSConCentrosDelAlgoritmo() {
+        ArrayList<RespuestaEncuesta> rs = grupos(3, 40);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        BarridoK barrido = new BarridoK(new KMedoids(), new InicializadorKMedoidsGreedy(5), comp, UMBRAL, 1);
+        barrido.calcularK(rs);
+
+        RespuestaEncuesta medoid = null;
+        double minima = Double.MAX_VALUE;
+        for (RespuestaEncuesta m : rs) {
+            double suma = 0.0;
+            for (RespuestaEncuesta r : rs) suma += comp.distancia(m, r);
+            if (suma < minima) {
+                minima = suma;
+                medoid = m;
+            }
+        }
+        double esperada = 0.0;
+        for (RespuestaEncuesta r : rs) esperada += Math.pow(comp.distancia(medoid, r), 2);
+        assertEquals(esperada, barrido.getWCSS()[1], 1e-3);
+    }
+
+    //testea que con el clustering jerárquico cada k es un corte del mismo árbol
+    @Test
+    public void testJerarquico() {
+        ArrayList<RespuestaEncuesta> rs = grupos(3, 50);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ClusteringJerarquico jerarquico = new ClusteringJerarquico(ClusteringJerarquico.Enlace.WARD);
+        BarridoK barrido = new BarridoK(jerarquico, new InicializadorJerarquico(), comp, UMBRAL, 2);
+        int k = barrido.calcularK(rs);
+        comprobarCodo(barrido, k, rs.size());
+        assertTrue(k >= 3);
+        //el corte en 3 separa los grupos
+        int[] etiquetas = jerarquico.getDendrograma().cortar(3);
+        for (int i = 0; i < rs.size(); ++i) assertEquals(etiquetas[i / 50 * 50], etiquetas[i]);
+        assertEquals(rs.size(), jerarquico.getDendrograma().getNumRespuestas());
+    }
+
+    //testea que si todas las respuestas son iguales k es 1 y que con dos distintas k es 2
+    @Test
+    public void testCasosLimite() {
+        ArrayList<RespuestaEncuesta> iguales = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(5, 10, 0));
+            iguales.add(r);
+        }
+        assertEquals(1, barridoKMeans(new Comparador(), 2).calcularK(iguales));
+
+        ArrayList<RespuestaEncuesta> dos = grupos(2, 1);
+        assertEquals(2, barridoKMeans(new Comparador(), 1).calcularK(dos));
+    }
+
+    //testea que la WCSS de k = 1 es la de todas las respuestas a su centroide y que se para tras el codo
+    @Test
+    public void testWCSSYParada() {
+        ArrayList<RespuestaEncuesta> rs = grupos(2, 100);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        BarridoK barrido = barridoKMeans(comp, 1);
+        int k = barrido.calcularK(rs);
+
+        double[] wcss = barrido.getWCSS();
+        assertEquals(BarridoK.getKMaxima(rs.size()) + 1, wcss.length);
+        RespuestaEncuesta centroide = comp.calcularNuevoCentroide(rs);
+        double esperada = 0.0;
+        for (RespuestaEncuesta r : rs) esperada += Math.pow(comp.distancia(centroide, r), 2);
+        assertEquals(esperada, wcss[1], 1e-3);
+        assertTrue(wcss[2] < wcss[1]);
+        //con un hilo no se calcula ningún k más allá del primero que no mejora lo suficiente
+        for (int j = k + 2; j < wcss.length; ++j) assertTrue(Double.isNaN(wcss[j]));
+    }
+
+    //testea el rango de k: hasta √n, al menos 10 y nunca más que n
+    @Test
+    public void testKMaxima() {
+        assertEquals(1, BarridoK.getKMaxima(1));
+        assertEquals(7, BarridoK.getKMaxima(7));
+        assertEquals(10, BarridoK.getKMaxima(50));
+        assertEquals(32, BarridoK.getKMaxima(1000));
+    }
+
+    //testea que con una sola respuesta k es 1
+    @Test
+    public void testUnaRespuesta() {
+        ArrayList<RespuestaEncuesta> rs = grupos(1, 1);
+        assertEquals(1, barridoKMeans(new Comparador(), 2).calcularK(rs));
+    }
+
+    //testea que se lanza excepción con paralelismo menor que 1
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoInvalido() {
+        barridoKMeans(new Comparador(), 0);
+    }
+}
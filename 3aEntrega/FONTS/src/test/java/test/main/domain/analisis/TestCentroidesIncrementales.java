@@ -0,0 +1,81 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.CentroidesIncrementales;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.MatrizRespuestas;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestCentroidesIncrementales {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(3);
+        String[] textos = {"Hola qué tal", "adiós", "", "buenos días, hola", "el perro y el gato", "Perro"};
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(21) - 10, 10, -10));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            //el primer dato del cluster decide si se usa la moda o el recuento de todas las opciones
+            ArrayList<Integer> varias = new ArrayList<>();
+            for (int j = rnd.nextInt(3); j > 0; --j) varias.add(rnd.nextInt(6));
+            r.addRespuesta(3, new TDatosOpciones(varias, false, 6));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //testea que los centroides coinciden con los del Comparador al mover respuestas entre clusters
+    @Test
+    public void testIgualQueComparador() {
+        int n = 60;
+        int k = 4;
+        ArrayList<RespuestaEncuesta> rs = respuestas(n);
+        MatrizRespuestas matriz = MatrizRespuestas.compilar(rs);
+        CentroidesIncrementales centroides = CentroidesIncrementales.crear(matriz, k);
+        assertNotNull(centroides);
+
+        Comparador comp = new Comparador();
+        Random rnd = new Random(8);
+        int[] asignaciones = new int[n];
+        for (int i = 0; i < n; ++i) asignaciones[i] = rnd.nextInt(k);
+
+        for (int iteracion = 0; iteracion < 20; ++iteracion) {
+            centroides.asignar(asignaciones);
+            for (int c = 0; c < k; ++c) {
+                ArrayList<RespuestaEncuesta> cluster = new ArrayList<>();
+                for (int i = 0; i < n; ++i) if (asignaciones[i] == c) cluster.add(rs.get(i));
+                if (cluster.isEmpty()) assertNull(centroides.getCentroide(c));
+                else assertEquals(comp.calcularNuevoCentroide(cluster), centroides.getCentroide(c));
+            }
+            for (int j = 0; j < 5; ++j) asignaciones[rnd.nextInt(n)] = rnd.nextInt(k);
+        }
+    }
+
+    //testea que no se recalcula el centroide de un cluster que no ha cambiado
+    @Test
+    public void testReutilizaClustersSinCambios() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(10);
+        CentroidesIncrementales centroides = CentroidesIncrementales.crear(MatrizRespuestas.compilar(rs), 2);
+        for (int i = 0; i < 10; ++i) centroides.asignar(i, i % 2);
+        RespuestaEncuesta c0 = centroides.getCentroide(0);
+        RespuestaEncuesta c1 = centroides.getCentroide(1);
+
+        centroides.asignar(2, 1);
+        RespuestaEncuesta d0 = centroides.getCentroide(0);
+        assertNotSame(c0, d0);
+        assertNotSame(c1, centroides.getCentroide(1));
+        centroides.asignar(2, 1);
+        assertSame(d0, centroides.getCentroide(0));
+    }
+}
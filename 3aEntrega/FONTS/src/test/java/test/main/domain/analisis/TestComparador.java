@@ -3,6 +3,8 @@ package test.main.domain.analisis;
 import main.domain.analisis.Comparador;
 import main.domain.RespuestaEncuesta;
 import main.domain.types.TDatos;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosString;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,13 +30,27 @@ public class TestComparador {
         TDatos t2 = Mockito.mock(TDatos.class);
         map1.put(1, t1);
         map2.put(1, t2);
-        when(t1.calcularDistancia(t2)).thenReturn(3.f);
+        when(t1.distancia(t2)).thenReturn(3.f);
         when(r1.getDatosRespuesta()).thenReturn(map1);
         when(r2.getDatosRespuesta()).thenReturn(map2);
         Comparador comparador = new Comparador();
         assertEquals(3.f, comparador.getDistancia(r1, r2), 0.1f);
     }
 
+    //testea que los casos con distancia indefinida cuentan como 0 sin lanzar excepciones
+    @Test
+    public void testDistanciaIndefinida() {
+        RespuestaEncuesta r1 = new RespuestaEncuesta("encuesta", "creador", "a");
+        RespuestaEncuesta r2 = new RespuestaEncuesta("encuesta", "creador", "b");
+        r1.addRespuesta(1, new TDatosString(""));
+        r2.addRespuesta(1, new TDatosString(""));
+        r1.addRespuesta(2, new TDatosInteger(2, 4, 0));
+        r2.addRespuesta(2, new TDatosInteger(4, 4, 0));
+        Comparador comparador = new Comparador();
+        assertEquals(0.25f, comparador.getDistancia(r1, r2), 0.0f);
+        assertTrue(Float.isNaN(r1.getDatosRespuesta().get(1).distancia(r2.getDatosRespuesta().get(1))));
+    }
+
     @Test
     public void testCentroide() {
         RespuestaEncuesta r1 =  Mockito.mock(RespuestaEncuesta.class);
@@ -0,0 +1,80 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.DistanciasPrecalculadas;
+import main.domain.analisis.MatrizRespuestas;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestDistanciasPrecalculadas {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n, int numMax) {
+        Random rnd = new Random(9);
+        String[] textos = {"hola", "adios", "", "buenos dias", "hola que tal"};
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(numMax + 1), numMax, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            r.addRespuesta(3, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(3), 3 + rnd.nextInt(3))), false, 6));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //testea que las distancias precalculadas coinciden con las del Comparador, tanto en el heap como fuera de él
+    @Test
+    public void testIgualQueComparador() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(40, 10);
+        MatrizRespuestas matriz = MatrizRespuestas.compilar(rs);
+        Comparador comp = new Comparador();
+        for (long umbral : new long[]{DistanciasPrecalculadas.UMBRAL_MEMORIA, 0}) {
+            try (DistanciasPrecalculadas d = DistanciasPrecalculadas.calcular(matriz, umbral)) {
+                assertEquals(umbral == 0, d.esFueraDelHeap());
+                for (int i = 0; i < rs.size(); ++i) {
+                    for (int j = 0; j < rs.size(); ++j) {
+                        assertEquals(comp.getDistancia(rs.get(i), rs.get(j)), d.distancia(i, j), 0.0f);
+                    }
+                }
+            }
+        }
+    }
+
+    //testea que la matriz lee las distancias precalculadas y que se descartan al volver a compilar
+    @Test
+    public void testMatrizLeeDistanciasPrecalculadas() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(10, 10);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        MatrizRespuestas matriz = comp.getMatriz(rs);
+        float antes = matriz.distancia(2, 7);
+
+        comp.precalcularDistancias();
+        assertNotNull(matriz.precalcularDistancias());
+        assertEquals(antes, matriz.distancia(2, 7), 0.0f);
+        assertEquals(antes, matriz.distancia(7, 2), 0.0f);
+
+        comp.compilar(rs);
+        assertNotSame(matriz, comp.getMatriz());
+    }
+
+    //testea que no se precalculan distancias si la distancia no es simétrica (rangos numéricos distintos)
+    @Test
+    public void testNoSimetrica() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(5, 10);
+        rs.getFirst().addRespuesta(1, new TDatosInteger(3, 20, 0));
+        MatrizRespuestas matriz = MatrizRespuestas.compilar(rs);
+        assertFalse(matriz.esSimetrica());
+        assertNull(matriz.precalcularDistancias());
+    }
+}
@@ -0,0 +1,91 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.MatrizRespuestas;
+import main.domain.types.TDatos;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestMatrizRespuestas {
+
+    private static RespuestaEncuesta respuesta(int num, List<Integer> opcion, List<Integer> multiples, String texto) {
+        RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email");
+        r.addRespuesta(1, new TDatosInteger(num, 10, 0));
+        r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(opcion), true, 5));
+        r.addRespuesta(3, new TDatosOpciones(new ArrayList<>(multiples), false, 80));
+        r.addRespuesta(4, new TDatosString(texto));
+        return r;
+    }
+
+    private static ArrayList<RespuestaEncuesta> respuestas() {
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        rs.add(respuesta(0, List.of(1), List.of(1, 70), "hola"));
+        rs.add(respuesta(10, List.of(4), List.of(2, 70, 75), "adios"));
+        rs.add(respuesta(5, List.of(1), List.of(), ""));
+        rs.add(respuesta(3, List.of(2), List.of(), ""));
+        rs.add(respuesta(5, List.of(), List.of(1, 2), "hola"));
+        return rs;
+    }
+
+    //testea que la distancia por índice es exactamente la misma que la del Comparador
+    @Test
+    public void testDistanciaIgualQueComparador() {
+        ArrayList<RespuestaEncuesta> rs = respuestas();
+        MatrizRespuestas matriz = MatrizRespuestas.compilar(rs);
+        Comparador comp = new Comparador();
+        assertNotNull(matriz);
+
+        for (int i = 0; i < rs.size(); ++i) {
+            for (int j = 0; j < rs.size(); ++j) {
+                assertEquals(comp.getDistancia(rs.get(i), rs.get(j)), matriz.distancia(i, j), 0.0f);
+            }
+        }
+    }
+
+    //testea que las filas externas (centroides) se comparan igual que las respuestas
+    @Test
+    public void testCodificarCentroides() {
+        ArrayList<RespuestaEncuesta> rs = respuestas();
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        MatrizRespuestas matriz = comp.getMatriz(rs);
+        RespuestaEncuesta centroide = comp.calcularNuevoCentroide(rs);
+        MatrizRespuestas centros = matriz.codificar(List.of(centroide));
+
+        for (int i = 0; i < rs.size(); ++i) {
+            assertEquals(comp.getDistancia(rs.get(i), centroide), matriz.distancia(i, centros, 0), 0.0f);
+        }
+    }
+
+    @Test
+    public void testIndices() {
+        ArrayList<RespuestaEncuesta> rs = respuestas();
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        MatrizRespuestas matriz = comp.getMatriz(rs);
+
+        assertEquals(3, matriz.indiceDe(rs.get(3)));
+        assertEquals(-1, matriz.indiceDe(respuesta(0, List.of(1), List.of(), "")));
+        assertNull(comp.getMatriz(new ArrayList<>(rs.subList(0, 2))));
+    }
+
+    //testea que no se compilan respuestas con tipos de datos desconocidos
+    @Test
+    public void testNoCompilable() {
+        RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email");
+        r.addRespuesta(1, Mockito.mock(TDatos.class));
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        rs.add(r);
+        assertNull(MatrizRespuestas.compilar(rs));
+        assertNull(MatrizRespuestas.compilar(new ArrayList<>()));
+    }
+}
@@ -0,0 +1,90 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.RespuestasIndexadas;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestRespuestasIndexadas {
+
+    private static RespuestaEncuesta respuesta(int num, List<Integer> opcion, String texto) {
+        RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email");
+        r.addRespuesta(1, new TDatosInteger(num, 10, 0));
+        r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(opcion), true, 5));
+        r.addRespuesta(3, new TDatosString(texto));
+        return r;
+    }
+
+    private static ArrayList<RespuestaEncuesta> respuestas() {
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        rs.add(respuesta(0, List.of(1), "hola"));
+        rs.add(respuesta(10, List.of(4), "adios"));
+        rs.add(respuesta(5, List.of(1), ""));
+        rs.add(respuesta(3, List.of(2), "hola que tal"));
+        return rs;
+    }
+
+    //testea que con y sin matriz compilada se obtienen las mismas distancias que con el Comparador
+    @Test
+    public void testDistanciasConYSinMatriz() {
+        ArrayList<RespuestaEncuesta> rs = respuestas();
+        Comparador sinMatriz = new Comparador();
+        Comparador conMatriz = new Comparador();
+        conMatriz.compilar(rs);
+        RespuestasIndexadas objetos = RespuestasIndexadas.de(rs, sinMatriz);
+        RespuestasIndexadas compiladas = RespuestasIndexadas.de(rs, conMatriz);
+        assertFalse(objetos.estaCompilado());
+        assertTrue(compiladas.estaCompilado());
+
+        RespuestaEncuesta centroide = sinMatriz.calcularNuevoCentroide(rs);
+        RespuestasIndexadas centroObjetos = objetos.codificar(List.of(centroide));
+        RespuestasIndexadas centroCompilado = compiladas.codificar(List.of(centroide));
+        for (int i = 0; i < rs.size(); ++i) {
+            for (int j = 0; j < rs.size(); ++j) {
+                float esperada = sinMatriz.distancia(rs.get(i), rs.get(j));
+                assertEquals(esperada, objetos.distancia(i, j), 0.0f);
+                assertEquals(esperada, compiladas.distancia(i, j), 0.0f);
+            }
+            assertEquals(sinMatriz.distancia(rs.get(i), centroide), objetos.distancia(i, centroObjetos, 0), 0.0f);
+            assertEquals(sinMatriz.distancia(rs.get(i), centroide), compiladas.distancia(i, centroCompilado, 0), 0.0f);
+        }
+    }
+
+    //testea que las posiciones de los clusters apuntan a sus miembros con y sin matriz compilada
+    @Test
+    public void testDeClusters() {
+        ArrayList<RespuestaEncuesta> rs = respuestas();
+        List<List<RespuestaEncuesta>> clusters = List.of(List.of(rs.get(3), rs.get(0)), List.of(), List.of(rs.get(1), rs.get(2)));
+        Comparador conMatriz = new Comparador();
+        conMatriz.compilar(rs);
+
+        for (Comparador comp : List.of(new Comparador(), conMatriz)) {
+            RespuestasIndexadas puntos = RespuestasIndexadas.deClusters(clusters, comp);
+            int[][] indices = puntos.getIndicesClusters();
+            assertEquals(clusters.size(), indices.length);
+            for (int c = 0; c < clusters.size(); ++c) {
+                assertEquals(clusters.get(c).size(), indices[c].length);
+                for (int j = 0; j < indices[c].length; ++j) assertSame(clusters.get(c).get(j), puntos.getRespuesta(indices[c][j]));
+            }
+        }
+    }
+
+    @Test
+    public void testIndices() {
+        ArrayList<RespuestaEncuesta> rs = respuestas();
+        RespuestasIndexadas puntos = RespuestasIndexadas.de(rs, new Comparador());
+
+        assertEquals(2, puntos.indiceDe(rs.get(2)));
+        assertEquals(-1, puntos.indiceDe(respuesta(0, List.of(1), "hola")));
+        assertArrayEquals(new int[]{3, 1}, puntos.indicesDe(List.of(rs.get(3), rs.get(1))));
+        assertNull(puntos.indicesClusters(List.of(List.of(respuesta(1, List.of(), "")))));
+    }
+}
@@ -0,0 +1,134 @@
+package test.main.domain.analisis;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.ResultadoClustering;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.analisis.evaluador.CalinskiHarabasz;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.types.TDatosInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestResultadoClustering {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(37);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(4) * 250 + rnd.nextInt(200), 1000, 0));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //testea que etiquetas, tamaños y miembros corresponden a los clusters, en su orden
+    @Test
+    public void testEtiquetasYMiembros() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(200);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 4;
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(new InicializadorRandom(2).generaIniciales(rs, k, comp), rs, k, comp);
+        clusters.add(new ArrayList<>());
+        ResultadoClustering resultado = ResultadoClustering.crear(rs, clusters, null, null, comp);
+
+        assertEquals(rs.size(), resultado.getNumRespuestas());
+        assertEquals(k + 1, resultado.getK());
+        assertEquals(clusters, resultado.getClusters());
+        for (int c = 0; c < clusters.size(); ++c) {
+            assertEquals(clusters.get(c).size(), resultado.getTamano(c));
+            assertEquals(clusters.get(c), resultado.miembros(c));
+            for (int j = 0; j < clusters.get(c).size(); ++j) {
+                RespuestaEncuesta r = clusters.get(c).get(j);
+                assertSame(r, resultado.getRespuesta(resultado.getMiembro(c, j)));
+                assertEquals(c, resultado.getCluster(r));
+                assertEquals(c, resultado.getCluster(resultado.getPosicion(r)));
+            }
+        }
+        assertEquals(0, resultado.getTamanos()[k]);
+        assertNull(resultado.getCentro(k));
+        assertEquals(-1, resultado.getCluster(respuestas(1).get(0)));
+    }
+
+    //testea que los centros y distancias del algoritmo son los mismos que calculando los centroides
+    @Test
+    public void testCentrosYDistancias() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 4;
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(new InicializadorRandom(6).generaIniciales(rs, k, comp), rs, k, comp);
+        ResultadoClustering reutilizado = ResultadoClustering.crear(rs, clusters, kmeans.getCentros(), kmeans.getDistanciasAsignacion(), comp);
+        ResultadoClustering calculado = ResultadoClustering.crear(rs, clusters, null, null, new Comparador());
+        for (int i = 0; i < rs.size(); ++i) {
+            assertEquals(calculado.getDistanciaCentro(i), reutilizado.getDistanciaCentro(i), 1e-5f);
+            int c = calculado.getCluster(i);
+            assertEquals(comp.distancia(rs.get(i), calculado.getCentro(c)), calculado.getDistanciaCentro(i), 1e-6f);
+        }
+    }
+
+    //testea que con K-Medoids los centros son los medoids
+    @Test
+    public void testMedoids() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(100);
+        Comparador comp = new Comparador();
+        int k = 3;
+        KMedoids kmedoids = new KMedoids();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmedoids.analizar(new InicializadorRandom(1).generaIniciales(rs, k, comp), rs, k, comp);
+        ResultadoClustering resultado = ResultadoClustering.crear(rs, clusters, kmedoids.getCentros(), kmedoids.getDistanciasAsignacion(), comp);
+        for (int c = 0; c < k; ++c) {
+            RespuestaEncuesta medoid = resultado.getCentro(c);
+            assertEquals(c, resultado.getCluster(medoid));
+            assertEquals(0.f, resultado.getDistanciaCentro(resultado.getPosicion(medoid)), 0.f);
+        }
+    }
+
+    //testea que los evaluadores ya no modifican los clusters que reciben
+    @Test
+    public void testEvaluadorNoModifica() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(50);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        clusters.add(new ArrayList<>(rs.subList(0, 25)));
+        clusters.add(new ArrayList<>());
+        clusters.add(new ArrayList<>(rs.subList(25, 50)));
+        new CalinskiHarabasz().evaluar(clusters, new Comparador());
+        assertEquals(3, clusters.size());
+    }
+
+    //testea que los clusters se devuelven como una vista no modificable que los evaluadores aceptan
+    @Test
+    public void testClustersVistaNoModificable() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(50);
+        Comparador comp = new Comparador();
+        List<List<RespuestaEncuesta>> clusters = List.of(rs.subList(0, 20), List.of(), rs.subList(20, 50));
+        ResultadoClustering resultado = ResultadoClustering.crear(rs, clusters, null, null, comp);
+
+        List<List<RespuestaEncuesta>> vista = resultado.getClusters();
+        assertEquals(clusters, vista);
+        assertThrows(UnsupportedOperationException.class, () -> vista.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> vista.get(0).add(rs.get(0)));
+        assertEquals(new CalinskiHarabasz().evaluar(clusters, comp), new CalinskiHarabasz().evaluar(vista, comp), 0.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRespuestaSinCluster() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(3);
+        ResultadoClustering.crear(rs, List.of(List.of(rs.get(0), rs.get(1))), null, null, new Comparador());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRespuestaRepetida() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2);
+        ResultadoClustering.crear(rs, List.of(List.of(rs.get(0)), List.of(rs.get(0), rs.get(1))), null, null, new Comparador());
+    }
+}
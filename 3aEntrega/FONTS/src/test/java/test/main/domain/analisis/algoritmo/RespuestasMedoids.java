@@ -0,0 +1,68 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos y funciones comunes a los tests de los algoritmos e inicializadores de medoids.
+ * @author Javier Zhangpan
+ */
+public final class RespuestasMedoids {
+    private static final String[] textos = {"muy buen servicio", "servicio lento", "", "precio alto", "buena atención"};
+
+    private RespuestasMedoids() {
+    }
+
+    /**
+     * Genera respuestas al azar con una pregunta numérica, una de opciones ordenadas y una de texto.
+     * @param n Número de respuestas.
+     * @param semilla Semilla de la generación.
+     * @return Respuestas generadas.
+     */
+    public static ArrayList<RespuestaEncuesta> respuestas(int n, long semilla) {
+        Random rnd = new Random(semilla);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    /**
+     * Devuelve una copia de las {@code k} primeras respuestas, para usarlas como medoids iniciales.
+     * @param rs Respuestas.
+     * @param k Número de respuestas.
+     * @return Nueva lista con las {@code k} primeras respuestas.
+     */
+    public static ArrayList<RespuestaEncuesta> primeras(ArrayList<RespuestaEncuesta> rs, int k) {
+        return new ArrayList<>(rs.subList(0, k));
+    }
+
+    /**
+     * Calcula la suma de las distancias de cada respuesta a su medoid más cercano.
+     * @param medoids Medoids.
+     * @param rs Respuestas.
+     * @param comp Comparador con el que se calculan las distancias.
+     * @return Coste de los medoids.
+     */
+    public static double coste(ArrayList<RespuestaEncuesta> medoids, ArrayList<RespuestaEncuesta> rs, Comparador comp) {
+        double coste = 0.0;
+        for (RespuestaEncuesta r : rs) {
+            float minima = Float.MAX_VALUE;
+            for (RespuestaEncuesta m : medoids) minima = Math.min(minima, comp.distancia(r, m));
+            coste += minima;
+        }
+        return coste;
+    }
+}
@@ -0,0 +1,131 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.CLARA;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.exceptions.MuestraMenorQueUno;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.primeras;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.coste;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+public class TestCLARA {
+    private static final long SEMILLA = 43;
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        return RespuestasMedoids.respuestas(n, SEMILLA);
+    }
+
+    //testea que los clusters son una partición de las respuestas y el coste es el de los medoids finales
+    @Test
+    public void testParticion() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> medoids = primeras(rs, 4);
+        CLARA algoritmo = new CLARA(4, 30, 7);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(medoids, rs, 4, comp);
+
+        assertEquals(4, clusters.size());
+        HashSet<RespuestaEncuesta> vistas = new HashSet<>();
+        for (int m = 0; m < clusters.size(); ++m) {
+            assertTrue(clusters.get(m).contains(medoids.get(m)));
+            for (RespuestaEncuesta r : clusters.get(m)) assertTrue(vistas.add(r));
+        }
+        assertEquals(rs.size(), vistas.size());
+        assertEquals(coste(medoids, rs, comp), algoritmo.getCoste(), 1e-3);
+    }
+
+    //testea que el coste queda cerca del de KMedoids sobre todas las respuestas y mejora el inicial
+    @Test
+    public void testCosteCercanoAKMedoids() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(400);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> completos = primeras(rs, 5);
+        new KMedoids().analizar(completos, rs, 5, comp);
+        ArrayList<RespuestaEncuesta> muestreados = primeras(rs, 5);
+        new CLARA(5, 80, 3).analizar(muestreados, rs, 5, comp);
+
+        double pam = coste(completos, rs, comp);
+        double clara = coste(muestreados, rs, comp);
+        assertTrue(clara < coste(primeras(rs, 5), rs, comp));
+        assertTrue(clara <= pam * 1.1);
+    }
+
+    //testea que con la misma semilla se obtienen los mismos medoids, con o sin matriz compilada
+    @Test
+    public void testDeterminista() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(200);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        ArrayList<RespuestaEncuesta> a = primeras(rs, 3);
+        ArrayList<RespuestaEncuesta> b = primeras(rs, 3);
+        assertEquals(new CLARA(3, 25, 11).analizar(a, rs, 3, compilado),
+                new CLARA(3, 25, 11).analizar(b, rs, 3, new Comparador()));
+        assertEquals(a, b);
+    }
+
+    //testea que si la muestra abarca todas las respuestas el resultado es el de KMedoids
+    @Test
+    public void testMuestraCompleta() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(50);
+        Comparador comp = new Comparador();
+        assertEquals(new KMedoids().analizar(primeras(rs, 3), rs, 3, comp),
+                new CLARA(4, 100, 1).analizar(primeras(rs, 3), rs, 3, comp));
+    }
+
+    //testea que con varios hilos se obtienen los mismos medoids que con uno
+    @Test
+    public void testParaleloIgualQueSecuencial() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> a = primeras(rs, 4);
+        ArrayList<RespuestaEncuesta> b = primeras(rs, 4);
+        assertEquals(new CLARA(6, 30, 5).analizar(a, rs, 4, comp),
+                new CLARA(6, 30, 5, 3).analizar(b, rs, 4, comp));
+        assertEquals(a, b);
+    }
+
+    //testea que los centros son los medoids finales y las distancias de la asignación las de cada respuesta a ellos
+    @Test
+    public void testCentrosYDistancias() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(200);
+        Comparador comp = new Comparador();
+        ArrayList<RespuestaEncuesta> medoids = primeras(rs, 3);
+        CLARA algoritmo = new CLARA(3, 30, 2);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(medoids, rs, 3, comp);
+
+        assertEquals(medoids, algoritmo.getCentros());
+        DistanciasAsignacion distancias = algoritmo.getDistanciasAsignacion();
+        assertEquals(rs.size(), distancias.getNumRespuestas());
+        for (int m = 0; m < clusters.size(); ++m) {
+            for (RespuestaEncuesta r : clusters.get(m)) {
+                assertEquals(comp.distancia(r, medoids.get(m)), distancias.getPropia(rs.indexOf(r)), 1e-6f);
+            }
+        }
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoInvalido() {
+        new CLARA(5, 40, 1, 0);
+    }
+
+    @Test(expected = MuestraMenorQueUno.class)
+    public void testMuestrasInvalidas() {
+        new CLARA(0, 40, 1);
+    }
+
+    @Test(expected = MuestraMenorQueUno.class)
+    public void testTamanoMuestraInvalido() {
+        new CLARA(5, 0, 1);
+    }
+}
@@ -0,0 +1,129 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.CLARANS;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.exceptions.VecinosMenorQueUno;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.primeras;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.coste;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class TestCLARANS {
+    private static final long SEMILLA = 47;
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        return RespuestasMedoids.respuestas(n, SEMILLA);
+    }
+
+    //testea que los clusters son una partición y el coste queda cerca del de KMedoids
+    @Test
+    public void testParticionYCoste() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(250);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> completos = primeras(rs, 4);
+        new KMedoids().analizar(completos, rs, 4, comp);
+        ArrayList<RespuestaEncuesta> medoids = primeras(rs, 4);
+        CLARANS algoritmo = new CLARANS(2, 300, 5);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(medoids, rs, 4, comp);
+
+        HashSet<RespuestaEncuesta> vistas = new HashSet<>();
+        for (int m = 0; m < clusters.size(); ++m) {
+            assertTrue(clusters.get(m).contains(medoids.get(m)));
+            for (RespuestaEncuesta r : clusters.get(m)) assertTrue(vistas.add(r));
+        }
+        assertEquals(rs.size(), vistas.size());
+        assertTrue(algoritmo.getNumIntercambios() > 0);
+        assertEquals(coste(medoids, rs, comp), algoritmo.getCoste(), 1e-3);
+        assertTrue(algoritmo.getCoste() <= coste(completos, rs, comp) * 1.1);
+    }
+
+    //testea que con la misma semilla se obtienen los mismos medoids, con o sin matriz compilada
+    @Test
+    public void testDeterminista() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(120);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        ArrayList<RespuestaEncuesta> a = primeras(rs, 3);
+        ArrayList<RespuestaEncuesta> b = primeras(rs, 3);
+        assertEquals(new CLARANS(2, 100, 13).analizar(a, rs, 3, compilado),
+                new CLARANS(2, 100, 13).analizar(b, rs, 3, new Comparador()));
+        assertEquals(a, b);
+    }
+
+    //testea que los centros son los medoids finales y las distancias de la asignación las de cada respuesta a ellos
+    @Test
+    public void testCentrosYDistancias() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(150);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> medoids = primeras(rs, 3);
+        CLARANS algoritmo = new CLARANS(3, 100, 8);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(medoids, rs, 3, comp);
+
+        assertEquals(medoids, algoritmo.getCentros());
+        DistanciasAsignacion distancias = algoritmo.getDistanciasAsignacion();
+        assertEquals(rs.size(), distancias.getNumRespuestas());
+        for (int m = 0; m < clusters.size(); ++m) {
+            for (RespuestaEncuesta r : clusters.get(m)) {
+                assertEquals(comp.distancia(r, medoids.get(m)), distancias.getPropia(rs.indexOf(r)), 1e-6f);
+            }
+        }
+    }
+
+    //testea que un medoid inicial repetido se sustituye por otra respuesta y no deja un cluster vacío
+    @Test
+    public void testMedoidsInicialesRepetidos() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(60);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        for (long semilla = 0; semilla < 10; ++semilla) {
+            ArrayList<RespuestaEncuesta> medoids = new ArrayList<>(List.of(rs.get(0), rs.get(0), rs.get(1)));
+            CLARANS algoritmo = new CLARANS(1, 1, semilla);
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(medoids, rs, 3, comp);
+            assertEquals(3, new HashSet<>(medoids).size());
+            for (int m = 0; m < clusters.size(); ++m) assertTrue(clusters.get(m).contains(medoids.get(m)));
+            assertEquals(coste(medoids, rs, comp), algoritmo.getCoste(), 1e-3);
+        }
+    }
+
+    //testea que con más clusters que respuestas todas son medoids y se conservan los iniciales
+    @Test
+    public void testKMayorQueRespuestas() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(3);
+        ArrayList<RespuestaEncuesta> medoids = new ArrayList<>(List.of(rs.get(2), rs.get(0), rs.get(1), rs.get(0)));
+        ArrayList<RespuestaEncuesta> iniciales = new ArrayList<>(medoids);
+        CLARANS algoritmo = new CLARANS(4, 50, 3);
+        algoritmo.analizar(medoids, rs, 4, new Comparador());
+        assertEquals(iniciales, medoids);
+        assertEquals(0.0, algoritmo.getCoste(), 0.0);
+        assertEquals(0, algoritmo.getNumIntercambios());
+    }
+
+    //testea el número de vecinos por defecto: el 1,25% de k(n - k) entre 250 y 1000
+    @Test
+    public void testVecinosPorDefecto() {
+        CLARANS algoritmo = new CLARANS();
+        assertEquals(250, algoritmo.getMaxVecinos(100, 5));
+        assertEquals(625, algoritmo.getMaxVecinos(5010, 10));
+        assertEquals(1000, algoritmo.getMaxVecinos(100000, 10));
+    }
+
+    @Test(expected = VecinosMenorQueUno.class)
+    public void testBusquedasInvalidas() {
+        new CLARANS(0, 100, 1);
+    }
+
+    @Test(expected = VecinosMenorQueUno.class)
+    public void testVecinosInvalidos() {
+        new CLARANS(2, 0, 1);
+    }
+}
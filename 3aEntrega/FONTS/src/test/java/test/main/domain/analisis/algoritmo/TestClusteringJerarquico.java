@@ -0,0 +1,190 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.ClusteringJerarquico;
+import main.domain.analisis.algoritmo.ClusteringJerarquico.Enlace;
+import main.domain.analisis.algoritmo.Dendrograma;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.types.TDatosInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestClusteringJerarquico {
+
+    //valores en un rango amplio para que no haya empates entre distancias
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(53);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            int grupo = rnd.nextInt(3);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(grupo * 300000 + rnd.nextInt(200000), 1000000, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(1000000), 1000000, 0));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //clustering aglomerativo ingenuo O(n³): une siempre el par de clusters más cercano; con los enlaces medio y
+    //completo la distancia se calcula sobre las respuestas, con Ward por Lance-Williams sobre distancias cuadradas
+    private static List<Set<Integer>> ingenuo(ArrayList<RespuestaEncuesta> rs, Comparador comp, Enlace enlace, int k, float[] alturas) {
+        int n = rs.size();
+        float[][] d = new float[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) d[i][j] = comp.distancia(rs.get(i), rs.get(j));
+        }
+        float[][] ward = new float[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) ward[i][j] = d[i][j] * d[i][j];
+        }
+        List<Set<Integer>> clusters = new ArrayList<>();
+        for (int i = 0; i < n; ++i) clusters.add(new HashSet<>(List.of(i)));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < n; ++i) ids.add(i);
+
+        for (int s = 0; clusters.size() > 1; ++s) {
+            int mejorA = -1;
+            int mejorB = -1;
+            double mejor = Double.MAX_VALUE;
+            for (int a = 0; a < clusters.size(); ++a) {
+                for (int b = a + 1; b < clusters.size(); ++b) {
+                    double v = (enlace == Enlace.WARD) ? ward[ids.get(a)][ids.get(b)] : enlace(clusters.get(a), clusters.get(b), d, enlace);
+                    if (v < mejor) {
+                        mejor = v;
+                        mejorA = a;
+                        mejorB = b;
+                    }
+                }
+            }
+            if (enlace == Enlace.WARD) {
+                int x = ids.get(mejorA);
+                int y = ids.get(mejorB);
+                int nx = clusters.get(mejorA).size();
+                int ny = clusters.get(mejorB).size();
+                for (int c = 0; c < clusters.size(); ++c) {
+                    if (c == mejorA || c == mejorB) continue;
+                    int i = ids.get(c);
+                    int ni = clusters.get(c).size();
+                    float v = ((nx + ni) * ward[i][x] + (ny + ni) * ward[i][y] - ni * ward[x][y]) / (nx + ny + ni);
+                    ward[i][y] = ward[y][i] = v;
+                }
+                mejor = Math.sqrt(mejor);
+            }
+            alturas[s] = (float) mejor;
+            if (clusters.size() == k) return new ArrayList<>(clusters);
+            clusters.get(mejorB).addAll(clusters.remove(mejorA));
+            ids.remove(mejorA);
+        }
+        return clusters;
+    }
+
+    private static double enlace(Set<Integer> a, Set<Integer> b, float[][] d, Enlace enlace) {
+        double suma = 0.0;
+        double maximo = 0.0;
+        for (int i : a) {
+            for (int j : b) {
+                suma += d[i][j];
+                maximo = Math.max(maximo, d[i][j]);
+            }
+        }
+        return (enlace == Enlace.PROMEDIO) ? suma / (a.size() * b.size()) : maximo;
+    }
+
+    //clusters como conjuntos de posiciones, para compararlos sin depender del orden
+    private static Set<Set<Integer>> particion(ArrayList<ArrayList<RespuestaEncuesta>> clusters, ArrayList<RespuestaEncuesta> rs) {
+        Set<Set<Integer>> particion = new HashSet<>();
+        for (ArrayList<RespuestaEncuesta> cluster : clusters) {
+            Set<Integer> posiciones = new HashSet<>();
+            for (RespuestaEncuesta r : cluster) posiciones.add(rs.indexOf(r));
+            if (!posiciones.isEmpty()) particion.add(posiciones);
+        }
+        return particion;
+    }
+
+    //testea que las alturas y los cortes son los del algoritmo ingenuo, con cada enlace
+    @Test
+    public void testIgualQueIngenuo() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(60);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        for (Enlace enlace : Enlace.values()) {
+            ClusteringJerarquico algoritmo = new ClusteringJerarquico(enlace);
+            Dendrograma dendrograma = algoritmo.construir(rs, comp);
+            float[] alturas = new float[rs.size() - 1];
+            ingenuo(rs, comp, enlace, 1, alturas);
+            assertArrayEquals(alturas, dendrograma.getAlturas(), 1e-4f);
+            assertEquals(rs.size(), dendrograma.getTamano(dendrograma.getNumUniones() - 1));
+
+            for (int k : new int[]{1, 2, 3, 5, 17, 60}) {
+                List<Set<Integer>> esperada = ingenuo(rs, comp, enlace, k, new float[rs.size() - 1]);
+                assertEquals(new HashSet<>(esperada), particion(algoritmo.analizar(null, rs, k, comp), rs));
+            }
+        }
+    }
+
+    //testea que cada corte refina el anterior y que el árbol se reutiliza entre valores de k
+    @Test
+    public void testCortesAnidados() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(200);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ClusteringJerarquico algoritmo = new ClusteringJerarquico(Enlace.WARD);
+        algoritmo.analizar(new ArrayList<>(), rs, 2, comp);
+        Dendrograma dendrograma = algoritmo.getDendrograma();
+
+        int[] anterior = dendrograma.cortar(1);
+        for (int k = 2; k <= 20; ++k) {
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(new ArrayList<>(), rs, k, comp);
+            assertSame(dendrograma, algoritmo.getDendrograma());
+            assertEquals(k, clusters.size());
+            for (ArrayList<RespuestaEncuesta> cluster : clusters) assertFalse(cluster.isEmpty());
+
+            int[] etiquetas = dendrograma.cortar(k);
+            assertEquals(k, Arrays.stream(etiquetas).distinct().count());
+            //dos respuestas juntas en k lo están en k - 1
+            for (int i = 0; i < rs.size(); ++i) {
+                for (int j = i + 1; j < rs.size(); ++j) {
+                    if (etiquetas[i] == etiquetas[j]) assertEquals(anterior[i], anterior[j]);
+                }
+            }
+            anterior = etiquetas;
+        }
+        assertNotSame(dendrograma, algoritmo.construir(new ArrayList<>(rs.subList(0, 100)), comp));
+    }
+
+    //testea que sin matriz compilada se obtiene el mismo árbol
+    @Test
+    public void testSinMatriz() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(80);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        Dendrograma a = new ClusteringJerarquico(Enlace.COMPLETO).construir(rs, compilado);
+        Dendrograma b = new ClusteringJerarquico(Enlace.COMPLETO).construir(rs, new Comparador());
+        assertArrayEquals(a.getAlturas(), b.getAlturas(), 1e-6f);
+        assertArrayEquals(a.cortar(4), b.cortar(4));
+    }
+
+    //testea que con más clusters que respuestas sobran clusters vacíos
+    @Test
+    public void testMasClustersQueRespuestas() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(3);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ClusteringJerarquico().analizar(null, rs, 5, new Comparador());
+        assertEquals(5, clusters.size());
+        assertEquals(3, particion(clusters, rs).size());
+        assertTrue(clusters.get(4).isEmpty());
+    }
+
+    @Test(expected = KMenorQueUno.class)
+    public void testKInvalida() {
+        new ClusteringJerarquico().analizar(null, respuestas(5), 0, new Comparador());
+    }
+}
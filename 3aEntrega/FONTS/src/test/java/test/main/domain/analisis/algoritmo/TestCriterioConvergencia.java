@@ -0,0 +1,147 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.CriterioConvergencia;
+import main.domain.analisis.algoritmo.InterfazAlgoritmo;
+import main.domain.analisis.algoritmo.InterfazAlgoritmoIterativo;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansHamerly;
+import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.algoritmo.KMeansParalelo;
+import main.domain.analisis.algoritmo.KMeansTipo;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.exceptions.CriterioConvergenciaInvalido;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestCriterioConvergencia {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(31);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            //grupos solapados, para que haga falta más de una iteración
+            int grupo = rnd.nextInt(5);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(grupo * 150 + rnd.nextInt(401), 1000, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(1001), 1000, 0));
+            r.addRespuesta(3, new TDatosOpciones(new ArrayList<>(List.of((grupo + rnd.nextInt(3)) % 6)), true, 6));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<InterfazAlgoritmo<KMeansTipo>> algoritmos(CriterioConvergencia criterio) {
+        return List.of(new KMeans(criterio), new KMeansOptimizado(criterio), new KMeansHamerly(criterio),
+                new KMeansParalelo(2, criterio));
+    }
+
+    //testea que con el criterio por defecto todas las variantes convergen a los mismos clusters y sin desplazamiento
+    @Test
+    public void testPorDefecto() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(600);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 6;
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(3).generaIniciales(rs, k, comp);
+        ArrayList<ArrayList<RespuestaEncuesta>> esperado = new KMeans().analizar(new ArrayList<>(iniciales), rs, k, comp);
+        for (InterfazAlgoritmo<KMeansTipo> algoritmo : algoritmos(CriterioConvergencia.POR_DEFECTO)) {
+            assertEquals(esperado, algoritmo.analizar(new ArrayList<>(iniciales), rs, k, comp));
+            InterfazAlgoritmoIterativo iterativo = (InterfazAlgoritmoIterativo) algoritmo;
+            assertTrue(iterativo.haConvergido());
+            assertTrue(iterativo.getNumIteraciones() > 1);
+            assertEquals(0.f, iterativo.getDesplazamientoFinal(), 0.f);
+        }
+    }
+
+    //testea que el máximo de iteraciones corta la ejecución sin dar convergencia
+    @Test
+    public void testMaxIteraciones() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(600);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 6;
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(3).generaIniciales(rs, k, comp);
+        CriterioConvergencia criterio = new CriterioConvergencia(0.f, 0.f, 2);
+        ArrayList<ArrayList<RespuestaEncuesta>> esperado = null;
+        for (InterfazAlgoritmo<KMeansTipo> algoritmo : algoritmos(criterio)) {
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(new ArrayList<>(iniciales), rs, k, comp);
+            if (esperado == null) esperado = clusters;
+            //todas las variantes hacen las mismas asignaciones, así que cortan en el mismo punto
+            assertEquals(esperado, clusters);
+            InterfazAlgoritmoIterativo iterativo = (InterfazAlgoritmoIterativo) algoritmo;
+            assertFalse(iterativo.haConvergido());
+            assertEquals(2, iterativo.getNumIteraciones());
+            assertTrue(iterativo.getDesplazamientoFinal() > 0.f);
+        }
+    }
+
+    //testea que la tolerancia de desplazamiento y la fracción de reasignadas paran antes que el criterio por defecto
+    @Test
+    public void testToleranciaParaAntes() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(600);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 6;
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(3).generaIniciales(rs, k, comp);
+        KMeansOptimizado exacto = new KMeansOptimizado();
+        exacto.analizar(new ArrayList<>(iniciales), rs, k, comp);
+
+        for (CriterioConvergencia criterio : new CriterioConvergencia[]{
+                new CriterioConvergencia(0.05f, 0.f, 300), new CriterioConvergencia(0.f, 0.05f, 300)}) {
+            for (InterfazAlgoritmo<KMeansTipo> algoritmo : algoritmos(criterio)) {
+                algoritmo.analizar(new ArrayList<>(iniciales), rs, k, comp);
+                InterfazAlgoritmoIterativo iterativo = (InterfazAlgoritmoIterativo) algoritmo;
+                assertTrue(iterativo.haConvergido());
+                assertTrue(iterativo.getNumIteraciones() < exacto.getNumIteraciones());
+                if (criterio.getToleranciaDesplazamiento() > 0.f)
+                    assertTrue(iterativo.getDesplazamientoFinal() < criterio.getToleranciaDesplazamiento());
+            }
+        }
+    }
+
+    //testea que sin matriz compilada KMeans cuenta las iteraciones igual que con ella
+    @Test
+    public void testSinMatriz() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(200);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        int k = 4;
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(7).generaIniciales(rs, k, compilado);
+        KMeans conMatriz = new KMeans();
+        KMeans sinMatriz = new KMeans();
+        assertEquals(conMatriz.analizar(new ArrayList<>(iniciales), rs, k, compilado),
+                sinMatriz.analizar(new ArrayList<>(iniciales), rs, k, new Comparador()));
+        assertEquals(conMatriz.getNumIteraciones(), sinMatriz.getNumIteraciones());
+        assertTrue(sinMatriz.haConvergido());
+    }
+
+    @Test(expected = CriterioConvergenciaInvalido.class)
+    public void testToleranciaNegativa() {
+        new CriterioConvergencia(-0.1f, 0.f, 10);
+    }
+
+    @Test(expected = CriterioConvergenciaInvalido.class)
+    public void testFraccionMayorQueUno() {
+        new CriterioConvergencia(0.f, 1.5f, 10);
+    }
+
+    @Test(expected = CriterioConvergenciaInvalido.class)
+    public void testMaxIteracionesMenorQueUno() {
+        new CriterioConvergencia(0.f, 0.f, 0);
+    }
+
+    @Test(expected = CriterioConvergenciaInvalido.class)
+    public void testPacienciaMenorQueUno() {
+        new CriterioConvergencia(0.f, 0.f, 10, 0);
+    }
+}
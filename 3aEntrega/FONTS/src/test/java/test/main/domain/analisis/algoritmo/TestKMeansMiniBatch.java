@@ -0,0 +1,170 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.CriterioConvergencia;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansMiniBatch;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.exceptions.TamanoLoteMenorQueUno;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestKMeansMiniBatch {
+    private static final int GRUPOS = 4;
+    private static final String[] textos = {"muy buen servicio", "servicio lento", "precio alto", "buena atención"};
+
+    //respuestas de cuatro grupos bien separados; el email guarda el grupo de cada respuesta
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(29);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            int grupo = rnd.nextInt(GRUPOS);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", grupo + "-" + i);
+            r.addRespuesta(1, new TDatosInteger(grupo * 300 + rnd.nextInt(101), 1000, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(grupo)), false, GRUPOS));
+            r.addRespuesta(3, new TDatosString(textos[grupo]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    private static int grupo(RespuestaEncuesta r) {
+        return r.getEmailrespuesta().charAt(0) - '0';
+    }
+
+    //un centroide inicial de cada grupo
+    private static ArrayList<RespuestaEncuesta> iniciales(ArrayList<RespuestaEncuesta> rs) {
+        ArrayList<RespuestaEncuesta> iniciales = new ArrayList<>();
+        for (int g = 0; g < GRUPOS; ++g) {
+            for (RespuestaEncuesta r : rs) {
+                if (grupo(r) == g) {
+                    iniciales.add(r);
+                    break;
+                }
+            }
+        }
+        return iniciales;
+    }
+
+    //testea que encuentra los grupos y se detiene antes del máximo de lotes
+    @Test
+    public void testEncuentraGrupos() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(5000);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        KMeansMiniBatch algoritmo = new KMeansMiniBatch(100, 1);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(iniciales(rs), rs, GRUPOS, comp);
+
+        assertEquals(GRUPOS, clusters.size());
+        int total = 0;
+        for (int c = 0; c < GRUPOS; ++c) {
+            assertFalse(clusters.get(c).isEmpty());
+            for (RespuestaEncuesta r : clusters.get(c)) assertEquals(c, grupo(r));
+            total += clusters.get(c).size();
+        }
+        assertEquals(rs.size(), total);
+        //el máximo es de 500 lotes; con grupos separados los centroides se quedan quietos mucho antes
+        assertTrue(algoritmo.haConvergido());
+        assertTrue(algoritmo.getNumIteraciones() < 100);
+    }
+
+    //testea que con la misma semilla se obtiene el mismo resultado
+    @Test
+    public void testDeterminista() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2000);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(2).generaIniciales(rs, 6, comp);
+        assertEquals(new KMeansMiniBatch(64, 9).analizar(new ArrayList<>(iniciales), rs, 6, comp),
+                new KMeansMiniBatch(64, 9).analizar(new ArrayList<>(iniciales), rs, 6, comp));
+    }
+
+    //testea que cada llamada empieza con la semilla, así que la misma instancia da siempre el mismo resultado
+    @Test
+    public void testMismaInstanciaDeterminista() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2000);
+        Comparador comp = new Comparador();
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(2).generaIniciales(rs, 6, comp);
+        KMeansMiniBatch algoritmo = new KMeansMiniBatch(64, 9);
+        assertEquals(algoritmo.analizar(new ArrayList<>(iniciales), rs, 6, comp),
+                algoritmo.analizar(new ArrayList<>(iniciales), rs, 6, comp));
+    }
+
+    //testea que se para en el máximo de lotes del criterio sin considerarse convergido
+    @Test
+    public void testMaxLotes() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2000);
+        Comparador comp = new Comparador();
+        KMeansMiniBatch algoritmo = new KMeansMiniBatch(10, 4, new CriterioConvergencia(0.f, 0.f, 3));
+        algoritmo.analizar(new InicializadorRandom(2).generaIniciales(rs, 6, comp), rs, 6, comp);
+        assertEquals(3, algoritmo.getNumIteraciones());
+        assertFalse(algoritmo.haConvergido());
+    }
+
+    //testea que la condición de parada se tiene que cumplir en tantos lotes seguidos como la paciencia
+    @Test
+    public void testPaciencia() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2000);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        //con tolerancia 2 ningún desplazamiento la supera, así que todos los lotes cumplen la condición
+        for (int paciencia : new int[]{1, 4}) {
+            KMeansMiniBatch algoritmo = new KMeansMiniBatch(10, 4, new CriterioConvergencia(2.f, 0.f, 500, paciencia));
+            algoritmo.analizar(iniciales(rs), rs, GRUPOS, comp);
+            assertEquals(paciencia, algoritmo.getNumIteraciones());
+            assertTrue(algoritmo.haConvergido());
+        }
+    }
+
+    //testea que la primera vez que se elige una respuesta no cuenta como reasignada
+    @Test
+    public void testPrimeraEleccionNoEsReasignacion() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2000);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        //con fracción 0 se para en cuanto un lote no reasigna ninguna respuesta ya elegida; si las nuevas
+        //contaran, haría falta un lote con las 10 respuestas ya elegidas, que tarda cientos de lotes
+        KMeansMiniBatch algoritmo = new KMeansMiniBatch(10, 4, new CriterioConvergencia(0.f, 0.f, 500));
+        algoritmo.analizar(iniciales(rs), rs, GRUPOS, comp);
+        assertTrue(algoritmo.haConvergido());
+        assertTrue(algoritmo.getNumIteraciones() > 1);
+        assertTrue(algoritmo.getNumIteraciones() < 50);
+    }
+
+    //testea que los centros son los centroides exactos de los clusters devueltos
+    @Test
+    public void testCentros() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(1000);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        KMeansMiniBatch algoritmo = new KMeansMiniBatch(50, 3);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(iniciales(rs), rs, GRUPOS, comp);
+        for (int c = 0; c < GRUPOS; ++c) {
+            assertEquals(0.f, comp.distancia(comp.calcularNuevoCentroide(clusters.get(c)), algoritmo.getCentros().get(c)), 0.f);
+        }
+    }
+
+    //testea que sin matriz compilada da los mismos grupos que KMeans
+    @Test
+    public void testSinMatrizCompilada() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(100);
+        Comparador comp = new Comparador();
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(3).generaIniciales(rs, 3, comp);
+        assertEquals(new KMeans().analizar(new ArrayList<>(iniciales), rs, 3, comp),
+                new KMeansMiniBatch(10, 1).analizar(new ArrayList<>(iniciales), rs, 3, comp));
+    }
+
+    @Test(expected = TamanoLoteMenorQueUno.class)
+    public void testTamLoteMenorQueUno() {
+        new KMeansMiniBatch(0, 1);
+    }
+}
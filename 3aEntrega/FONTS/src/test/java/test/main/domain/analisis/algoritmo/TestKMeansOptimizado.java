@@ -0,0 +1,131 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansHamerly;
+import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestKMeansOptimizado {
+
+    //textos cuya distancia de edición normalizada no cumple la desigualdad triangular
+    private static final String[] textos = {"ab", "aba", "ba", "bab", "abab", "b"};
+
+    //respuestas en lado·lado grupos separados en dos preguntas numéricas
+    private static ArrayList<RespuestaEncuesta> respuestas(int n, int lado, boolean conTexto) {
+        Random rnd = new Random(31);
+        int ancho = 1000 / lado;
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(lado) * ancho + rnd.nextInt(ancho / 3), 1000, 0));
+            r.addRespuesta(2, new TDatosInteger(rnd.nextInt(lado) * ancho + rnd.nextInt(ancho / 3), 1000, 0));
+            if (conTexto) r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //dos preguntas ordenadas de 8 opciones en las que un tercio de las respuestas elige varias; mezclan la
+    //distancia ordinal de las opciones únicas con la de Jaccard, que juntas no cumplen la desigualdad triangular
+    private static ArrayList<RespuestaEncuesta> respuestasOpcionesMixtas(int n, long semilla) {
+        Random rnd = new Random(semilla);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            for (int p = 1; p <= 2; ++p) {
+                ArrayList<Integer> opciones = new ArrayList<>(List.of(rnd.nextInt(8)));
+                if (rnd.nextInt(3) == 0) opciones.add((opciones.get(0) + 1 + rnd.nextInt(7)) % 8);
+                r.addRespuesta(p, new TDatosOpciones(opciones, true, 8));
+            }
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //testea que da los mismos clusters que KMeans, con y sin matriz compilada y con y sin preguntas de texto
+    @Test
+    public void testIgualQueKMeans() {
+        for (boolean conTexto : new boolean[]{false, true}) {
+            for (boolean compilada : new boolean[]{false, true}) {
+                ArrayList<RespuestaEncuesta> rs = respuestas(compilada ? 2000 : 300, 3, conTexto);
+                Comparador comp = new Comparador();
+                if (compilada) comp.compilar(rs);
+                for (int k : new int[]{1, 4, 12}) {
+                    ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(k).generaIniciales(rs, k, comp);
+                    assertEquals(new KMeans().analizar(new ArrayList<>(iniciales), rs, k, comp),
+                            new KMeansOptimizado().analizar(new ArrayList<>(iniciales), rs, k, comp));
+                }
+            }
+        }
+    }
+
+    //testea que con muchos clusters las k cotas inferiores por respuesta ahorran más distancias que la única cota
+    //de KMeansHamerly, y muchas menos que las n·k por iteración de KMeans
+    @Test
+    public void testAhorraDistanciasConKGrande() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2000, 5, false);
+        int k = 25;
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(5).generaIniciales(rs, k, comp);
+        KMeansOptimizado elkan = new KMeansOptimizado();
+        KMeansHamerly hamerly = new KMeansHamerly();
+        elkan.analizar(new ArrayList<>(iniciales), rs, k, comp);
+        hamerly.analizar(new ArrayList<>(iniciales), rs, k, comp);
+
+        assertTrue(elkan.getNumIteraciones() > 1);
+        long sinCotas = (long) rs.size() * k * elkan.getNumIteraciones();
+        assertTrue(elkan.getNumDistancias() + " de " + sinCotas, elkan.getNumDistancias() < sinCotas / 4);
+        assertTrue(elkan.getNumDistancias() + " y " + hamerly.getNumDistancias(),
+                elkan.getNumDistancias() < hamerly.getNumDistancias());
+    }
+
+    //testea que con preguntas de texto las cotas no descartan ningún centroide, tampoco en la primera asignación
+    @Test
+    public void testSinCotasConTexto() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(500, 3, true);
+        int k = 6;
+        Comparador comp = new Comparador();
+        KMeansOptimizado algoritmo = new KMeansOptimizado();
+        algoritmo.analizar(new InicializadorRandom(5).generaIniciales(rs, k, comp), rs, k, comp);
+        assertTrue(algoritmo.getNumDistancias() >= (long) rs.size() * k * algoritmo.getNumIteraciones());
+    }
+
+    //testea que con opciones ordenadas únicas y múltiples mezcladas las cotas no cambian los clusters
+    @Test
+    public void testIgualQueKMeansConOpcionesMixtas() {
+        int k = 5;
+        for (long semilla = 0; semilla < 30; ++semilla) {
+            ArrayList<RespuestaEncuesta> rs = respuestasOpcionesMixtas(60, semilla);
+            Comparador comp = new Comparador();
+            ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(semilla).generaIniciales(rs, k, comp);
+            assertEquals(new KMeans().analizar(new ArrayList<>(iniciales), rs, k, comp),
+                    new KMeansOptimizado().analizar(new ArrayList<>(iniciales), rs, k, comp));
+        }
+    }
+
+    @Test(expected = NoHayRespuestasParaAnalizar.class)
+    public void testSinRespuestas() {
+        new KMeansOptimizado().analizar(new ArrayList<>(), new ArrayList<>(), 2, new Comparador());
+    }
+
+    @Test(expected = KMenorQueUno.class)
+    public void testKMenorQueUno() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(10, 3, false);
+        new KMeansOptimizado().analizar(new ArrayList<>(), rs, 0, new Comparador());
+    }
+}
@@ -0,0 +1,75 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansParalelo;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestKMeansParalelo {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(17);
+        String[] textos = {"muy buen servicio", "servicio lento", "", "precio alto", "buena atención", "lento y caro"};
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            ArrayList<Integer> varias = new ArrayList<>();
+            for (int j = rnd.nextInt(3); j > 0; --j) varias.add(rnd.nextInt(6));
+            r.addRespuesta(3, new TDatosOpciones(varias, false, 6));
+            r.addRespuesta(4, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //testea que el resultado es el mismo que el de KMeans secuencial con cualquier número de hilos
+    @Test
+    public void testIgualQueKMeansConCualquierParalelismo() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(1500);
+        int k = 5;
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(7).generaIniciales(rs, k, comp);
+
+        ArrayList<ArrayList<RespuestaEncuesta>> esperado = new KMeans().analizar(new ArrayList<>(iniciales), rs, k, comp);
+        for (int paralelismo : new int[]{1, 2, 4, 7}) {
+            ArrayList<ArrayList<RespuestaEncuesta>> obtenido =
+                    new KMeansParalelo(paralelismo).analizar(new ArrayList<>(iniciales), rs, k, comp);
+            assertEquals(esperado.size(), obtenido.size());
+            for (int c = 0; c < k; ++c) {
+                //mismas respuestas, en el mismo orden
+                assertEquals(esperado.get(c).size(), obtenido.get(c).size());
+                for (int i = 0; i < esperado.get(c).size(); ++i) assertSame(esperado.get(c).get(i), obtenido.get(c).get(i));
+            }
+        }
+    }
+
+    //testea que sin matriz compilada se obtiene el mismo resultado de forma secuencial
+    @Test
+    public void testSinMatrizCompilada() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(100);
+        Comparador comp = new Comparador();
+        ArrayList<RespuestaEncuesta> iniciales = new InicializadorRandom(3).generaIniciales(rs, 3, comp);
+        assertEquals(new KMeans().analizar(new ArrayList<>(iniciales), rs, 3, comp),
+                new KMeansParalelo(4).analizar(new ArrayList<>(iniciales), rs, 3, comp));
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoMenorQueUno() {
+        new KMeansParalelo(0);
+    }
+}
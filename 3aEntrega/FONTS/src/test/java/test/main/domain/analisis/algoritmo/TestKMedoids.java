@@ -0,0 +1,97 @@
+package test.main.domain.analisis.algoritmo;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.primeras;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.coste;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestKMedoids {
+    private static final long SEMILLA = 41;
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        return RespuestasMedoids.respuestas(n, SEMILLA);
+    }
+
+    //testea que el resultado es un óptimo local: ningún intercambio de un medoid por otra respuesta lo mejora
+    @Test
+    public void testOptimoLocal() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(60);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        ArrayList<RespuestaEncuesta> medoids = primeras(rs, 4);
+        double inicial = coste(medoids, rs, comp);
+        KMedoids algoritmo = new KMedoids();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = algoritmo.analizar(medoids, rs, 4, comp);
+
+        double fin = coste(medoids, rs, comp);
+        assertTrue(algoritmo.getNumIntercambios() > 0);
+        assertTrue(fin < inicial);
+        for (int m = 0; m < medoids.size(); ++m) {
+            //cada cluster contiene su medoid
+            assertTrue(clusters.get(m).contains(medoids.get(m)));
+            for (RespuestaEncuesta candidato : rs) {
+                if (medoids.contains(candidato)) continue;
+                ArrayList<RespuestaEncuesta> otros = new ArrayList<>(medoids);
+                otros.set(m, candidato);
+                assertTrue(coste(otros, rs, comp) >= fin - 1e-4);
+            }
+        }
+    }
+
+    //testea que con y sin matriz compilada se obtiene el mismo resultado
+    @Test
+    public void testIgualSinMatrizCompilada() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(80);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        assertEquals(new KMedoids().analizar(primeras(rs, 5), rs, 5, compilado),
+                new KMedoids().analizar(primeras(rs, 5), rs, 5, new Comparador()));
+    }
+
+    //testea el caso de un solo medoid: acaba en la respuesta con menor suma de distancias
+    @Test
+    public void testUnMedoid() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(40);
+        Comparador comp = new Comparador();
+        ArrayList<RespuestaEncuesta> medoids = primeras(rs, 1);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new KMedoids().analizar(medoids, rs, 1, comp);
+        assertEquals(rs.size(), clusters.getFirst().size());
+        double fin = coste(medoids, rs, comp);
+        for (RespuestaEncuesta r : rs) assertTrue(coste(new ArrayList<>(List.of(r)), rs, comp) >= fin - 1e-4);
+    }
+
+    //testea que con varios hilos se hacen exactamente los mismos intercambios que con uno
+    @Test
+    public void testParaleloIgualQueSecuencial() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(150);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        for (Comparador comp : List.of(compilado, new Comparador())) {
+            for (int k : new int[]{1, 3, 6}) {
+                ArrayList<RespuestaEncuesta> secuenciales = primeras(rs, k);
+                KMedoids secuencial = new KMedoids();
+                ArrayList<ArrayList<RespuestaEncuesta>> esperado = secuencial.analizar(secuenciales, rs, k, comp);
+                for (int paralelismo : new int[]{2, 3, 8}) {
+                    ArrayList<RespuestaEncuesta> paralelos = primeras(rs, k);
+                    KMedoids paralelo = new KMedoids(paralelismo);
+                    assertEquals(esperado, paralelo.analizar(paralelos, rs, k, comp));
+                    assertEquals(secuenciales, paralelos);
+                    assertEquals(secuencial.getNumIntercambios(), paralelo.getNumIntercambios());
+                }
+            }
+        }
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoInvalido() {
+        new KMedoids(0);
+    }
+}
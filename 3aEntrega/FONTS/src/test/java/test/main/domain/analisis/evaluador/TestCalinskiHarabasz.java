@@ -27,7 +27,7 @@ public class TestCalinskiHarabasz {
 
     @Before
     public void setup() {
-        when(comp.getDistancia(Mockito.any(RespuestaEncuesta.class), Mockito.any(RespuestaEncuesta.class)))
+        when(comp.distancia(Mockito.any(RespuestaEncuesta.class), Mockito.any(RespuestaEncuesta.class)))
                 .thenAnswer(inv -> {
                     return Math.abs(calcularIndex(inv.getArgument(0)) - calcularIndex(inv.getArgument(1)));
                 });
@@ -69,7 +69,7 @@ public class TestCalinskiHarabasz {
             }
             clusters.add(cluster);
         }
-        Float evaluacion = evaluador.evaluarCalidad(clusters, comp);
+        float evaluacion = evaluador.evaluar(clusters, comp);
         System.out.println("evaluacion: " + evaluacion);
         assertTrue(evaluacion > 200);
     }
@@ -90,7 +90,7 @@ public class TestCalinskiHarabasz {
             clusters.add(cluster);
         }
 
-        Float evaluacion = evaluador.evaluarCalidad(clusters, comp);
+        float evaluacion = evaluador.evaluar(clusters, comp);
         System.out.println("evaluacion: " + evaluacion);
         assertTrue(evaluacion < 100);
     }
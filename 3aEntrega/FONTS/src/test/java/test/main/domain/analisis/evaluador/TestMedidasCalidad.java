@@ -0,0 +1,130 @@
+package test.main.domain.analisis.evaluador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.analisis.evaluador.CalinskiHarabasz;
+import main.domain.analisis.evaluador.DaviesBouldinen;
+import main.domain.analisis.evaluador.MedidasCalidad;
+import main.domain.analisis.evaluador.SilhouetteSimplificada;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestMedidasCalidad {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(29);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            int grupo = rnd.nextInt(4);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(grupo * 200 + rnd.nextInt(301), 1000, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of((grupo + rnd.nextInt(2)) % 5)), true, 5));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //WCSS y dispersiones por el cálculo directo sobre los centros dados
+    private static double wcss(ArrayList<ArrayList<RespuestaEncuesta>> clusters, ArrayList<RespuestaEncuesta> centros, Comparador comp) {
+        double total = 0.0;
+        for (int c = 0; c < clusters.size(); ++c) {
+            for (RespuestaEncuesta r : clusters.get(c)) total += Math.pow(comp.distancia(r, centros.get(c)), 2);
+        }
+        return total;
+    }
+
+    //testea que con los centroides da los mismos valores que los evaluadores por separado, con y sin matriz
+    @Test
+    public void testIgualQueEvaluadores() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(400);
+        for (boolean compilada : new boolean[]{false, true}) {
+            Comparador comp = new Comparador();
+            if (compilada) comp.compilar(rs);
+            int k = 5;
+            ArrayList<ArrayList<RespuestaEncuesta>> clusters = new KMeansOptimizado().analizar(
+                    new InicializadorRandom(4).generaIniciales(rs, k, comp), rs, k, comp);
+            clusters.add(new ArrayList<>());
+
+            MedidasCalidad medidas = MedidasCalidad.calcular(clusters, null, comp, null);
+            float ch = new CalinskiHarabasz().evaluar(new ArrayList<>(clusters), comp);
+            float db = new DaviesBouldinen().evaluar(new ArrayList<>(clusters), comp);
+            assertEquals(ch, medidas.getCalinskiHarabasz(), ch * 1e-4f);
+            assertEquals(db, medidas.getDaviesBouldin(), db * 1e-4f);
+            assertEquals(new SilhouetteSimplificada().evaluar(clusters, comp), medidas.getSilhouetteSimplificada(), 1e-5f);
+
+            ArrayList<RespuestaEncuesta> centroides = new ArrayList<>();
+            for (ArrayList<RespuestaEncuesta> cluster : clusters) centroides.add(cluster.isEmpty() ? null : comp.calcularNuevoCentroide(cluster));
+            double w = wcss(clusters, centroides, comp);
+            assertEquals(w, medidas.getWCSS(), w * 1e-5);
+            assertEquals(k + 1, medidas.getDispersiones().length);
+            assertEquals(0.f, medidas.getDispersiones()[k], 0.f);
+            assertTrue(medidas.getBCSS() > 0.0);
+        }
+    }
+
+    //testea que con los centros y distancias de K-Means da lo mismo que recalculándolos
+    @Test
+    public void testCentrosKMeans() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(500);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 4;
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(new InicializadorRandom(5).generaIniciales(rs, k, comp), rs, k, comp);
+        assertNotNull(kmeans.getCentros());
+        assertNotNull(kmeans.getDistanciasAsignacion());
+
+        MedidasCalidad reutilizadas = MedidasCalidad.calcular(clusters, kmeans.getCentros(), comp, kmeans.getDistanciasAsignacion());
+        MedidasCalidad calculadas = MedidasCalidad.calcular(clusters, null, comp, null);
+        assertEquals(calculadas.getWCSS(), reutilizadas.getWCSS(), calculadas.getWCSS() * 1e-5);
+        assertEquals(calculadas.getBCSS(), reutilizadas.getBCSS(), calculadas.getBCSS() * 1e-5);
+        assertEquals(calculadas.getCalinskiHarabasz(), reutilizadas.getCalinskiHarabasz(), calculadas.getCalinskiHarabasz() * 1e-4f);
+        assertEquals(calculadas.getDaviesBouldin(), reutilizadas.getDaviesBouldin(), calculadas.getDaviesBouldin() * 1e-4f);
+        assertEquals(calculadas.getSilhouetteSimplificada(), reutilizadas.getSilhouetteSimplificada(), 1e-5f);
+        assertArrayEquals(calculadas.getDispersiones(), reutilizadas.getDispersiones(), 1e-5f);
+    }
+
+    //testea que con los medoids de K-Medoids las medidas se refieren a ellos
+    @Test
+    public void testCentrosKMedoids() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 4;
+        KMedoids kmedoids = new KMedoids(1);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmedoids.analizar(new InicializadorRandom(5).generaIniciales(rs, k, comp), rs, k, comp);
+        ArrayList<RespuestaEncuesta> medoids = kmedoids.getCentros();
+
+        MedidasCalidad medidas = MedidasCalidad.calcular(clusters, medoids, comp, kmedoids.getDistanciasAsignacion());
+        double w = wcss(clusters, medoids, comp);
+        assertEquals(w, medidas.getWCSS(), w * 1e-5);
+        assertEquals(new SilhouetteSimplificada().evaluar(clusters, medoids, comp), medidas.getSilhouetteSimplificada(), 1e-5f);
+        assertEquals(medidas.getWCSS(), MedidasCalidad.calcular(clusters, medoids, comp, null).getWCSS(), w * 1e-5);
+    }
+
+    //testea que sin respuestas o con un solo cluster los índices que necesitan dos clusters son 0
+    @Test
+    public void testCasosLimite() {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        clusters.add(new ArrayList<>(respuestas(10)));
+        MedidasCalidad medidas = MedidasCalidad.calcular(clusters, null, new Comparador(), null);
+        assertEquals(0.f, medidas.getCalinskiHarabasz(), 0.f);
+        assertEquals(0.f, medidas.getDaviesBouldin(), 0.f);
+        assertEquals(0.0, medidas.getBCSS(), 1e-9);
+
+        clusters.clear();
+        clusters.add(new ArrayList<>());
+        assertTrue(Float.isNaN(MedidasCalidad.calcular(clusters, null, new Comparador(), null).getSilhouetteSimplificada()));
+    }
+}
@@ -26,7 +26,7 @@ public class TestSilhouette {
 
     @Before
     public void setup() {
-        when(comp.getDistancia(Mockito.any(RespuestaEncuesta.class), Mockito.any(RespuestaEncuesta.class)))
+        when(comp.distancia(Mockito.any(RespuestaEncuesta.class), Mockito.any(RespuestaEncuesta.class)))
                 .thenAnswer(inv -> {
                     return Math.abs(calcularIndex(inv.getArgument(0)) - calcularIndex(inv.getArgument(1)));
                 });
@@ -66,7 +66,7 @@ public class TestSilhouette {
             clusters.add(cluster);
         }
 
-        Float evaluacion = evaluador.evaluarCalidad(clusters, comp);
+        float evaluacion = evaluador.evaluar(clusters, comp);
         System.out.println("evaluacion: " + evaluacion);
         assertTrue(evaluacion >= 0.7f);
     }
@@ -87,7 +87,7 @@ public class TestSilhouette {
             clusters.add(cluster);
         }
 
-        Float evaluacion = evaluador.evaluarCalidad(clusters, comp);
+        float evaluacion = evaluador.evaluar(clusters, comp);
         System.out.println("evaluacion: " + evaluacion);
         assertTrue(evaluacion <= 0.5f);
     }
@@ -0,0 +1,108 @@
+package test.main.domain.analisis.evaluador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.evaluador.Silhouette;
+import main.domain.analisis.evaluador.SilhouetteMuestreado;
+import main.domain.exceptions.MuestraMenorQueUno;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestSilhouetteMuestreado {
+
+    //grupos solapados por la primera pregunta, con ruido en las demás
+    private static ArrayList<ArrayList<RespuestaEncuesta>> clusters(int numClusters, int porCluster) {
+        Random rnd = new Random(19);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        for (int c = 0; c < numClusters; ++c) {
+            ArrayList<RespuestaEncuesta> cluster = new ArrayList<>();
+            //tamaños distintos, para que el muestreo por estratos importe
+            for (int i = 0; i < porCluster * (c + 1); ++i) {
+                RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + c + "_" + i);
+                r.addRespuesta(1, new TDatosInteger(c * 20 + rnd.nextInt(40), 100, 0));
+                r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(4))), true, 4));
+                cluster.add(r);
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+
+    private static ArrayList<RespuestaEncuesta> todas(ArrayList<ArrayList<RespuestaEncuesta>> clusters) {
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (ArrayList<RespuestaEncuesta> cluster : clusters) rs.addAll(cluster);
+        return rs;
+    }
+
+    //testea que con muestras que cubren todos los puntos y miembros da el valor exacto y un intervalo de ancho 0
+    @Test
+    public void testMuestraCompleta() {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(3, 20);
+        clusters.add(new ArrayList<>());
+        clusters.add(new ArrayList<>(List.of(clusters.get(0).remove(0))));
+        Comparador comp = new Comparador();
+        float exacto = new Silhouette(1).evaluar(clusters, comp);
+
+        SilhouetteMuestreado muestreado = new SilhouetteMuestreado(1000, 1000, 0, 3);
+        assertEquals(exacto, muestreado.evaluar(clusters, comp), 1e-5f);
+        float[] intervalo = muestreado.getIntervaloConfianza();
+        assertEquals(intervalo[0], intervalo[1], 1e-5f);
+        assertEquals(todas(clusters).size() - 1, muestreado.getNumPuntos());
+    }
+
+    //testea que la estimación con muestras pequeñas es cercana y su intervalo contiene el valor exacto
+    @Test
+    public void testIntervaloContieneExacto() {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(4, 150);
+        for (boolean compilada : new boolean[]{false, true}) {
+            Comparador comp = new Comparador();
+            if (compilada) comp.compilar(todas(clusters));
+            float exacto = new Silhouette(1).evaluar(clusters, comp);
+            SilhouetteMuestreado muestreado = new SilhouetteMuestreado(200, 50, 0, 7);
+            float estimado = muestreado.evaluar(clusters, comp);
+            float[] intervalo = muestreado.getIntervaloConfianza();
+            assertTrue(intervalo[0] < estimado && estimado < intervalo[1]);
+            assertTrue(exacto + " fuera de [" + intervalo[0] + ", " + intervalo[1] + "]", intervalo[0] <= exacto && exacto <= intervalo[1]);
+            assertEquals(exacto, estimado, 0.05f);
+            assertTrue(Math.abs(muestreado.getNumPuntos() - 200) <= 4);
+        }
+    }
+
+    //testea que con la misma semilla se obtiene la misma estimación
+    @Test
+    public void testSemilla() {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(3, 100);
+        Comparador comp = new Comparador();
+        assertEquals(new SilhouetteMuestreado(100, 30, 0, 5).evaluar(clusters, comp),
+                new SilhouetteMuestreado(100, 30, 0, 5).evaluar(clusters, comp), 0.0f);
+    }
+
+    //testea que al superar el límite de tiempo se para, pero con al menos dos puntos por cluster
+    @Test
+    public void testLimiteTiempo() {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(3, 400);
+        SilhouetteMuestreado muestreado = new SilhouetteMuestreado(100000, 100000, 1, 11);
+        float estimado = muestreado.evaluar(clusters, new Comparador());
+        assertTrue(muestreado.getNumPuntos() >= 6);
+        assertTrue(muestreado.getNumPuntos() < todas(clusters).size());
+        assertTrue(estimado >= -1.f && estimado <= 1.f);
+        assertFalse(Float.isNaN(muestreado.getIntervaloConfianza()[0]));
+    }
+
+    @Test(expected = MuestraMenorQueUno.class)
+    public void testMuestraInvalida() {
+        new SilhouetteMuestreado(0, 10, 0);
+    }
+
+    @Test(expected = MuestraMenorQueUno.class)
+    public void testLimiteNegativo() {
+        new SilhouetteMuestreado(10, 10, -1);
+    }
+}
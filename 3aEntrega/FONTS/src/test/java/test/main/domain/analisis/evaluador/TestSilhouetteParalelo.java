@@ -0,0 +1,112 @@
+package test.main.domain.analisis.evaluador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.evaluador.Silhouette;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestSilhouetteParalelo {
+
+    private static final String[] TEXTOS = {"me gusta mucho", "no lo se", "bastante bien", "regular"};
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(13);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(4))), true, 4));
+            r.addRespuesta(3, new TDatosString(TEXTOS[rnd.nextInt(TEXTOS.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //reparte por la primera pregunta, con un cluster vacío y uno de un solo elemento
+    private static ArrayList<ArrayList<RespuestaEncuesta>> clusters(ArrayList<RespuestaEncuesta> rs) {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        for (int c = 0; c < 5; ++c) clusters.add(new ArrayList<>());
+        clusters.get(4).add(rs.get(0));
+        for (int i = 1; i < rs.size(); ++i) {
+            int valor = ((TDatosInteger) rs.get(i).getDatosRespuesta().get(1)).getNum();
+            clusters.get(valor < 30 ? 0 : valor < 60 ? 1 : 3).add(rs.get(i));
+        }
+        return clusters;
+    }
+
+    //cálculo directo punto a punto: a(i) y b(i) con las distancias en el orden de los miembros
+    private static float referencia(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
+        int n = 0;
+        float sumaTotal = 0.f;
+        for (int i = 0; i < clusters.size(); ++i) {
+            ArrayList<RespuestaEncuesta> cluster = clusters.get(i);
+            if (cluster.size() > 1) {
+                for (int j = 0; j < cluster.size(); ++j) {
+                    float sumaCluster = 0.f;
+                    for (int l = 0; l < cluster.size(); ++l) {
+                        if (l != j) sumaCluster += comp.distancia(cluster.get(j), cluster.get(l));
+                    }
+                    float a = sumaCluster / (cluster.size() - 1);
+                    float b = Float.MAX_VALUE;
+                    for (int o = 0; o < clusters.size(); ++o) {
+                        if (o == i || clusters.get(o).isEmpty()) continue;
+                        float suma = 0.f;
+                        for (RespuestaEncuesta r : clusters.get(o)) suma += comp.distancia(cluster.get(j), r);
+                        b = Math.min(b, suma / clusters.get(o).size());
+                    }
+                    sumaTotal += (b - a) / Math.max(a, b);
+                }
+            }
+            n += cluster.size();
+        }
+        return sumaTotal / n;
+    }
+
+    //testea que da exactamente el valor del cálculo directo con cualquier número de hilos, con y sin matriz
+    @Test
+    public void testIgualQueCalculoDirecto() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(rs);
+        float esperado = referencia(clusters, new Comparador());
+        for (boolean compilada : new boolean[]{false, true}) {
+            Comparador comp = new Comparador();
+            if (compilada) comp.compilar(rs);
+            for (int paralelismo : new int[]{1, 2, 3}) {
+                assertEquals(esperado, new Silhouette(paralelismo).evaluar(clusters, comp), 0.0f);
+            }
+        }
+    }
+
+    //testea que con clusters que no son de la matriz compilada se calcula sin ella
+    @Test
+    public void testClustersFueraDeLaMatriz() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(150);
+        Comparador comp = new Comparador();
+        comp.compilar(respuestas(10));
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = clusters(rs);
+        assertEquals(referencia(clusters, comp), new Silhouette(2).evaluar(clusters, comp), 0.0f);
+    }
+
+    //testea que con un solo cluster de un elemento el coeficiente es 0
+    @Test
+    public void testUnElemento() {
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        clusters.add(new ArrayList<>(respuestas(1)));
+        assertEquals(0.f, new Silhouette(2).evaluar(clusters, new Comparador()), 0.0f);
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoInvalido() {
+        new Silhouette(0);
+    }
+}
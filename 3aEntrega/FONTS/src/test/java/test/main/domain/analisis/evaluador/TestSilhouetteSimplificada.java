@@ -0,0 +1,128 @@
+package test.main.domain.analisis.evaluador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.algoritmo.DistanciasAsignacion;
+import main.domain.analisis.algoritmo.KMeans;
+import main.domain.analisis.algoritmo.KMeansOptimizado;
+import main.domain.analisis.algoritmo.KMedoids;
+import main.domain.analisis.evaluador.SilhouetteSimplificada;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestSilhouetteSimplificada {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(23);
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            int grupo = rnd.nextInt(4);
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(grupo * 200 + rnd.nextInt(301), 1000, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of((grupo + rnd.nextInt(2)) % 5)), true, 5));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //cálculo directo: distancias de cada punto a todos los centros dados
+    private static float referencia(ArrayList<ArrayList<RespuestaEncuesta>> clusters, ArrayList<RespuestaEncuesta> centros, Comparador comp) {
+        int n = 0;
+        double suma = 0.0;
+        for (int c = 0; c < clusters.size(); ++c) {
+            n += clusters.get(c).size();
+            if (clusters.get(c).size() <= 1) continue;
+            for (RespuestaEncuesta r : clusters.get(c)) {
+                float a = comp.distancia(r, centros.get(c));
+                float b = Float.MAX_VALUE;
+                for (int o = 0; o < clusters.size(); ++o) {
+                    if (o != c && !clusters.get(o).isEmpty()) b = Math.min(b, comp.distancia(r, centros.get(o)));
+                }
+                suma += (b - a) / Math.max(a, b);
+            }
+        }
+        return (float) (suma / n);
+    }
+
+    private static ArrayList<RespuestaEncuesta> centroides(ArrayList<ArrayList<RespuestaEncuesta>> clusters, Comparador comp) {
+        ArrayList<RespuestaEncuesta> centros = new ArrayList<>();
+        for (ArrayList<RespuestaEncuesta> cluster : clusters) centros.add(comp.calcularNuevoCentroide(cluster));
+        return centros;
+    }
+
+    //testea que con las distancias de K-Means da lo mismo que calculándolas sobre los centroides
+    @Test
+    public void testDistanciasKMeans() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(500);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 4;
+        KMeans kmeans = new KMeans();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(new InicializadorRandom(5).generaIniciales(rs, k, comp), rs, k, comp);
+        DistanciasAsignacion distancias = kmeans.getDistanciasAsignacion();
+        assertNotNull(distancias);
+        assertEquals(rs.size(), distancias.getNumRespuestas());
+
+        SilhouetteSimplificada evaluador = new SilhouetteSimplificada();
+        float calculado = evaluador.evaluar(clusters, comp);
+        assertEquals(referencia(clusters, centroides(clusters, comp), comp), calculado, 1e-5f);
+        assertEquals(calculado, evaluador.evaluar(clusters, comp, distancias), 1e-5f);
+    }
+
+    //testea que con las distancias de K-Medoids da lo mismo que calculándolas sobre los medoids
+    @Test
+    public void testDistanciasKMedoids() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        int k = 4;
+        ArrayList<RespuestaEncuesta> medoids = new InicializadorRandom(5).generaIniciales(rs, k, comp);
+        KMedoids kmedoids = new KMedoids(1);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmedoids.analizar(medoids, rs, k, comp);
+        DistanciasAsignacion distancias = kmedoids.getDistanciasAsignacion();
+        assertNotNull(distancias);
+
+        SilhouetteSimplificada evaluador = new SilhouetteSimplificada();
+        float esperado = evaluador.evaluar(clusters, medoids, comp);
+        assertEquals(referencia(clusters, medoids, comp), esperado, 1e-5f);
+        assertEquals(esperado, evaluador.evaluar(clusters, comp, distancias), 1e-5f);
+    }
+
+    //testea que sin distancias, o sin matriz, se calcula sobre los centroides
+    @Test
+    public void testSinDistancias() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(200);
+        Comparador comp = new Comparador();
+        int k = 3;
+        KMeansOptimizado kmeans = new KMeansOptimizado();
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = kmeans.analizar(new InicializadorRandom(2).generaIniciales(rs, k, comp), rs, k, comp);
+        //las variantes con cotas no guardan las distancias exactas
+        assertNull(kmeans.getDistanciasAsignacion());
+
+        SilhouetteSimplificada evaluador = new SilhouetteSimplificada();
+        float esperado = referencia(clusters, centroides(clusters, comp), comp);
+        assertEquals(esperado, evaluador.evaluar(clusters, comp, null), 1e-5f);
+        //distancias de otro análisis, sin matriz con la que comprobar las posiciones
+        DistanciasAsignacion otras = new DistanciasAsignacion(new float[rs.size()], new float[rs.size()]);
+        assertEquals(esperado, evaluador.evaluar(clusters, comp, otras), 1e-5f);
+    }
+
+    //testea que los clusters de un elemento aportan 0 y los vacíos se ignoran
+    @Test
+    public void testUnElementoYVacios() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(2);
+        ArrayList<ArrayList<RespuestaEncuesta>> clusters = new ArrayList<>();
+        clusters.add(new ArrayList<>(List.of(rs.get(0))));
+        clusters.add(new ArrayList<>());
+        clusters.add(new ArrayList<>(List.of(rs.get(1))));
+        assertEquals(0.f, new SilhouetteSimplificada().evaluar(clusters, new Comparador()), 0.0f);
+    }
+}
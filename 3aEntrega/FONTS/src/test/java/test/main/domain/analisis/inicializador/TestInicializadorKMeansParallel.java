@@ -0,0 +1,102 @@
+package test.main.domain.analisis.inicializador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.inicializador.InicializadorKMeansParallel;
+import main.domain.analisis.inicializador.InicializadorRandom;
+import main.domain.exceptions.KMenorQueUno;
+import main.domain.exceptions.NoHayRespuestasParaAnalizar;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class TestInicializadorKMeansParallel {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(59);
+        String[] textos = {"muy buen servicio", "servicio lento", "", "precio alto", "buena atención"};
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //suma de las distancias cuadradas de cada respuesta a su centroide más cercano
+    private static double coste(ArrayList<RespuestaEncuesta> centroides, ArrayList<RespuestaEncuesta> rs, Comparador comp) {
+        double coste = 0.0;
+        for (RespuestaEncuesta r : rs) {
+            float minima = Float.MAX_VALUE;
+            for (RespuestaEncuesta c : centroides) minima = Math.min(minima, comp.distancia(r, c));
+            coste += minima * minima;
+        }
+        return coste;
+    }
+
+    //testea que con la misma semilla se obtienen los mismos centroides con cualquier paralelismo y sin matriz
+    @Test
+    public void testDeterminista() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(1500);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        ArrayList<RespuestaEncuesta> esperados = new InicializadorKMeansParallel(7, 1).generaIniciales(rs, 12, compilado);
+        assertEquals(esperados, new InicializadorKMeansParallel(7, 3).generaIniciales(rs, 12, compilado));
+        assertEquals(esperados, new InicializadorKMeansParallel(7, 2).generaIniciales(rs, 12, new Comparador()));
+    }
+
+    //testea que devuelve k respuestas distintas, también si hay menos respuestas distintas que candidatos
+    @Test
+    public void testCentroidesDistintos() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(400);
+        ArrayList<RespuestaEncuesta> centroides = new InicializadorKMeansParallel(1, 2).generaIniciales(rs, 20, new Comparador());
+        assertEquals(20, centroides.size());
+        assertEquals(20, new HashSet<>(centroides).size());
+
+        ArrayList<RespuestaEncuesta> pocas = respuestas(6);
+        centroides = new InicializadorKMeansParallel(1, 2).generaIniciales(pocas, 6, new Comparador());
+        assertEquals(new HashSet<>(pocas), new HashSet<>(centroides));
+    }
+
+    //testea que en media los centroides están mejor repartidos que los escogidos al azar
+    @Test
+    public void testMejorQueAleatorio() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(800);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        double paralelo = 0.0;
+        double aleatorio = 0.0;
+        for (long semilla = 0; semilla < 5; ++semilla) {
+            paralelo += coste(new InicializadorKMeansParallel(semilla, 2).generaIniciales(rs, 10, comp), rs, comp);
+            aleatorio += coste(new InicializadorRandom(semilla).generaIniciales(rs, 10, comp), rs, comp);
+        }
+        assertTrue(paralelo < aleatorio);
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoInvalido() {
+        new InicializadorKMeansParallel(1, 0);
+    }
+
+    @Test(expected = KMenorQueUno.class)
+    public void testKInvalida() {
+        new InicializadorKMeansParallel(1).generaIniciales(respuestas(10), 0, new Comparador());
+    }
+
+    @Test(expected = NoHayRespuestasParaAnalizar.class)
+    public void testSinRespuestas() {
+        new InicializadorKMeansParallel(1).generaIniciales(new ArrayList<>(), 3, new Comparador());
+    }
+}
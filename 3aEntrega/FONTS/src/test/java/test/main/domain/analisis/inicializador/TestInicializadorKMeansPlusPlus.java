@@ -0,0 +1,95 @@
+package test.main.domain.analisis.inicializador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.inicializador.InicializadorKMeansPlusPlus;
+import main.domain.types.TDatosInteger;
+import main.domain.types.TDatosOpciones;
+import main.domain.types.TDatosString;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class TestInicializadorKMeansPlusPlus {
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        Random rnd = new Random(53);
+        String[] textos = {"muy buen servicio", "servicio lento", "", "precio alto", "buena atención"};
+        ArrayList<RespuestaEncuesta> rs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            RespuestaEncuesta r = new RespuestaEncuesta("encuesta", "creador", "email" + i);
+            r.addRespuesta(1, new TDatosInteger(rnd.nextInt(101), 100, 0));
+            r.addRespuesta(2, new TDatosOpciones(new ArrayList<>(List.of(rnd.nextInt(5))), true, 5));
+            r.addRespuesta(3, new TDatosString(textos[rnd.nextInt(textos.length)]));
+            rs.add(r);
+        }
+        return rs;
+    }
+
+    //K-Means++ recalculando en cada ronda la distancia a todos los centroides escogidos
+    private static ArrayList<RespuestaEncuesta> referencia(ArrayList<RespuestaEncuesta> rs, int k, Comparador comp, long semilla) {
+        Random rand = new Random(semilla);
+        ArrayList<RespuestaEncuesta> centroides = new ArrayList<>();
+        centroides.add(rs.get(rand.nextInt(rs.size())));
+        while (centroides.size() < k) {
+            float[] cuadradas = new float[rs.size()];
+            float total = 0;
+            for (int i = 0; i < rs.size(); ++i) {
+                float minima = comp.distancia(rs.get(i), centroides.getFirst());
+                for (int j = 1; j < centroides.size(); ++j) minima = Math.min(minima, comp.distancia(rs.get(i), centroides.get(j)));
+                cuadradas[i] = minima * minima;
+                total += cuadradas[i];
+            }
+            float umbral = (total == 0) ? 0 : rand.nextFloat(total);
+            float acumulado = 0;
+            RespuestaEncuesta siguiente = rs.getLast();
+            for (int i = 0; i < rs.size(); ++i) {
+                acumulado += cuadradas[i];
+                if (acumulado >= umbral) {
+                    siguiente = rs.get(i);
+                    break;
+                }
+            }
+            centroides.add(siguiente);
+        }
+        return centroides;
+    }
+
+    //testea que mantener la distancia mínima de cada respuesta da los mismos centroides que recalcularla
+    @Test
+    public void testIgualQueRecalculando() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(300);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        for (long semilla = 0; semilla < 5; ++semilla) {
+            ArrayList<RespuestaEncuesta> esperados = referencia(rs, 8, new Comparador(), semilla);
+            assertEquals(esperados, new InicializadorKMeansPlusPlus(semilla).generaIniciales(rs, 8, new Comparador()));
+            assertEquals(esperados, new InicializadorKMeansPlusPlus(semilla).generaIniciales(rs, 8, compilado));
+        }
+    }
+
+    //testea que los centroides son respuestas distintas
+    @Test
+    public void testCentroidesDistintos() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(100);
+        ArrayList<RespuestaEncuesta> centroides = new InicializadorKMeansPlusPlus(3).generaIniciales(rs, 10, new Comparador());
+        assertEquals(10, centroides.size());
+        assertEquals(10, new HashSet<>(centroides).size());
+    }
+
+    //testea que conSemilla da un inicializador independiente con esa semilla
+    @Test
+    public void testConSemilla() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(100);
+        Comparador comp = new Comparador();
+        InicializadorKMeansPlusPlus original = new InicializadorKMeansPlusPlus(1);
+        InicializadorKMeansPlusPlus copia = original.conSemilla(9);
+        assertNotSame(original, copia);
+        assertEquals(new InicializadorKMeansPlusPlus(9).generaIniciales(rs, 5, comp), copia.generaIniciales(rs, 5, comp));
+    }
+}
@@ -0,0 +1,86 @@
+package test.main.domain.analisis.inicializador;
+
+import main.domain.RespuestaEncuesta;
+import main.domain.analisis.Comparador;
+import main.domain.analisis.inicializador.InicializadorKMedoidsAleatorio;
+import main.domain.analisis.inicializador.InicializadorKMedoidsGreedy;
+import main.domain.exceptions.ParalelismoMenorQueUno;
+
+import test.main.domain.analisis.algoritmo.RespuestasMedoids;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static test.main.domain.analisis.algoritmo.RespuestasMedoids.coste;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+public class TestInicializadorKMedoidsGreedy {
+    private static final long SEMILLA = 61;
+
+    private static ArrayList<RespuestaEncuesta> respuestas(int n) {
+        return RespuestasMedoids.respuestas(n, SEMILLA);
+    }
+
+    //greedy anterior: para cada candidato recalcula la distancia de cada respuesta a todos los medoids
+    private static ArrayList<RespuestaEncuesta> referencia(ArrayList<RespuestaEncuesta> rs, int k, Comparador comp, long semilla) {
+        ArrayList<RespuestaEncuesta> medoids = new ArrayList<>();
+        medoids.add(rs.get(new Random(semilla).nextInt(rs.size())));
+        while (medoids.size() < k) {
+            RespuestaEncuesta mejorCandidato = null;
+            float mejorSumaDistancias = Float.POSITIVE_INFINITY;
+            for (RespuestaEncuesta candidato : rs) {
+                if (medoids.contains(candidato)) continue;
+                float sumaDistancias = 0;
+                for (RespuestaEncuesta respuesta : rs) {
+                    float distMin = Float.POSITIVE_INFINITY;
+                    for (RespuestaEncuesta medoid : medoids) distMin = Math.min(distMin, comp.distancia(respuesta, medoid));
+                    sumaDistancias += Math.min(distMin, comp.distancia(respuesta, candidato));
+                }
+                if (sumaDistancias < mejorSumaDistancias) {
+                    mejorSumaDistancias = sumaDistancias;
+                    mejorCandidato = candidato;
+                }
+            }
+            medoids.add(mejorCandidato);
+        }
+        return medoids;
+    }
+
+    //testea que el BUILD con caché da los mismos medoids que el greedy anterior, con cualquier paralelismo
+    @Test
+    public void testIgualQueReferencia() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(120);
+        Comparador compilado = new Comparador();
+        compilado.compilar(rs);
+        for (long semilla = 0; semilla < 3; ++semilla) {
+            ArrayList<RespuestaEncuesta> esperados = referencia(rs, 5, new Comparador(), semilla);
+            assertEquals(esperados, new InicializadorKMedoidsGreedy(semilla, 1, false).generaIniciales(rs, 5, new Comparador()));
+            assertEquals(esperados, new InicializadorKMedoidsGreedy(semilla, 3, false).generaIniciales(rs, 5, compilado));
+        }
+    }
+
+    //testea que LAB da k medoids distintos, es determinista y en media mejora a los medoids al azar
+    @Test
+    public void testMuestreado() {
+        ArrayList<RespuestaEncuesta> rs = respuestas(900);
+        Comparador comp = new Comparador();
+        comp.compilar(rs);
+        double lab = 0.0;
+        double aleatorio = 0.0;
+        for (long semilla = 0; semilla < 3; ++semilla) {
+            ArrayList<RespuestaEncuesta> medoids = new InicializadorKMedoidsGreedy(semilla, 2, true).generaIniciales(rs, 8, comp);
+            assertEquals(8, new HashSet<>(medoids).size());
+            assertEquals(medoids, new InicializadorKMedoidsGreedy(semilla, 1, true).generaIniciales(rs, 8, comp));
+            lab += coste(medoids, rs, comp);
+            aleatorio += coste(new InicializadorKMedoidsAleatorio(semilla).generaIniciales(rs, 8, comp), rs, comp);
+        }
+        assertTrue(lab < aleatorio);
+    }
+
+    @Test(expected = ParalelismoMenorQueUno.class)
+    public void testParalelismoInvalido() {
+        new InicializadorKMedoidsGreedy(1, 0, false);
+    }
+}
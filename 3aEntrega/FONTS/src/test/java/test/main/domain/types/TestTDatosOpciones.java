@@ -7,6 +7,9 @@ import main.domain.types.TDatosOpciones;
 import static org.junit.Assert.*;
 import org.junit.Test;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 //no testeo funcionalidades básicas de setters y getters porque su implementación es trivial
 public class TestTDatosOpciones {
@@ -71,11 +74,11 @@ public class TestTDatosOpciones {
     public void testDesigualdadTriangularCualitativaOrdenada() {
         float epsilon = 1e-6f;
         TDatosOpciones a = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(1)), true, 5);
+                new ArrayList<>(List.of(1)), true, 5);
         TDatosOpciones b = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(3)), true, 5);
+                new ArrayList<>(List.of(3)), true, 5);
         TDatosOpciones c = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(5)), true, 5);
+                new ArrayList<>(List.of(5)), true, 5);
 
         float dAB = a.calcularDistancia(b);
         float dBC = b.calcularDistancia(c);
@@ -90,11 +93,11 @@ public class TestTDatosOpciones {
         float epsilon = 1e-6f;
 
         TDatosOpciones a = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(1)), false, 5);
+                new ArrayList<>(List.of(1)), false, 5);
         TDatosOpciones b = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(2)), false, 5);
+                new ArrayList<>(List.of(2)), false, 5);
         TDatosOpciones c = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(3)), false, 5);
+                new ArrayList<>(List.of(3)), false, 5);
 
         float dAB = a.calcularDistancia(b);
         float dBC = b.calcularDistancia(c);
@@ -109,11 +112,11 @@ public class TestTDatosOpciones {
         float epsilon = 1e-6f;
 
         TDatosOpciones a = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(1, 2)), true, 5);
+                new ArrayList<>(List.of(1, 2)), true, 5);
         TDatosOpciones b = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(2, 3)), true, 5);
+                new ArrayList<>(List.of(2, 3)), true, 5);
         TDatosOpciones c = new TDatosOpciones(
-                new ArrayList<>(java.util.List.of(3, 4)), true, 5);
+                new ArrayList<>(List.of(3, 4)), true, 5);
 
         float dAB = a.calcularDistancia(b);
         float dBC = b.calcularDistancia(c);
@@ -245,4 +248,79 @@ public class TestTDatosOpciones {
         assertTrue(aux.isOrden());
         assertEquals(3, aux.getNumOpciones());
     }
+
+    //distancia de referencia con conjuntos, tal como se calculaba antes de usar máscaras y tablas
+    private static float distanciaReferencia(ArrayList<Integer> a, ArrayList<Integer> b, boolean orden, int numOpciones) {
+        if(a.size() == 1 && b.size() == 1) {
+            if(!orden) return a.getFirst().equals(b.getFirst()) ? 0 : 1;
+            float diff = Math.abs(a.getFirst() - b.getFirst());
+            return diff / (numOpciones - 1);
+        }
+        TreeSet<Integer> interseccion = new TreeSet<>(a);
+        interseccion.retainAll(b);
+        TreeSet<Integer> union = new TreeSet<>(a);
+        union.addAll(b);
+        float i = interseccion.size();
+        float u = union.size();
+        return 1 - (i / u);
+    }
+
+    //testea que la distancia con máscaras de bits y tablas es exactamente la misma que con conjuntos,
+    //incluyendo identificadores mayores que 64 y mayores que el número de opciones
+    @Test
+    public void testCalcularDistanciaEquivalenteAConjuntos() {
+        Random rnd = new Random(42);
+        for(int it = 0; it < 5000; ++it) {
+            boolean orden = rnd.nextBoolean();
+            int numOpciones = 2 + rnd.nextInt(90);
+            ArrayList<Integer> a = new ArrayList<>();
+            ArrayList<Integer> b = new ArrayList<>();
+            int na = rnd.nextInt(4);
+            int nb = (na == 0) ? 1 + rnd.nextInt(3) : rnd.nextInt(4);
+            for(int i = 0; i < na; ++i) a.add(rnd.nextInt(numOpciones + 10));
+            for(int i = 0; i < nb; ++i) b.add(rnd.nextInt(numOpciones + 10));
+
+            TDatosOpciones tdo1 = new TDatosOpciones(a, orden, numOpciones);
+            TDatosOpciones tdo2 = new TDatosOpciones(b, orden, numOpciones);
+
+            assertEquals(distanciaReferencia(a, b, orden, numOpciones), tdo1.calcularDistancia(tdo2), 0.0f);
+        }
+    }
+
+    //testea que la máscara se recalcula al cambiar las opciones seleccionadas
+    @Test
+    public void testMascaraSeActualizaConSetIdOpciones() {
+        TDatosOpciones tdo1 = new TDatosOpciones(new ArrayList<>(List.of(1, 2)), false, 100);
+        TDatosOpciones tdo2 = new TDatosOpciones(new ArrayList<>(List.of(1, 2)), false, 100);
+        assertEquals(0.0f, tdo1.calcularDistancia(tdo2), 0.0f);
+
+        tdo2.setIdOpciones(new ArrayList<>(List.of(2, 70)));
+        assertEquals(1.0f - (1.0f / 3.0f), tdo1.calcularDistancia(tdo2), 0.0f);
+    }
+
+    //testea que distancia devuelve DISTANCIA_INDEFINIDA en lugar de lanzar excepciones
+    @Test
+    public void testDistanciaIndefinida() {
+        TDatosOpciones vacio1 = new TDatosOpciones(new ArrayList<>(), false, 3);
+        TDatosOpciones vacio2 = new TDatosOpciones(new ArrayList<>(), false, 3);
+        assertTrue(Float.isNaN(vacio1.distancia(vacio2)));
+
+        TDatosOpciones unaModalidad1 = new TDatosOpciones(new ArrayList<>(List.of(0)), true, 1);
+        TDatosOpciones unaModalidad2 = new TDatosOpciones(new ArrayList<>(List.of(0)), true, 1);
+        assertTrue(Float.isNaN(unaModalidad1.distancia(unaModalidad2)));
+    }
+
+    //testea que con orden las opciones múltiples no cumplen la desigualdad triangular junto a las únicas
+    @Test
+    public void testEsMetrica() {
+        TDatosOpciones x = new TDatosOpciones(new ArrayList<>(List.of(0, 4)), true, 5);
+        TDatosOpciones y = new TDatosOpciones(new ArrayList<>(List.of(0)), true, 5);
+        TDatosOpciones z = new TDatosOpciones(new ArrayList<>(List.of(1)), true, 5);
+        assertTrue(x.distancia(z) > x.distancia(y) + y.distancia(z));
+        assertFalse(x.esMetrica());
+
+        assertTrue(y.esMetrica());
+        assertTrue(new TDatosOpciones(new ArrayList<>(), true, 5).esMetrica());
+        assertTrue(new TDatosOpciones(new ArrayList<>(List.of(0, 4)), false, 5).esMetrica());
+    }
 }
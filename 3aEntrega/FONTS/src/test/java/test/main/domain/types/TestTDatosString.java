@@ -94,4 +94,27 @@ public class TestTDatosString {
 
         assertEquals("test", aux.getTexto());
     }
+
+    //testea que las palabras se normalizan igual con y sin caracteres no ASCII
+    @Test
+    public void testProcesarTexto() {
+        assertArrayEquals(new String[]{"arbol", "arbol", "y", "arbol", "cancion"},
+                TDatosString.procesarTexto("Árbol, ÁRBOL y arbol! Canción"));
+        assertArrayEquals(new String[0], TDatosString.procesarTexto(" 12, ?"));
+    }
+
+    //testea que las palabras empatadas salen en orden alfabético y que se usa el texto tras setTexto
+    @Test
+    public void testGetComponenteCentroideEmpatesYSetTexto() {
+        TDatosString tds1 = new TDatosString("Perro y gato");
+        TDatosString tds2 = new TDatosString("un gato, un perro");
+
+        ArrayList<TDatos> tdss = new ArrayList<>();
+        tdss.add(tds1);
+        tdss.add(tds2);
+        assertEquals("gato perro", ((TDatosString) tds1.getComponenteCentroide(tdss)).getTexto());
+
+        tds2.setTexto("pájaro");
+        assertEquals("gato pajaro perro y", ((TDatosString) tds1.getComponenteCentroide(tdss)).getTexto());
+    }
 }
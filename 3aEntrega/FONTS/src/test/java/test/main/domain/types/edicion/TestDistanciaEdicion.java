@@ -0,0 +1,82 @@
+package test.main.domain.types.edicion;
+
+import main.domain.types.edicion.DistanciaEdicionBitParalela;
+import main.domain.types.edicion.DistanciaEdicionDinamica;
+import main.domain.types.edicion.InterfazDistanciaEdicion;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestDistanciaEdicion {
+
+    private static final InterfazDistanciaEdicion[] MOTORES = {
+            new DistanciaEdicionDinamica(), new DistanciaEdicionBitParalela()
+    };
+
+    //distancia de referencia con la tabla completa de programación dinámica
+    private static int referencia(String a, String b) {
+        int n = a.length();
+        int m = b.length();
+        int[][] e = new int[n + 1][m + 1];
+        for (int i = 0; i <= n; ++i) e[i][0] = i;
+        for (int j = 0; j <= m; ++j) e[0][j] = j;
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= m; ++j) {
+                int delta = (a.charAt(i - 1) != b.charAt(j - 1)) ? 1 : 0;
+                e[i][j] = Math.min(e[i][j - 1] + 1, Math.min(e[i - 1][j] + 1, e[i - 1][j - 1] + delta));
+            }
+        }
+        return e[n][m];
+    }
+
+    private static String aleatorio(Random rnd, String alfabeto, int longitud) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < longitud; ++i) sb.append(alfabeto.charAt(rnd.nextInt(alfabeto.length())));
+        return sb.toString();
+    }
+
+    //testea casos básicos conocidos en todos los motores
+    @Test
+    public void testCasosBasicos() {
+        for (InterfazDistanciaEdicion motor : MOTORES) {
+            assertEquals(2, motor.distancia("test", "taste"));
+            assertEquals(3, motor.distancia("kitten", "sitting"));
+            assertEquals(4, motor.distancia("", "hola"));
+            assertEquals(0, motor.distancia("", ""));
+            assertEquals(1, motor.distancia("canción", "cancion"));
+        }
+    }
+
+    //testea que todos los motores coinciden con la referencia, incluyendo textos de más de 64 caracteres
+    //(procesados por bloques) y caracteres no ASCII
+    @Test
+    public void testEquivalenciaConReferencia() {
+        Random rnd = new Random(3);
+        String alfabeto = "abcdeáéñ ";
+        for (int it = 0; it < 3000; ++it) {
+            String a = aleatorio(rnd, alfabeto, rnd.nextInt(it % 5 == 0 ? 200 : 40));
+            String b = aleatorio(rnd, alfabeto, rnd.nextInt(it % 5 == 0 ? 200 : 40));
+            int esperada = referencia(a, b);
+            for (InterfazDistanciaEdicion motor : MOTORES) {
+                assertEquals(esperada, motor.distancia(a, b));
+            }
+        }
+    }
+
+    //testea que la versión acotada devuelve la distancia exacta si no supera el máximo y máximo + 1 si lo supera
+    @Test
+    public void testDistanciaAcotada() {
+        Random rnd = new Random(5);
+        for (int it = 0; it < 3000; ++it) {
+            String a = aleatorio(rnd, "abc", rnd.nextInt(it % 5 == 0 ? 150 : 30));
+            String b = aleatorio(rnd, "abc", rnd.nextInt(it % 5 == 0 ? 150 : 30));
+            int max = rnd.nextInt(20);
+            int d = referencia(a, b);
+            int esperada = (d <= max) ? d : max + 1;
+            for (InterfazDistanciaEdicion motor : MOTORES) {
+                assertEquals(esperada, motor.distanciaAcotada(a, b, max));
+            }
+        }
+    }
+}